@@ -56,7 +56,9 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class BuildComposablePipeline {
@@ -85,6 +87,28 @@ public class BuildComposablePipeline {
      * <p>Default: false</p>
      */
     public static final int GEN_GL_IDENTITY_BY_ASSIGNABLE_CLASS = 1 << 4;
+    /**
+     * State caching pipeline, eliding calls not changing the state shadowed by {@link com.jogamp.opengl.GLStateCache}.
+     * <p>Default: true</p>.
+     */
+    public static final int GEN_STATE_CACHE = 1 << 5;
+    /**
+     * Call profiling pipeline, counting and optionally timing calls per entry point via {@link com.jogamp.opengl.GLCallProfiler}.
+     * <p>Default: true</p>.
+     */
+    public static final int GEN_PROFILE = 1 << 6;
+    /**
+     * Command recording pipeline, serializing each call w/ it's arguments and client memory
+     * into a binary log via {@link com.jogamp.opengl.GLCommandRecorder}.
+     * <p>Default: true</p>.
+     */
+    public static final int GEN_RECORD = 1 << 7;
+    /**
+     * Deferred pipeline, encoding each call into a {@link com.jogamp.opengl.GLCommandBuffer}
+     * on any thread for later execution on the GL context thread.
+     * <p>Default: true</p>.
+     */
+    public static final int GEN_DEFERRED = 1 << 8;
 
     private static final HashMap<String, String> addedGLHooks = new HashMap<String, String>();
     private static final String[] addedGLHookMethodNames = new String[] {
@@ -158,7 +182,7 @@ public class BuildComposablePipeline {
             outputName = null; // TBD ..
             classPrologOpt = null;
             classDownstream = classToComposeAround;
-            mode = GEN_DEBUG | GEN_TRACE ;
+            mode = GEN_DEBUG | GEN_TRACE | GEN_STATE_CACHE | GEN_PROFILE | GEN_RECORD | GEN_DEFERRED ;
         }
 
         final BuildComposablePipeline composer =
@@ -241,11 +265,39 @@ public class BuildComposablePipeline {
         if (0 != (mode & GEN_TRACE)) {
             (new TracePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
+        if (0 != (mode & GEN_STATE_CACHE)) {
+            (new StateCachePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_PROFILE)) {
+            (new ProfilePipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_RECORD)) {
+            (new RecordPipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
+        if (0 != (mode & GEN_DEFERRED)) {
+            (new DeferredPipeline(outputDir, outputPackage, classToComposeAround, classDownstream)).emit(publicMethodsPlainSorted.iterator());
+        }
         if (0 != (mode & GEN_CUSTOM)) {
             (new CustomPipeline(mode, outputDir, outputPackage, outputName, classToComposeAround, classPrologOpt, classDownstream)).emit(publicMethodsPlainSorted.iterator());
         }
     }
 
+    /**
+     * Returns true if the method takes a {@link com.jogamp.opengl.GLArrayData} or {@link com.jogamp.opengl.GLUniformData}.
+     * The recording and deferred pipelines expand such convenience calls into the plain GL calls
+     * issued by the GL implementation via {@link com.jogamp.opengl.GLCommandRecorder}.
+     */
+    static boolean isExpanded(final Method m) {
+        final Class<?>[] params = m.getParameterTypes();
+        for (int i = 0; i < params.length; i++) {
+            final String name = params[i].getName();
+            if (name.equals("com.jogamp.opengl.GLArrayData") || name.equals("com.jogamp.opengl.GLUniformData")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static String getPackageName(final String clazzName) {
         final int lastDot = clazzName.lastIndexOf('.');
         if (lastDot == -1) {
@@ -1179,6 +1231,848 @@ public class BuildComposablePipeline {
         }
     } // end class TracePipeline
 
+    //-------------------------------------------------------
+    protected class StateCachePipeline extends PipelineEmitter {
+
+        String className;
+
+        /**
+         * Methods shadowed by {@link com.jogamp.opengl.GLStateCache} w/ their primitive argument signature,
+         * see {@link #getPrimitiveSignature(Method)}.
+         * The call is only forwarded downstream if the GLStateCache method of the same name returns true.
+         */
+        private final String[][] elidable = new String[][] {
+            { "glActiveTexture", "I" },
+            { "glBindBuffer", "II" },
+            { "glBindTexture", "II" },
+            { "glUseProgram", "I" },
+            { "glBindVertexArray", "I" },
+            { "glBindFramebuffer", "II" },
+            { "glBindRenderbuffer", "II" },
+            { "glEnable", "I" },
+            { "glDisable", "I" },
+            { "glBlendFunc", "II" },
+            { "glBlendFuncSeparate", "IIII" },
+            { "glBlendEquation", "I" },
+            { "glBlendEquationSeparate", "II" },
+            { "glBlendColor", "FFFF" },
+            { "glDepthFunc", "I" },
+            { "glDepthMask", "Z" },
+            { "glUniform1i", "II" },
+            { "glUniform2i", "III" },
+            { "glUniform3i", "IIII" },
+            { "glUniform4i", "IIIII" },
+            { "glUniform1f", "IF" },
+            { "glUniform2f", "IFF" },
+            { "glUniform3f", "IFFF" },
+            { "glUniform4f", "IFFFF" },
+            { "glNewList", "II" },
+            { "glEndList", "" } };
+
+        /**
+         * Methods modifying shadowed state in a way not being tracked,
+         * mapped to the GLStateCache invalidation called after forwarding the call downstream.
+         */
+        private final String[][] invalidating = new String[][] {
+            { "glDeleteBuffers", "invalidateBuffers" },
+            { "glBindBufferBase", "invalidateBuffers" },
+            { "glBindBufferRange", "invalidateBuffers" },
+            { "glBindBuffersBase", "invalidateBuffers" },
+            { "glBindBuffersRange", "invalidateBuffers" },
+            { "glDeleteTextures", "invalidateTextures" },
+            { "glBindTextures", "invalidateTextures" },
+            { "glBindTextureUnit", "invalidateTextures" },
+            { "glBindMultiTextureEXT", "invalidateTextures" },
+            { "glDeleteProgram", "invalidateProgram" },
+            { "glLinkProgram", "invalidateProgram" },
+            { "glProgramBinary", "invalidateProgram" },
+            { "glUseProgramObjectARB", "invalidateProgram" },
+            { "glDeleteObjectARB", "invalidateProgram" },
+            { "glBindProgramPipeline", "invalidateProgram" },
+            { "glDeleteVertexArrays", "invalidateVertexArray" },
+            { "glDeleteFramebuffers", "invalidateFramebuffers" },
+            { "glDeleteRenderbuffers", "invalidateRenderbuffer" },
+            { "glEnablei", "invalidateCaps" },
+            { "glDisablei", "invalidateCaps" },
+            { "glEnableIndexed", "invalidateCaps" },
+            { "glDisableIndexed", "invalidateCaps" },
+            { "glBlendFunci", "invalidateBlend" },
+            { "glBlendFuncSeparatei", "invalidateBlend" },
+            { "glBlendEquationi", "invalidateBlend" },
+            { "glBlendEquationSeparatei", "invalidateBlend" },
+            { "glPopAttrib", "invalidateAll" },
+            { "glPopClientAttrib", "invalidateAll" },
+            { "glCallList", "invalidateAll" },
+            { "glCallLists", "invalidateAll" } };
+
+        /** <code>glUniform*</code> methods not setting uniform values, i.e. not invalidating any shadowed uniform. */
+        private final String[] uniformNonValue = new String[] {
+            "glUniformBlockBinding",
+            "glUniformSubroutinesuiv" };
+
+        StateCachePipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "StateCache" + getBaseInterfaceName();
+        }
+
+        /** Returns the JNI like signature of the method's primitive arguments, e.g. <code>IF</code>, or null if a non primitive argument exists. */
+        private String getPrimitiveSignature(final Method m) {
+            final StringBuilder sb = new StringBuilder();
+            for (final Class<?> p : m.getParameterTypes()) {
+                if (p == Integer.TYPE) {
+                    sb.append('I');
+                } else if (p == Float.TYPE) {
+                    sb.append('F');
+                } else if (p == Boolean.TYPE) {
+                    sb.append('Z');
+                } else {
+                    return null;
+                }
+            }
+            return sb.toString();
+        }
+
+        private boolean isElidable(final Method m) {
+            if (m.getReturnType() != Void.TYPE) {
+                return false;
+            }
+            final String sig = getPrimitiveSignature(m);
+            for (int i = 0; i < elidable.length; i++) {
+                if (elidable[i][0].equals(m.getName()) && elidable[i][1].equals(sig)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Returns the GLStateCache invalidation call w/ it's arguments to be issued after forwarding the given method, or null. */
+        private String getInvalidation(final Method m) {
+            final String name = m.getName();
+            for (int i = 0; i < invalidating.length; i++) {
+                if (invalidating[i][0].equals(name)) {
+                    return invalidating[i][1] + "()";
+                }
+            }
+            if (!isElidable(m) && (name.startsWith("glUniform") || name.startsWith("glProgramUniform"))) {
+                return getUniformInvalidation(m);
+            }
+            return null;
+        }
+
+        /**
+         * Returns the invalidation of the uniform values set by a non shadowed <code>glUniform*</code> or <code>glProgramUniform*</code> method,
+         * i.e. of it's location range of the current program or the given program respectively, or null if not setting uniform values.
+         * <p>
+         * Vector methods, i.e. ending w/ <code>v</code>, set <code>count</code> consecutive locations.
+         * </p>
+         */
+        private String getUniformInvalidation(final Method m) {
+            final String name = m.getName();
+            for (int i = 0; i < uniformNonValue.length; i++) {
+                if (uniformNonValue[i].equals(name)) {
+                    return null;
+                }
+            }
+            final Class<?>[] params = m.getParameterTypes();
+            if (name.equals("glUniform") && 1 == params.length) {
+                return "invalidateUniforms(arg0.getLocation(), arg0.count())"; // GLUniformData
+            }
+            final boolean vector = name.matches("gl(Program)?Uniform.*v(ARB|EXT|NV)?");
+            final boolean program = name.startsWith("glProgramUniform") || name.equals("glUniformBufferEXT");
+            final int locationIdx = program ? 1 : 0;
+            final int countIdx = vector ? locationIdx + 1 : -1;
+            if (params.length <= Math.max(locationIdx, countIdx) ||
+                params[0] != Integer.TYPE || params[locationIdx] != Integer.TYPE || ( 0 <= countIdx && params[countIdx] != Integer.TYPE )) {
+                return "invalidateUniforms()"; // unknown signature
+            }
+            final String count = vector ? "arg" + countIdx : "1";
+            if (program) {
+                return "invalidateProgramUniforms(arg0, arg1, " + count + ")";
+            } else {
+                return "invalidateUniforms(arg0, " + count + ")";
+            }
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("  }");
+            output.println();
+            output.println("  /** Returns the {@link GLStateCache} shadowing the state of this pipeline, holding the elided call counter. */");
+            output.println("  public final GLStateCache getStateCache() {");
+            output.println("    return " + getStateCacheName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  private final GLStateCache " + getStateCacheName() + " = new GLStateCache();");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * dropping calls which would not change the bindings, capabilities, blend and depth state");
+            output.println(" * or uniform values shadowed by it's {@link GLStateCache}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new StateCacheGL(drawable.getGL()));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * State changed by other means than this pipeline must be announced via {@link GLStateCache#invalidateAll()}.");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic() && isElidable(pm.getWrappedMethod());
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            output.println("    if( !" + getStateCacheName() + "." + m.getName() + "(" + getArgListAsString(m, false, true) + ") ) {");
+            output.println("      return;");
+            output.println("    }");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic() && null != getInvalidation(pm.getWrappedMethod());
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    " + getStateCacheName() + "." + getInvalidation(pm.getWrappedMethod()) + ";");
+        }
+
+        private String getStateCacheName() {
+            return "stateCache";
+        }
+    } // end class StateCachePipeline
+
+    //-------------------------------------------------------
+    protected class ProfilePipeline extends PipelineEmitter {
+
+        String className;
+        /** Entry point name to {@link com.jogamp.opengl.GLCallProfiler} slot, overloads share one slot. */
+        private final Map<String, Integer> slots = new LinkedHashMap<String, Integer>();
+
+        ProfilePipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Profile" + getBaseInterfaceName();
+        }
+
+        @Override
+        public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            while (methodsToWrap.hasNext()) {
+                final PlainMethod pm = methodsToWrap.next();
+                if (pm.runHooks() && !pm.isSynthetic()) {
+                    final String name = pm.getWrappedMethod().getName();
+                    if (!slots.containsKey(name)) {
+                        slots.put(name, Integer.valueOf(slots.size()));
+                    }
+                }
+                methods.add(pm);
+            }
+            super.emit(methods.iterator());
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void preMethodEmissionHook(final PrintWriter output) {
+            super.preMethodEmissionHook(output);
+            output.println("  /** GL entry point names, indexed by their {@link GLCallProfiler} slot. */");
+            output.print("  private static final String[] " + getNamesName() + " = new String[] {");
+            int i = 0;
+            for (final String name : slots.keySet()) {
+                output.print(0 == i % 4 ? "\n    " : " ");
+                output.print("\"" + name + "\",");
+                i++;
+            }
+            output.println(" };");
+            output.println();
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("  }");
+            output.println();
+            output.println("  /** Returns the {@link GLCallProfiler} holding the call counter of this pipeline. */");
+            output.println("  public final GLCallProfiler getCallProfiler() {");
+            output.println("    return " + getProfilerName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  private final GLCallProfiler " + getProfilerName() + " = new GLCallProfiler(" + getNamesName() + ");");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * counting and optionally timing each OpenGL method call per entry point w/ low overhead");
+            output.println(" * via it's {@link GLCallProfiler}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new ProfileGL(drawable.getGL()));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    final long _t0 = " + getProfilerName() + ".begin(" + slots.get(pm.getWrappedMethod().getName()) + ");");
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return !pm.isSynthetic();
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            output.println("    " + getProfilerName() + ".end(" + slots.get(pm.getWrappedMethod().getName()) + ", _t0);");
+        }
+
+        private String getProfilerName() {
+            return "callProfiler";
+        }
+
+        private String getNamesName() {
+            return "CALL_NAMES";
+        }
+    } // end class ProfilePipeline
+
+    protected class RecordPipeline extends PipelineEmitter {
+
+        String className;
+        /** Method to {@link com.jogamp.opengl.GLCommandRecorder} slot, each overload owns a slot. */
+        private final Map<Method, Integer> slots = new LinkedHashMap<Method, Integer>();
+
+        RecordPipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Record" + getBaseInterfaceName();
+        }
+
+        @Override
+        public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            while (methodsToWrap.hasNext()) {
+                final PlainMethod pm = methodsToWrap.next();
+                if (pm.runHooks() && !pm.isSynthetic() && !isExpanded(pm.getWrappedMethod())) {
+                    slots.put(pm.getWrappedMethod(), Integer.valueOf(slots.size()));
+                }
+                methods.add(pm);
+            }
+            super.emit(methods.iterator());
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void preMethodEmissionHook(final PrintWriter output) {
+            super.preMethodEmissionHook(output);
+            output.println("  /** GL entry point names, indexed by their {@link GLCommandRecorder} slot. */");
+            output.print("  private static final String[] " + getNamesName() + " = new String[] {");
+            int i = 0;
+            for (final Method m : slots.keySet()) {
+                output.print(0 == i % 4 ? "\n    " : " ");
+                output.print("\"" + m.getName() + "\",");
+                i++;
+            }
+            output.println(" };");
+            output.println();
+            output.println("  /** GL entry point parameter class names, indexed by their {@link GLCommandRecorder} slot. */");
+            output.print("  private static final String[] " + getSignaturesName() + " = new String[] {");
+            for (final Method m : slots.keySet()) {
+                final Class<?>[] params = m.getParameterTypes();
+                final StringBuilder sb = new StringBuilder();
+                for (int j = 0; j < params.length; j++) {
+                    if (0 < j) {
+                        sb.append(',');
+                    }
+                    sb.append(params[j].getName());
+                }
+                output.print("\n    \"" + sb + "\",");
+            }
+            output.println(" };");
+            output.println();
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ", GLCommandRecorder " + getRecorderName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.println("    if (" + getRecorderName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getRecorderName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    this." + getRecorderName() + " = " + getRecorderName() + ";");
+            output.println("    " + getRecorderName() + ".attach(" + getNamesName() + ", " + getSignaturesName() + ");");
+            output.println("  }");
+            output.println();
+            output.println("  /** Returns the {@link GLCommandRecorder} receiving the calls of this pipeline. */");
+            output.println("  public final GLCommandRecorder getCommandRecorder() {");
+            output.println("    return " + getRecorderName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  private final GLCommandRecorder " + getRecorderName() + ";");
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * recording each OpenGL method call w/ it's arguments and referenced client memory");
+            output.println(" * into a binary log via it's {@link GLCommandRecorder}, to be replayed by {@link GLCommandReplayer}.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code which installs this pipeline:");
+            output.println(" * <pre>");
+            output.println(" *   gl = drawable.setGL(new RecordGL(drawable.getGL(), new GLCommandRecorder(channel)));");
+            output.println(" * </pre>");
+            output.println(" * For automatic instantiation see {@link GLPipelineFactory#create(String, Class, GL, Object[])}");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected void emitBody(final PrintWriter output, final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            if (pm.runHooks() && isExpanded(m)) {
+                output.println("  {");
+                output.println("    GLCommandRecorder." + m.getName() + "(this, " + getArgListAsString(m, false, true) + ");");
+                output.println("  }");
+            } else {
+                super.emitBody(output, pm);
+            }
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return slots.containsKey(pm.getWrappedMethod());
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            final String name = m.getName();
+            // data written into mapped storage is recorded before the call making it available to GL
+            if (name.matches("glUnmap(Named)?Buffer(ARB|EXT|OES)?")) {
+                output.println("    " + getRecorderName() + ".unmap(" + getMappedBufferName(m) + ");");
+            } else if (name.matches("glFlushMapped(Named)?BufferRange(ARB|EXT|APPLE)?") && 3 == m.getParameterTypes().length) {
+                output.println("    " + getRecorderName() + ".flushMapped(" + getMappedBufferName(m) + ", arg1, arg2);");
+            }
+            output.println("    " + getRecorderName() + ".begin(" + slots.get(m) + ");");
+            final int n = m.getParameterTypes().length;
+            for (int i = 0; i < n; i++) {
+                output.println("    " + getRecorderName() + ".put(arg" + i + ");");
+            }
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            return slots.containsKey(m) && ( isMapping(m) || null != getResultArgs(m) );
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            if (isMapping(m)) {
+                final int n = m.getParameterTypes().length;
+                output.println("    " + getRecorderName() + ".mapped(" + getMappedBufferName(m) + ", _res, arg" + (n - 1) + ", " +
+                               m.getName().contains("Range") + ");");
+            } else {
+                output.println("    " + getRecorderName() + ".result(" + getResultArgs(m) + ");");
+            }
+        }
+
+        /** Returns true if the method maps buffer storage, returning it as a {@link java.nio.ByteBuffer} or {@link com.jogamp.opengl.GLBufferStorage}. */
+        private boolean isMapping(final Method m) {
+            final String ret = m.getReturnType().getName();
+            return m.getName().matches("(glMap|map)(Named)?Buffer(Range)?(ARB|EXT|OES)?") &&
+                   ( ret.equals("java.nio.ByteBuffer") || ret.equals("com.jogamp.opengl.GLBufferStorage") );
+        }
+
+        /** Returns the buffer name expression of a mapping related method, the buffer bound to the target for target based variants. */
+        private String getMappedBufferName(final Method m) {
+            return m.getName().contains("Named") ? "arg0" : getDownstreamObjectName() + ".getBoundBuffer(arg0)";
+        }
+
+        /**
+         * Returns the {@link com.jogamp.opengl.GLCommandRecorder#result(int) result} arguments of a method creating object names or handles,
+         * i.e. it's returned value or it's output array or buffer w/ the preceding count, otherwise null.
+         */
+        private String getResultArgs(final Method m) {
+            final String name = m.getName();
+            if (!(name.matches("gl(Gen|Create)[A-Z].*") && !name.startsWith("glGenerate")) && !name.equals("glFenceSync")) {
+                return null;
+            }
+            final Class<?> ret = m.getReturnType();
+            if (ret == Integer.TYPE || ret == Long.TYPE) {
+                return "_res";
+            }
+            final Class<?>[] params = m.getParameterTypes();
+            for (int i = 1; i < params.length; i++) {
+                if (params[i - 1] != Integer.TYPE) {
+                    continue;
+                }
+                if (params[i] == int[].class && i + 1 < params.length && params[i + 1] == Integer.TYPE) {
+                    return "arg" + i + ", arg" + (i + 1) + ", arg" + (i - 1);
+                } else if (params[i].getName().equals("java.nio.IntBuffer")) {
+                    return "arg" + i + ", arg" + (i - 1);
+                }
+            }
+            return null;
+        }
+
+        private String getRecorderName() {
+            return "commandRecorder";
+        }
+
+        private String getNamesName() {
+            return "CALL_NAMES";
+        }
+
+        private String getSignaturesName() {
+            return "CALL_SIGNATURES";
+        }
+    } // end class RecordPipeline
+
+    protected class DeferredPipeline extends PipelineEmitter {
+
+        /** Number of slots per generated execute method, keeping each below the JIT's huge method limit. */
+        private static final int SLOTS_PER_EXECUTE = 64;
+
+        String className;
+        /** Method to {@link com.jogamp.opengl.GLCommandBuffer} slot, each deferrable overload owns a slot. */
+        private final Map<Method, Integer> slots = new LinkedHashMap<Method, Integer>();
+
+        DeferredPipeline(final String outputDir, final String outputPackage, final Class<?> baseInterfaceClass, final Class<?> downstreamClass) {
+            super(outputDir, outputPackage, baseInterfaceClass, null, downstreamClass);
+            className = "Deferred" + getBaseInterfaceName();
+        }
+
+        @Override
+        public void emit(final Iterator<PlainMethod> methodsToWrap) throws IOException {
+            final List<PlainMethod> methods = new ArrayList<PlainMethod>();
+            while (methodsToWrap.hasNext()) {
+                final PlainMethod pm = methodsToWrap.next();
+                final Method m = pm.getWrappedMethod();
+                if (pm.runHooks() && !pm.isSynthetic() && !isExpanded(m) && isDeferrable(m)) {
+                    slots.put(m, Integer.valueOf(slots.size()));
+                }
+                methods.add(pm);
+            }
+            super.emit(methods.iterator());
+        }
+
+        /**
+         * Returns false for methods returning a value or querying into client memory,
+         * e.g. <code>glGetError</code>, <code>glGetIntegerv</code> or <code>glGenBuffers</code>,
+         * which results are not available before execution.
+         */
+        private boolean isDeferrable(final Method m) {
+            if (m.getReturnType() != Void.TYPE) {
+                return false;
+            }
+            final String name = m.getName();
+            if (name.startsWith("glGet") || name.startsWith("glGen") || name.startsWith("glRead") || name.startsWith("glCreate")) {
+                final Class<?>[] params = m.getParameterTypes();
+                for (int i = 0; i < params.length; i++) {
+                    if (params[i].isArray() || Buffer.class.isAssignableFrom(params[i]) ||
+                        params[i].getName().equals("com.jogamp.common.nio.PointerBuffer")) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected String getOutputName() {
+            return className;
+        }
+
+        @Override
+        protected int getMode() {
+            return 0;
+        }
+
+        @Override
+        protected boolean emptyMethodAllowed() {
+            return false;
+        }
+
+        @Override
+        protected boolean emptyDownstreamAllowed() {
+            return false;
+        }
+
+        @Override
+        protected void constructorHook(final PrintWriter output) {
+            output.print("  public " + getOutputName() + "(");
+            output.println(downstreamName + " " + getDownstreamObjectName() + ", GLCommandBuffer " + getBufferName() + ")");
+            output.println("  {");
+            output.println("    if (" + getDownstreamObjectName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getDownstreamObjectName() + "\");");
+            output.println("    }");
+            output.print("    this." + getDownstreamObjectName());
+            output.println(" = " + getDownstreamObjectName() + ";");
+            output.println("    setCommandBuffer(" + getBufferName() + ");");
+            output.println("  }");
+            output.println();
+            output.println("  /** Returns the {@link GLCommandBuffer} receiving the calls of this pipeline. */");
+            output.println("  public final GLCommandBuffer getCommandBuffer() {");
+            output.println("    return " + getBufferName() + ";");
+            output.println("  }");
+            output.println();
+            output.println("  /** Sets the {@link GLCommandBuffer} receiving the calls of this pipeline. */");
+            output.println("  public final void setCommandBuffer(final GLCommandBuffer " + getBufferName() + ") {");
+            output.println("    if (" + getBufferName() + " == null) {");
+            output.println("      throw new IllegalArgumentException(\"null " + getBufferName() + "\");");
+            output.println("    }");
+            output.println("    " + getBufferName() + ".attach(EXECUTOR);");
+            output.println("    this." + getBufferName() + " = " + getBufferName() + ";");
+            output.println("  }");
+            output.println();
+        }
+
+        @Override
+        protected void postMethodEmissionHook(final PrintWriter output) {
+            super.postMethodEmissionHook(output);
+            output.println("  private GLCommandBuffer " + getBufferName() + ";");
+            output.println();
+            final int chunks = (slots.size() + SLOTS_PER_EXECUTE - 1) / SLOTS_PER_EXECUTE;
+            output.println("  /** Issues the calls recorded by this pipeline type on the GL context thread. */");
+            output.println("  private static final GLCommandBuffer.Executor EXECUTOR = new GLCommandBuffer.Executor() {");
+            output.println("    @Override");
+            output.println("    public void execute(final GL gl, final GLCommandBuffer cb, final int slot) {");
+            output.println("      final " + downstreamName + " target = (" + downstreamName + ") gl;");
+            output.println("      switch (slot / " + SLOTS_PER_EXECUTE + ") {");
+            for (int i = 0; i < chunks; i++) {
+                output.println("        case " + i + ": execute" + i + "(target, cb, slot); break;");
+            }
+            output.println("        default: throw new GLException(\"Invalid slot \"+slot);");
+            output.println("      }");
+            output.println("    }");
+            output.println("  };");
+            final Iterator<Map.Entry<Method, Integer>> it = slots.entrySet().iterator();
+            for (int i = 0; i < chunks; i++) {
+                output.println();
+                output.println("  private static void execute" + i + "(final " + downstreamName + " gl, final GLCommandBuffer cb, final int slot) {");
+                output.println("    switch (slot) {");
+                for (int j = 0; j < SLOTS_PER_EXECUTE && it.hasNext(); j++) {
+                    final Map.Entry<Method, Integer> e = it.next();
+                    final Method m = e.getKey();
+                    final Class<?>[] params = m.getParameterTypes();
+                    output.print("      case " + e.getValue() + ": gl." + m.getName() + "(");
+                    for (int k = 0; k < params.length; k++) {
+                        if (0 < k) {
+                            output.print(", ");
+                        }
+                        output.print(getDecodeExpression(params[k]));
+                    }
+                    output.println("); break;");
+                }
+                output.println("      default: throw new GLException(\"Invalid slot \"+slot);");
+                output.println("    }");
+                output.println("  }");
+            }
+        }
+
+        /** Returns the {@link com.jogamp.opengl.GLCommandBuffer} decoding expression, mirroring it's <code>put</code> overloads. */
+        private String getDecodeExpression(final Class<?> type) {
+            if (type.isPrimitive()) {
+                final String name = type.getName();
+                return "cb.get" + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "()";
+            }
+            // cast only if the decoded static type differs, avoiding redundant cast warnings
+            final String cast = "(" + JavaType.createForClass(type).getName() + ") ";
+            if (Buffer.class.isAssignableFrom(type)) {
+                return ( Buffer.class == type ? "" : cast ) + "cb.getBuffer()";
+            }
+            return ( Object.class == type ? "" : cast ) + "cb.getObject()";
+        }
+
+        @Override
+        protected void emitClassDocComment(final PrintWriter output) {
+            output.println("/**");
+            output.println(" * <p>");
+            output.println(" * Composable pipeline which wraps an underlying {@link GL} implementation,");
+            output.println(" * encoding each OpenGL method call into it's {@link GLCommandBuffer} instead of issuing it,");
+            output.println(" * allowing to record calls on any thread for later execution on the GL context thread.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Methods returning a value or querying into client memory are not deferrable and throw a {@link GLException}.");
+            output.println(" * Other non OpenGL methods are passed to the underlying {@link GL} implementation.");
+            output.println(" * An instance shall be used by one thread at a time.");
+            output.println(" * </p>");
+            output.println(" * <p>");
+            output.println(" * Sample code recording calls on a worker thread:");
+            output.println(" * <pre>");
+            output.println(" *   final GLCommandBuffer cb = new GLCommandBuffer();");
+            output.println(" *   render(new DeferredGL(drawable.getGL(), cb));");
+            output.println(" *   drawable.invoke(false, cb);");
+            output.println(" * </pre>");
+            output.println(" * </p>");
+            output.println(" */");
+        }
+
+        @Override
+        protected void emitBody(final PrintWriter output, final PlainMethod pm) {
+            final Method m = pm.getWrappedMethod();
+            if (!pm.runHooks() || pm.isSynthetic()) {
+                super.emitBody(output, pm);
+                return;
+            }
+            output.println("  {");
+            if (isExpanded(m)) {
+                output.println("    GLCommandRecorder." + m.getName() + "(this, " + getArgListAsString(m, false, true) + ");");
+            } else if (slots.containsKey(m)) {
+                output.println("    " + getBufferName() + ".begin(" + slots.get(m) + ");");
+                final int n = m.getParameterTypes().length;
+                for (int i = 0; i < n; i++) {
+                    output.println("    " + getBufferName() + ".put(arg" + i + ");");
+                }
+            } else {
+                output.println("    throw new GLException(\"Not deferrable: " + m.getName() + "\");");
+            }
+            output.println("  }");
+        }
+
+        @Override
+        protected boolean hasPreDownstreamCallHook(final PlainMethod pm) {
+            return false;
+        }
+
+        @Override
+        protected void preDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+        }
+
+        @Override
+        protected boolean hasPostDownstreamCallHook(final PlainMethod pm) {
+            return false;
+        }
+
+        @Override
+        protected void postDownstreamCallHook(final PrintWriter output, final PlainMethod pm) {
+        }
+
+        private String getBufferName() {
+            return "commandBuffer";
+        }
+    } // end class DeferredPipeline
+
     public static final void printFunctionCallString(final PrintWriter output, final Method m) {
         final Class<?>[] params = m.getParameterTypes();
         output.print("    \"" + m.getName() + "(\"");
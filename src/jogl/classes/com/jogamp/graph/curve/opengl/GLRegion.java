@@ -34,6 +34,8 @@ import jogamp.graph.curve.opengl.VBORegion2PMSAAES2;
 import jogamp.graph.curve.opengl.VBORegion2PVBAAES2;
 import jogamp.graph.curve.opengl.VBORegionSPES2;
 
+import com.jogamp.opengl.util.GLArrayDataEditable;
+import com.jogamp.opengl.util.MeshOptimizer;
 import com.jogamp.opengl.util.PMVMatrix;
 import com.jogamp.opengl.util.texture.TextureSequence;
 import com.jogamp.graph.curve.Region;
@@ -76,6 +78,7 @@ public abstract class GLRegion extends Region {
     }
 
     protected final TextureSequence colorTexSeq;
+    private boolean indexOptimization = false;
 
     protected GLRegion(final int renderModes, final TextureSequence colorTexSeq) {
         super(renderModes);
@@ -92,6 +95,29 @@ public abstract class GLRegion extends Region {
 
     protected abstract void destroyImpl(final GL2ES2 gl);
 
+    /**
+     * Enables reordering the triangle indices for post-transform vertex cache locality
+     * via {@link MeshOptimizer#optimizeVertexCache(GLArrayDataEditable, int)} when updating the region,
+     * defaults to <code>false</code>.
+     * <p>
+     * Takes effect with the next update of modified shapes, i.e. after {@link #clear(GL2ES2)}.
+     * </p>
+     */
+    public final void setIndexOptimization(final boolean enable) { indexOptimization = enable; }
+
+    /** Returns whether triangle indices are reordered for vertex cache locality, see {@link #setIndexOptimization(boolean)}. */
+    public final boolean getIndexOptimization() { return indexOptimization; }
+
+    /**
+     * Reorders the given unsealed triangle indices if {@link #getIndexOptimization() enabled},
+     * to be called by {@link #updateImpl(GL2ES2)} before sealing them.
+     */
+    protected final void optimizeIndices(final GLArrayDataEditable indices, final int vertexCount) {
+        if( indexOptimization && !indices.sealed() ) {
+            MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+        }
+    }
+
     protected abstract void clearImpl(final GL2ES2 gl);
 
     /**
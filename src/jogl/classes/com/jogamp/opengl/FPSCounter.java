@@ -114,4 +114,30 @@ public interface FPSCounter {
      * @see #resetFPSCounter()
      */
     float getTotalFPS();
+
+    /**
+     * Sets the target frame period in nanoseconds, used to count dropped frames,
+     * see {@link FrameTimeSnapshot#getDroppedFrames()}.
+     * <p>
+     * A value of <code>0</code> disables dropped frame counting, which is the default.
+     * </p>
+     * @param nanos target frame period in nanoseconds, e.g. <code>1000000000L/60</code>
+     */
+    void setTargetFramePeriod(long nanos);
+
+    /**
+     * @return the target frame period in nanoseconds, <code>0</code> if not set.
+     * @see #setTargetFramePeriod(long)
+     */
+    long getTargetFramePeriod();
+
+    /**
+     * Returns an immutable snapshot of the nanosecond frame time distributions
+     * recorded since the last {@link #resetFPSCounter()}.
+     * <p>
+     * Frame times are recorded regardless of {@link #setUpdateFPSFrames(int, PrintStream)}.
+     * This method may be called from any thread without stopping the rendering loop.
+     * </p>
+     */
+    FrameTimeSnapshot getFrameTimeSnapshot();
 }
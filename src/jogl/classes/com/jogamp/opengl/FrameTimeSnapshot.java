@@ -0,0 +1,182 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+/**
+ * Immutable snapshot of frame time statistics recorded by an {@link FPSCounter},
+ * see {@link FPSCounter#getFrameTimeSnapshot()}.
+ * <p>
+ * All durations are in nanoseconds.
+ * Percentiles are derived from a logarithmic histogram with a relative error of about 3%.
+ * </p>
+ */
+public final class FrameTimeSnapshot {
+
+    /** Immutable distribution of recorded nanosecond durations. */
+    public static final class Distribution {
+        private final long count, min, max, mean;
+        private final long p50, p90, p95, p99, p999;
+
+        /**
+         * @param count number of recorded durations
+         * @param min minimum duration, 0 if count is 0
+         * @param max maximum duration, 0 if count is 0
+         * @param mean mean duration, 0 if count is 0
+         * @param p50 50th percentile
+         * @param p90 90th percentile
+         * @param p95 95th percentile
+         * @param p99 99th percentile
+         * @param p999 99.9th percentile
+         */
+        public Distribution(final long count, final long min, final long max, final long mean,
+                            final long p50, final long p90, final long p95, final long p99, final long p999) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        /** Returns the number of recorded durations. */
+        public final long getCount() { return count; }
+        /** Returns the minimum duration. */
+        public final long getMin() { return min; }
+        /** Returns the maximum duration. */
+        public final long getMax() { return max; }
+        /** Returns the mean duration. */
+        public final long getMean() { return mean; }
+        /** Returns the median duration. */
+        public final long getP50() { return p50; }
+        /** Returns the 90th percentile duration. */
+        public final long getP90() { return p90; }
+        /** Returns the 95th percentile duration. */
+        public final long getP95() { return p95; }
+        /** Returns the 99th percentile duration. */
+        public final long getP99() { return p99; }
+        /** Returns the 99.9th percentile duration. */
+        public final long getP999() { return p999; }
+
+        public StringBuilder toString(StringBuilder sb) {
+            if(null==sb) {
+                sb = new StringBuilder();
+            }
+            sb.append(count).append(" x [min ").append(toMillis(min)).append(", mean ").append(toMillis(mean))
+              .append(", p50 ").append(toMillis(p50)).append(", p95 ").append(toMillis(p95))
+              .append(", p99 ").append(toMillis(p99)).append(", max ").append(toMillis(max)).append("] ms");
+            return sb;
+        }
+
+        @Override
+        public String toString() {
+            return toString(null).toString();
+        }
+    }
+
+    private final long timestamp;
+    private final long targetFramePeriod;
+    private final long droppedFrames;
+    private final Distribution frameTimes, displayTimes, swapTimes;
+
+    /**
+     * @param timestamp {@link System#nanoTime()} when this snapshot was taken
+     * @param targetFramePeriod the target frame period in nanoseconds, 0 if not set
+     * @param droppedFrames number of dropped frames against the target frame period
+     * @param frameTimes distribution of durations between consecutive frames
+     * @param displayTimes distribution of display durations
+     * @param swapTimes distribution of swap buffer durations
+     */
+    public FrameTimeSnapshot(final long timestamp, final long targetFramePeriod, final long droppedFrames,
+                             final Distribution frameTimes, final Distribution displayTimes, final Distribution swapTimes) {
+        this.timestamp = timestamp;
+        this.targetFramePeriod = targetFramePeriod;
+        this.droppedFrames = droppedFrames;
+        this.frameTimes = frameTimes;
+        this.displayTimes = displayTimes;
+        this.swapTimes = swapTimes;
+    }
+
+    /** Returns the {@link System#nanoTime()} when this snapshot was taken. */
+    public final long getTimestamp() { return timestamp; }
+
+    /** Returns the target frame period in nanoseconds, 0 if not set. See {@link FPSCounter#setTargetFramePeriod(long)}. */
+    public final long getTargetFramePeriod() { return targetFramePeriod; }
+
+    /**
+     * Returns the number of dropped frames against the {@link #getTargetFramePeriod() target frame period},
+     * i.e. the sum of missed target periods of all frames.
+     * A frame of duration <code>d</code> misses <code>round(d / target) - 1</code> periods.
+     */
+    public final long getDroppedFrames() { return droppedFrames; }
+
+    /** Returns the distribution of durations between consecutive frames. */
+    public final Distribution getFrameTimes() { return frameTimes; }
+
+    /**
+     * Returns the distribution of display durations,
+     * i.e. the time spent in all {@link GLEventListener#display(GLAutoDrawable)} calls of one frame.
+     * <p>
+     * For an animator, this is the time to display all of its drawables incl. their buffer swaps.
+     * </p>
+     */
+    public final Distribution getDisplayTimes() { return displayTimes; }
+
+    /**
+     * Returns the distribution of {@link GLDrawable#swapBuffers()} durations.
+     * <p>
+     * Only recorded by {@link GLAutoDrawable}s in {@link GLAutoDrawable#getAutoSwapBufferMode() auto swap buffer mode}.
+     * </p>
+     */
+    public final Distribution getSwapTimes() { return swapTimes; }
+
+    private static String toMillis(final long ns) {
+        final long us = ns / 1000;
+        final long frac = us % 1000;
+        return String.valueOf(us / 1000) + "." + ( frac < 10 ? "00" : ( frac < 100 ? "0" : "" ) ) + frac;
+    }
+
+    public StringBuilder toString(StringBuilder sb) {
+        if(null==sb) {
+            sb = new StringBuilder();
+        }
+        sb.append("FrameTimes[target ").append(toMillis(targetFramePeriod)).append(" ms, dropped ").append(droppedFrames)
+          .append(", frame ");
+        frameTimes.toString(sb).append(", display ");
+        displayTimes.toString(sb).append(", swap ");
+        swapTimes.toString(sb).append("]");
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return toString(null).toString();
+    }
+}
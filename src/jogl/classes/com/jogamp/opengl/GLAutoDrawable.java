@@ -41,6 +41,7 @@
 package com.jogamp.opengl;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.jogamp.nativewindow.NativeSurface;
 
@@ -475,6 +476,66 @@ public interface GLAutoDrawable extends GLDrawable {
    */
   public boolean invoke(boolean wait, List<GLRunnable> glRunnables) throws IllegalStateException;
 
+  /**
+   * Enqueues a one-shot {@link GLRunnable} like {@link #invoke(boolean, GLRunnable) invoke(false, glRunnable)},
+   * but returns a {@link Future} handle to it's result instead of blocking.
+   * <p>
+   * The {@link Future}'s {@link Future#get()} returns the {@link GLRunnable#run(GLAutoDrawable)} result,
+   * throws an {@link java.util.concurrent.ExecutionException} if the latter failed
+   * or a {@link java.util.concurrent.CancellationException} if it has been {@link Future#cancel(boolean) cancelled}
+   * or {@link #flushGLRunnables() flushed}, e.g. via {@link #destroy()}.
+   * </p>
+   * <p>
+   * Enqueueing is lock-free, allowing many producer threads to post small GL tasks.
+   * </p>
+   * @param glRunnable the {@link GLRunnable} to execute within {@link #display()}
+   * @return the {@link Future} handle, or <code>null</code> if <code>glRunnable</code> is <code>null</code>
+   * @throws IllegalStateException in case of a detected deadlock situation ahead, see {@link #invoke(boolean, GLRunnable)}.
+   * @see #invoke(boolean, GLRunnable)
+   * @see #flushGLRunnables()
+   */
+  public Future<Boolean> invokeAsync(GLRunnable glRunnable) throws IllegalStateException;
+
+  /**
+   * Sets the {@link GLEventListenerProfiler} measuring the CPU and GPU time of each
+   * {@link GLEventListener} callback issued by this drawable.
+   * <p>
+   * Profiling is disabled by default, i.e. <code>null</code>, imposing no overhead.
+   * </p>
+   * @param profiler the profiler, or <code>null</code> to disable profiling
+   */
+  public void setGLEventListenerProfiler(GLEventListenerProfiler profiler);
+
+  /**
+   * Returns the {@link GLEventListenerProfiler}, or <code>null</code> if not profiling.
+   * @see #setGLEventListenerProfiler(GLEventListenerProfiler)
+   */
+  public GLEventListenerProfiler getGLEventListenerProfiler();
+
+  /**
+   * Marks this drawable's content as changed, requiring a {@link #display()}.
+   * <p>
+   * The mark is cleared w/ the next {@link #display()}, marks issued while rendering are retained.
+   * A {@link com.jogamp.opengl.util.FrameRateGovernor} skips the {@link #display()} of drawables
+   * not being {@link #isDirty() dirty}.
+   * </p>
+   * <p>
+   * May be called from any thread, e.g. an input event listener.
+   * </p>
+   * @see #isDirty()
+   */
+  public void markDirty();
+
+  /**
+   * Returns <code>true</code> if this drawable has been {@link #markDirty() marked dirty}
+   * since the last {@link #display()}, or if {@link GLRunnable}s are pending to be executed.
+   * <p>
+   * A newly created drawable is dirty.
+   * </p>
+   * @see #markDirty()
+   */
+  public boolean isDirty();
+
   /**
    * Flushes all {@link #invoke(boolean, GLRunnable) enqueued} {@link GLRunnable} of this {@link GLAutoDrawable}
    * including notifying waiting executor.
@@ -0,0 +1,224 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Per entry point call counter and timer used by the generated <code>ProfileGL*</code> composable pipelines,
+ * e.g. <code>ProfileGL4bc</code>.
+ * <p>
+ * Each GL entry point, i.e. all overloads of one GL function, owns a slot in preallocated primitive arrays.
+ * The call count is always incremented, the elapsed {@link System#nanoTime()} is only accumulated
+ * if {@link #setTimingEnabled(boolean) timing is enabled}.
+ * </p>
+ * <p>
+ * Counting is not synchronized and shall be performed on the GL thread only.
+ * A {@link #snapshot(boolean) snapshot} may be taken from any thread,
+ * while it may miss calls being issued meanwhile.
+ * </p>
+ * <p>
+ * Sample code printing the 10 most frequent calls of each frame:
+ * <pre>
+ *   final ProfileGL4bc pgl = new ProfileGL4bc(drawable.getGL().getGL4bc());
+ *   drawable.setGL(pgl);
+ *   ..
+ *   // at the end of display(..)
+ *   System.err.println(pgl.getCallProfiler().snapshot(true).toString(10, false));
+ * </pre>
+ * </p>
+ */
+public class GLCallProfiler {
+
+    /** Immutable call statistics of one GL entry point. */
+    public static final class Entry {
+        private final String name;
+        private final long count;
+        private final long nanos;
+
+        Entry(final String name, final long count, final long nanos) {
+            this.name = name;
+            this.count = count;
+            this.nanos = nanos;
+        }
+        /** Returns the GL function name. */
+        public final String getName() { return name; }
+        /** Returns the number of calls. */
+        public final long getCount() { return count; }
+        /** Returns the accumulated nanoseconds, 0 if timing was disabled. */
+        public final long getNanos() { return nanos; }
+
+        @Override
+        public final String toString() {
+            return String.format("%s: %d calls, %.3f ms", name, count, nanos/1e6);
+        }
+    }
+
+    /** Immutable snapshot of all GL entry points called at least once. */
+    public static final class Snapshot {
+        private final List<Entry> entries;
+        private final long totalCount, totalNanos;
+
+        Snapshot(final List<Entry> entries) {
+            this.entries = Collections.unmodifiableList(entries);
+            long c = 0, n = 0;
+            for(int i=0; i<entries.size(); i++) {
+                c += entries.get(i).count;
+                n += entries.get(i).nanos;
+            }
+            totalCount = c;
+            totalNanos = n;
+        }
+
+        /** Returns the {@link Entry} of all called GL entry points in alphabetical order. */
+        public final List<Entry> getEntries() { return entries; }
+
+        /** Returns the total number of calls. */
+        public final long getTotalCount() { return totalCount; }
+
+        /** Returns the total accumulated nanoseconds, 0 if timing was disabled. */
+        public final long getTotalNanos() { return totalNanos; }
+
+        /** Returns the {@link Entry} of the given GL function, or <code>null</code> if not called. */
+        public final Entry getEntry(final String name) {
+            for(int i=0; i<entries.size(); i++) {
+                if( entries.get(i).name.equals(name) ) {
+                    return entries.get(i);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the top <code>n</code> {@link Entry} in descending order.
+         * @param byTime if <code>true</code> sort by accumulated time, otherwise by call count
+         */
+        public final List<Entry> getTop(final int n, final boolean byTime) {
+            final ArrayList<Entry> sorted = new ArrayList<Entry>(entries);
+            Collections.sort(sorted, new Comparator<Entry>() {
+                @Override
+                public int compare(final Entry a, final Entry b) {
+                    final long va = byTime ? a.nanos : a.count;
+                    final long vb = byTime ? b.nanos : b.count;
+                    return va < vb ? 1 : ( va > vb ? -1 : a.name.compareTo(b.name) );
+                } } );
+            return sorted.subList(0, Math.min(n, sorted.size()));
+        }
+
+        /**
+         * Returns a report of the top <code>n</code> {@link Entry}, one per line.
+         * @param byTime if <code>true</code> sort by accumulated time, otherwise by call count
+         */
+        public final String toString(final int n, final boolean byTime) {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(String.format("GL calls: %d, %.3f ms, %d entry points%n", totalCount, totalNanos/1e6, entries.size()));
+            final List<Entry> top = getTop(n, byTime);
+            for(int i=0; i<top.size(); i++) {
+                sb.append(String.format("  %2d: %s%n", i+1, top.get(i)));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public final String toString() {
+            return toString(entries.size(), false);
+        }
+    }
+
+    private final String[] names;
+    private final long[] counts;
+    private final long[] nanos;
+    private volatile boolean timing;
+
+    /**
+     * @param names the GL entry point names, indexed by the slot passed to {@link #begin(int)}
+     */
+    public GLCallProfiler(final String[] names) {
+        this.names = names;
+        this.counts = new long[names.length];
+        this.nanos = new long[names.length];
+    }
+
+    /** Enables or disables accumulating the elapsed time per entry point, disabled by default. */
+    public final void setTimingEnabled(final boolean enable) { timing = enable; }
+
+    /** Returns whether accumulating the elapsed time is enabled. */
+    public final boolean isTimingEnabled() { return timing; }
+
+    /** Returns the number of GL entry points. */
+    public final int getEntryPointCount() { return names.length; }
+
+    /**
+     * Counts a call of the given entry point, issued before the downstream call.
+     * @return the start time to be passed to {@link #end(int, long)} if timing is enabled, otherwise 0
+     */
+    public final long begin(final int slot) {
+        counts[slot]++;
+        return timing ? System.nanoTime() : 0;
+    }
+
+    /** Accumulates the elapsed time of the given entry point, issued after the downstream call. */
+    public final void end(final int slot, final long t0) {
+        if( 0 != t0 ) {
+            nanos[slot] += System.nanoTime() - t0;
+        }
+    }
+
+    /**
+     * Returns a {@link Snapshot} of all entry points called at least once.
+     * @param reset if <code>true</code>, clears all counter after taking the snapshot, e.g. for a per frame report
+     */
+    public final Snapshot snapshot(final boolean reset) {
+        final ArrayList<Entry> entries = new ArrayList<Entry>();
+        for(int i=0; i<names.length; i++) {
+            final long c = counts[i];
+            if( 0 < c ) {
+                entries.add(new Entry(names[i], c, nanos[i]));
+            }
+        }
+        if( reset ) {
+            reset();
+        }
+        return new Snapshot(entries);
+    }
+
+    /** Clears all counter. */
+    public final void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(nanos, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "GLCallProfiler[entryPoints "+names.length+", timing "+timing+"]";
+    }
+}
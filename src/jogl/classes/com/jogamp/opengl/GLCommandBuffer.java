@@ -0,0 +1,265 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.nio.PointerBuffer;
+
+/**
+ * In memory GL command buffer recorded by the generated <code>DeferredGL*</code> composable pipelines,
+ * e.g. <code>DeferredGL4bc</code>, on any thread and executed later on the thread holding the GL context.
+ * <p>
+ * Calls are encoded as primitive opcodes followed by their scalar arguments
+ * into a growing native ordered direct {@link ByteBuffer}.
+ * The remaining elements of NIO buffer arguments are copied into the same storage
+ * and passed as direct buffer views at execution.
+ * Primitive arrays, <code>String[]</code> and {@link PointerBuffer} arguments are copied as well,
+ * other object arguments are passed by reference.
+ * </p>
+ * <p>
+ * A command buffer is recorded by one thread at a time and shall not be modified while being executed.
+ * It may be executed multiple times, e.g. once per frame for static content, until it is {@link #reset()}.
+ * Client arrays passed e.g. via <code>glVertexAttribPointer</code> reference the command buffer storage
+ * and are only valid for draw calls within the same command buffer.
+ * </p>
+ * <p>
+ * Being a {@link GLRunnable}, a recorded command buffer is submitted to a {@link GLAutoDrawable}
+ * via {@link GLAutoDrawable#invoke(boolean, GLRunnable)} and executed in submission order,
+ * leaving only the execution to {@link GLAutoDrawable#display()}.
+ * Sample code preparing the scene in parallel:
+ * <pre>
+ *   // on each worker thread, using it's own pipeline and command buffer
+ *   final GLCommandBuffer cb = new GLCommandBuffer();
+ *   final DeferredGL4bc dgl = new DeferredGL4bc(drawable.getGL().getGL4bc(), cb);
+ *   scenePart.render(dgl);
+ *   ..
+ *   // in the desired order, e.g. after joining all workers
+ *   drawable.invoke(false, cb);
+ * </pre>
+ * </p>
+ */
+public class GLCommandBuffer implements GLRunnable {
+    /** Executes the call of one recorded slot, implemented by the generated pipeline. */
+    public static interface Executor {
+        /**
+         * Decodes the arguments of the given slot from the command buffer and issues the call.
+         * @param gl the target GL instance of the pipeline's interface type
+         * @param cb the command buffer positioned at the slot's first argument
+         * @param slot the recorded entry point slot
+         */
+        void execute(GL gl, GLCommandBuffer cb, int slot);
+    }
+
+    /** Default initial capacity in bytes, 64 kiB. */
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private ByteBuffer data;
+    private final ArrayList<Object> objects = new ArrayList<Object>();
+    private Executor executor;
+    private int commandCount;
+
+    private int readPos, readObject;
+
+    /** Creates a command buffer w/ {@link #DEFAULT_CAPACITY}. */
+    public GLCommandBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param initialCapacity initial capacity in bytes, growing as required */
+    public GLCommandBuffer(final int initialCapacity) {
+        data = Buffers.newDirectByteBuffer(Math.max(64, initialCapacity));
+    }
+
+    /**
+     * Binds the executor of the recording pipeline, called by it's constructor.
+     * @throws GLException if already attached to the executor of a different pipeline type
+     */
+    public final void attach(final Executor executor) throws GLException {
+        if( null != this.executor && this.executor != executor ) {
+            throw new GLException("Already attached to a different pipeline type: "+this);
+        }
+        this.executor = executor;
+    }
+
+    /** Clears all recorded commands, keeping the allocated storage. */
+    public final void reset() {
+        data.clear();
+        objects.clear();
+        commandCount = 0;
+    }
+
+    /** Returns the number of recorded commands. */
+    public final int getCommandCount() { return commandCount; }
+
+    /** Returns the number of recorded bytes, excluding objects passed by reference. */
+    public final int getSize() { return data.position(); }
+
+    /**
+     * Executes all recorded commands in order.
+     * @param gl the target GL instance, shall implement the interface of the recording pipeline, e.g. {@link GL4bc}
+     */
+    public final void execute(final GL gl) {
+        final int end = data.position();
+        readPos = 0;
+        readObject = 0;
+        try {
+            while( readPos < end ) {
+                final int slot = data.getInt(readPos);
+                readPos += 4;
+                executor.execute(gl, this, slot);
+            }
+        } finally {
+            readPos = 0;
+            readObject = 0;
+        }
+    }
+
+    /** {@link #execute(GL) Executes} all recorded commands on the drawable's GL. */
+    @Override
+    public boolean run(final GLAutoDrawable drawable) {
+        execute(drawable.getGL());
+        return true;
+    }
+
+    //
+    // Recording, used by the pipeline
+    //
+
+    /** Begins the record of a call of the given entry point slot, followed by it's arguments. */
+    public final void begin(final int slot) {
+        putInt(slot);
+        commandCount++;
+    }
+
+    public final void put(final boolean v) { ensure(1); data.put( v ? (byte)1 : (byte)0 ); }
+    public final void put(final byte v) { ensure(1); data.put(v); }
+    public final void put(final short v) { ensure(2); data.putShort(v); }
+    public final void put(final char v) { ensure(2); data.putChar(v); }
+    public final void put(final int v) { putInt(v); }
+    public final void put(final long v) { ensure(8); data.putLong(v); }
+    public final void put(final float v) { ensure(4); data.putFloat(v); }
+    public final void put(final double v) { ensure(8); data.putDouble(v); }
+
+    /** Copies the remaining elements of the given NIO buffer, which is not modified, 8 byte aligned. */
+    public final void put(final Buffer v) {
+        final byte kind = GLCommandRecorder.kindOf(v);
+        ensure(1);
+        data.put(kind);
+        if( GLCommandRecorder.KIND_NULL != kind ) {
+            final int n = v.remaining();
+            putInt(n);
+            final int bytes = n * GLCommandRecorder.sizeOf(kind);
+            ensure(bytes + 7);
+            data.position( align8(data.position()) );
+            final int pos = v.position();
+            GLCommandRecorder.copy(GLCommandRecorder.viewOf(data, kind), v);
+            v.position(pos);
+            data.position(data.position() + bytes);
+        }
+    }
+
+    public final void put(final byte[] v) { objects.add( null != v ? v.clone() : null ); }
+    public final void put(final short[] v) { objects.add( null != v ? v.clone() : null ); }
+    public final void put(final int[] v) { objects.add( null != v ? v.clone() : null ); }
+    public final void put(final long[] v) { objects.add( null != v ? v.clone() : null ); }
+    public final void put(final float[] v) { objects.add( null != v ? v.clone() : null ); }
+    public final void put(final double[] v) { objects.add( null != v ? v.clone() : null ); }
+    public final void put(final String[] v) { objects.add( null != v ? v.clone() : null ); }
+
+    /** Copies the remaining elements of the given {@link PointerBuffer}. */
+    public final void put(final PointerBuffer v) {
+        if( null == v ) {
+            objects.add(null);
+            return;
+        }
+        final int n = v.remaining();
+        final PointerBuffer c = PointerBuffer.allocateDirect(n);
+        for(int i=0; i<n; i++) {
+            c.put(v.get(v.position()+i));
+        }
+        c.rewind();
+        objects.add(c);
+    }
+
+    /** Other object arguments, including {@link String}s, are passed by reference. */
+    public final void put(final Object v) { objects.add(v); }
+
+    //
+    // Decoding, used by the pipeline's Executor
+    //
+
+    public final boolean getBoolean() { return 0 != data.get(readPos++); }
+    public final byte getByte() { return data.get(readPos++); }
+    public final short getShort() { final short v = data.getShort(readPos); readPos += 2; return v; }
+    public final char getChar() { final char v = data.getChar(readPos); readPos += 2; return v; }
+    public final int getInt() { final int v = data.getInt(readPos); readPos += 4; return v; }
+    public final long getLong() { final long v = data.getLong(readPos); readPos += 8; return v; }
+    public final float getFloat() { final float v = data.getFloat(readPos); readPos += 4; return v; }
+    public final double getDouble() { final double v = data.getDouble(readPos); readPos += 8; return v; }
+
+    /** Returns a direct view of the copied buffer elements, or <code>null</code>. */
+    public final Buffer getBuffer() {
+        final byte kind = data.get(readPos++);
+        if( GLCommandRecorder.KIND_NULL == kind ) {
+            return null;
+        }
+        final int n = getInt();
+        readPos = align8(readPos);
+        final int bytes = n * GLCommandRecorder.sizeOf(kind);
+        final ByteBuffer bb = data.duplicate();
+        bb.order(data.order());
+        bb.limit(readPos + bytes).position(readPos);
+        readPos += bytes;
+        return GLCommandRecorder.viewOf(bb.slice().order(data.order()), kind);
+    }
+
+    /** Returns the next object argument. */
+    public final Object getObject() { return objects.get(readObject++); }
+
+    private void putInt(final int v) { ensure(4); data.putInt(v); }
+
+    private static int align8(final int pos) { return ( pos + 7 ) & ~7; }
+
+    private void ensure(final int bytes) {
+        if( data.remaining() < bytes ) {
+            final ByteBuffer grown = Buffers.newDirectByteBuffer( Math.max(2 * data.capacity(), data.position() + bytes) );
+            data.flip();
+            grown.put(data);
+            data = grown;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GLCommandBuffer[commands "+commandCount+", "+data.position()+" / "+data.capacity()+" bytes, objects "+objects.size()+"]";
+    }
+}
@@ -0,0 +1,587 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.nio.PointerBuffer;
+import com.jogamp.common.util.IntObjectHashMap;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+/**
+ * Binary GL command log writer used by the generated <code>RecordGL*</code> composable pipelines,
+ * e.g. <code>RecordGL4bc</code>, to be re-issued by {@link GLCommandReplayer}.
+ * <p>
+ * Each call is serialized with its scalar arguments and the content of the referenced client memory,
+ * i.e. the remaining elements of NIO buffers, the complete primitive arrays, strings and {@link PointerBuffer}s.
+ * Convenience methods taking {@link GLArrayData} or {@link GLUniformData} are expanded by the pipeline
+ * into the plain GL calls issued by the GL implementation, which are recorded instead.
+ * Other object arguments are not recorded and replayed as <code>null</code>.
+ * An entry point is identified by an integer slot, defined by it's name and parameter signature
+ * in the stream before it's first call. Hence the log is self contained and can be replayed
+ * against any GL implementation providing the recorded entry points.
+ * </p>
+ * <p>
+ * Data is gathered in a native ordered direct staging buffer
+ * and written to the {@link WritableByteChannel} whenever the staging buffer is full,
+ * on {@link #flush()} and {@link #close()}.
+ * </p>
+ * <p>
+ * Object names and sync handles created while recording, e.g. via <code>glGenBuffers</code>,
+ * <code>glCreateProgram</code> or <code>glFenceSync</code>, are recorded as {@link #result(int) results}
+ * of their call and translated by {@link GLCommandReplayer} to the ones created while replaying.
+ * Other returned values are not recorded, e.g. uniform locations are replayed verbatim.
+ * </p>
+ * <p>
+ * Data written into mapped buffer storage is recorded when made available to GL,
+ * i.e. the flushed range at <code>glFlushMappedBufferRange</code> and the whole mapped range at <code>glUnmapBuffer</code>,
+ * unless mapped w/ {@link GL#GL_MAP_FLUSH_EXPLICIT_BIT} or for reading only.
+ * This covers all storage mapped via the recording pipeline, e.g. by {@link GL#mapBufferRange(int, long, long, int)}
+ * as used by {@link com.jogamp.opengl.util.GLStreamBuffer} and {@link com.jogamp.opengl.util.GLArrayDataServer#mapStorage(GL, int)}.
+ * Writes into persistently mapped storage are only captured at these points as well.
+ * </p>
+ * <p>
+ * Recording is not synchronized and shall be performed on the GL thread only.
+ * I/O errors are thrown as {@link GLException}.
+ * </p>
+ * <p>
+ * Sample code recording a few frames:
+ * <pre>
+ *   final GLCommandRecorder recorder = new GLCommandRecorder(new FileOutputStream("frames.glrec").getChannel());
+ *   drawable.setGL(new RecordGL4bc(drawable.getGL().getGL4bc(), recorder));
+ *   ..
+ *   // at the end of display(..)
+ *   recorder.frame();
+ *   ..
+ *   recorder.close();
+ * </pre>
+ * </p>
+ */
+public class GLCommandRecorder {
+    /** Stream magic 'JGLR', followed by the byte order, {@link #VERSION} and two pad bytes. */
+    static final byte[] MAGIC = { 'J', 'G', 'L', 'R' };
+    /** Stream format version. */
+    static final int VERSION = 2;
+    /** Record tag defining an entry point slot: <code>int slot, string name, string signature</code>. */
+    static final int TAG_DEFINE = -1;
+    /** Record tag marking the end of a frame. */
+    static final int TAG_FRAME = -2;
+    /** Record tag of the object names or handles created by the preceding call: <code>int n, n longs</code>. */
+    static final int TAG_RESULT = -3;
+    /** Record tag associating the storage mapped by the preceding call w/ it's buffer: <code>int buffer</code>. */
+    static final int TAG_MAP = -4;
+    /** Record tag of data written into mapped storage: <code>int buffer, int offset, bytes</code>. */
+    static final int TAG_MAPPED_WRITE = -5;
+
+    /** Buffer kinds, 0 denotes <code>null</code>. */
+    static final byte KIND_NULL = 0, KIND_BYTE = 1, KIND_SHORT = 2, KIND_CHAR = 3, KIND_INT = 4,
+                      KIND_LONG = 5, KIND_FLOAT = 6, KIND_DOUBLE = 7;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** Default staging buffer size, 256 kiB. */
+    public static final int DEFAULT_STAGING_SIZE = 256 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer staging;
+    private String[] names;
+    private String[] signatures;
+    private boolean[] defined;
+    /** Storage mapped for writing by buffer name, see {@link #mapped(int, ByteBuffer, int, boolean)}. */
+    private final IntObjectHashMap mappings = new IntObjectHashMap();
+    private long callCount, frameCount, bytesWritten;
+    private boolean closed;
+
+    /**
+     * Creates a recorder using a {@link #DEFAULT_STAGING_SIZE} staging buffer.
+     * @param channel the destination of the command log
+     */
+    public GLCommandRecorder(final WritableByteChannel channel) {
+        this(channel, DEFAULT_STAGING_SIZE);
+    }
+
+    /**
+     * @param channel the destination of the command log
+     * @param stagingSize size of the staging buffer in bytes, at least 64
+     */
+    public GLCommandRecorder(final WritableByteChannel channel, final int stagingSize) {
+        if( null == channel ) {
+            throw new IllegalArgumentException("null channel");
+        }
+        if( 64 > stagingSize ) {
+            throw new IllegalArgumentException("stagingSize "+stagingSize+" < 64");
+        }
+        this.channel = channel;
+        this.staging = Buffers.newDirectByteBuffer(stagingSize); // native order
+        staging.put(MAGIC);
+        staging.put( ByteOrder.LITTLE_ENDIAN == staging.order() ? (byte)1 : (byte)0 );
+        staging.put((byte)VERSION);
+        staging.putShort((short)0);
+    }
+
+    /**
+     * Binds the entry point tables of the recording pipeline, called by it's constructor.
+     * @param names GL function names, indexed by slot
+     * @param signatures comma separated {@link Class#getName() parameter class names}, indexed by slot
+     * @throws GLException if already attached to different tables
+     */
+    public final void attach(final String[] names, final String[] signatures) throws GLException {
+        if( names.length != signatures.length ) {
+            throw new IllegalArgumentException("names "+names.length+" != signatures "+signatures.length);
+        }
+        if( null != this.names ) {
+            if( this.names != names || this.signatures != signatures ) {
+                throw new GLException("Already attached to a different pipeline: "+this);
+            }
+            return;
+        }
+        this.names = names;
+        this.signatures = signatures;
+        this.defined = new boolean[names.length];
+    }
+
+    /** Begins the record of a call of the given entry point slot, followed by it's arguments. */
+    public final void begin(final int slot) {
+        if( !defined[slot] ) {
+            defined[slot] = true;
+            putInt(TAG_DEFINE);
+            putInt(slot);
+            put(names[slot]);
+            put(signatures[slot]);
+        }
+        putInt(slot);
+        callCount++;
+    }
+
+    /** Marks the end of a frame, allowing {@link GLCommandReplayer#replayFrame(GL)} to replay frame by frame. */
+    public final void frame() {
+        putInt(TAG_FRAME);
+        frameCount++;
+    }
+
+    /** Records the object name or handle returned by the preceding call, e.g. <code>glCreateProgram</code>. */
+    public final void result(final int v) {
+        putInt(TAG_RESULT);
+        putInt(1);
+        put((long)v);
+    }
+
+    /** Records the sync handle returned by the preceding call, e.g. <code>glFenceSync</code>. */
+    public final void result(final long v) {
+        putInt(TAG_RESULT);
+        putInt(1);
+        put(v);
+    }
+
+    /** Records the <code>n</code> object names created by the preceding call, e.g. <code>glGenBuffers</code>. */
+    public final void result(final int[] v, final int offset, final int n) {
+        putInt(TAG_RESULT);
+        putInt(n);
+        for(int i=0; i<n; i++) {
+            put((long)v[offset+i]);
+        }
+    }
+
+    /** Records the first <code>n</code> remaining object names created by the preceding call, e.g. <code>glGenBuffers</code>. */
+    public final void result(final IntBuffer v, final int n) {
+        putInt(TAG_RESULT);
+        putInt(n);
+        final int p = v.position();
+        for(int i=0; i<n; i++) {
+            put((long)v.get(p+i));
+        }
+    }
+
+    /**
+     * Tracks the storage mapped by the preceding call, e.g. <code>glMapBufferRange</code>,
+     * for recording the data written into it at {@link #flushMapped(int, long, long)} and {@link #unmap(int)}.
+     * <p>
+     * Mappings are identified by buffer name, the pipeline passes the buffer bound to the target for target based calls.
+     * Hence buffers may be unbound while mapped, as done by {@link com.jogamp.opengl.util.GLArrayDataServer#mapStorage(GL, int)}.
+     * </p>
+     * @param buffer the mapped buffer name
+     * @param storage the mapped storage, may be <code>null</code> if mapping failed
+     * @param access the access enum or, if <code>range</code> is <code>true</code>, the access bitfield
+     * @param range <code>true</code> if mapped via a <code>*MapBufferRange</code> variant
+     */
+    public final void mapped(final int buffer, final ByteBuffer storage, final int access, final boolean range) {
+        final boolean write = range ? 0 != ( GL.GL_MAP_WRITE_BIT & access ) : GL2ES3.GL_READ_ONLY != access;
+        if( null == storage || !write ) {
+            mappings.remove(buffer);
+            return;
+        }
+        mappings.put(buffer, new Mapping(storage, range && 0 != ( GL.GL_MAP_FLUSH_EXPLICIT_BIT & access )));
+        putInt(TAG_MAP);
+        putInt(buffer);
+    }
+
+    /** See {@link #mapped(int, ByteBuffer, int, boolean)}. */
+    public final void mapped(final int buffer, final GLBufferStorage storage, final int access, final boolean range) {
+        mapped(buffer, null != storage ? storage.getMappedBuffer() : null, access, range);
+    }
+
+    /** Records the data written into the given range of the tracked mapped storage, issued before <code>glFlushMappedBufferRange</code>. */
+    public final void flushMapped(final int buffer, final long offset, final long length) {
+        final Mapping mapping = (Mapping) mappings.get(buffer);
+        if( null != mapping ) {
+            putMapped(buffer, mapping.storage, offset, length);
+        }
+    }
+
+    /** Records the data written into the tracked mapped storage and stops tracking it, issued before <code>glUnmapBuffer</code>. */
+    public final void unmap(final int buffer) {
+        final Mapping mapping = (Mapping) mappings.remove(buffer);
+        if( null != mapping && !mapping.explicitFlush ) {
+            putMapped(buffer, mapping.storage, 0, mapping.storage.capacity());
+        }
+    }
+
+    /** Returns the number of recorded calls. */
+    public final long getCallCount() { return callCount; }
+
+    /** Returns the number of recorded {@link #frame() frames}. */
+    public final long getFrameCount() { return frameCount; }
+
+    /** Returns the number of bytes written to the channel so far, excluding staged data. */
+    public final long getBytesWritten() { return bytesWritten; }
+
+    public final void put(final boolean v) { ensure(1); staging.put( v ? (byte)1 : (byte)0 ); }
+    public final void put(final byte v) { ensure(1); staging.put(v); }
+    public final void put(final short v) { ensure(2); staging.putShort(v); }
+    public final void put(final char v) { ensure(2); staging.putChar(v); }
+    public final void put(final int v) { putInt(v); }
+    public final void put(final long v) { ensure(8); staging.putLong(v); }
+    public final void put(final float v) { ensure(4); staging.putFloat(v); }
+    public final void put(final double v) { ensure(8); staging.putDouble(v); }
+
+    /** Records the kind and the remaining elements of the given NIO buffer, which is not modified. */
+    public final void put(final Buffer v) {
+        final byte kind = kindOf(v);
+        ensure(1);
+        staging.put(kind);
+        if( KIND_NULL != kind ) {
+            putInt(v.remaining());
+            final int pos = v.position();
+            final int lim = v.limit();
+            try {
+                putElements(v, kind);
+            } finally {
+                v.limit(lim);
+                v.position(pos);
+            }
+        }
+    }
+
+    public final void put(final byte[] v) { if( putLength(null != v ? v.length : -1) ) { putElements(ByteBuffer.wrap(v), KIND_BYTE); } }
+    public final void put(final short[] v) { if( putLength(null != v ? v.length : -1) ) { putElements(ShortBuffer.wrap(v), KIND_SHORT); } }
+    public final void put(final int[] v) { if( putLength(null != v ? v.length : -1) ) { putElements(IntBuffer.wrap(v), KIND_INT); } }
+    public final void put(final long[] v) { if( putLength(null != v ? v.length : -1) ) { putElements(LongBuffer.wrap(v), KIND_LONG); } }
+    public final void put(final float[] v) { if( putLength(null != v ? v.length : -1) ) { putElements(FloatBuffer.wrap(v), KIND_FLOAT); } }
+    public final void put(final double[] v) { if( putLength(null != v ? v.length : -1) ) { putElements(DoubleBuffer.wrap(v), KIND_DOUBLE); } }
+
+    /** Records the given string as UTF-8 bytes. */
+    public final void put(final String v) {
+        final byte[] b = null != v ? v.getBytes(UTF8) : null;
+        put(b);
+    }
+
+    public final void put(final String[] v) {
+        if( putLength(null != v ? v.length : -1) ) {
+            for(int i=0; i<v.length; i++) {
+                put(v[i]);
+            }
+        }
+    }
+
+    /** Records the remaining elements of the given {@link PointerBuffer} as 64bit values. */
+    public final void put(final PointerBuffer v) {
+        if( putLength(null != v ? v.remaining() : -1) ) {
+            final int p = v.position();
+            for(int i=0; i<v.remaining(); i++) {
+                put(v.get(p+i));
+            }
+        }
+    }
+
+    /** Unsupported object arguments are not recorded and replayed as <code>null</code>. */
+    public final void put(final Object v) { }
+
+    /** Writes all staged data to the channel. */
+    public final void flush() throws GLException {
+        staging.flip();
+        try {
+            while( staging.hasRemaining() ) {
+                bytesWritten += channel.write(staging);
+            }
+        } catch (final IOException ioe) {
+            throw new GLException("Writing GL command log failed", ioe);
+        } finally {
+            staging.clear();
+        }
+    }
+
+    /** {@link #flush() Flushes} and closes the channel. Subsequent calls have no effect. */
+    public final void close() throws GLException {
+        if( closed ) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (final IOException ioe) {
+                throw new GLException("Closing GL command log failed", ioe);
+            }
+        }
+    }
+
+    private void putInt(final int v) { ensure(4); staging.putInt(v); }
+
+    private void putMapped(final int buffer, final ByteBuffer storage, final long offset, final long length) {
+        final int capacity = storage.capacity();
+        final int start = (int) Math.max(0, Math.min(offset, capacity));
+        final int end = (int) Math.max(start, Math.min(offset + length, capacity));
+        final ByteBuffer src = storage.duplicate();
+        src.clear();
+        src.position(start);
+        src.limit(end);
+        putInt(TAG_MAPPED_WRITE);
+        putInt(buffer);
+        putInt(start);
+        putInt(end - start);
+        putElements(src, KIND_BYTE);
+    }
+
+    /** Writes the length, returns <code>false</code> for <code>null</code>, i.e. a negative length. */
+    private boolean putLength(final int len) {
+        putInt(len);
+        return 0 <= len;
+    }
+
+    private void ensure(final int bytes) {
+        if( closed ) {
+            throw new GLException("Recorder closed");
+        }
+        if( staging.remaining() < bytes ) {
+            flush();
+        }
+    }
+
+    /** Copies all remaining elements of <code>src</code> into the staging buffer, flushing as required. */
+    private void putElements(final Buffer src, final byte kind) {
+        final int elemSize = sizeOf(kind);
+        while( src.hasRemaining() ) {
+            ensure(elemSize);
+            final int n = Math.min(src.remaining(), staging.remaining() / elemSize);
+            final int limit = src.limit();
+            src.limit(src.position() + n);
+            copy(viewOf(staging, kind), src);
+            src.limit(limit);
+            staging.position(staging.position() + n * elemSize);
+        }
+    }
+
+    private static class Mapping {
+        final ByteBuffer storage;
+        final boolean explicitFlush;
+
+        Mapping(final ByteBuffer storage, final boolean explicitFlush) {
+            this.storage = storage;
+            this.explicitFlush = explicitFlush;
+        }
+    }
+
+    static byte kindOf(final Buffer b) {
+        if( null == b ) { return KIND_NULL; }
+        if( b instanceof ByteBuffer ) { return KIND_BYTE; }
+        if( b instanceof ShortBuffer ) { return KIND_SHORT; }
+        if( b instanceof CharBuffer ) { return KIND_CHAR; }
+        if( b instanceof IntBuffer ) { return KIND_INT; }
+        if( b instanceof LongBuffer ) { return KIND_LONG; }
+        if( b instanceof FloatBuffer ) { return KIND_FLOAT; }
+        if( b instanceof DoubleBuffer ) { return KIND_DOUBLE; }
+        throw new GLException("Unsupported buffer type: "+b.getClass().getName());
+    }
+
+    static int sizeOf(final byte kind) {
+        switch( kind ) {
+            case KIND_BYTE: return Buffers.SIZEOF_BYTE;
+            case KIND_SHORT: return Buffers.SIZEOF_SHORT;
+            case KIND_CHAR: return Buffers.SIZEOF_CHAR;
+            case KIND_INT: return Buffers.SIZEOF_INT;
+            case KIND_LONG: return Buffers.SIZEOF_LONG;
+            case KIND_FLOAT: return Buffers.SIZEOF_FLOAT;
+            case KIND_DOUBLE: return Buffers.SIZEOF_DOUBLE;
+            default: throw new GLException("Invalid buffer kind "+kind);
+        }
+    }
+
+    /** Returns a view of the remaining bytes of <code>bb</code> w/ the element type of the given kind and it's byte order. */
+    static Buffer viewOf(final ByteBuffer bb, final byte kind) {
+        switch( kind ) {
+            case KIND_BYTE: return bb.slice();
+            case KIND_SHORT: return bb.asShortBuffer();
+            case KIND_CHAR: return bb.asCharBuffer();
+            case KIND_INT: return bb.asIntBuffer();
+            case KIND_LONG: return bb.asLongBuffer();
+            case KIND_FLOAT: return bb.asFloatBuffer();
+            case KIND_DOUBLE: return bb.asDoubleBuffer();
+            default: throw new GLException("Invalid buffer kind "+kind);
+        }
+    }
+
+    /** Copies the remaining elements of <code>src</code> into <code>dst</code> of the same element type. */
+    static void copy(final Buffer dst, final Buffer src) {
+        if( dst instanceof ByteBuffer ) { ((ByteBuffer)dst).put((ByteBuffer)src); }
+        else if( dst instanceof ShortBuffer ) { ((ShortBuffer)dst).put((ShortBuffer)src); }
+        else if( dst instanceof CharBuffer ) { ((CharBuffer)dst).put((CharBuffer)src); }
+        else if( dst instanceof IntBuffer ) { ((IntBuffer)dst).put((IntBuffer)src); }
+        else if( dst instanceof LongBuffer ) { ((LongBuffer)dst).put((LongBuffer)src); }
+        else if( dst instanceof FloatBuffer ) { ((FloatBuffer)dst).put((FloatBuffer)src); }
+        else { ((DoubleBuffer)dst).put((DoubleBuffer)src); }
+    }
+
+    //
+    // Expansion of the GLArrayData and GLUniformData convenience methods into recordable plain GL calls,
+    // mirroring the GL implementation. Issued by the recording pipeline on itself.
+    //
+
+    static void glVertexAttribPointer(final GL2ES2 gl, final GLArrayData array) {
+        if( 0 == array.getComponentCount() ) { return; }
+        if( array.isVBO() ) {
+            gl.glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                     array.getNormalized(), array.getStride(), array.getVBOOffset());
+        } else if( gl instanceof GL2 ) {
+            ((GL2)gl).glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                            array.getNormalized(), array.getStride(), array.getBuffer());
+        } else {
+            ((GLES2)gl).glVertexAttribPointer(array.getLocation(), array.getComponentCount(), array.getComponentType(),
+                                              array.getNormalized(), array.getStride(), array.getBuffer());
+        }
+    }
+
+    static void glVertexPointer(final GLPointerFunc gl, final GLArrayData array) {
+        if( 0 == array.getComponentCount() ) { return; }
+        if( array.isVBO() ) {
+            gl.glVertexPointer(array.getComponentCount(), array.getComponentType(), array.getStride(), array.getVBOOffset());
+        } else {
+            gl.glVertexPointer(array.getComponentCount(), array.getComponentType(), array.getStride(), array.getBuffer());
+        }
+    }
+
+    static void glColorPointer(final GLPointerFunc gl, final GLArrayData array) {
+        if( 0 == array.getComponentCount() ) { return; }
+        if( array.isVBO() ) {
+            gl.glColorPointer(array.getComponentCount(), array.getComponentType(), array.getStride(), array.getVBOOffset());
+        } else {
+            gl.glColorPointer(array.getComponentCount(), array.getComponentType(), array.getStride(), array.getBuffer());
+        }
+    }
+
+    static void glNormalPointer(final GLPointerFunc gl, final GLArrayData array) {
+        if( 0 == array.getComponentCount() ) { return; }
+        if( 3 != array.getComponentCount() ) {
+            throw new GLException("Only 3 components per normal allowed");
+        }
+        if( array.isVBO() ) {
+            gl.glNormalPointer(array.getComponentType(), array.getStride(), array.getVBOOffset());
+        } else {
+            gl.glNormalPointer(array.getComponentType(), array.getStride(), array.getBuffer());
+        }
+    }
+
+    static void glTexCoordPointer(final GLPointerFunc gl, final GLArrayData array) {
+        if( 0 == array.getComponentCount() ) { return; }
+        if( array.isVBO() ) {
+            gl.glTexCoordPointer(array.getComponentCount(), array.getComponentType(), array.getStride(), array.getVBOOffset());
+        } else {
+            gl.glTexCoordPointer(array.getComponentCount(), array.getComponentType(), array.getStride(), array.getBuffer());
+        }
+    }
+
+    static void glUniform(final GL2ES2 gl, final GLUniformData data) {
+        final int loc = data.getLocation();
+        if( data.isBuffer() ) {
+            final Buffer buffer = data.getBuffer();
+            if( data.isMatrix() ) {
+                if( buffer instanceof FloatBuffer ) {
+                    switch( data.columns() ) {
+                        case 2: gl.glUniformMatrix2fv(loc, data.count(), false, (FloatBuffer)buffer); return;
+                        case 3: gl.glUniformMatrix3fv(loc, data.count(), false, (FloatBuffer)buffer); return;
+                        case 4: gl.glUniformMatrix4fv(loc, data.count(), false, (FloatBuffer)buffer); return;
+                    }
+                }
+                throw new GLException("glUniformMatrix only available for 2fv, 3fv and 4fv");
+            }
+            if( buffer instanceof IntBuffer ) {
+                switch( data.components() ) {
+                    case 1: gl.glUniform1iv(loc, data.count(), (IntBuffer)buffer); return;
+                    case 2: gl.glUniform2iv(loc, data.count(), (IntBuffer)buffer); return;
+                    case 3: gl.glUniform3iv(loc, data.count(), (IntBuffer)buffer); return;
+                    case 4: gl.glUniform4iv(loc, data.count(), (IntBuffer)buffer); return;
+                }
+            } else if( buffer instanceof FloatBuffer ) {
+                switch( data.components() ) {
+                    case 1: gl.glUniform1fv(loc, data.count(), (FloatBuffer)buffer); return;
+                    case 2: gl.glUniform2fv(loc, data.count(), (FloatBuffer)buffer); return;
+                    case 3: gl.glUniform3fv(loc, data.count(), (FloatBuffer)buffer); return;
+                    case 4: gl.glUniform4fv(loc, data.count(), (FloatBuffer)buffer); return;
+                }
+            }
+            throw new GLException("glUniform vector only available for 1[if]v 2[if]v, 3[if]v and 4[if]v");
+        }
+        final Object obj = data.getObject();
+        if( obj instanceof Integer ) {
+            gl.glUniform1i(loc, ((Integer)obj).intValue());
+        } else if( obj instanceof Float ) {
+            gl.glUniform1f(loc, ((Float)obj).floatValue());
+        } else {
+            throw new GLException("glUniform atom only available for 1i and 1f");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GLCommandRecorder[calls "+callCount+", frames "+frameCount+", written "+bytesWritten+
+               " bytes, staged "+staging.position()+" bytes, closed "+closed+"]";
+    }
+}
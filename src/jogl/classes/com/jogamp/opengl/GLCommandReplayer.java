@@ -0,0 +1,690 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.nio.PointerBuffer;
+import com.jogamp.common.util.IntObjectHashMap;
+import com.jogamp.common.util.LongLongHashMap;
+
+/**
+ * Re-issues a binary GL command log written by {@link GLCommandRecorder}
+ * against any {@link GL} implementation, e.g. a native GL context or a mock GL instance,
+ * while measuring the time spent within the GL calls.
+ * <p>
+ * Entry points are resolved by name and parameter signature via reflection on the target's class
+ * at their definition within the stream.
+ * All client memory is reconstructed as native ordered direct NIO buffers or arrays,
+ * the arguments of the last call of each entry point are retained,
+ * so client arrays passed e.g. to <code>glVertexAttribPointer</code> remain valid for subsequent draw calls.
+ * </p>
+ * <p>
+ * Object names and sync handles recorded as results of their creating call, e.g. <code>glGenBuffers</code>,
+ * are mapped to the ones created while replaying. Arguments of known entry points referring to such objects,
+ * e.g. of <code>glBindBuffer</code> or <code>glDeleteTextures</code>, are translated accordingly,
+ * unknown names are passed verbatim. Recorded data written into mapped buffer storage
+ * is copied into the storage mapped while replaying before it is flushed or unmapped.
+ * </p>
+ * <p>
+ * Only the time spent within the GL calls is accumulated, decoding the stream is excluded.
+ * Replaying shall be performed on the thread having the target's GL context current.
+ * </p>
+ * <p>
+ * Sample code replaying one recorded frame per display:
+ * <pre>
+ *   final GLCommandReplayer replayer = new GLCommandReplayer(new FileInputStream("frames.glrec").getChannel());
+ *   ..
+ *   // within display(..)
+ *   if( !replayer.replayFrame(drawable.getGL()) ) {
+ *       System.err.println(replayer);
+ *   }
+ * </pre>
+ * </p>
+ */
+public class GLCommandReplayer {
+    private static final int ARG_UNSUPPORTED = 0, ARG_BOOLEAN = 1, ARG_BYTE = 2, ARG_CHAR = 3, ARG_SHORT = 4, ARG_INT = 5,
+                             ARG_LONG = 6, ARG_FLOAT = 7, ARG_DOUBLE = 8, ARG_BUFFER = 9,
+                             ARG_BYTE_ARRAY = 10, ARG_SHORT_ARRAY = 11, ARG_INT_ARRAY = 12, ARG_LONG_ARRAY = 13,
+                             ARG_FLOAT_ARRAY = 14, ARG_DOUBLE_ARRAY = 15, ARG_STRING = 16, ARG_STRING_ARRAY = 17,
+                             ARG_POINTER_BUFFER = 18;
+
+    /**
+     * Object name namespaces: buffer, texture, framebuffer, renderbuffer, vertex array, query, sampler,
+     * program and shader, program pipeline, transform feedback, display list and sync.
+     */
+    private static final String NAMESPACES = "BTFRVQSPLXDY";
+
+    /** Entry points creating object names w/ their namespace. */
+    private static final String[] PRODUCERS = {
+        "glGenBuffers", "B", "glCreateBuffers", "B",
+        "glGenTextures", "T", "glCreateTextures", "T",
+        "glGenFramebuffers", "F", "glCreateFramebuffers", "F",
+        "glGenRenderbuffers", "R", "glCreateRenderbuffers", "R",
+        "glGenVertexArrays", "V", "glCreateVertexArrays", "V",
+        "glGenQueries", "Q", "glCreateQueries", "Q",
+        "glGenSamplers", "S", "glCreateSamplers", "S",
+        "glCreateProgram", "P", "glCreateShader", "P", "glCreateShaderProgramv", "P",
+        "glGenProgramPipelines", "L", "glCreateProgramPipelines", "L",
+        "glGenTransformFeedbacks", "X", "glCreateTransformFeedbacks", "X",
+        "glGenLists", "D",
+        "glFenceSync", "Y" };
+
+    /**
+     * Entry points referring to object names w/ the namespace of each argument, <code>'.'</code> denoting none.
+     * Names ending w/ <code>'*'</code> match by prefix, the first match applies.
+     */
+    private static final String[] CONSUMERS = {
+        // buffer
+        "glBindBuffer", ".B", "glBindBufferBase", "..B", "glBindBufferRange", "..B",
+        "glBindBuffersBase", "...B", "glBindBuffersRange", "...B", "glDeleteBuffers", ".B", "glIsBuffer", "B",
+        "glBindVertexBuffer", ".B", "glTexBuffer", "..B", "glTexBufferRange", "..B",
+        "glNamedBuffer*", "B", "glCopyNamedBufferSubData", "BB", "glClearNamedBuffer*", "B", "glGetNamedBuffer*", "B",
+        "mapNamedBuffer*", "B", "glMapNamedBuffer*", "B", "glUnmapNamedBuffer*", "B", "glFlushMappedNamedBufferRange*", "B",
+        "glInvalidateBuffer*", "B",
+        // texture
+        "glBindTexture", ".T", "glDeleteTextures", ".T", "glIsTexture", "T",
+        "glBindTextureUnit", ".T", "glBindTextures", "..T", "glBindImageTexture", ".T",
+        "glFramebufferTexture", "..T", "glFramebufferTexture1D", "...T", "glFramebufferTexture2D", "...T",
+        "glFramebufferTexture3D", "...T", "glFramebufferTextureLayer", "..T",
+        "glTextureBuffer", "T.B", "glTextureBufferRange", "T.B", "glTextureView", "T.T",
+        "glTexture*", "T", "glCopyTextureSubImage*", "T", "glGenerateTextureMipmap", "T", "glGetTexture*", "T",
+        "glInvalidateTex*", "T", "glClearTex*", "T",
+        // framebuffer
+        "glBindFramebuffer", ".F", "glDeleteFramebuffers", ".F", "glIsFramebuffer", "F",
+        "glNamedFramebufferTexture", "F.T", "glNamedFramebufferTextureLayer", "F.T", "glNamedFramebufferRenderbuffer", "F..R",
+        "glNamedFramebuffer*", "F", "glBlitNamedFramebuffer", "FF", "glCheckNamedFramebufferStatus", "F",
+        "glInvalidateNamedFramebuffer*", "F", "glClearNamedFramebuffer*", "F", "glGetNamedFramebuffer*", "F",
+        // renderbuffer
+        "glBindRenderbuffer", ".R", "glDeleteRenderbuffers", ".R", "glIsRenderbuffer", "R", "glFramebufferRenderbuffer", "...R",
+        "glNamedRenderbuffer*", "R", "glGetNamedRenderbuffer*", "R",
+        // vertex array
+        "glBindVertexArray", "V", "glDeleteVertexArrays", ".V", "glIsVertexArray", "V",
+        "glVertexArrayVertexBuffer", "V.B", "glVertexArrayElementBuffer", "VB", "glVertexArray*", "V",
+        "glEnableVertexArrayAttrib", "V", "glDisableVertexArrayAttrib", "V", "glGetVertexArray*", "V",
+        // query
+        "glBeginQuery", ".Q", "glBeginQueryIndexed", "..Q", "glDeleteQueries", ".Q", "glIsQuery", "Q", "glQueryCounter", "Q",
+        "glGetQueryObject*", "Q", "glGetQueryBufferObject*", "QB", "glBeginConditionalRender", "Q",
+        // sampler
+        "glBindSampler", ".S", "glBindSamplers", "..S", "glDeleteSamplers", ".S", "glIsSampler", "S",
+        "glSamplerParameter*", "S", "glGetSamplerParameter*", "S",
+        // program pipeline
+        "glBindProgramPipeline", "L", "glDeleteProgramPipelines", ".L", "glIsProgramPipeline", "L",
+        "glValidateProgramPipeline", "L", "glGetProgramPipeline*", "L", "glUseProgramStages", "L.P", "glActiveShaderProgram", "LP",
+        // program and shader
+        "glUseProgram", "P", "glDeleteProgram", "P", "glDeleteShader", "P", "glIsProgram", "P", "glIsShader", "P",
+        "glAttachShader", "PP", "glDetachShader", "PP", "glShaderSource", "P", "glShaderBinary", ".P", "glCompileShader", "P",
+        "glLinkProgram", "P", "glValidateProgram", "P", "glProgramBinary", "P", "glProgramParameteri", "P",
+        "glProgramUniform*", "P", "glGetProgram*", "P", "glGetShaderPrecisionFormat", "", "glGetShader*", "P",
+        "glGetAttachedShaders", "P",
+        "glBindAttribLocation", "P", "glGetAttribLocation", "P", "glGetActive*", "P",
+        "glGetUniformSubroutineuiv", "", "glGetUniform*", "P", "glUniformBlockBinding", "P", "glShaderStorageBlockBinding", "P",
+        "glBindFragDataLocation*", "P", "glGetFragData*", "P", "glGetSubroutine*", "P",
+        "glTransformFeedbackVaryings", "P", "glGetTransformFeedbackVarying", "P",
+        // transform feedback
+        "glBindTransformFeedback", ".X", "glDeleteTransformFeedbacks", ".X", "glIsTransformFeedback", "X",
+        "glDrawTransformFeedback*", ".X", "glTransformFeedbackBuffer*", "X.B", "glGetTransformFeedback*", "X",
+        // display list
+        "glNewList", "D", "glCallList", "D", "glDeleteLists", "D", "glIsList", "D",
+        // sync
+        "glClientWaitSync", "Y", "glWaitSync", "Y", "glDeleteSync", "Y", "glIsSync", "Y", "glGetSynciv", "Y" };
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer staging;
+
+    private String[] names = new String[0];
+    private Class<?>[][] paramTypes = new Class<?>[0][];
+    private int[][] argCodes = new int[0][];
+    private Object[][] lastArgs = new Object[0][];
+    private Method[] methods = new Method[0];
+    private String[] nameArgs = new String[0];
+    private int[] producedNames = new int[0];
+    private Class<?> targetClass;
+
+    /** Recorded to replayed object names, indexed by {@link #NAMESPACES namespace}. */
+    private final LongLongHashMap[] objectNames = new LongLongHashMap[NAMESPACES.length()];
+    /** Storage mapped while replaying, by recorded buffer name. */
+    private final IntObjectHashMap mappings = new IntObjectHashMap();
+    private int lastSlot = -1;
+    private Object lastResult;
+
+    private long callCount, frameCount, totalNanos, frameNanos, lastFrameNanos;
+
+    /**
+     * Creates a replayer using a {@link GLCommandRecorder#DEFAULT_STAGING_SIZE} staging buffer
+     * and reads the stream header.
+     * @param channel the source of the command log
+     * @throws GLException if the stream header is invalid or reading failed
+     */
+    public GLCommandReplayer(final ReadableByteChannel channel) throws GLException {
+        if( null == channel ) {
+            throw new IllegalArgumentException("null channel");
+        }
+        this.channel = channel;
+        this.staging = Buffers.newDirectByteBuffer(GLCommandRecorder.DEFAULT_STAGING_SIZE);
+        staging.flip(); // nothing to read yet
+        if( !fill(8) ) {
+            throw new GLException("Truncated GL command log header");
+        }
+        final byte[] magic = new byte[GLCommandRecorder.MAGIC.length];
+        staging.get(magic);
+        if( !Arrays.equals(GLCommandRecorder.MAGIC, magic) ) {
+            throw new GLException("Not a GL command log");
+        }
+        staging.order( 0 != staging.get() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN );
+        final int version = staging.get();
+        if( GLCommandRecorder.VERSION != version ) {
+            throw new GLException("Unsupported GL command log version "+version+", expected "+GLCommandRecorder.VERSION);
+        }
+        staging.getShort();
+        for(int i=0; i<objectNames.length; i++) {
+            objectNames[i] = new LongLongHashMap();
+        }
+    }
+
+    /**
+     * Replays all calls up to the next frame marker or the end of the stream.
+     * @param gl the target GL instance
+     * @return <code>true</code> if a frame marker has been reached, otherwise <code>false</code> at the end of the stream
+     * @throws GLException if the stream is corrupt, an entry point is not available on the target
+     *                     or a GL call has thrown a checked exception
+     */
+    public final boolean replayFrame(final GL gl) throws GLException {
+        if( targetClass != gl.getClass() ) {
+            targetClass = gl.getClass();
+            Arrays.fill(methods, null);
+        }
+        while( true ) {
+            if( !fill(4) ) {
+                if( staging.hasRemaining() ) {
+                    throw new GLException("Truncated GL command log");
+                }
+                return false;
+            }
+            final int tag = staging.getInt();
+            if( GLCommandRecorder.TAG_FRAME == tag ) {
+                lastFrameNanos = frameNanos;
+                frameNanos = 0;
+                frameCount++;
+                return true;
+            } else if( GLCommandRecorder.TAG_DEFINE == tag ) {
+                define();
+            } else if( GLCommandRecorder.TAG_RESULT == tag ) {
+                result();
+            } else if( GLCommandRecorder.TAG_MAP == tag ) {
+                map();
+            } else if( GLCommandRecorder.TAG_MAPPED_WRITE == tag ) {
+                mappedWrite();
+            } else if( 0 <= tag && tag < names.length && null != names[tag] ) {
+                call(gl, tag);
+            } else {
+                throw new GLException("Invalid GL command log record "+tag);
+            }
+        }
+    }
+
+    /**
+     * Replays the whole remaining stream.
+     * @param gl the target GL instance
+     * @return the number of replayed frames
+     */
+    public final long replayAll(final GL gl) throws GLException {
+        while( replayFrame(gl) ) { }
+        return frameCount;
+    }
+
+    /** Returns the number of replayed calls. */
+    public final long getCallCount() { return callCount; }
+
+    /** Returns the number of replayed frames. */
+    public final long getFrameCount() { return frameCount; }
+
+    /** Returns the nanoseconds spent within all replayed GL calls. */
+    public final long getTotalNanos() { return totalNanos; }
+
+    /** Returns the nanoseconds spent within the GL calls of the last completed frame. */
+    public final long getLastFrameNanos() { return lastFrameNanos; }
+
+    /** Closes the channel. */
+    public final void close() throws GLException {
+        try {
+            channel.close();
+        } catch (final IOException ioe) {
+            throw new GLException("Closing GL command log failed", ioe);
+        }
+    }
+
+    private void define() {
+        final int slot = getInt();
+        final String name = readString();
+        final String signature = readString();
+        if( 0 > slot || null == name || null == signature ) {
+            throw new GLException("Invalid GL command log definition of slot "+slot);
+        }
+        if( slot >= names.length ) {
+            final int n = Math.max(slot + 1, 2 * names.length);
+            names = Arrays.copyOf(names, n);
+            paramTypes = Arrays.copyOf(paramTypes, n);
+            argCodes = Arrays.copyOf(argCodes, n);
+            lastArgs = Arrays.copyOf(lastArgs, n);
+            methods = Arrays.copyOf(methods, n);
+            nameArgs = Arrays.copyOf(nameArgs, n);
+            producedNames = Arrays.copyOf(producedNames, n);
+        }
+        final String[] typeNames = 0 < signature.length() ? signature.split(",") : new String[0];
+        final Class<?>[] types = new Class<?>[typeNames.length];
+        final int[] codes = new int[typeNames.length];
+        for(int i=0; i<types.length; i++) {
+            types[i] = classOf(typeNames[i]);
+            codes[i] = argCodeOf(types[i]);
+        }
+        names[slot] = name;
+        paramTypes[slot] = types;
+        argCodes[slot] = codes;
+        methods[slot] = null;
+        final String consumed = lookup(CONSUMERS, name);
+        nameArgs[slot] = null != consumed && 0 < consumed.length() ? consumed : null;
+        final String produced = lookup(PRODUCERS, name);
+        producedNames[slot] = null != produced ? NAMESPACES.indexOf(produced.charAt(0)) : -1;
+    }
+
+    /** Returns the value of the first entry of the given name/value table matching <code>name</code>, or <code>null</code>. */
+    private static String lookup(final String[] table, final String name) {
+        for(int i=0; i<table.length; i+=2) {
+            final String key = table[i];
+            if( key.endsWith("*") ? name.startsWith(key.substring(0, key.length()-1)) : name.equals(key) ) {
+                return table[i+1];
+            }
+        }
+        return null;
+    }
+
+    /** Maps the recorded object names created by the last call to the replayed ones. */
+    private void result() {
+        final int n = getLength();
+        final long[] recorded = new long[n];
+        for(int i=0; i<n; i++) {
+            need(8);
+            recorded[i] = staging.getLong();
+        }
+        final int ns = 0 <= lastSlot ? producedNames[lastSlot] : -1;
+        if( 0 > ns ) {
+            return;
+        }
+        final LongLongHashMap map = objectNames[ns];
+        final Object[] args = lastArgs[lastSlot];
+        if( lastResult instanceof Number ) {
+            if( 0 < n ) {
+                final long v = ((Number)lastResult).longValue();
+                // glGenLists creates a contiguous range
+                final int range = "glGenLists".equals(names[lastSlot]) ? ((Integer)args[0]).intValue() : 1;
+                for(int i=0; i<range; i++) {
+                    map.put(recorded[0]+i, v+i);
+                }
+            }
+            return;
+        }
+        for(int i=0; i<args.length; i++) {
+            if( args[i] instanceof int[] ) {
+                final int[] v = (int[])args[i];
+                final int offset = ((Integer)args[i+1]).intValue();
+                for(int j=0; j<n; j++) {
+                    map.put(recorded[j], v[offset+j]);
+                }
+                return;
+            } else if( args[i] instanceof IntBuffer ) {
+                final IntBuffer v = (IntBuffer)args[i];
+                final int p = v.position();
+                for(int j=0; j<n; j++) {
+                    map.put(recorded[j], v.get(p+j));
+                }
+                return;
+            }
+        }
+    }
+
+    /** Translates the recorded object names of the given arguments to the replayed ones, passing unknown names verbatim. */
+    private void translate(final String nsArgs, final Object[] args) {
+        final int n = Math.min(nsArgs.length(), args.length);
+        for(int i=0; i<n; i++) {
+            final int ns = NAMESPACES.indexOf(nsArgs.charAt(i));
+            if( 0 > ns ) {
+                continue;
+            }
+            final LongLongHashMap map = objectNames[ns];
+            final Object a = args[i];
+            if( a instanceof Integer ) {
+                args[i] = Integer.valueOf( (int) translate(map, ((Integer)a).intValue()) );
+            } else if( a instanceof Long ) {
+                args[i] = Long.valueOf( translate(map, ((Long)a).longValue()) );
+            } else if( a instanceof int[] ) {
+                final int[] v = (int[])a;
+                for(int j=0; j<v.length; j++) {
+                    v[j] = (int) translate(map, v[j]);
+                }
+            } else if( a instanceof IntBuffer ) {
+                final IntBuffer v = (IntBuffer)a;
+                for(int j=v.position(); j<v.limit(); j++) {
+                    v.put(j, (int) translate(map, v.get(j)));
+                }
+            }
+        }
+    }
+
+    private static long translate(final LongLongHashMap map, final long name) {
+        return map.containsKey(name) ? map.get(name) : name;
+    }
+
+    /** Associates the storage mapped by the last call w/ the recorded buffer name. */
+    private void map() {
+        final int buffer = getInt();
+        final ByteBuffer storage;
+        if( lastResult instanceof GLBufferStorage ) {
+            storage = ((GLBufferStorage)lastResult).getMappedBuffer();
+        } else if( lastResult instanceof ByteBuffer ) {
+            storage = (ByteBuffer)lastResult;
+        } else {
+            storage = null;
+        }
+        if( null != storage ) {
+            mappings.put(buffer, storage);
+        } else {
+            mappings.remove(buffer);
+        }
+    }
+
+    /** Copies recorded data into the storage mapped for the recorded buffer name, if available. */
+    private void mappedWrite() {
+        final int buffer = getInt();
+        final int offset = getInt();
+        final int n = getLength();
+        final ByteBuffer storage = (ByteBuffer) mappings.get(buffer);
+        if( null != storage && 0 <= offset && offset + n <= storage.capacity() ) {
+            final ByteBuffer dst = storage.duplicate();
+            dst.clear();
+            dst.position(offset);
+            dst.limit(offset + n);
+            readElements(dst.slice(), GLCommandRecorder.KIND_BYTE);
+        } else {
+            for(int i=0; i<n; i++) {
+                need(1);
+                staging.get();
+            }
+        }
+    }
+
+    private void call(final GL gl, final int slot) {
+        Method m = methods[slot];
+        if( null == m ) {
+            try {
+                m = targetClass.getMethod(names[slot], paramTypes[slot]);
+            } catch (final NoSuchMethodException nsme) {
+                throw new GLException("GL entry point not available on "+targetClass.getName()+": "+
+                                      names[slot]+Arrays.toString(paramTypes[slot]), nsme);
+            }
+            try {
+                m.setAccessible(true); // implementation class may not be public
+            } catch (final SecurityException se) { }
+            methods[slot] = m;
+        }
+        final int[] codes = argCodes[slot];
+        final Object[] args = new Object[codes.length];
+        for(int i=0; i<codes.length; i++) {
+            args[i] = readArg(codes[i]);
+        }
+        if( null != nameArgs[slot] ) {
+            translate(nameArgs[slot], args);
+        }
+        lastArgs[slot] = args;
+        lastSlot = slot;
+        lastResult = null;
+        final long t0 = System.nanoTime();
+        try {
+            lastResult = m.invoke(gl, args);
+        } catch (final InvocationTargetException ite) {
+            final Throwable t = ite.getTargetException();
+            if( t instanceof RuntimeException ) {
+                throw (RuntimeException) t;
+            }
+            if( t instanceof Error ) {
+                throw (Error) t;
+            }
+            throw new GLException("Replaying "+names[slot]+" failed", t);
+        } catch (final IllegalAccessException iae) {
+            throw new GLException("Replaying "+names[slot]+" failed", iae);
+        } finally {
+            final long dt = System.nanoTime() - t0;
+            frameNanos += dt;
+            totalNanos += dt;
+            callCount++;
+        }
+    }
+
+    private Object readArg(final int code) {
+        switch( code ) {
+            case ARG_BOOLEAN: need(1); return Boolean.valueOf( 0 != staging.get() );
+            case ARG_BYTE: need(1); return Byte.valueOf( staging.get() );
+            case ARG_CHAR: need(2); return Character.valueOf( staging.getChar() );
+            case ARG_SHORT: need(2); return Short.valueOf( staging.getShort() );
+            case ARG_INT: return Integer.valueOf( getInt() );
+            case ARG_LONG: need(8); return Long.valueOf( staging.getLong() );
+            case ARG_FLOAT: need(4); return Float.valueOf( staging.getFloat() );
+            case ARG_DOUBLE: need(8); return Double.valueOf( staging.getDouble() );
+            case ARG_BUFFER: {
+                need(1);
+                final byte kind = staging.get();
+                return GLCommandRecorder.KIND_NULL != kind ? readElements(newDirectBuffer(kind, getLength()), kind) : null;
+            }
+            case ARG_BYTE_ARRAY: {
+                final int n = getInt();
+                return 0 <= n ? readElements(ByteBuffer.wrap(new byte[n]), GLCommandRecorder.KIND_BYTE).array() : null;
+            }
+            case ARG_SHORT_ARRAY: {
+                final int n = getInt();
+                return 0 <= n ? readElements(ShortBuffer.wrap(new short[n]), GLCommandRecorder.KIND_SHORT).array() : null;
+            }
+            case ARG_INT_ARRAY: {
+                final int n = getInt();
+                return 0 <= n ? readElements(IntBuffer.wrap(new int[n]), GLCommandRecorder.KIND_INT).array() : null;
+            }
+            case ARG_LONG_ARRAY: {
+                final int n = getInt();
+                return 0 <= n ? readElements(LongBuffer.wrap(new long[n]), GLCommandRecorder.KIND_LONG).array() : null;
+            }
+            case ARG_FLOAT_ARRAY: {
+                final int n = getInt();
+                return 0 <= n ? readElements(FloatBuffer.wrap(new float[n]), GLCommandRecorder.KIND_FLOAT).array() : null;
+            }
+            case ARG_DOUBLE_ARRAY: {
+                final int n = getInt();
+                return 0 <= n ? readElements(DoubleBuffer.wrap(new double[n]), GLCommandRecorder.KIND_DOUBLE).array() : null;
+            }
+            case ARG_STRING: return readString();
+            case ARG_STRING_ARRAY: {
+                final int n = getInt();
+                if( 0 > n ) {
+                    return null;
+                }
+                final String[] v = new String[n];
+                for(int i=0; i<n; i++) {
+                    v[i] = readString();
+                }
+                return v;
+            }
+            case ARG_POINTER_BUFFER: {
+                final int n = getInt();
+                if( 0 > n ) {
+                    return null;
+                }
+                final PointerBuffer v = PointerBuffer.allocateDirect(n);
+                for(int i=0; i<n; i++) {
+                    need(8);
+                    v.put(staging.getLong());
+                }
+                v.rewind();
+                return v;
+            }
+            default: return null;
+        }
+    }
+
+    private String readString() {
+        final int n = getInt();
+        if( 0 > n ) {
+            return null;
+        }
+        final byte[] b = readElements(ByteBuffer.wrap(new byte[n]), GLCommandRecorder.KIND_BYTE).array();
+        return new String(b, GLCommandRecorder.UTF8);
+    }
+
+    /** Fills <code>dst</code> completely from the stream and rewinds it. */
+    private <T extends Buffer> T readElements(final T dst, final byte kind) {
+        final int elemSize = GLCommandRecorder.sizeOf(kind);
+        while( dst.hasRemaining() ) {
+            need(elemSize);
+            final int n = Math.min(dst.remaining(), staging.remaining() / elemSize);
+            final Buffer src = GLCommandRecorder.viewOf(staging, kind);
+            src.limit(n);
+            GLCommandRecorder.copy(dst, src);
+            staging.position(staging.position() + n * elemSize);
+        }
+        dst.rewind();
+        return dst;
+    }
+
+    private static Buffer newDirectBuffer(final byte kind, final int n) {
+        switch( kind ) {
+            case GLCommandRecorder.KIND_BYTE: return Buffers.newDirectByteBuffer(n);
+            case GLCommandRecorder.KIND_SHORT: return Buffers.newDirectShortBuffer(n);
+            case GLCommandRecorder.KIND_CHAR: return Buffers.newDirectCharBuffer(n);
+            case GLCommandRecorder.KIND_INT: return Buffers.newDirectIntBuffer(n);
+            case GLCommandRecorder.KIND_LONG: return Buffers.newDirectLongBuffer(n);
+            case GLCommandRecorder.KIND_FLOAT: return Buffers.newDirectFloatBuffer(n);
+            case GLCommandRecorder.KIND_DOUBLE: return Buffers.newDirectDoubleBuffer(n);
+            default: throw new GLException("Invalid buffer kind "+kind);
+        }
+    }
+
+    private int getInt() {
+        need(4);
+        return staging.getInt();
+    }
+
+    private int getLength() {
+        final int n = getInt();
+        if( 0 > n ) {
+            throw new GLException("Invalid GL command log element count "+n);
+        }
+        return n;
+    }
+
+    private void need(final int bytes) {
+        if( !fill(bytes) ) {
+            throw new GLException("Truncated GL command log");
+        }
+    }
+
+    /** Ensures at least <code>bytes</code> are readable from the staging buffer, returns <code>false</code> at the end of the stream. */
+    private boolean fill(final int bytes) {
+        if( staging.remaining() >= bytes ) {
+            return true;
+        }
+        staging.compact();
+        try {
+            while( staging.position() < bytes ) {
+                if( 0 > channel.read(staging) ) {
+                    staging.flip();
+                    return false;
+                }
+            }
+        } catch (final IOException ioe) {
+            staging.flip();
+            throw new GLException("Reading GL command log failed", ioe);
+        }
+        staging.flip();
+        return true;
+    }
+
+    private static Class<?> classOf(final String name) {
+        if( "boolean".equals(name) ) { return boolean.class; }
+        if( "byte".equals(name) ) { return byte.class; }
+        if( "char".equals(name) ) { return char.class; }
+        if( "short".equals(name) ) { return short.class; }
+        if( "int".equals(name) ) { return int.class; }
+        if( "long".equals(name) ) { return long.class; }
+        if( "float".equals(name) ) { return float.class; }
+        if( "double".equals(name) ) { return double.class; }
+        try {
+            return Class.forName(name, false, GL.class.getClassLoader());
+        } catch (final ClassNotFoundException cnfe) {
+            throw new GLException("Unknown parameter type "+name, cnfe);
+        }
+    }
+
+    /** Maps a parameter type to it's encoding, mirroring the <code>put</code> overloads of {@link GLCommandRecorder}. */
+    private static int argCodeOf(final Class<?> c) {
+        if( boolean.class == c ) { return ARG_BOOLEAN; }
+        if( byte.class == c ) { return ARG_BYTE; }
+        if( char.class == c ) { return ARG_CHAR; }
+        if( short.class == c ) { return ARG_SHORT; }
+        if( int.class == c ) { return ARG_INT; }
+        if( long.class == c ) { return ARG_LONG; }
+        if( float.class == c ) { return ARG_FLOAT; }
+        if( double.class == c ) { return ARG_DOUBLE; }
+        if( Buffer.class.isAssignableFrom(c) ) { return ARG_BUFFER; }
+        if( byte[].class == c ) { return ARG_BYTE_ARRAY; }
+        if( short[].class == c ) { return ARG_SHORT_ARRAY; }
+        if( int[].class == c ) { return ARG_INT_ARRAY; }
+        if( long[].class == c ) { return ARG_LONG_ARRAY; }
+        if( float[].class == c ) { return ARG_FLOAT_ARRAY; }
+        if( double[].class == c ) { return ARG_DOUBLE_ARRAY; }
+        if( String.class == c ) { return ARG_STRING; }
+        if( String[].class == c ) { return ARG_STRING_ARRAY; }
+        if( PointerBuffer.class == c ) { return ARG_POINTER_BUFFER; }
+        return ARG_UNSUPPORTED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GLCommandReplayer[calls %d, frames %d, %.3f ms, last frame %.3f ms]",
+                             callCount, frameCount, totalNanos/1e6, lastFrameNanos/1e6);
+    }
+}
@@ -0,0 +1,412 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.List;
+
+import com.jogamp.common.util.VersionNumber;
+
+/**
+ * Opt-in profiler measuring the duration of each {@link GLEventListener} callback
+ * issued by a {@link GLAutoDrawable}, see {@link GLAutoDrawable#setGLEventListenerProfiler(GLEventListenerProfiler)}.
+ * <p>
+ * For each {@link GLEventListener} and {@link Phase} the CPU time is measured via {@link System#nanoTime()}.
+ * If {@link #setGPUTimingEnabled(boolean) enabled} and {@link #isGPUTimingAvailable() available},
+ * the GPU time is measured via {@link GL2ES2#GL_TIME_ELAPSED GL_TIME_ELAPSED} timer queries.
+ * Query results are collected asynchronously w/ subsequent callbacks without stalling the pipeline,
+ * hence GPU times lag behind by a few frames.
+ * </p>
+ * <p>
+ * Durations are aggregated over a rolling window of the last {@link #getWindowSize()} callbacks,
+ * see {@link #getStats()}, which may be called from any thread.
+ * </p>
+ * <p>
+ * Without a profiler being set, the {@link GLAutoDrawable} only performs a <code>null</code> check per pass.
+ * </p>
+ * <p>
+ * An instance shall be set to one {@link GLAutoDrawable} only, callbacks are expected to be issued
+ * sequentially on it's GL thread.
+ * Since {@link GL2ES2#GL_TIME_ELAPSED GL_TIME_ELAPSED} queries cannot be nested,
+ * GPU timing must be disabled if a {@link GLEventListener} issues such queries itself.
+ * </p>
+ */
+public class GLEventListenerProfiler {
+    /** Default {@link #getWindowSize() window size} in callbacks, {@value}. */
+    public static final int DEFAULT_WINDOW_SIZE = 120;
+    /** Maximum number of pending GPU timer queries, {@value}. Further samples are not GPU timed. */
+    public static final int MAX_PENDING_QUERIES = 64;
+    /** Desktop GL version providing <code>GL_ARB_timer_query</code> functionality. */
+    private static final VersionNumber Version3_3 = new VersionNumber(3, 3, 0);
+
+    /** The {@link GLEventListener} callback being profiled. */
+    public static enum Phase {
+        /** {@link GLEventListener#init(GLAutoDrawable)} */
+        INIT,
+        /** {@link GLEventListener#reshape(GLAutoDrawable, int, int, int, int)} */
+        RESHAPE,
+        /** {@link GLEventListener#display(GLAutoDrawable)} */
+        DISPLAY;
+    }
+
+    /** Immutable statistics of one {@link GLEventListener} {@link Phase} over the rolling window, all durations in nanoseconds. */
+    public static final class Stats {
+        private final GLEventListener listener;
+        private final Phase phase;
+        private final long totalCount;
+        private final int count;
+        private final long cpuMin, cpuMax, cpuMean;
+        private final int gpuCount;
+        private final long gpuMin, gpuMax, gpuMean;
+
+        Stats(final GLEventListener listener, final Phase phase, final long totalCount, final int count,
+              final long cpuMin, final long cpuMax, final long cpuMean,
+              final int gpuCount, final long gpuMin, final long gpuMax, final long gpuMean) {
+            this.listener = listener;
+            this.phase = phase;
+            this.totalCount = totalCount;
+            this.count = count;
+            this.cpuMin = cpuMin;
+            this.cpuMax = cpuMax;
+            this.cpuMean = cpuMean;
+            this.gpuCount = gpuCount;
+            this.gpuMin = gpuMin;
+            this.gpuMax = gpuMax;
+            this.gpuMean = gpuMean;
+        }
+
+        /** Returns the profiled {@link GLEventListener}. */
+        public final GLEventListener getListener() { return listener; }
+        /** Returns the profiled {@link Phase}. */
+        public final Phase getPhase() { return phase; }
+        /** Returns the number of callbacks since creation or {@link GLEventListenerProfiler#reset()}. */
+        public final long getTotalCount() { return totalCount; }
+        /** Returns the number of callbacks within the rolling window. */
+        public final int getCount() { return count; }
+        /** Returns the minimum CPU time within the rolling window. */
+        public final long getCPUMin() { return cpuMin; }
+        /** Returns the maximum CPU time within the rolling window. */
+        public final long getCPUMax() { return cpuMax; }
+        /** Returns the mean CPU time within the rolling window. */
+        public final long getCPUMean() { return cpuMean; }
+        /** Returns the number of GPU timed callbacks within the rolling window, 0 if GPU timing is not used. */
+        public final int getGPUCount() { return gpuCount; }
+        /** Returns the minimum GPU time within the rolling window, 0 if {@link #getGPUCount()} is 0. */
+        public final long getGPUMin() { return gpuMin; }
+        /** Returns the maximum GPU time within the rolling window, 0 if {@link #getGPUCount()} is 0. */
+        public final long getGPUMax() { return gpuMax; }
+        /** Returns the mean GPU time within the rolling window, 0 if {@link #getGPUCount()} is 0. */
+        public final long getGPUMean() { return gpuMean; }
+
+        @Override
+        public final String toString() {
+            final String l = listener.getClass().getSimpleName()+"@"+Integer.toHexString(System.identityHashCode(listener));
+            return String.format("%s.%s[n %d/%d, cpu[min %.3f, mean %.3f, max %.3f] ms, gpu[n %d, min %.3f, mean %.3f, max %.3f] ms]",
+                    l, phase, count, totalCount, cpuMin/1e6, cpuMean/1e6, cpuMax/1e6, gpuCount, gpuMin/1e6, gpuMean/1e6, gpuMax/1e6);
+        }
+    }
+
+    /** Rolling window of one listener phase. */
+    private static final class Window {
+        final GLEventListener listener;
+        final Phase phase;
+        final long[] cpu;
+        /** GPU durations, -1 if not (yet) available. */
+        final long[] gpu;
+        long totalCount;
+
+        Window(final GLEventListener listener, final Phase phase, final int size) {
+            this.listener = listener;
+            this.phase = phase;
+            this.cpu = new long[size];
+            this.gpu = new long[size];
+        }
+
+        Stats getStats() {
+            final int count = (int) Math.min(totalCount, cpu.length);
+            long cpuMin = Long.MAX_VALUE, cpuMax = 0, cpuSum = 0;
+            long gpuMin = Long.MAX_VALUE, gpuMax = 0, gpuSum = 0;
+            int gpuCount = 0;
+            for(int i=0; i<count; i++) {
+                final long c = cpu[i];
+                cpuMin = Math.min(cpuMin, c);
+                cpuMax = Math.max(cpuMax, c);
+                cpuSum += c;
+                final long g = gpu[i];
+                if( 0 <= g ) {
+                    gpuMin = Math.min(gpuMin, g);
+                    gpuMax = Math.max(gpuMax, g);
+                    gpuSum += g;
+                    gpuCount++;
+                }
+            }
+            return new Stats(listener, phase, totalCount, count,
+                             0 < count ? cpuMin : 0, cpuMax, 0 < count ? cpuSum / count : 0,
+                             gpuCount, 0 < gpuCount ? gpuMin : 0, gpuMax, 0 < gpuCount ? gpuSum / gpuCount : 0);
+        }
+    }
+
+    /** Issued GPU timer query, whose result is pending. */
+    private static final class PendingQuery {
+        final int name;
+        final Window window;
+        final long sample;
+        PendingQuery(final int name, final Window window, final long sample) {
+            this.name = name;
+            this.window = window;
+            this.sample = sample;
+        }
+    }
+
+    private final int windowSize;
+    private final ArrayList<Window> windows = new ArrayList<Window>();
+    private volatile boolean gpuTimingEnabled;
+
+    // GL thread state
+    private final ArrayDeque<PendingQuery> pendingQueries = new ArrayDeque<PendingQuery>();
+    private final int[] freeQueries = new int[MAX_PENDING_QUERIES];
+    private int freeQueryCount = 0;
+    private final long[] queryResult = new long[1];
+    private final int[] queryAvailable = new int[1];
+    /** The {@link GLContext} owning {@link #pendingQueries} and {@link #freeQueries}. */
+    private GLContext queryContext;
+    private boolean gpuTimingAvailable;
+    private Window curWindow;
+    private long curStart;
+    private int curQuery;
+
+    /** Creates a profiler w/ a {@link #DEFAULT_WINDOW_SIZE default window size} and GPU timing disabled. */
+    public GLEventListenerProfiler() {
+        this(DEFAULT_WINDOW_SIZE, false);
+    }
+
+    /**
+     * @param windowSize number of most recent callbacks per {@link GLEventListener} {@link Phase} aggregated
+     * @param gpuTimingEnabled pass <code>true</code> to measure GPU time if {@link #isGPUTimingAvailable() available}
+     * @throws IllegalArgumentException if <code>windowSize</code> is less than 1
+     */
+    public GLEventListenerProfiler(final int windowSize, final boolean gpuTimingEnabled) throws IllegalArgumentException {
+        if( 1 > windowSize ) {
+            throw new IllegalArgumentException("Invalid windowSize "+windowSize);
+        }
+        this.windowSize = windowSize;
+        this.gpuTimingEnabled = gpuTimingEnabled;
+    }
+
+    /** Returns the number of most recent callbacks per {@link GLEventListener} {@link Phase} aggregated. */
+    public final int getWindowSize() { return windowSize; }
+
+    /** Enables or disables GPU timing, which is only performed if {@link #isGPUTimingAvailable() available}. */
+    public final void setGPUTimingEnabled(final boolean enable) { gpuTimingEnabled = enable; }
+
+    /** Returns whether GPU timing is enabled. */
+    public final boolean isGPUTimingEnabled() { return gpuTimingEnabled; }
+
+    /** Returns whether GPU timing is available on the most recently profiled {@link GLContext}. */
+    public final boolean isGPUTimingAvailable() { return gpuTimingAvailable; }
+
+    /** Returns whether {@link GL2ES2#GL_TIME_ELAPSED GL_TIME_ELAPSED} timer queries are supported by the given {@link GL}. */
+    public static boolean isGPUTimingAvailable(final GL gl) {
+        if( !gl.isGL2ES2() || !gl.isFunctionAvailable("glBeginQuery") || !gl.isFunctionAvailable("glGetQueryObjectui64v") ) {
+            return false;
+        }
+        final GLContext ctx = gl.getContext();
+        return ( !ctx.isGLES() && 0 <= ctx.getGLVersionNumber().compareTo(Version3_3) ) ||
+               gl.isExtensionAvailable("GL_ARB_timer_query") ||
+               gl.isExtensionAvailable("GL_EXT_timer_query") ||
+               gl.isExtensionAvailable("GL_EXT_disjoint_timer_query");
+    }
+
+    /**
+     * Returns the {@link Stats} of all profiled {@link GLEventListener} {@link Phase}s,
+     * in the order of their first callback.
+     * <p>
+     * May be called from any thread.
+     * </p>
+     */
+    public final synchronized List<Stats> getStats() {
+        final ArrayList<Stats> res = new ArrayList<Stats>(windows.size());
+        for(int i=0; i<windows.size(); i++) {
+            res.add(windows.get(i).getStats());
+        }
+        return res;
+    }
+
+    /**
+     * Returns the {@link Stats} of the given {@link GLEventListener} {@link Phase},
+     * or <code>null</code> if not profiled yet.
+     * <p>
+     * May be called from any thread.
+     * </p>
+     */
+    public final synchronized Stats getStats(final GLEventListener listener, final Phase phase) {
+        final Window w = findWindow(listener, phase);
+        return null != w ? w.getStats() : null;
+    }
+
+    /**
+     * Clears all recorded statistics, pending GPU timer queries are discarded.
+     * <p>
+     * May be called from any thread.
+     * </p>
+     */
+    public final synchronized void reset() {
+        windows.clear();
+    }
+
+    /**
+     * Called by the {@link GLAutoDrawable} implementation before issuing the given {@link Phase} callback,
+     * while it's {@link GLContext} is current.
+     * Shall be followed by {@link #endCallback(GLAutoDrawable)}.
+     */
+    public final void beginCallback(final GLAutoDrawable drawable, final GLEventListener listener, final Phase phase) {
+        final Window w;
+        synchronized( this ) {
+            Window _w = findWindow(listener, phase);
+            if( null == _w ) {
+                _w = new Window(listener, phase, windowSize);
+                windows.add(_w);
+            }
+            w = _w;
+        }
+        curWindow = w;
+        curQuery = 0;
+        if( gpuTimingEnabled ) {
+            final GL gl = drawable.getGL();
+            validateQueryContext(gl);
+            if( gpuTimingAvailable ) {
+                collectQueries(gl.getGL2ES2(), false);
+                if( pendingQueries.size() < MAX_PENDING_QUERIES ) {
+                    curQuery = nextQuery(gl.getGL2ES2());
+                    gl.getGL2ES2().glBeginQuery(GL2ES2.GL_TIME_ELAPSED, curQuery);
+                }
+            }
+        }
+        curStart = System.nanoTime();
+    }
+
+    /**
+     * Called by the {@link GLAutoDrawable} implementation after the callback
+     * announced via {@link #beginCallback(GLAutoDrawable, GLEventListener, Phase)} returned or failed.
+     */
+    public final void endCallback(final GLAutoDrawable drawable) {
+        final long dur = System.nanoTime() - curStart;
+        final Window w = curWindow;
+        curWindow = null;
+        if( null == w ) {
+            return;
+        }
+        final long sample;
+        synchronized( this ) {
+            sample = w.totalCount++;
+            final int idx = (int) ( sample % windowSize );
+            w.cpu[idx] = dur;
+            w.gpu[idx] = -1;
+        }
+        if( 0 != curQuery ) {
+            drawable.getGL().getGL2ES2().glEndQuery(GL2ES2.GL_TIME_ELAPSED);
+            pendingQueries.addLast(new PendingQuery(curQuery, w, sample));
+            curQuery = 0;
+        }
+    }
+
+    /**
+     * Collects all pending GPU timer query results, blocking until available,
+     * and deletes all timer query objects.
+     * <p>
+     * Called by the {@link GLAutoDrawable} implementation before it's {@link GLContext} gets destroyed,
+     * while the latter is current.
+     * </p>
+     */
+    public final void releaseGL(final GL gl) {
+        if( null != queryContext && gl.getContext() == queryContext && gpuTimingAvailable ) {
+            final GL2ES2 gl2es2 = gl.getGL2ES2();
+            collectQueries(gl2es2, true);
+            if( 0 < freeQueryCount ) {
+                gl2es2.glDeleteQueries(freeQueryCount, freeQueries, 0);
+            }
+        }
+        pendingQueries.clear();
+        freeQueryCount = 0;
+        queryContext = null;
+    }
+
+    private Window findWindow(final GLEventListener listener, final Phase phase) {
+        for(int i=0; i<windows.size(); i++) {
+            final Window w = windows.get(i);
+            if( w.listener == listener && w.phase == phase ) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    /** Query objects belong to their {@link GLContext}, drop them if the latter changed w/o {@link #releaseGL(GL)}. */
+    private void validateQueryContext(final GL gl) {
+        final GLContext ctx = gl.getContext();
+        if( queryContext != ctx ) {
+            pendingQueries.clear();
+            freeQueryCount = 0;
+            queryContext = ctx;
+            gpuTimingAvailable = isGPUTimingAvailable(gl);
+        }
+    }
+
+    private int nextQuery(final GL2ES2 gl) {
+        if( 0 < freeQueryCount ) {
+            return freeQueries[--freeQueryCount];
+        }
+        final int[] name = { 0 };
+        gl.glGenQueries(1, name, 0);
+        return name[0];
+    }
+
+    /** Records the results of all available pending queries in issue order, or all if <code>wait</code> is <code>true</code>. */
+    private void collectQueries(final GL2ES2 gl, final boolean wait) {
+        while( !pendingQueries.isEmpty() ) {
+            final PendingQuery q = pendingQueries.peekFirst();
+            if( !wait ) {
+                gl.glGetQueryObjectiv(q.name, GL2ES2.GL_QUERY_RESULT_AVAILABLE, queryAvailable, 0);
+                if( GL.GL_FALSE == queryAvailable[0] ) {
+                    return;
+                }
+            }
+            gl.glGetQueryObjectui64v(q.name, GL2ES2.GL_QUERY_RESULT, queryResult, 0);
+            pendingQueries.removeFirst();
+            freeQueries[freeQueryCount++] = q.name;
+            synchronized( this ) {
+                final Window w = q.window;
+                // drop if reset meanwhile or sample left the window
+                if( w.totalCount - q.sample <= windowSize && windows.contains(w) ) {
+                    w.gpu[(int) ( q.sample % windowSize )] = queryResult[0];
+                }
+            }
+        }
+    }
+}
@@ -66,6 +66,19 @@ public class GLPipelineFactory {
      *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Trace",         null, gl, new Object[] { System.err } ) );
      * </pre>
      * </p>
+     * <p>
+     * The state caching pipeline, dropping redundant state changes,
+     * and the call profiling pipeline are installed likewise:
+     * <pre>
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.StateCache",    null, gl, null) );
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Profile",       null, gl, null) );
+     * </pre>
+     * The command recording and the deferred pipeline require their {@link GLCommandRecorder} or {@link GLCommandBuffer}:
+     * <pre>
+     *     gl = drawable.setGL( GLPipelineFactory.create("com.jogamp.opengl.Record",        null, gl, new Object[] { recorder } ) );
+     *     final GL dgl =       GLPipelineFactory.create("com.jogamp.opengl.Deferred",      null, gl, new Object[] { commandBuffer } );
+     * </pre>
+     * </p>
      *
      * <p>
      * The upstream GL instance is determined as follows:
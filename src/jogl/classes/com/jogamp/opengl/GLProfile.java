@@ -1452,6 +1452,16 @@ public class GLProfile {
                 case GL.GL_FLOAT:
                 case GL.GL_FIXED:
                     break;
+                case GL.GL_HALF_FLOAT:
+                case com.jogamp.opengl.GL3ES3.GL_INT_2_10_10_10_REV:
+                case com.jogamp.opengl.GL2ES2.GL_UNSIGNED_INT_2_10_10_10_REV:
+                    if( !isGLES3() ) {
+                        if(throwException) {
+                            throw new GLException("Illegal data type for "+arrayName+" on profile GLES2: "+type);
+                        }
+                        return false;
+                    }
+                    break;
                 default:
                     if(throwException) {
                         throw new GLException("Illegal data type for "+arrayName+" on profile GLES2: "+type);
@@ -1483,6 +1493,9 @@ public class GLProfile {
                     case com.jogamp.opengl.GL2ES2.GL_INT:
                     case GL.GL_UNSIGNED_INT:
                     case com.jogamp.opengl.GL2GL3.GL_DOUBLE:
+                    case GL.GL_HALF_FLOAT:
+                    case com.jogamp.opengl.GL3ES3.GL_INT_2_10_10_10_REV:
+                    case com.jogamp.opengl.GL2ES2.GL_UNSIGNED_INT_2_10_10_10_REV:
                         break;
                     default:
                         if(throwException) {
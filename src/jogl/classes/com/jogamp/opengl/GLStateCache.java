@@ -0,0 +1,527 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl;
+
+import com.jogamp.common.util.IntIntHashMap;
+import com.jogamp.common.util.IntObjectHashMap;
+
+/**
+ * Shadow of OpenGL state used by the generated <code>StateCacheGL*</code> composable pipelines,
+ * e.g. <code>StateCacheGL4bc</code>, to drop calls which would not change the current state.
+ * <p>
+ * Shadowed state:
+ * <ul>
+ *   <li>Bindings: active texture unit, buffer per target, texture per unit and target,
+ *       program, vertex array, draw- and read-framebuffer, renderbuffer</li>
+ *   <li>Capabilities of {@link GL#glEnable(int)} and {@link GL#glDisable(int)}, texture unit capabilities per unit</li>
+ *   <li>Blend function, equation and color, depth function and mask</li>
+ *   <li>Scalar <code>glUniform{1234}{if}</code> values per program and location</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Each <code>gl*</code> method of this class has the signature of the GL function it shadows
+ * and returns <code>true</code> if the call changes the state or the state is unknown,
+ * i.e. the call must be forwarded, otherwise <code>false</code> and the call is counted as elided.
+ * The shadow is updated assuming the forwarded call succeeds.
+ * </p>
+ * <p>
+ * While compiling a display list, i.e. between {@link #glNewList(int, int)} and {@link #glEndList()},
+ * the shadow is bypassed and all calls are forwarded, since compiled calls may not be executed.
+ * The state is unknown after both.
+ * </p>
+ * <p>
+ * Initially all state is unknown. State modified by other means than the pipeline,
+ * e.g. by a different {@link GL} instance or by a call w/o shadow like <code>glPopAttrib</code> being handled
+ * by the <code>invalidate*</code> methods, must be announced via {@link #invalidateAll()}.
+ * </p>
+ * <p>
+ * Instances are not thread safe, like the {@link GL} instance they belong to.
+ * </p>
+ */
+public class GLStateCache {
+    private static final int UNKNOWN = 0xFFFFFFFF;
+
+    private static final int UNIFORM_I = 0;
+    private static final int UNIFORM_F = 4;
+
+    private int activeTexture = UNKNOWN;
+    private final IntIntHashMap bufferBindings = newStateMap();
+    /** Key: <code>unit &lt;&lt; 16 | target</code> */
+    private final IntIntHashMap textureBindings = newStateMap();
+    private int program = UNKNOWN;
+    private int vertexArray = UNKNOWN;
+    private int drawFramebuffer = UNKNOWN;
+    private int readFramebuffer = UNKNOWN;
+    private int renderbuffer = UNKNOWN;
+    /** Key: <code>cap</code>, or <code>( unit + 1 ) &lt;&lt; 16 | cap</code> for {@link #isTextureUnitCap(int) texture unit capabilities} */
+    private final IntIntHashMap caps = newStateMap();
+
+    private boolean blendFuncKnown = false;
+    private int blendSrcRGB, blendDstRGB, blendSrcAlpha, blendDstAlpha;
+    private boolean blendEquationKnown = false;
+    private int blendEquationRGB, blendEquationAlpha;
+    private boolean blendColorKnown = false;
+    private float blendColorR, blendColorG, blendColorB, blendColorA;
+    private int depthFunc = UNKNOWN;
+    private int depthMask = UNKNOWN;
+
+    /** Program -&gt; location -&gt; <code>{ type, v0, v1, v2, v3 }</code>, float values as raw int bits. */
+    private final IntObjectHashMap uniforms = new IntObjectHashMap();
+
+    private boolean compilingList = false;
+
+    private long elidedBindings, elidedCaps, elidedBlendDepth, elidedUniforms;
+
+    private static IntIntHashMap newStateMap() {
+        final IntIntHashMap m = new IntIntHashMap();
+        m.setKeyNotFoundValue(UNKNOWN);
+        return m;
+    }
+
+    //
+    // Counter
+    //
+
+    /** Returns the total number of elided calls. */
+    public final long getElidedCallCount() { return elidedBindings + elidedCaps + elidedBlendDepth + elidedUniforms; }
+
+    /** Returns the number of elided bind calls, including <code>glActiveTexture</code> and <code>glUseProgram</code>. */
+    public final long getElidedBindingCount() { return elidedBindings; }
+
+    /** Returns the number of elided <code>glEnable</code> and <code>glDisable</code> calls. */
+    public final long getElidedCapabilityCount() { return elidedCaps; }
+
+    /** Returns the number of elided blend and depth state calls. */
+    public final long getElidedBlendDepthCount() { return elidedBlendDepth; }
+
+    /** Returns the number of elided <code>glUniform*</code> calls. */
+    public final long getElidedUniformCount() { return elidedUniforms; }
+
+    /** Clears all elided call counter. */
+    public final void resetCounter() {
+        elidedBindings = 0;
+        elidedCaps = 0;
+        elidedBlendDepth = 0;
+        elidedUniforms = 0;
+    }
+
+    //
+    // Invalidation
+    //
+
+    /** Marks all shadowed state unknown. */
+    public final void invalidateAll() {
+        activeTexture = UNKNOWN;
+        invalidateBuffers();
+        invalidateTextures();
+        invalidateProgram();
+        invalidateVertexArray();
+        invalidateFramebuffers();
+        invalidateRenderbuffer();
+        invalidateCaps();
+        invalidateBlend();
+        depthFunc = UNKNOWN;
+        depthMask = UNKNOWN;
+    }
+
+    /** Marks all buffer bindings unknown. */
+    public final void invalidateBuffers() { bufferBindings.clear(); }
+
+    /** Marks all texture bindings unknown. */
+    public final void invalidateTextures() { textureBindings.clear(); }
+
+    /** Marks the current program and all uniform values unknown. */
+    public final void invalidateProgram() {
+        program = UNKNOWN;
+        uniforms.clear();
+    }
+
+    /** Marks all uniform values unknown. */
+    public final void invalidateUniforms() { uniforms.clear(); }
+
+    /**
+     * Marks the uniform values of the current program at the locations <code>[location .. location+count-1]</code> unknown,
+     * or all uniform values if the current program is unknown.
+     */
+    public final void invalidateUniforms(final int location, final int count) {
+        if( UNKNOWN == program ) {
+            uniforms.clear();
+        } else {
+            invalidateProgramUniforms(program, location, count);
+        }
+    }
+
+    /** Marks the uniform values of the given program at the locations <code>[location .. location+count-1]</code> unknown. */
+    public final void invalidateProgramUniforms(final int program, final int location, final int count) {
+        final IntObjectHashMap locations = (IntObjectHashMap) uniforms.get(program);
+        if( null != locations ) {
+            for(int i = 0; i < count; i++) {
+                locations.remove(location + i);
+            }
+        }
+    }
+
+    /** Marks the vertex array binding and it's element array buffer binding unknown. */
+    public final void invalidateVertexArray() {
+        vertexArray = UNKNOWN;
+        bufferBindings.remove(GL.GL_ELEMENT_ARRAY_BUFFER);
+    }
+
+    /** Marks the draw- and read-framebuffer bindings unknown. */
+    public final void invalidateFramebuffers() {
+        drawFramebuffer = UNKNOWN;
+        readFramebuffer = UNKNOWN;
+    }
+
+    /** Marks the renderbuffer binding unknown. */
+    public final void invalidateRenderbuffer() { renderbuffer = UNKNOWN; }
+
+    /** Marks all capabilities unknown. */
+    public final void invalidateCaps() { caps.clear(); }
+
+    /** Marks the blend function, equation and color unknown. */
+    public final void invalidateBlend() {
+        blendFuncKnown = false;
+        blendEquationKnown = false;
+        blendColorKnown = false;
+    }
+
+    //
+    // Display lists
+    //
+
+    /** Invalidates all state and bypasses the shadow until {@link #glEndList()}, always returns <code>true</code>. */
+    public final boolean glNewList(final int list, final int mode) {
+        invalidateAll();
+        compilingList = true;
+        return true;
+    }
+
+    /** Ends bypassing the shadow and invalidates all state, always returns <code>true</code>. */
+    public final boolean glEndList() {
+        compilingList = false;
+        invalidateAll();
+        return true;
+    }
+
+    /** Returns <code>true</code> while compiling a display list, i.e. the shadow is bypassed. */
+    public final boolean isCompilingList() { return compilingList; }
+
+    //
+    // Bindings
+    //
+
+    public final boolean glActiveTexture(final int texture) {
+        if( compilingList ) {
+            return true;
+        }
+        if( activeTexture == texture ) {
+            elidedBindings++;
+            return false;
+        }
+        activeTexture = texture;
+        return true;
+    }
+
+    public final boolean glBindBuffer(final int target, final int buffer) {
+        return bind(bufferBindings, target, buffer);
+    }
+
+    public final boolean glBindTexture(final int target, final int texture) {
+        if( compilingList || UNKNOWN == activeTexture ) {
+            return true;
+        }
+        return bind(textureBindings, ( activeTexture - GL.GL_TEXTURE0 ) << 16 | ( target & 0xFFFF ), texture);
+    }
+
+    private final boolean bind(final IntIntHashMap bindings, final int key, final int name) {
+        if( compilingList ) {
+            return true;
+        }
+        if( UNKNOWN != name && bindings.get(key) == name ) {
+            elidedBindings++;
+            return false;
+        }
+        bindings.put(key, name);
+        return true;
+    }
+
+    public final boolean glUseProgram(final int program) {
+        if( compilingList ) {
+            return true;
+        }
+        if( UNKNOWN != program && this.program == program ) {
+            elidedBindings++;
+            return false;
+        }
+        this.program = program;
+        return true;
+    }
+
+    public final boolean glBindVertexArray(final int array) {
+        if( compilingList ) {
+            return true;
+        }
+        if( UNKNOWN != array && vertexArray == array ) {
+            elidedBindings++;
+            return false;
+        }
+        vertexArray = array;
+        bufferBindings.remove(GL.GL_ELEMENT_ARRAY_BUFFER); // vertex array state
+        return true;
+    }
+
+    public final boolean glBindFramebuffer(final int target, final int framebuffer) {
+        if( !compilingList && UNKNOWN != framebuffer ) {
+            final boolean draw = GL.GL_FRAMEBUFFER == target || GL2ES3.GL_DRAW_FRAMEBUFFER == target;
+            final boolean read = GL.GL_FRAMEBUFFER == target || GL2ES3.GL_READ_FRAMEBUFFER == target;
+            if( ( draw || read ) && ( !draw || drawFramebuffer == framebuffer ) && ( !read || readFramebuffer == framebuffer ) ) {
+                elidedBindings++;
+                return false;
+            }
+            if( draw ) {
+                drawFramebuffer = framebuffer;
+            }
+            if( read ) {
+                readFramebuffer = framebuffer;
+            }
+        }
+        return true;
+    }
+
+    public final boolean glBindRenderbuffer(final int target, final int renderbuffer) {
+        if( compilingList ) {
+            return true;
+        }
+        if( UNKNOWN != renderbuffer && GL.GL_RENDERBUFFER == target && this.renderbuffer == renderbuffer ) {
+            elidedBindings++;
+            return false;
+        }
+        this.renderbuffer = GL.GL_RENDERBUFFER == target ? renderbuffer : UNKNOWN;
+        return true;
+    }
+
+    //
+    // Capabilities
+    //
+
+    public final boolean glEnable(final int cap) {
+        return setCap(cap, 1);
+    }
+
+    public final boolean glDisable(final int cap) {
+        return setCap(cap, 0);
+    }
+
+    private final boolean setCap(final int cap, final int value) {
+        if( compilingList ) {
+            return true;
+        }
+        final int key;
+        if( isTextureUnitCap(cap) ) {
+            if( UNKNOWN == activeTexture ) {
+                return true;
+            }
+            key = ( activeTexture - GL.GL_TEXTURE0 + 1 ) << 16 | ( cap & 0xFFFF );
+        } else {
+            key = cap;
+        }
+        if( caps.get(key) == value ) {
+            elidedCaps++;
+            return false;
+        }
+        caps.put(key, value);
+        return true;
+    }
+
+    /** Returns <code>true</code> if the given capability is state of the active texture unit, e.g. {@link GL#GL_TEXTURE_2D}. */
+    private static boolean isTextureUnitCap(final int cap) {
+        switch( cap ) {
+            case GL2GL3.GL_TEXTURE_1D:
+            case GL.GL_TEXTURE_2D:
+            case GL2ES2.GL_TEXTURE_3D:
+            case GL.GL_TEXTURE_CUBE_MAP:
+            case GL2GL3.GL_TEXTURE_RECTANGLE:
+            case GLES2.GL_TEXTURE_EXTERNAL_OES:
+            case GL2.GL_TEXTURE_GEN_S:
+            case GL2.GL_TEXTURE_GEN_T:
+            case GL2.GL_TEXTURE_GEN_R:
+            case GL2.GL_TEXTURE_GEN_Q:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    //
+    // Blend and depth
+    //
+
+    public final boolean glBlendFunc(final int sfactor, final int dfactor) {
+        return glBlendFuncSeparate(sfactor, dfactor, sfactor, dfactor);
+    }
+
+    public final boolean glBlendFuncSeparate(final int srcRGB, final int dstRGB, final int srcAlpha, final int dstAlpha) {
+        if( compilingList ) {
+            return true;
+        }
+        if( blendFuncKnown && blendSrcRGB == srcRGB && blendDstRGB == dstRGB && blendSrcAlpha == srcAlpha && blendDstAlpha == dstAlpha ) {
+            elidedBlendDepth++;
+            return false;
+        }
+        blendFuncKnown = true;
+        blendSrcRGB = srcRGB;
+        blendDstRGB = dstRGB;
+        blendSrcAlpha = srcAlpha;
+        blendDstAlpha = dstAlpha;
+        return true;
+    }
+
+    public final boolean glBlendEquation(final int mode) {
+        return glBlendEquationSeparate(mode, mode);
+    }
+
+    public final boolean glBlendEquationSeparate(final int modeRGB, final int modeAlpha) {
+        if( compilingList ) {
+            return true;
+        }
+        if( blendEquationKnown && blendEquationRGB == modeRGB && blendEquationAlpha == modeAlpha ) {
+            elidedBlendDepth++;
+            return false;
+        }
+        blendEquationKnown = true;
+        blendEquationRGB = modeRGB;
+        blendEquationAlpha = modeAlpha;
+        return true;
+    }
+
+    public final boolean glBlendColor(final float red, final float green, final float blue, final float alpha) {
+        if( compilingList ) {
+            return true;
+        }
+        if( blendColorKnown && same(blendColorR, red) && same(blendColorG, green) && same(blendColorB, blue) && same(blendColorA, alpha) ) {
+            elidedBlendDepth++;
+            return false;
+        }
+        blendColorKnown = true;
+        blendColorR = red;
+        blendColorG = green;
+        blendColorB = blue;
+        blendColorA = alpha;
+        return true;
+    }
+
+    private static boolean same(final float a, final float b) {
+        return Float.floatToRawIntBits(a) == Float.floatToRawIntBits(b);
+    }
+
+    public final boolean glDepthFunc(final int func) {
+        if( compilingList ) {
+            return true;
+        }
+        if( depthFunc == func ) {
+            elidedBlendDepth++;
+            return false;
+        }
+        depthFunc = func;
+        return true;
+    }
+
+    public final boolean glDepthMask(final boolean flag) {
+        if( compilingList ) {
+            return true;
+        }
+        final int v = flag ? 1 : 0;
+        if( depthMask == v ) {
+            elidedBlendDepth++;
+            return false;
+        }
+        depthMask = v;
+        return true;
+    }
+
+    //
+    // Uniforms of the current program
+    //
+
+    public final boolean glUniform1i(final int location, final int v0) {
+        return setUniform(location, UNIFORM_I + 1, v0, 0, 0, 0);
+    }
+    public final boolean glUniform2i(final int location, final int v0, final int v1) {
+        return setUniform(location, UNIFORM_I + 2, v0, v1, 0, 0);
+    }
+    public final boolean glUniform3i(final int location, final int v0, final int v1, final int v2) {
+        return setUniform(location, UNIFORM_I + 3, v0, v1, v2, 0);
+    }
+    public final boolean glUniform4i(final int location, final int v0, final int v1, final int v2, final int v3) {
+        return setUniform(location, UNIFORM_I + 4, v0, v1, v2, v3);
+    }
+    public final boolean glUniform1f(final int location, final float v0) {
+        return setUniform(location, UNIFORM_F + 1, Float.floatToRawIntBits(v0), 0, 0, 0);
+    }
+    public final boolean glUniform2f(final int location, final float v0, final float v1) {
+        return setUniform(location, UNIFORM_F + 2, Float.floatToRawIntBits(v0), Float.floatToRawIntBits(v1), 0, 0);
+    }
+    public final boolean glUniform3f(final int location, final float v0, final float v1, final float v2) {
+        return setUniform(location, UNIFORM_F + 3, Float.floatToRawIntBits(v0), Float.floatToRawIntBits(v1), Float.floatToRawIntBits(v2), 0);
+    }
+    public final boolean glUniform4f(final int location, final float v0, final float v1, final float v2, final float v3) {
+        return setUniform(location, UNIFORM_F + 4, Float.floatToRawIntBits(v0), Float.floatToRawIntBits(v1), Float.floatToRawIntBits(v2), Float.floatToRawIntBits(v3));
+    }
+
+    private final boolean setUniform(final int location, final int type, final int v0, final int v1, final int v2, final int v3) {
+        if( compilingList || UNKNOWN == program || 0 == program || 0 > location ) {
+            return true;
+        }
+        IntObjectHashMap locations = (IntObjectHashMap) uniforms.get(program);
+        if( null == locations ) {
+            locations = new IntObjectHashMap();
+            uniforms.put(program, locations);
+        }
+        int[] v = (int[]) locations.get(location);
+        if( null == v ) {
+            v = new int[5];
+            locations.put(location, v);
+        } else if( v[0] == type && v[1] == v0 && v[2] == v1 && v[3] == v2 && v[4] == v3 ) {
+            elidedUniforms++;
+            return false;
+        }
+        v[0] = type;
+        v[1] = v0;
+        v[2] = v1;
+        v[3] = v2;
+        v[4] = v3;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "GLStateCache[elided "+getElidedCallCount()+": bindings "+elidedBindings+", caps "+elidedCaps+
+               ", blend/depth "+elidedBlendDepth+", uniforms "+elidedUniforms+"]";
+    }
+}
@@ -150,6 +150,7 @@ public class GLUniformData {
     }
 
     private void initScalar(final Object data) {
+        modCount = ( modCount + 1 ) & Integer.MAX_VALUE;
         if(data instanceof Buffer) {
             initBuffer((Buffer)data);
         } else if( null != data ) {
@@ -165,6 +166,7 @@ public class GLUniformData {
     }
 
     private void initBuffer(final Buffer buffer) {
+        modCount = ( modCount + 1 ) & Integer.MAX_VALUE;
         if( null != buffer ) {
             final int sz = rows*columns;
             if(buffer.remaining()<sz || 0!=buffer.remaining()%sz) {
@@ -203,6 +205,51 @@ public class GLUniformData {
         return location;
     }
 
+    /**
+     * Enables or disables dirty tracking of this uniform, disabled by default.
+     * <p>
+     * If enabled, {@link com.jogamp.opengl.util.glsl.ShaderState#uniform(GL2ES2, int)}
+     * and {@link com.jogamp.opengl.util.glsl.UniformBlock} only upload this uniform's data
+     * if it has been modified since its last upload, i.e. via one of the <code>setData(..)</code> methods
+     * or {@link #setDirty()}.
+     * </p>
+     * <p>
+     * Hence {@link #setDirty()} must be called after modifying the content of the underlying buffer in place.
+     * </p>
+     * <p>
+     * If disabled, the data is considered modified at all times and uploaded on every request.
+     * </p>
+     * @return this instance
+     * @see #isDirty(int)
+     */
+    public GLUniformData setDirtyTracking(final boolean enable) { dirtyTracking = enable; return this; }
+
+    /** Returns true if dirty tracking is enabled, see {@link #setDirtyTracking(boolean)}. */
+    public boolean isDirtyTracking() { return dirtyTracking; }
+
+    /**
+     * Marks this uniform's data as modified, e.g. after modifying the content of the underlying buffer in place.
+     * @return this instance
+     * @see #setDirtyTracking(boolean)
+     */
+    public GLUniformData setDirty() { modCount = ( modCount + 1 ) & Integer.MAX_VALUE; return this; }
+
+    /**
+     * Returns the non-negative modification count of this uniform's data,
+     * incremented by each <code>setData(..)</code> and {@link #setDirty()} call.
+     */
+    public int getModCount() { return modCount; }
+
+    /**
+     * Returns true if this uniform's data shall be uploaded,
+     * i.e. if dirty tracking is disabled or the given modification count of its last upload
+     * differs from the current {@link #getModCount()}.
+     * @param lastModCount the {@link #getModCount()} at the last upload, or -1 if never uploaded
+     */
+    public boolean isDirty(final int lastModCount) {
+        return !dirtyTracking || modCount != lastModCount;
+    }
+
     public Object getObject() {
         return data;
     }
@@ -225,4 +272,6 @@ public class GLUniformData {
     private int    count;
     private Object data;
     private boolean isMatrix;
+    private boolean dirtyTracking;
+    private int modCount;
 }
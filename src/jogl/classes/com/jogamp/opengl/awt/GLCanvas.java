@@ -60,6 +60,7 @@ import java.awt.EventQueue;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.jogamp.nativewindow.AbstractGraphicsConfiguration;
 import com.jogamp.nativewindow.OffscreenLayerOption;
@@ -71,6 +72,7 @@ import com.jogamp.nativewindow.AbstractGraphicsScreen;
 import com.jogamp.nativewindow.GraphicsConfigurationFactory;
 import com.jogamp.nativewindow.NativeSurface;
 import com.jogamp.nativewindow.NativeWindowFactory;
+import com.jogamp.opengl.FrameTimeSnapshot;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GLAnimatorControl;
 import com.jogamp.opengl.GLAutoDrawable;
@@ -81,6 +83,7 @@ import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLEventListenerProfiler;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLOffscreenAutoDrawable;
 import com.jogamp.opengl.GLProfile;
@@ -105,6 +108,7 @@ import com.jogamp.opengl.util.TileRenderer;
 
 import jogamp.nativewindow.SurfaceScaleUtils;
 import jogamp.opengl.Debug;
+import jogamp.opengl.FPSCounterImpl;
 import jogamp.opengl.GLContextImpl;
 import jogamp.opengl.GLDrawableHelper;
 import jogamp.opengl.GLDrawableImpl;
@@ -173,6 +177,7 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
 
   private final RecursiveLock lock = LockFactory.createRecursiveLock();
   private final GLDrawableHelper helper = new GLDrawableHelper();
+  private final FPSCounterImpl fpsCounter = new FPSCounterImpl();
   private volatile GLDrawableImpl drawable; // volatile: avoid locking for read-only access
   private volatile JAWTWindow jawtWindow; // the JAWTWindow presentation of this AWT Canvas, bound to the 'drawable' lifecycle
   private volatile GLContextImpl context; // volatile: avoid locking for read-only access
@@ -276,6 +281,8 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
     // instantiation will be issued in addNotify()
     this.chooser = chooser;
 
+    helper.setSwapTimeCounter(fpsCounter);
+
     this.addHierarchyListener(hierarchyListener);
     this.isShowing = isShowing();
   }
@@ -555,8 +562,11 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
       g.drawString(name,
                    (int) ((getWidth()  - bounds.getWidth())  / 2),
                    (int) ((getHeight() + bounds.getHeight()) / 2));
-    } else if( !this.helper.isAnimatorAnimatingOnOtherThread() ) {
-        display();
+    } else {
+        helper.markDirty(); // exposed content must be rendered, even if governed
+        if( !this.helper.isAnimatorAnimatingOnOtherThread() ) {
+            display();
+        }
     }
   }
 
@@ -854,6 +864,7 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
             }
         }
         sendReshape = true; // async if display() doesn't get called below, but avoiding deadlock
+        helper.markDirty();
     }
   }
 
@@ -1123,6 +1134,31 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
     return helper.invoke(this, wait, glRunnables);
   }
 
+  @Override
+  public Future<Boolean> invokeAsync(final GLRunnable glRunnable) throws IllegalStateException {
+    return helper.invokeAsync(this, glRunnable);
+  }
+
+  @Override
+  public void setGLEventListenerProfiler(final GLEventListenerProfiler profiler) {
+    helper.setGLEventListenerProfiler(profiler);
+  }
+
+  @Override
+  public GLEventListenerProfiler getGLEventListenerProfiler() {
+    return helper.getGLEventListenerProfiler();
+  }
+
+  @Override
+  public void markDirty() {
+    helper.markDirty();
+  }
+
+  @Override
+  public boolean isDirty() {
+    return helper.isDirty();
+  }
+
   @Override
   public void flushGLRunnables() {
       helper.flushGLRunnables();
@@ -1182,6 +1218,30 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
     return helper.getAutoSwapBufferMode();
   }
 
+  /**
+   * Sets the target frame period in nanoseconds used to count dropped frames,
+   * see {@link com.jogamp.opengl.FPSCounter#setTargetFramePeriod(long)}.
+   */
+  public final void setTargetFramePeriod(final long nanos) {
+    fpsCounter.setTargetFramePeriod(nanos);
+  }
+
+  /** Returns the target frame period in nanoseconds, see {@link #setTargetFramePeriod(long)}. */
+  public final long getTargetFramePeriod() {
+    return fpsCounter.getTargetFramePeriod();
+  }
+
+  /**
+   * Returns a {@link FrameTimeSnapshot} of the frame, display and automatic swap durations
+   * recorded since initialization, see {@link com.jogamp.opengl.FPSCounter#getFrameTimeSnapshot()}.
+   * <p>
+   * May be called from any thread while rendering.
+   * </p>
+   */
+  public final FrameTimeSnapshot getFrameTimeSnapshot() {
+    return fpsCounter.getFrameTimeSnapshot();
+  }
+
   @Override
   public void swapBuffers() {
     Threading.invoke(true, swapBuffersOnEDTAction, getTreeLock());
@@ -1405,6 +1465,7 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
     @Override
     public void run() {
       helper.init(GLCanvas.this, !sendReshape);
+      fpsCounter.resetFPSCounter();
     }
   };
 
@@ -1421,7 +1482,10 @@ public class GLCanvas extends Canvas implements AWTGLAutoDrawable, WindowClosing
         sendReshape = false;
       }
 
+      final long t0 = System.nanoTime();
       helper.display(GLCanvas.this);
+      fpsCounter.recordDisplayTime(System.nanoTime() - t0);
+      fpsCounter.tickFPS();
     }
   };
 
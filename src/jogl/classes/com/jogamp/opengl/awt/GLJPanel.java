@@ -57,6 +57,7 @@ import java.awt.image.DataBufferInt;
 import java.beans.Beans;
 import java.nio.IntBuffer;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.jogamp.nativewindow.AbstractGraphicsDevice;
 import com.jogamp.nativewindow.NativeSurface;
@@ -64,6 +65,7 @@ import com.jogamp.nativewindow.ScalableSurface;
 import com.jogamp.nativewindow.SurfaceUpdatedListener;
 import com.jogamp.nativewindow.WindowClosingProtocol;
 import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.FrameTimeSnapshot;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GL2ES3;
@@ -77,6 +79,7 @@ import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLEventListenerProfiler;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLFBODrawable;
 import com.jogamp.opengl.GLOffscreenAutoDrawable;
@@ -90,6 +93,7 @@ import jogamp.nativewindow.SurfaceScaleUtils;
 import jogamp.nativewindow.WrappedSurface;
 import jogamp.nativewindow.jawt.JAWTUtil;
 import jogamp.opengl.Debug;
+import jogamp.opengl.FPSCounterImpl;
 import jogamp.opengl.GLContextImpl;
 import jogamp.opengl.GLDrawableFactoryImpl;
 import jogamp.opengl.GLDrawableHelper;
@@ -245,6 +249,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
   private final RecursiveLock lock = LockFactory.createRecursiveLock();
 
   private final GLDrawableHelper helper;
+  private final FPSCounterImpl fpsCounter = new FPSCounterImpl();
   private boolean autoSwapBufferMode;
 
   private volatile boolean isInitialized;
@@ -369,6 +374,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     this.chooser = chooser;
 
     helper = new GLDrawableHelper();
+    helper.setSwapTimeCounter(fpsCounter);
     autoSwapBufferMode = helper.getAutoSwapBufferMode();
 
     this.setFocusable(true); // allow keyboard input!
@@ -541,6 +547,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
                    (int) ((getHeight() + bounds.getHeight()) / 2));
       return;
     }
+    helper.markDirty(); // exposed content must be rendered, even if governed
 
     final RecursiveLock _lock = lock;
     _lock.lock();
@@ -717,6 +724,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
         reshapeWidth = scaledWidth;
         reshapeHeight = scaledHeight;
         handleReshape = true;
+        helper.markDirty();
     }
     if( DEBUG ) {
         System.err.println(getThreadName()+": GLJPanel.reshape.0 "+this.getName()+" resize ["+(printActive?"printing":"paint")+
@@ -1039,6 +1047,31 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     return helper.invoke(this, wait, glRunnables);
   }
 
+  @Override
+  public Future<Boolean> invokeAsync(final GLRunnable glRunnable) throws IllegalStateException {
+    return helper.invokeAsync(this, glRunnable);
+  }
+
+  @Override
+  public void setGLEventListenerProfiler(final GLEventListenerProfiler profiler) {
+    helper.setGLEventListenerProfiler(profiler);
+  }
+
+  @Override
+  public GLEventListenerProfiler getGLEventListenerProfiler() {
+    return helper.getGLEventListenerProfiler();
+  }
+
+  @Override
+  public void markDirty() {
+    helper.markDirty();
+  }
+
+  @Override
+  public boolean isDirty() {
+    return helper.isDirty();
+  }
+
   @Override
   public void flushGLRunnables() {
       helper.flushGLRunnables();
@@ -1144,6 +1177,30 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
     return autoSwapBufferMode;
   }
 
+  /**
+   * Sets the target frame period in nanoseconds used to count dropped frames,
+   * see {@link com.jogamp.opengl.FPSCounter#setTargetFramePeriod(long)}.
+   */
+  public final void setTargetFramePeriod(final long nanos) {
+    fpsCounter.setTargetFramePeriod(nanos);
+  }
+
+  /** Returns the target frame period in nanoseconds, see {@link #setTargetFramePeriod(long)}. */
+  public final long getTargetFramePeriod() {
+    return fpsCounter.getTargetFramePeriod();
+  }
+
+  /**
+   * Returns a {@link FrameTimeSnapshot} of the frame, display and automatic swap durations
+   * recorded since initialization, see {@link com.jogamp.opengl.FPSCounter#getFrameTimeSnapshot()}.
+   * <p>
+   * May be called from any thread while rendering.
+   * </p>
+   */
+  public final FrameTimeSnapshot getFrameTimeSnapshot() {
+    return fpsCounter.getFrameTimeSnapshot();
+  }
+
   @Override
   public void swapBuffers() {
     if( isInitialized ) {
@@ -1422,6 +1479,7 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
         return;
       }
       helper.init(GLJPanel.this, !sendReshape);
+      fpsCounter.resetFPSCounter();
       backend.postGL(g, false);
     }
 
@@ -1443,12 +1501,19 @@ public class GLJPanel extends JPanel implements AWTGLAutoDrawable, WindowClosing
         sendReshape = false;
       }
 
-      helper.display(GLJPanel.this);
+      displayImpl();
       backend.postGL(g, true);
     }
 
     public void plainPaint(final GLAutoDrawable drawable) {
+      displayImpl();
+    }
+
+    private void displayImpl() {
+      final long t0 = System.nanoTime();
       helper.display(GLJPanel.this);
+      fpsCounter.recordDisplayTime(System.nanoTime() - t0);
+      fpsCounter.tickFPS();
     }
 
     @Override
@@ -28,6 +28,7 @@
 package com.jogamp.opengl.swt;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.jogamp.nativewindow.AbstractGraphicsConfiguration;
 import com.jogamp.nativewindow.AbstractGraphicsDevice;
@@ -39,6 +40,7 @@ import com.jogamp.nativewindow.ProxySurface;
 import com.jogamp.nativewindow.UpstreamSurfaceHook;
 import com.jogamp.nativewindow.VisualIDHolder;
 import com.jogamp.nativewindow.VisualIDHolder.VIDType;
+import com.jogamp.opengl.FrameTimeSnapshot;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GLAnimatorControl;
 import com.jogamp.opengl.GLAutoDrawable;
@@ -49,6 +51,7 @@ import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLEventListenerProfiler;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.GLRunnable;
@@ -57,6 +60,7 @@ import com.jogamp.opengl.Threading;
 
 import jogamp.nativewindow.x11.X11Util;
 import jogamp.opengl.Debug;
+import jogamp.opengl.FPSCounterImpl;
 import jogamp.opengl.GLContextImpl;
 import jogamp.opengl.GLDrawableHelper;
 import jogamp.opengl.GLDrawableImpl;
@@ -109,6 +113,7 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
    /* GL Stuff */
    private final RecursiveLock lock = LockFactory.createRecursiveLock();
    private final GLDrawableHelper helper = new GLDrawableHelper();
+   private final FPSCounterImpl fpsCounter = new FPSCounterImpl();
 
    private final GLCapabilitiesImmutable capsRequested;
    private final GLCapabilitiesChooser capsChooser;
@@ -141,6 +146,7 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
       @Override
       public void run() {
          helper.init(GLCanvas.this, !sendReshape);
+         fpsCounter.resetFPSCounter();
       }
    };
 
@@ -156,7 +162,10 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
             helper.reshape(GLCanvas.this, 0, 0, clientArea.width, clientArea.height);
             sendReshape = false;
          }
+         final long t0 = System.nanoTime();
          helper.display(GLCanvas.this);
+         fpsCounter.recordDisplayTime(System.nanoTime() - t0);
+         fpsCounter.tickFPS();
       }
    };
 
@@ -374,6 +383,7 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
           this.capsRequested = (GLCapabilitiesImmutable) capsReqUser.cloneMutable();
       }
       this.capsChooser = capsChooser;
+      helper.setSwapTimeCounter(fpsCounter);
 
       // post create .. when ready
       gdkWindow = 0;
@@ -386,6 +396,7 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
           public void handleEvent (final Event event) {
               switch (event.type) {
               case SWT.Paint:
+                  helper.markDirty(); // exposed content must be rendered, even if governed
                   displayIfNoAnimatorNoCheck();
                   break;
               case SWT.Resize:
@@ -481,6 +492,7 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
               SWTAccessor.resizeGDKWindow(clientArea, gdkWindow);
           }
           sendReshape = true; // async if display() doesn't get called below, but avoiding deadlock
+          helper.markDirty();
       }
    }
 
@@ -763,6 +775,30 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
       return helper.getAutoSwapBufferMode();
    }
 
+   /**
+    * Sets the target frame period in nanoseconds used to count dropped frames,
+    * see {@link com.jogamp.opengl.FPSCounter#setTargetFramePeriod(long)}.
+    */
+   public final void setTargetFramePeriod(final long nanos) {
+      fpsCounter.setTargetFramePeriod(nanos);
+   }
+
+   /** Returns the target frame period in nanoseconds, see {@link #setTargetFramePeriod(long)}. */
+   public final long getTargetFramePeriod() {
+      return fpsCounter.getTargetFramePeriod();
+   }
+
+   /**
+    * Returns a {@link FrameTimeSnapshot} of the frame, display and automatic swap durations
+    * recorded since initialization, see {@link com.jogamp.opengl.FPSCounter#getFrameTimeSnapshot()}.
+    * <p>
+    * May be called from any thread while rendering.
+    * </p>
+    */
+   public final FrameTimeSnapshot getFrameTimeSnapshot() {
+      return fpsCounter.getFrameTimeSnapshot();
+   }
+
    @Override
    public final GLDrawable getDelegatedDrawable() {
       return drawable;
@@ -794,6 +830,31 @@ public class GLCanvas extends Canvas implements GLAutoDrawable, GLSharedContextS
       return helper.invoke(this, wait, runnables);
    }
 
+   @Override
+   public Future<Boolean> invokeAsync(final GLRunnable runnable) throws IllegalStateException {
+      return helper.invokeAsync(this, runnable);
+   }
+
+   @Override
+   public void setGLEventListenerProfiler(final GLEventListenerProfiler profiler) {
+      helper.setGLEventListenerProfiler(profiler);
+   }
+
+   @Override
+   public GLEventListenerProfiler getGLEventListenerProfiler() {
+      return helper.getGLEventListenerProfiler();
+   }
+
+   @Override
+   public void markDirty() {
+      helper.markDirty();
+   }
+
+   @Override
+   public boolean isDirty() {
+      return helper.isDirty();
+   }
+
    @Override
    public void flushGLRunnables() {
        helper.flushGLRunnables();
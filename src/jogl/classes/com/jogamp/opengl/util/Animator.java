@@ -64,6 +64,7 @@ public class Animator extends AnimatorBase {
     private ThreadGroup threadGroup;
     private Runnable runnable;
     private boolean runAsFastAsPossible;
+    private volatile FramePacer framePacer;
     boolean isAnimating;
     volatile boolean pauseIssued;
     volatile boolean stopIssued;
@@ -127,6 +128,46 @@ public class Animator extends AnimatorBase {
         runAsFastAsPossible = runFast;
     }
 
+    /**
+     * Sets a {@link FramePacer} in this Animator, pacing each frame
+     * at the pacer's high precision frame rate.
+     * <p>
+     * This is an alternative to {@link FPSAnimator}, which schedules frames
+     * w/ a millisecond based {@link java.util.Timer}.
+     * While a {@link FramePacer} is set, {@link #setRunAsFastAsPossible(boolean)} has no effect.
+     * </p>
+     * <p>
+     * The pacer's frame grid is restarted at start and resume.
+     * </p>
+     * @param pacer the {@link FramePacer}, or <code>null</code> to disable pacing, which is the default.
+     */
+    public final synchronized void setFramePacer(final FramePacer pacer) {
+        if( null != pacer ) {
+            pacer.reset();
+        }
+        framePacer = pacer;
+    }
+
+    /** Returns the {@link FramePacer} if set, otherwise <code>null</code>. */
+    public final FramePacer getFramePacer() {
+        return framePacer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implementation also wakes up the {@link #setFramePacer(FramePacer) frame pacer}, if set.
+     * </p>
+     */
+    @Override
+    protected void wakeUpAnimThread() {
+        super.wakeUpAnimThread();
+        final FramePacer pacer = framePacer;
+        if( null != pacer ) {
+            pacer.wakeUp();
+        }
+    }
+
     class MainLoop implements Runnable {
         @Override
         public String toString() {
@@ -196,18 +237,43 @@ public class Animator extends AnimatorBase {
                             // implies !pauseIssued and !drawablesEmpty
                             isAnimating = true;
                             setDrawablesExclCtxState(exclusiveContext); // may re-enable exclusive context
+                            if( null != framePacer ) {
+                                framePacer.reset();
+                            }
+                            if( null != frameRateGovernor ) {
+                                frameRateGovernor.reset();
+                            }
                             Animator.this.notifyAll();
                         }
                     } // sync Animator.this
                     if ( !pauseIssued && !stopIssued ) {
+                        final FramePacer pacer = framePacer;
+                        final FrameRateGovernor governor = frameRateGovernor;
+                        if( null != pacer || null != governor ) {
+                            try {
+                                if( null != governor ) {
+                                    governor.await(drawables);
+                                }
+                                if( null != pacer ) {
+                                    pacer.await();
+                                }
+                            } catch (final InterruptedException e) {
+                                caughtException = new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+                                stopIssued = true;
+                                break; // end animation loop
+                            }
+                            if( pauseIssued || stopIssued ) {
+                                continue; // woken up by a lifecycle action
+                            }
+                        }
                         try {
-                            display();
+                            displayGoverned();
                         } catch (final UncaughtAnimatorException dre) {
                             caughtException = dre;
                             stopIssued = true;
                             break; // end animation loop
                         }
-                        if ( !runAsFastAsPossible ) {
+                        if ( !runAsFastAsPossible && null == pacer ) {
                             // Avoid swamping the CPU
                             Thread.yield();
                         }
@@ -28,14 +28,17 @@
 
 package com.jogamp.opengl.util;
 
+import jogamp.opengl.AnimatorHooks;
 import jogamp.opengl.Debug;
 import jogamp.opengl.FPSCounterImpl;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
 
+import com.jogamp.opengl.FrameTimeSnapshot;
 import com.jogamp.opengl.GLAnimatorControl;
 import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLProfile;
 
@@ -51,7 +54,7 @@ import com.jogamp.common.util.InterruptedRuntimeException;
  * as they are not expected to be called at every frame.
  * </p>
  */
-public abstract class AnimatorBase implements GLAnimatorControl {
+public abstract class AnimatorBase implements GLAnimatorControl, AnimatorHooks {
     protected static final boolean DEBUG = Debug.debug("Animator");
 
     /** A 1s timeout while waiting for a native action response, limiting {@link #finishLifecycleAction(Condition, long)} */
@@ -107,6 +110,7 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     protected Thread userExclusiveContextThread;
     protected UncaughtExceptionHandler uncaughtExceptionHandler;
     protected FPSCounterImpl fpsCounter = new FPSCounterImpl();
+    protected volatile FrameRateGovernor frameRateGovernor;
 
     private final static Class<?> awtAnimatorImplClazz;
     static {
@@ -152,7 +156,10 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     protected final synchronized void initImpl(final boolean force) {
         if( force || null == impl ) {
             final String seqSuffix = String.format("#%02d", seqInstanceNumber++);
-            if( useAWTAnimatorImpl( modeBits ) ) {
+            impl = createCustomImpl();
+            if( null != impl ) {
+                baseName = getBaseName("")+seqSuffix;
+            } else if( useAWTAnimatorImpl( modeBits ) ) {
                 try {
                     impl = (AnimatorImpl) awtAnimatorImplClazz.newInstance();
                     baseName = getBaseName("AWT")+seqSuffix;
@@ -169,6 +176,17 @@ public abstract class AnimatorBase implements GLAnimatorControl {
     }
     protected abstract String getBaseName(String prefix);
 
+    /**
+     * Returns a custom {@link AnimatorImpl} to be used by {@link #initImpl(boolean)},
+     * overriding the {@link #MODE_EXPECT_AWT_RENDERING_THREAD} based selection.
+     * <p>
+     * Default implementation returns <code>null</code>, i.e. no custom {@link AnimatorImpl}.
+     * </p>
+     */
+    protected AnimatorImpl createCustomImpl() {
+        return null;
+    }
+
     /**
      * Enables or disables the given <code>bitValues</code>
      * in this Animators <code>modeBits</code>.
@@ -206,7 +224,7 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         initImpl(false);
         pause();
         if( isStarted() ) {
-            drawable.setExclusiveContextThread( exclusiveContext ? getExclusiveContextThread() : null ); // if already running ..
+            drawable.setExclusiveContextThread( exclusiveContext ? getExclusiveContextThread(drawable) : null ); // if already running ..
         }
         drawables.add(drawable);
         drawablesEmpty = drawables.size() == 0;
@@ -407,6 +425,17 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         return ( isStarted() && exclusiveContext ) ? ( null != userExclusiveContextThread ? userExclusiveContextThread : animThread ) : null ;
     }
 
+    /**
+     * Returns the exclusive context thread to be dedicated to the given {@link GLAutoDrawable}'s context.
+     * <p>
+     * Default implementation returns {@link #getExclusiveContextThread()} for all drawables,
+     * implementations rendering on multiple threads may return a different thread per drawable.
+     * </p>
+     */
+    protected Thread getExclusiveContextThread(final GLAutoDrawable drawable) {
+        return getExclusiveContextThread();
+    }
+
     /**
      * Should be called at {@link #start()} and {@link #stop()}
      * from within the animator thread.
@@ -420,10 +449,10 @@ public abstract class AnimatorBase implements GLAnimatorControl {
             System.err.println("AnimatorBase.setExclusiveContextImpl exlusive "+exclusiveContext+": Enable "+enable+" for "+this+" - "+Thread.currentThread());
             // Thread.dumpStack();
         }
-        final Thread ect = getExclusiveContextThread();
         for (int i=0; i<drawables.size(); i++) {
             try {
-                drawables.get(i).setExclusiveContextThread( enable ? ect : null );
+                final GLAutoDrawable drawable = drawables.get(i);
+                drawable.setExclusiveContextThread( enable ? getExclusiveContextThread(drawable) : null );
             } catch (final RuntimeException e) {
                 e.printStackTrace();
             }
@@ -449,8 +478,60 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         components this Animator manages, in particular when multiple
         lightweight widgets are continually being redrawn. */
     protected final void display() throws UncaughtAnimatorException {
+        final long t0 = System.nanoTime();
         impl.display(drawables, ignoreExceptions, printExceptions);
+        fpsCounter.recordDisplayTime(System.nanoTime() - t0);
+        fpsCounter.tickFPS();
+    }
+
+    /**
+     * Like {@link #display()}, but only displays the {@link GLAutoDrawable}s selected by
+     * the {@link #setFrameRateGovernor(FrameRateGovernor) frame rate governor}, if set.
+     * Subclasses shall call this method for their regular animation frames.
+     */
+    protected final void displayGoverned() throws UncaughtAnimatorException {
+        final FrameRateGovernor governor = frameRateGovernor;
+        if( null == governor ) {
+            display();
+            return;
+        }
+        final ArrayList<GLAutoDrawable> dirty = governor.beginFrame(drawables);
+        if( dirty.isEmpty() ) {
+            return;
+        }
+        final long t0 = System.nanoTime();
+        impl.display(dirty, ignoreExceptions, printExceptions);
+        final long dt = System.nanoTime() - t0;
+        fpsCounter.recordDisplayTime(dt);
         fpsCounter.tickFPS();
+        governor.endFrame(dirty, dt);
+    }
+
+    /**
+     * Sets a {@link FrameRateGovernor} in this Animator,
+     * skipping the display of non {@link GLAutoDrawable#isDirty() dirty} drawables
+     * and throttling the frame rate while idle.
+     * <p>
+     * The governor is reset when attached and at start or resume,
+     * i.e. the next frame displays all drawables at full rate.
+     * </p>
+     * <p>
+     * Supported by {@link Animator} and {@link FPSAnimator}, where the latter keeps it's timer rate
+     * but skips frames while throttled.
+     * </p>
+     * @param governor the {@link FrameRateGovernor}, or <code>null</code> to disable governing, which is the default.
+     */
+    public final synchronized void setFrameRateGovernor(final FrameRateGovernor governor) {
+        if( null != governor ) {
+            governor.reset();
+        }
+        frameRateGovernor = governor;
+    }
+
+    /** Returns the {@link FrameRateGovernor} if set, otherwise <code>null</code>. */
+    @Override
+    public final FrameRateGovernor getFrameRateGovernor() {
+        return frameRateGovernor;
     }
 
     @Override
@@ -503,6 +584,33 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         return fpsCounter.getTotalFPS();
     }
 
+    @Override
+    public final void setTargetFramePeriod(final long nanos) {
+        fpsCounter.setTargetFramePeriod(nanos);
+    }
+
+    @Override
+    public final long getTargetFramePeriod() {
+        return fpsCounter.getTargetFramePeriod();
+    }
+
+    @Override
+    public final FrameTimeSnapshot getFrameTimeSnapshot() {
+        return fpsCounter.getFrameTimeSnapshot();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implementation adds the swap duration to the current frame of this animator,
+     * hence it is recorded as the frame's swap time and excluded from its display time.
+     * </p>
+     */
+    @Override
+    public void addSwapTime(final GLDrawable drawable, final long nanos) {
+        fpsCounter.addSwapTime(nanos);
+    }
+
     /** Sets a flag causing this Animator to ignore exceptions produced
     while redrawing the drawables. By default this flag is set to
     false, causing any exception thrown to halt the Animator. */
@@ -565,6 +673,21 @@ public abstract class AnimatorBase implements GLAnimatorControl {
         boolean eval();
     }
 
+    /**
+     * Wakes up the animation thread blocked in a frame wait, issued w/ each lifecycle action,
+     * hence the thread promptly observes e.g. {@link #stop()} or {@link #pause()}.
+     * <p>
+     * Default implementation wakes up the {@link #setFrameRateGovernor(FrameRateGovernor) frame rate governor}, if set.
+     * Subclasses blocking on further conditions shall override and call this implementation.
+     * </p>
+     */
+    protected void wakeUpAnimThread() {
+        final FrameRateGovernor governor = frameRateGovernor;
+        if( null != governor ) {
+            governor.wakeUp(); // animation thread may be throttled
+        }
+    }
+
     /**
      * @param waitCondition method will wait until TO is reached or {@link Condition#eval() waitCondition.eval()} returns <code>false</code>.
      * @param pollPeriod if <code>0</code>, method will wait until TO is reached or being notified.
@@ -580,6 +703,7 @@ public abstract class AnimatorBase implements GLAnimatorControl {
          * the blocking wait().
          */
         initImpl(false);
+        wakeUpAnimThread();
         final boolean blocking;
         long remaining;
         boolean nok;
@@ -0,0 +1,264 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.IntObjectHashMap;
+
+/**
+ * Thread safe pool of native ordered direct NIO {@link ByteBuffer}s grouped by size class.
+ * <p>
+ * Requested byte sizes are rounded up to a size class, i.e. one of four steps
+ * between two powers of two, wasting at most 25% of memory.
+ * A {@link #release(ByteBuffer) released} buffer is reused by a subsequent {@link #obtain(int)}
+ * of the same size class. Users must not access a buffer after releasing it.
+ * </p>
+ * <p>
+ * The amount of idle pooled memory is limited by {@link #getMaxPooledBytes()},
+ * exceeding it evicts the least recently released buffers.
+ * Buffers larger than {@link #getMaxBufferBytes()} are not pooled at all.
+ * </p>
+ * <p>
+ * This allows users with varying or repeatedly rebuilt storage, e.g. {@link PooledGLPixelBufferProvider}
+ * or growing {@link GLArrayDataClient}s, to avoid the allocation costs and delayed reclamation of direct memory.
+ * </p>
+ */
+public class DirectBufferPool {
+    /** Usage statistics, see {@link DirectBufferPool#getStats()}. */
+    public static class Stats {
+        /** Number of allocations. */
+        public final long allocations;
+        /** Number of allocations satisfied from the pool. */
+        public final long hits;
+        /** Number of allocations requiring a new direct buffer. */
+        public final long misses;
+        /** Number of pooled buffers evicted due to {@link DirectBufferPool#getMaxPooledBytes()} or {@link DirectBufferPool#evict(long)}. */
+        public final long evictions;
+        /** Bytes currently held idle in the pool. */
+        public final long pooledBytes;
+        /** Bytes currently in use, i.e. obtained and not yet released. */
+        public final long usedBytes;
+        /** Peak of {@link #usedBytes}. */
+        public final long peakUsedBytes;
+
+        protected Stats(final long allocations, final long hits, final long misses, final long evictions,
+                        final long pooledBytes, final long usedBytes, final long peakUsedBytes) {
+            this.allocations = allocations;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.pooledBytes = pooledBytes;
+            this.usedBytes = usedBytes;
+            this.peakUsedBytes = peakUsedBytes;
+        }
+
+        protected Stats(final Stats s) {
+            this(s.allocations, s.hits, s.misses, s.evictions, s.pooledBytes, s.usedBytes, s.peakUsedBytes);
+        }
+
+        /** Returns the ratio of {@link #hits} to {@link #allocations}, or zero if none allocated. */
+        public float getHitRatio() {
+            return 0 < allocations ? (float)hits / (float)allocations : 0f;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats[alloc "+allocations+", hits "+hits+" ("+(int)(getHitRatio()*100f)+"%), misses "+misses+
+                   ", evictions "+evictions+", pooled "+pooledBytes+" bytes, used "+usedBytes+" bytes, peak "+peakUsedBytes+" bytes]";
+        }
+    }
+
+    /** An idle pooled buffer. */
+    private static class PoolEntry {
+        final ByteBuffer buffer;
+        final long releaseTime;
+        PoolEntry(final ByteBuffer buffer, final long releaseTime) {
+            this.buffer = buffer;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+    /**
+     * Returns the size class of the given byte size, i.e. the byte size rounded up
+     * to <code>minSizeClass</code> or to one of four steps between two powers of two.
+     */
+    public static int getSizeClass(final int byteSize, final int minSizeClass) {
+        if( minSizeClass >= byteSize ) {
+            return minSizeClass;
+        }
+        final int step = Math.max(1, Integer.highestOneBit(byteSize - 1) >>> 2);
+        final int sizeClass = ( ( byteSize - 1 ) / step + 1 ) * step;
+        return 0 < sizeClass ? sizeClass : byteSize; // overflow
+    }
+
+    /** Size class -> ArrayDeque&lt;PoolEntry&gt;, least recently released first. */
+    private final IntObjectHashMap pools = new IntObjectHashMap();
+    private final int minSizeClass;
+    private final long maxPooledBytes;
+    private final int maxBufferBytes;
+    private long allocations = 0, hits = 0, misses = 0, evictions = 0;
+    private long pooledBytes = 0, usedBytes = 0, peakUsedBytes = 0;
+
+    /**
+     * @param minSizeClass smallest size class in bytes
+     * @param maxPooledBytes maximum number of idle bytes held by the pool
+     * @param maxBufferBytes maximum byte size of a buffer to be pooled, larger buffers are not recycled
+     * @throws IllegalArgumentException if <code>minSizeClass</code> is not positive or a limit is negative
+     */
+    public DirectBufferPool(final int minSizeClass, final long maxPooledBytes, final int maxBufferBytes) throws IllegalArgumentException {
+        if( 0 >= minSizeClass || 0 > maxPooledBytes || 0 > maxBufferBytes ) {
+            throw new IllegalArgumentException("Invalid limits: minSizeClass "+minSizeClass+", maxPooledBytes "+maxPooledBytes+", maxBufferBytes "+maxBufferBytes);
+        }
+        this.minSizeClass = minSizeClass;
+        this.maxPooledBytes = maxPooledBytes;
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+    /** Smallest size class in bytes. */
+    public final int getMinSizeClass() { return minSizeClass; }
+
+    /** Maximum number of idle bytes held by the pool. */
+    public final long getMaxPooledBytes() { return maxPooledBytes; }
+
+    /** Maximum byte size of a buffer to be pooled. */
+    public final int getMaxBufferBytes() { return maxBufferBytes; }
+
+    /**
+     * Returns a native ordered direct {@link ByteBuffer}, recycled from the pool if available.
+     * It's {@link ByteBuffer#remaining()} equals the requested byte size,
+     * while it's {@link ByteBuffer#capacity()} equals the {@link #getSizeClass(int, int) size class}.
+     * The content is undefined.
+     */
+    public synchronized ByteBuffer obtain(final int byteSize) {
+        allocations++;
+        final int sizeClass = getSizeClass(byteSize, minSizeClass);
+        ByteBuffer res = null;
+        final ArrayDeque<?> pool = (ArrayDeque<?>) pools.get(sizeClass);
+        if( null != pool && !pool.isEmpty() ) {
+            res = ((PoolEntry)pool.pollLast()).buffer; // most recently released, likely still cached
+            pooledBytes -= res.capacity();
+            hits++;
+        } else {
+            res = Buffers.newDirectByteBuffer(sizeClass);
+            misses++;
+        }
+        usedBytes += res.capacity();
+        if( usedBytes > peakUsedBytes ) {
+            peakUsedBytes = usedBytes;
+        }
+        res.clear();
+        res.limit(byteSize);
+        return res;
+    }
+
+    /**
+     * Returns the given buffer, previously {@link #obtain(int) obtained} from this pool, to the pool.
+     * The buffer must not be accessed afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void release(final ByteBuffer buffer) {
+        final int sizeClass = buffer.capacity();
+        usedBytes -= sizeClass;
+        if( sizeClass > maxBufferBytes || sizeClass > maxPooledBytes ) {
+            return;
+        }
+        while( pooledBytes + sizeClass > maxPooledBytes ) {
+            evictOldest();
+        }
+        ArrayDeque<PoolEntry> pool = (ArrayDeque<PoolEntry>) pools.get(sizeClass);
+        if( null == pool ) {
+            pool = new ArrayDeque<PoolEntry>();
+            pools.put(sizeClass, pool);
+        }
+        buffer.clear();
+        pool.addLast(new PoolEntry(buffer, System.nanoTime()));
+        pooledBytes += sizeClass;
+    }
+
+    /** Evicts the least recently released buffer across all size classes. */
+    private void evictOldest() {
+        ArrayDeque<?> oldestPool = null;
+        long oldestTime = 0;
+        for(final IntObjectHashMap.Entry e : pools) {
+            final ArrayDeque<?> pool = (ArrayDeque<?>) e.getValue();
+            if( !pool.isEmpty() ) {
+                final long t = ((PoolEntry)pool.peekFirst()).releaseTime;
+                if( null == oldestPool || t - oldestTime < 0 ) {
+                    oldestPool = pool;
+                    oldestTime = t;
+                }
+            }
+        }
+        final PoolEntry entry = (PoolEntry) oldestPool.pollFirst();
+        pooledBytes -= entry.buffer.capacity();
+        evictions++;
+    }
+
+    /**
+     * Evicts all pooled buffers idle for at least the given duration.
+     * @param minIdleMillis minimum idle duration in milliseconds, zero evicts all pooled buffers
+     * @return the number of evicted buffers
+     */
+    public synchronized int evict(final long minIdleMillis) {
+        final long now = System.nanoTime();
+        final long minIdleNanos = minIdleMillis * 1000000L;
+        int count = 0;
+        for(final IntObjectHashMap.Entry e : pools) {
+            final ArrayDeque<?> pool = (ArrayDeque<?>) e.getValue();
+            while( !pool.isEmpty() && now - ((PoolEntry)pool.peekFirst()).releaseTime >= minIdleNanos ) {
+                pooledBytes -= ((PoolEntry)pool.pollFirst()).buffer.capacity();
+                count++;
+            }
+        }
+        evictions += count;
+        return count;
+    }
+
+    /** Returns a snapshot of the usage statistics. */
+    public synchronized Stats getStats() {
+        return new Stats(allocations, hits, misses, evictions, pooledBytes, usedBytes, peakUsedBytes);
+    }
+
+    /** Resets the counters of the usage statistics, not affecting the byte counts. */
+    public synchronized void resetStats() {
+        allocations = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        peakUsedBytes = usedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectBufferPool[minSizeClass "+minSizeClass+", maxPooled "+maxPooledBytes+
+               ", maxBuffer "+maxBufferBytes+", "+getStats()+"]";
+    }
+}
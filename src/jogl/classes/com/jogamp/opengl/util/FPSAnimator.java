@@ -52,6 +52,10 @@ import com.jogamp.common.ExceptionUtils;
  * frames-per-second rate to avoid using all CPU time. The target FPS
  * is only an estimate and is not guaranteed.
  * <p>
+ * Frames are scheduled via a {@link Timer} w/ a millisecond period,
+ * see {@link Animator#setFramePacer(FramePacer)} for high precision frame pacing.
+ * </p>
+ * <p>
  * The Animator execution thread does not run as a daemon thread,
  * so it is able to keep an application from terminating.<br>
  * Call {@link #stop() } to terminate the animation and it's execution thread.
@@ -166,6 +170,9 @@ public class FPSAnimator extends AnimatorBase {
                     } else {
                         pauseIssued = false;
                         setDrawablesExclCtxState(exclusiveContext); // may re-enable exclusive context
+                        if( null != frameRateGovernor ) {
+                            frameRateGovernor.reset();
+                        }
                     }
                     FPSAnimator.this.notifyAll(); // Wakes up 'waitForStartedCondition' sync -and resume from pause or drawablesEmpty
                     if(DEBUG) {
@@ -175,7 +182,7 @@ public class FPSAnimator extends AnimatorBase {
             }
             if( !pauseIssued && !stopIssued ) { // RUN
                 try {
-                    display();
+                    displayGoverned();
                 } catch (final UncaughtAnimatorException dre) {
                     caughtException = dre;
                     stopIssued = true;
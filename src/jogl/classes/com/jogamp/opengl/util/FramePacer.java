@@ -0,0 +1,343 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import jogamp.opengl.FrameTimeHistogram;
+
+import com.jogamp.opengl.FrameTimeSnapshot;
+
+/**
+ * High precision frame pacing based on {@link System#nanoTime()}.
+ * <p>
+ * Frame deadlines are kept on a fixed nanosecond grid, i.e. 60 fps results in a period of
+ * 16666667 ns w/o drifting, unlike a millisecond based {@link java.util.Timer} period.
+ * </p>
+ * <p>
+ * {@link #await()} blocks until the next deadline using a hybrid strategy:
+ * <ul>
+ *   <li>coarse {@link LockSupport#parkNanos(Object, long) parking} until the {@link #setSleepThreshold(long) sleep threshold} remains,</li>
+ *   <li>{@link LockSupport#parkNanos(Object, long)} while the remaining time exceeds the {@link #setSpinThreshold(long) spin threshold},</li>
+ *   <li>spinning w/ {@link Thread#yield()} for the remaining time.</li>
+ * </ul>
+ * The lateness of each frame against its deadline is recorded, see {@link #getJitter()}.
+ * </p>
+ * <p>
+ * {@link #wakeUp()} lets {@link #await()} return before the deadline, e.g. to stop or pause the animator.
+ * </p>
+ * <p>
+ * Frames missed due to a stall are handled by the {@link CatchUpPolicy}.
+ * </p>
+ * <p>
+ * {@link #await()} shall be called by one thread only, i.e. the animator thread,
+ * while all other methods are thread safe.
+ * </p>
+ * @see Animator#setFramePacer(FramePacer)
+ */
+public class FramePacer {
+    /** Handling of frames missed due to a stall. */
+    public static enum CatchUpPolicy {
+        /** Missed frames are skipped, the next deadline stays on the original frame grid. This is the default. */
+        SKIP,
+        /**
+         * Missed frames are rendered back-to-back w/o waiting, up to {@link FramePacer#setMaxBurst(int) max burst} frames,
+         * further missed frames are skipped. Keeps the frame count in sync with the elapsed time for small stalls.
+         */
+        BURST_LIMITED,
+        /** Missed frames are skipped and the frame grid is restarted at the current time. */
+        RESET
+    }
+
+    /** Default sleep threshold of 2 ms, covering typical coarse timer overshoot. */
+    public static final long DEFAULT_SLEEP_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(2);
+    /** Default spin threshold of 100 us, covering typical {@link LockSupport#parkNanos(long)} overshoot. */
+    public static final long DEFAULT_SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(100);
+    /** Default maximum number of back-to-back frames w/ {@link CatchUpPolicy#BURST_LIMITED}, {@value}. */
+    public static final int DEFAULT_MAX_BURST = 3;
+
+    private static final long ONE_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private volatile long period;
+    private volatile CatchUpPolicy catchUpPolicy = CatchUpPolicy.SKIP;
+    private volatile int maxBurst = DEFAULT_MAX_BURST;
+    private volatile long sleepThreshold = DEFAULT_SLEEP_THRESHOLD;
+    private volatile long spinThreshold = DEFAULT_SPIN_THRESHOLD;
+    private volatile boolean resetIssued = true;
+    private volatile boolean wakeUpIssued = false;
+    private volatile Thread waitingThread;
+
+    /** Next deadline, only accessed by the {@link #await()} thread. */
+    private long nextDeadline;
+    /** Remaining back-to-back frames w/ {@link CatchUpPolicy#BURST_LIMITED}, only accessed by the {@link #await()} thread. */
+    private int burstLeft;
+
+    private final FrameTimeHistogram jitter = new FrameTimeHistogram();
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong skippedFrames = new AtomicLong();
+
+    /**
+     * Creates a new instance w/ the given frames per second.
+     * @param fps frames per second, must be &gt; 0
+     * @throws IllegalArgumentException if <code>fps</code> &le; 0
+     */
+    public FramePacer(final float fps) throws IllegalArgumentException {
+        setFPS(fps);
+    }
+
+    /**
+     * Sets the frames per second, i.e. a period of <code>1000000000/fps</code> nanoseconds.
+     * @param fps frames per second, must be &gt; 0
+     * @throws IllegalArgumentException if <code>fps</code> &le; 0
+     */
+    public final void setFPS(final float fps) throws IllegalArgumentException {
+        if( !( fps > 0f ) ) {
+            throw new IllegalArgumentException("fps must be > 0, has "+fps);
+        }
+        setPeriod(Math.round(1000000000.0 / fps));
+    }
+
+    /** Returns the frames per second, i.e. <code>1000000000/{@link #getPeriod()}</code>. */
+    public final float getFPS() {
+        return (float) ( 1000000000.0 / period );
+    }
+
+    /**
+     * Sets the frame period in nanoseconds, taking effect with the next frame.
+     * @param nanos frame period, must be &gt; 0
+     * @throws IllegalArgumentException if <code>nanos</code> &le; 0
+     */
+    public final void setPeriod(final long nanos) throws IllegalArgumentException {
+        if( 0 >= nanos ) {
+            throw new IllegalArgumentException("period must be > 0, has "+nanos);
+        }
+        period = nanos;
+    }
+
+    /** Returns the frame period in nanoseconds. */
+    public final long getPeriod() { return period; }
+
+    /** Sets the {@link CatchUpPolicy}, defaults to {@link CatchUpPolicy#SKIP}. */
+    public final void setCatchUpPolicy(final CatchUpPolicy policy) {
+        if( null == policy ) {
+            throw new IllegalArgumentException("Null policy");
+        }
+        catchUpPolicy = policy;
+    }
+
+    /** Returns the {@link CatchUpPolicy}. */
+    public final CatchUpPolicy getCatchUpPolicy() { return catchUpPolicy; }
+
+    /**
+     * Sets the maximum number of frames rendered back-to-back w/ {@link CatchUpPolicy#BURST_LIMITED},
+     * defaults to {@link #DEFAULT_MAX_BURST}.
+     * @throws IllegalArgumentException if <code>frames</code> &lt; 0
+     */
+    public final void setMaxBurst(final int frames) throws IllegalArgumentException {
+        if( 0 > frames ) {
+            throw new IllegalArgumentException("frames must be >= 0, has "+frames);
+        }
+        maxBurst = frames;
+    }
+
+    /** Returns the maximum number of frames rendered back-to-back w/ {@link CatchUpPolicy#BURST_LIMITED}. */
+    public final int getMaxBurst() { return maxBurst; }
+
+    /**
+     * Sets the remaining time in nanoseconds, above which coarse parking is used,
+     * defaults to {@link #DEFAULT_SLEEP_THRESHOLD}.
+     */
+    public final void setSleepThreshold(final long nanos) {
+        sleepThreshold = Math.max(0, nanos);
+    }
+
+    /** Returns the remaining time in nanoseconds, above which coarse parking is used. */
+    public final long getSleepThreshold() { return sleepThreshold; }
+
+    /**
+     * Sets the remaining time in nanoseconds, below which the calling thread spins,
+     * defaults to {@link #DEFAULT_SPIN_THRESHOLD}.
+     * A value of <code>0</code> disables spinning.
+     */
+    public final void setSpinThreshold(final long nanos) {
+        spinThreshold = Math.max(0, nanos);
+    }
+
+    /** Returns the remaining time in nanoseconds, below which the calling thread spins. */
+    public final long getSpinThreshold() { return spinThreshold; }
+
+    /**
+     * Restarts the frame grid with the next {@link #await()} call, which returns immediately.
+     * <p>
+     * Shall be called when resuming animation after a pause, so the pause is not treated as a stall.
+     * </p>
+     */
+    public final void reset() {
+        resetIssued = true;
+    }
+
+    /**
+     * Wakes up the thread blocked in {@link #await()}, which returns w/o waiting for the deadline.
+     * <p>
+     * If no thread is blocked, the next {@link #await()} call returns immediately.
+     * Issued by the {@link Animator} on lifecycle changes, e.g. {@link Animator#stop()} or {@link Animator#pause()},
+     * hence a low frame rate does not delay them.
+     * </p>
+     */
+    public final void wakeUp() {
+        wakeUpIssued = true;
+        final Thread t = waitingThread;
+        if( null != t ) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /** Clears the frame count, skipped frame count and jitter statistics. */
+    public final void resetStats() {
+        jitter.reset();
+        frames.set(0);
+        skippedFrames.set(0);
+    }
+
+    /**
+     * Blocks until the next frame deadline.
+     * <p>
+     * The first call after construction or {@link #reset()} returns immediately and starts the frame grid.
+     * </p>
+     * <p>
+     * If {@link #wakeUp() woken up}, returns <code>0</code> before the deadline, which is kept for the next call.
+     * The early return is not counted as a frame.
+     * </p>
+     * @return the number of frames skipped due to a stall before this frame, see {@link CatchUpPolicy}.
+     * @throws InterruptedException if the calling thread has been interrupted
+     */
+    public final long await() throws InterruptedException {
+        final long p = period;
+        long now = System.nanoTime();
+        if( resetIssued ) {
+            resetIssued = false;
+            wakeUpIssued = false;
+            nextDeadline = now + p;
+            burstLeft = maxBurst;
+            frames.incrementAndGet();
+            return 0;
+        }
+        final long deadline = nextDeadline;
+        long remaining = deadline - now;
+        final long _sleepThreshold = sleepThreshold;
+        final long _spinThreshold = spinThreshold;
+        waitingThread = Thread.currentThread();
+        try {
+            while( !wakeUpIssued && remaining - _sleepThreshold >= ONE_MS ) { // sub ms remainder for fine park
+                LockSupport.parkNanos(this, remaining - _sleepThreshold);
+                if( Thread.interrupted() ) {
+                    throw new InterruptedException();
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            while( !wakeUpIssued && remaining > _spinThreshold ) {
+                LockSupport.parkNanos(this, remaining - _spinThreshold);
+                if( Thread.interrupted() ) {
+                    throw new InterruptedException();
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            while( !wakeUpIssued && remaining > 0 ) {
+                Thread.yield();
+                remaining = deadline - System.nanoTime();
+            }
+        } finally {
+            waitingThread = null;
+        }
+        if( wakeUpIssued ) {
+            wakeUpIssued = false;
+            if( remaining > 0 ) {
+                return 0; // woken up before the deadline, keep it
+            }
+        }
+        now = System.nanoTime();
+        final long late = now - deadline;
+        jitter.record(late);
+        frames.incrementAndGet();
+
+        // Schedule next frame
+        final long missed = late / p; // whole periods behind
+        final long skipped;
+        if( 0 == missed ) {
+            nextDeadline = deadline + p;
+            burstLeft = maxBurst;
+            skipped = 0;
+        } else {
+            switch( catchUpPolicy ) {
+                case BURST_LIMITED:
+                    // skip what exceeds the burst, render the remaining due frames back-to-back
+                    skipped = Math.max(0, missed - burstLeft);
+                    if( skipped < missed ) {
+                        burstLeft--;
+                    }
+                    nextDeadline = deadline + ( skipped + 1 ) * p;
+                    break;
+                case RESET:
+                    skipped = missed;
+                    nextDeadline = now + p;
+                    break;
+                case SKIP:
+                default:
+                    skipped = missed;
+                    nextDeadline = deadline + ( missed + 1 ) * p;
+                    break;
+            }
+        }
+        if( 0 < skipped ) {
+            skippedFrames.addAndGet(skipped);
+        }
+        return skipped;
+    }
+
+    /** Returns the number of frames passed via {@link #await()}. */
+    public final long getFrameCount() { return frames.get(); }
+
+    /** Returns the number of frames skipped due to stalls, see {@link CatchUpPolicy}. */
+    public final long getSkippedFrames() { return skippedFrames.get(); }
+
+    /**
+     * Returns the distribution of frame lateness in nanoseconds,
+     * i.e. the duration between each frame's deadline and {@link #await()} returning.
+     */
+    public final FrameTimeSnapshot.Distribution getJitter() {
+        return jitter.snapshot();
+    }
+
+    @Override
+    public String toString() {
+        return "FramePacer[fps "+getFPS()+", period "+period+" ns, "+catchUpPolicy+", maxBurst "+maxBurst+
+               ", frames "+getFrameCount()+", skipped "+getSkippedFrames()+", jitter "+getJitter()+"]";
+    }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import jogamp.opengl.WakeUpCallback;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLRunnable;
+
+/**
+ * Frame rate governor for an {@link AnimatorBase}, throttling rendering while nothing changes,
+ * see {@link AnimatorBase#setFrameRateGovernor(FrameRateGovernor)}.
+ * <p>
+ * For each animation iteration the governor
+ * <ul>
+ *   <li>skips the {@link GLAutoDrawable#display()} of all drawables not being {@link GLAutoDrawable#isDirty() dirty},
+ *       i.e. neither {@link GLAutoDrawable#markDirty() marked dirty} nor having pending {@link GLRunnable}s,</li>
+ *   <li>lowers the frame rate to the {@link #setIdleFPS(float) idle frame rate}
+ *       after {@link #setIdleThreshold(int) idle threshold} iterations w/o activity,</li>
+ *   <li>restores the full frame rate immediately on activity, i.e. a dirty drawable,
+ *       a pending {@link GLRunnable} or {@link #notifyActivity()}, e.g. issued by an input event listener.</li>
+ * </ul>
+ * Each skipped drawable display is counted as a {@link #getPowerSavedFrames() power saved frame}.
+ * </p>
+ * <p>
+ * Optionally the governor adapts the drawables' swap interval, see {@link #setAdaptiveVSync(boolean)}:
+ * Vertical sync is enabled if the display time is consistently under the {@link #setFrameBudget(long) frame budget},
+ * capping the frame rate at the monitor refresh rate,
+ * and disabled if the budget is exceeded, avoiding to halve the frame rate.
+ * </p>
+ * <p>
+ * An instance shall be set to one {@link AnimatorBase} only.
+ * {@link #notifyActivity()}, {@link #wakeUp()}, the counters and all setter are thread safe.
+ * </p>
+ */
+public class FrameRateGovernor implements WakeUpCallback {
+    /** Default number of iterations w/o activity before throttling, {@value}. */
+    public static final int DEFAULT_IDLE_THRESHOLD = 30;
+    /** Default idle frame rate, {@value}. */
+    public static final float DEFAULT_IDLE_FPS = 10f;
+    /** Default frame budget of 1/60 s. */
+    public static final long DEFAULT_FRAME_BUDGET = 16666667L;
+    /** Consecutive frames under the frame budget enabling vertical sync w/ {@link #setAdaptiveVSync(boolean) adaptive vsync}, {@value}. */
+    public static final int VSYNC_ENABLE_FRAMES = 60;
+    /** Consecutive frames over the frame budget disabling vertical sync w/ {@link #setAdaptiveVSync(boolean) adaptive vsync}, {@value}. */
+    public static final int VSYNC_DISABLE_FRAMES = 3;
+
+    private volatile int idleThreshold = DEFAULT_IDLE_THRESHOLD;
+    private volatile long idlePeriod;
+    private volatile long frameBudget = DEFAULT_FRAME_BUDGET;
+    private volatile boolean adaptiveVSync = false;
+    private volatile boolean activity = true;
+    private volatile boolean throttled = false;
+    private volatile boolean wakeUpIssued = false;
+    private volatile Thread waitingThread;
+
+    /** Drawables to display, reused and only accessed by the animator thread. */
+    private final ArrayList<GLAutoDrawable> dirtyDrawables = new ArrayList<GLAutoDrawable>();
+    private boolean displayAll = true;
+    private int idleIterations;
+    private long lastFrameStart;
+    private int underBudgetFrames, overBudgetFrames;
+    /** Current swap interval w/ adaptive vsync, -1 if not yet set. */
+    private int swapInterval = -1;
+
+    private final AtomicLong displayedFrames = new AtomicLong();
+    private final AtomicLong powerSavedFrames = new AtomicLong();
+    private final AtomicLong throttledFrames = new AtomicLong();
+
+    /** Creates a governor w/ {@link #DEFAULT_IDLE_THRESHOLD}, {@link #DEFAULT_IDLE_FPS} and {@link #DEFAULT_FRAME_BUDGET}. */
+    public FrameRateGovernor() {
+        setIdleFPS(DEFAULT_IDLE_FPS);
+    }
+
+    /**
+     * Sets the number of iterations w/o activity before throttling to the {@link #setIdleFPS(float) idle frame rate}.
+     * @throws IllegalArgumentException if <code>iterations</code> &lt; 1
+     */
+    public final void setIdleThreshold(final int iterations) throws IllegalArgumentException {
+        if( 1 > iterations ) {
+            throw new IllegalArgumentException("idleThreshold must be > 0, has "+iterations);
+        }
+        idleThreshold = iterations;
+    }
+
+    /** Returns the number of iterations w/o activity before throttling. */
+    public final int getIdleThreshold() { return idleThreshold; }
+
+    /**
+     * Sets the frame rate while throttled.
+     * @param fps frames per second, must be &gt; 0
+     * @throws IllegalArgumentException if <code>fps</code> &le; 0
+     */
+    public final void setIdleFPS(final float fps) throws IllegalArgumentException {
+        if( !( fps > 0f ) ) {
+            throw new IllegalArgumentException("fps must be > 0, has "+fps);
+        }
+        idlePeriod = Math.round(1000000000.0 / fps);
+    }
+
+    /** Returns the frame rate while throttled. */
+    public final float getIdleFPS() { return (float) ( 1000000000.0 / idlePeriod ); }
+
+    /**
+     * Sets the frame budget in nanoseconds used w/ {@link #setAdaptiveVSync(boolean) adaptive vsync},
+     * usually the monitor refresh period.
+     * @throws IllegalArgumentException if <code>nanos</code> &le; 0
+     */
+    public final void setFrameBudget(final long nanos) throws IllegalArgumentException {
+        if( 0 >= nanos ) {
+            throw new IllegalArgumentException("frameBudget must be > 0, has "+nanos);
+        }
+        frameBudget = nanos;
+    }
+
+    /** Returns the frame budget in nanoseconds. */
+    public final long getFrameBudget() { return frameBudget; }
+
+    /**
+     * Enables or disables adapting the drawables' swap interval to the display time, disabled by default.
+     * <p>
+     * The swap interval is changed via {@link GLAutoDrawable#invoke(boolean, GLRunnable) invoke(false, ..)}
+     * on transitions only.
+     * </p>
+     */
+    public final void setAdaptiveVSync(final boolean enable) { adaptiveVSync = enable; }
+
+    /** Returns whether adaptive vsync is enabled. */
+    public final boolean getAdaptiveVSync() { return adaptiveVSync; }
+
+    /**
+     * Notifies user activity, e.g. an input event, restoring the full frame rate immediately.
+     * <p>
+     * Drawables whose content changed shall be {@link GLAutoDrawable#markDirty() marked dirty} in addition.
+     * </p>
+     */
+    public final void notifyActivity() {
+        activity = true;
+        wakeUp();
+    }
+
+    /**
+     * Wakes up the animator thread {@link #isThrottled() throttled} in {@link #await(ArrayList)},
+     * re-evaluating the drawables' {@link GLAutoDrawable#isDirty() dirty} state.
+     * <p>
+     * Issued by the {@link GLAutoDrawable} implementations when {@link GLAutoDrawable#markDirty() marked dirty}
+     * or a {@link GLRunnable} is enqueued, hence throttled animators don't need to poll,
+     * as well as by the {@link AnimatorBase} on lifecycle changes, e.g. {@link AnimatorBase#stop()}.
+     * </p>
+     */
+    @Override
+    public final void wakeUp() {
+        wakeUpIssued = true;
+        final Thread t = waitingThread;
+        if( null != t ) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    /** Returns whether the frame rate is currently throttled to the {@link #getIdleFPS() idle frame rate}. */
+    public final boolean isThrottled() { return throttled; }
+
+    /** Returns the number of displayed drawable frames. */
+    public final long getDisplayedFrames() { return displayedFrames.get(); }
+
+    /** Returns the number of drawable frames skipped, since the drawable was not {@link GLAutoDrawable#isDirty() dirty}. */
+    public final long getPowerSavedFrames() { return powerSavedFrames.get(); }
+
+    /** Returns the number of animation iterations delayed to the {@link #getIdleFPS() idle frame rate}. */
+    public final long getThrottledFrames() { return throttledFrames.get(); }
+
+    /** Clears all counters. */
+    public final void resetCounter() {
+        displayedFrames.set(0);
+        powerSavedFrames.set(0);
+        throttledFrames.set(0);
+    }
+
+    /** Restores the full frame rate and forces the next iteration to display all drawables, called when attached and at start. */
+    final void reset() {
+        idleIterations = 0;
+        throttled = false;
+        activity = true;
+        displayAll = true;
+        lastFrameStart = 0;
+        underBudgetFrames = 0;
+        overBudgetFrames = 0;
+    }
+
+    private static boolean isAnyDirty(final ArrayList<GLAutoDrawable> drawables) {
+        try {
+            for (int i=0; i<drawables.size(); i++) {
+                if( drawables.get(i).isDirty() ) {
+                    return true;
+                }
+            }
+        } catch (final IndexOutOfBoundsException ioobe) {
+            // concurrent pulling of GLAutoDrawables ..
+        }
+        return false;
+    }
+
+    /**
+     * Blocks the animator thread while {@link #isThrottled() throttled} until the next idle frame is due
+     * or woken up via {@link #notifyActivity()} or {@link #wakeUp()}.
+     */
+    final void await(final ArrayList<GLAutoDrawable> drawables) throws InterruptedException {
+        if( !throttled ) {
+            wakeUpIssued = false;
+            return;
+        }
+        final long deadline = lastFrameStart + idlePeriod;
+        waitingThread = Thread.currentThread();
+        try {
+            long remaining;
+            while( !wakeUpIssued && 0 < ( remaining = deadline - System.nanoTime() ) && !isAnyDirty(drawables) ) {
+                LockSupport.parkNanos(this, remaining);
+                if( Thread.interrupted() ) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitingThread = null;
+            wakeUpIssued = false;
+        }
+    }
+
+    /**
+     * Returns the drawables to be displayed this iteration, i.e. all {@link GLAutoDrawable#isDirty() dirty} ones.
+     * <p>
+     * If {@link #isThrottled() throttled} and neither the next idle frame is due nor activity has been detected,
+     * the returned list is empty.
+     * </p>
+     * @return the reused list of drawables to be displayed
+     */
+    final ArrayList<GLAutoDrawable> beginFrame(final ArrayList<GLAutoDrawable> drawables) {
+        final long now = System.nanoTime();
+        final boolean _activity = activity;
+        activity = false;
+        dirtyDrawables.clear();
+        int skipped = 0;
+        try {
+            for (int i=0; i<drawables.size(); i++) {
+                final GLAutoDrawable d = drawables.get(i);
+                if( displayAll || d.isDirty() ) {
+                    dirtyDrawables.add(d);
+                } else {
+                    skipped++;
+                }
+            }
+        } catch (final IndexOutOfBoundsException ioobe) {
+            // concurrent pulling of GLAutoDrawables ..
+        }
+        if( _activity || !dirtyDrawables.isEmpty() ) {
+            idleIterations = 0;
+            throttled = false;
+        } else if( !throttled && ++idleIterations >= idleThreshold ) {
+            throttled = true;
+        }
+        if( throttled && now - lastFrameStart < idlePeriod ) {
+            // not due yet, e.g. w/ an animator not blocking in await()
+            throttledFrames.incrementAndGet();
+            powerSavedFrames.addAndGet(skipped);
+            dirtyDrawables.clear();
+            return dirtyDrawables;
+        }
+        displayAll = false;
+        lastFrameStart = now;
+        powerSavedFrames.addAndGet(skipped);
+        displayedFrames.addAndGet(dirtyDrawables.size());
+        return dirtyDrawables;
+    }
+
+    /**
+     * Notifies the display duration of the drawables returned by {@link #beginFrame(ArrayList)},
+     * adapting their swap interval if {@link #setAdaptiveVSync(boolean) enabled}.
+     */
+    final void endFrame(final ArrayList<GLAutoDrawable> displayed, final long displayNanos) {
+        if( !adaptiveVSync || displayed.isEmpty() ) {
+            return;
+        }
+        if( displayNanos <= frameBudget ) {
+            overBudgetFrames = 0;
+            if( ++underBudgetFrames >= VSYNC_ENABLE_FRAMES && 1 != swapInterval ) {
+                setSwapInterval(displayed, 1);
+            }
+        } else {
+            underBudgetFrames = 0;
+            if( ++overBudgetFrames >= VSYNC_DISABLE_FRAMES && 0 != swapInterval ) {
+                setSwapInterval(displayed, 0);
+            }
+        }
+    }
+
+    private void setSwapInterval(final ArrayList<GLAutoDrawable> displayed, final int interval) {
+        swapInterval = interval;
+        final GLRunnable action = new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                drawable.getGL().setSwapInterval(interval);
+                return true;
+            } };
+        for (int i=0; i<displayed.size(); i++) {
+            displayed.get(i).invoke(false, action);
+        }
+    }
+}
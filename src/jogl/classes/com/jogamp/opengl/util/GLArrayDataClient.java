@@ -49,6 +49,16 @@ import com.jogamp.opengl.util.glsl.ShaderState;
 
 public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayDataEditable {
 
+  /**
+   * Shared {@link DirectBufferPool} which may be {@link #setBufferPool(DirectBufferPool) opted in} to grow and release
+   * the client buffer storage, w/ a minimum size class of 256 bytes, holding up to 32 MiB of idle buffers of up to 8 MiB each.
+   * <p>
+   * No pool is used by default.
+   * </p>
+   * @see #setBufferPool(DirectBufferPool)
+   */
+  public static final DirectBufferPool DEFAULT_BUFFER_POOL = new DirectBufferPool(256, 32 << 20, 8 << 20);
+
   /**
    * Create a client side buffer object, using a predefined fixed function array index
    * and starting with a new created Buffer object with initialElementCount size
@@ -184,6 +194,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
   @Override
   public void destroy(final GL gl) {
     reset(gl);
+    releaseStorage();
     super.destroy(gl);
   }
 
@@ -227,10 +238,41 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     enableBufferAlways = always;
   }
 
+  /**
+   * Sets the {@link DirectBufferPool} used to obtain grown client buffer storage
+   * and to release the outgrown storage and the storage at {@link #destroy(GL)}.
+   * Pooling is disabled by default, i.e. storage is allocated and dropped w/o pooling.
+   * <p>
+   * Storage obtained from the pool is owned by this instance, which releases it at the next growth and at {@link #destroy(GL)}.
+   * Hence, once a pool is set, buffers retrieved via {@link #getBuffer()} and {@link #GLArrayDataClient(GLArrayDataClient) copies}
+   * of this instance must not be accessed after it's next growth or {@link #destroy(GL)},
+   * since their storage might have been reused already. Copies never release the shared storage.
+   * </p>
+   * @param pool the pool to be used, e.g. {@link #DEFAULT_BUFFER_POOL}, or <code>null</code> to allocate and drop storage w/o pooling
+   */
+  public final void setBufferPool(final DirectBufferPool pool) {
+    bufferPool = pool;
+  }
+
+  /** Returns the {@link DirectBufferPool} used for the client buffer storage, may be <code>null</code>. */
+  public final DirectBufferPool getBufferPool() { return bufferPool; }
+
+  /** Returns the number of times the client buffer storage has been grown, excluding the initial allocation. */
+  public final int getGrowCount() { return growCount; }
+
+  /** Returns the number of bytes copied while growing the client buffer storage. */
+  public final long getGrowCopiedBytes() { return growCopiedBytes; }
+
   //
   // Data modification ..
   //
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The client buffer storage is kept for reuse.
+   * </p>
+   */
   @Override
   public void reset() {
     if( buffer != null ) {
@@ -339,6 +381,7 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
                        ", stride "+strideB+"b "+strideL+"c"+
                        ", mappedElementCount "+mappedElementCount+
                        ", initialElementCount "+initialElementCount+
+                       ", grows "+growCount+"/"+growCopiedBytes+"b"+
                        ", sealed "+sealed+
                        ", bufferEnabled "+bufferEnabled+
                        ", bufferWritten "+bufferWritten+
@@ -370,40 +413,50 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     // add the stride delta
     additionalElements += (additionalElements/componentsPerElement)*(strideL-componentsPerElement);
 
+    final int elemSize;
+    if(componentClazz==ByteBuffer.class) {
+        elemSize = Buffers.SIZEOF_BYTE;
+    } else if(componentClazz==ShortBuffer.class) {
+        elemSize = Buffers.SIZEOF_SHORT;
+    } else if(componentClazz==IntBuffer.class) {
+        elemSize = Buffers.SIZEOF_INT;
+    } else if(componentClazz==FloatBuffer.class) {
+        elemSize = Buffers.SIZEOF_FLOAT;
+    } else {
+        throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
+    }
+
+    // geometric growth, at least doubling the existing buffer to amortize copying
     final int osize = (buffer!=null) ? buffer.capacity() : 0;
-    final int nsize = osize + ( additionalElements * componentsPerElement );
+    final int nsize = Math.max( osize + ( additionalElements * componentsPerElement ), 2 * osize );
     final Buffer oldBuffer = buffer;
+    final ByteBuffer oldStorage = ownsStorage ? storage : null;
+    final DirectBufferPool oldStoragePool = storagePool;
 
+    final DirectBufferPool pool = bufferPool;
+    final ByteBuffer newStorage = null != pool ? pool.obtain( nsize * elemSize ) : Buffers.newDirectByteBuffer( nsize * elemSize );
+    final Buffer newBuffer;
     if(componentClazz==ByteBuffer.class) {
-        final ByteBuffer newBBuffer = Buffers.newDirectByteBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newBBuffer.put((ByteBuffer)buffer);
-        }
-        buffer = newBBuffer;
+        newBuffer = newStorage.slice().order(newStorage.order());
     } else if(componentClazz==ShortBuffer.class) {
-        final ShortBuffer newSBuffer = Buffers.newDirectShortBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newSBuffer.put((ShortBuffer)buffer);
-        }
-        buffer = newSBuffer;
+        newBuffer = newStorage.asShortBuffer();
     } else if(componentClazz==IntBuffer.class) {
-        final IntBuffer newIBuffer = Buffers.newDirectIntBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newIBuffer.put((IntBuffer)buffer);
-        }
-        buffer = newIBuffer;
-    } else if(componentClazz==FloatBuffer.class) {
-        final FloatBuffer newFBuffer = Buffers.newDirectFloatBuffer( nsize );
-        if(buffer!=null) {
-            buffer.flip();
-            newFBuffer.put((FloatBuffer)buffer);
-        }
-        buffer = newFBuffer;
+        newBuffer = newStorage.asIntBuffer();
     } else {
-        throw new GLException("Given Buffer Class not supported: "+componentClazz+":\n\t"+this);
+        newBuffer = newStorage.asFloatBuffer();
+    }
+    if(buffer!=null) {
+        buffer.flip();
+        growCount++;
+        growCopiedBytes += buffer.remaining() * elemSize;
+        Buffers.put(newBuffer, buffer);
+    }
+    buffer = newBuffer;
+    storage = null != pool ? newStorage : null;
+    storagePool = pool;
+    ownsStorage = null != pool;
+    if( null != oldStorage ) {
+        oldStoragePool.release(oldStorage);
     }
     if(DEBUG) {
         System.err.println("*** Grow: comps: "+componentsPerElement+", "+(osize/componentsPerElement)+"/"+osize+" -> "+(nsize/componentsPerElement)+"/"+nsize+
@@ -411,6 +464,20 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     }
   }
 
+  /** Drops the pooled client buffer storage, releasing it to it's pool if owned. */
+  private final void releaseStorage() {
+    if( null != storage ) {
+        final ByteBuffer _storage = storage;
+        final boolean owned = ownsStorage;
+        storage = null;
+        ownsStorage = false;
+        buffer = null;
+        if( owned ) {
+            storagePool.release(_storage);
+        }
+    }
+  }
+
   protected final void checkSeal(final boolean test) throws GLException {
     if(!alive) {
         throw new GLException("Invalid state: "+this);
@@ -465,6 +532,9 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
    * Buffer is {@link Buffers#slice(Buffer) sliced}, i.e. sharing content but using own state.
    * </p>
    * <p>
+   * Pooled storage remains owned by <code>src</code>, see {@link #setBufferPool(DirectBufferPool)}.
+   * </p>
+   * <p>
    * All other values are simply copied.
    * </p>
    */
@@ -476,6 +546,11 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
     this.bufferWritten = src.bufferWritten;
     this.enableBufferAlways = src.enableBufferAlways;
     this.initialElementCount = src.initialElementCount;
+    // the sliced buffer shares the storage, which is only released by src
+    this.bufferPool = src.bufferPool;
+    this.storage = src.storage;
+    this.storagePool = src.storagePool;
+    this.ownsStorage = false;
     if( null != src.glArrayHandler ) {
         final Class<? extends GLArrayHandler> clazz = src.glArrayHandler.getClass();
         try {
@@ -498,6 +573,15 @@ public class GLArrayDataClient extends GLArrayDataWrapper implements GLArrayData
 
   protected int initialElementCount;
 
+  private DirectBufferPool bufferPool;
+  /** Pooled storage backing {@link #buffer}, or <code>null</code> if not pooled. */
+  private ByteBuffer storage;
+  private DirectBufferPool storagePool;
+  /** <code>false</code> if {@link #storage} is shared w/ the source of a copy, which releases it. */
+  private boolean ownsStorage;
+  private int growCount;
+  private long growCopiedBytes;
+
   protected GLArrayHandler glArrayHandler;
   protected boolean usesGLSL;
   protected ShaderState shaderState;
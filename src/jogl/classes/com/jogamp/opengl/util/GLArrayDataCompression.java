@@ -0,0 +1,221 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.math.Binary16;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Vertex attribute compression of float data, used by
+ * {@link GLArrayDataServer#createGLSLCompressed(String, int, Encoding, FloatBuffer, int) GLArrayDataServer.createGLSLCompressed(..)}.
+ * <p>
+ * Compressed attributes are decoded by the vertex fetch hardware,
+ * i.e. the shader still reads float vectors, reducing the vertex bandwidth of static geometry by half or more.
+ * </p>
+ */
+public class GLArrayDataCompression {
+    /** Vertex attribute encoding of float data. */
+    public static enum Encoding {
+        /**
+         * Quantized to normalized {@link GL#GL_SHORT}, 2 bytes per component, e.g. for positions.
+         * <p>
+         * Each component is mapped from it's <code>[min .. max]</code> range to <code>[-1 .. 1]</code>,
+         * hence the shader must decode it via <code>value * scale + bias</code>,
+         * see {@link GLArrayDataCompression#computeScaleBias(FloatBuffer, int, float[], float[])}.
+         * </p>
+         */
+        SNORM16(GL.GL_SHORT, true),
+        /**
+         * Packed into one signed normalized {@link GL3ES3#GL_INT_2_10_10_10_REV}, 4 bytes per element,
+         * e.g. for unit length normals or tangents w/ 3 or 4 components in <code>[-1 .. 1]</code>.
+         * <p>
+         * The attribute always has 4 components, a 3 component input gets a zero <code>w</code> component.
+         * <code>w</code> uses 2 bits, hence only holds <code>-1</code>, <code>0</code> or <code>1</code>, e.g. a tangent's handedness.
+         * </p>
+         */
+        INT_2_10_10_10_REV(GL3ES3.GL_INT_2_10_10_10_REV, true),
+        /**
+         * Converted to {@link GL#GL_HALF_FLOAT}, 2 bytes per component, e.g. for texture coordinates.
+         * <p>
+         * Values are clamped to <code>[-65504 .. 65504]</code> and values below <code>2^-14</code> are flushed to zero.
+         * </p>
+         */
+        HALF_FLOAT(GL.GL_HALF_FLOAT, false);
+
+        /** The GL data type of the encoded components. */
+        public final int glType;
+        /** Whether the encoded components are normalized fixed point values. */
+        public final boolean normalized;
+
+        Encoding(final int glType, final boolean normalized) {
+            this.glType = glType;
+            this.normalized = normalized;
+        }
+
+        /** Returns the GL attribute component count for the given float component count. */
+        public final int getComponentCount(final int compsPerElement) {
+            return INT_2_10_10_10_REV == this ? 4 : compsPerElement;
+        }
+
+        /** Returns the encoded byte size of one element w/ the given float component count. */
+        public final int getElementSizeInBytes(final int compsPerElement) {
+            return INT_2_10_10_10_REV == this ? Buffers.SIZEOF_INT : compsPerElement * Buffers.SIZEOF_SHORT;
+        }
+    }
+
+    private static final float HALF_FLOAT_MAX = 65504f;
+    private static final float HALF_FLOAT_MIN_NORMAL = 1f / ( 1 << 14 );
+
+    /**
+     * Computes the per component decode scale and bias of the given float data for {@link Encoding#SNORM16},
+     * i.e. <code>decoded = encoded * scale + bias</code> maps <code>[-1 .. 1]</code> to the component's <code>[min .. max]</code> range.
+     * @param src the float data from it's position to it's limit, not modified
+     * @param compsPerElement component count per element
+     * @param scale storage for <code>compsPerElement</code> scale values
+     * @param bias storage for <code>compsPerElement</code> bias values
+     */
+    public static void computeScaleBias(final FloatBuffer src, final int compsPerElement, final float[] scale, final float[] bias) {
+        final int p0 = src.position();
+        final int elements = src.remaining() / compsPerElement;
+        for(int c=0; c<compsPerElement; c++) {
+            float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+            for(int i=0; i<elements; i++) {
+                final float v = src.get(p0 + i * compsPerElement + c);
+                if( v < min ) { min = v; }
+                if( v > max ) { max = v; }
+            }
+            if( 0 == elements ) {
+                min = 0f; max = 0f;
+            }
+            bias[c] = ( max + min ) * 0.5f;
+            scale[c] = max > min ? ( max - min ) * 0.5f : 1f;
+        }
+    }
+
+    /**
+     * Encodes the given float data as {@link Encoding#SNORM16}, w/ the decode <code>scale</code> and <code>bias</code>
+     * from {@link #computeScaleBias(FloatBuffer, int, float[], float[])}.
+     * @param src the float data from it's position to it's limit, not modified
+     * @param compsPerElement component count per element
+     * @param scale decode scale per component
+     * @param bias decode bias per component
+     * @param dst destination, written from it's position
+     */
+    public static void encodeSNORM16(final FloatBuffer src, final int compsPerElement, final float[] scale, final float[] bias, final ShortBuffer dst) {
+        final int p0 = src.position();
+        final int count = src.remaining() - src.remaining() % compsPerElement;
+        for(int i=0; i<count; i++) {
+            final int c = i % compsPerElement;
+            dst.put( toSNORM( ( src.get(p0 + i) - bias[c] ) / scale[c], 32767 ) );
+        }
+    }
+
+    /**
+     * Encodes the given float data as {@link Encoding#INT_2_10_10_10_REV}, one int per element.
+     * @param src the float data from it's position to it's limit, not modified
+     * @param compsPerElement component count per element, 3 or 4
+     * @param dst destination, written from it's position in it's byte order
+     * @throws IllegalArgumentException if <code>compsPerElement</code> is neither 3 nor 4
+     */
+    public static void encodeInt2_10_10_10_REV(final FloatBuffer src, final int compsPerElement, final ByteBuffer dst) throws IllegalArgumentException {
+        if( 3 != compsPerElement && 4 != compsPerElement ) {
+            throw new IllegalArgumentException("Invalid compsPerElement "+compsPerElement+", must be 3 or 4");
+        }
+        final int p0 = src.position();
+        final int elements = src.remaining() / compsPerElement;
+        for(int i=0; i<elements; i++) {
+            final int p = p0 + i * compsPerElement;
+            final float w = 4 == compsPerElement ? src.get(p+3) : 0f;
+            dst.putInt( packInt2_10_10_10_REV(src.get(p), src.get(p+1), src.get(p+2), w) );
+        }
+    }
+
+    /**
+     * Encodes the given float data as {@link Encoding#HALF_FLOAT} via {@link Binary16#packFloat(float)}.
+     * @param src the float data from it's position to it's limit, not modified
+     * @param dst destination, written from it's position
+     */
+    public static void encodeHalfFloat(final FloatBuffer src, final ShortBuffer dst) {
+        final int p0 = src.position();
+        final int count = src.remaining();
+        for(int i=0; i<count; i++) {
+            dst.put( toHalfFloat( src.get(p0 + i) ) );
+        }
+    }
+
+    /**
+     * Returns the signed normalized {@link GL3ES3#GL_INT_2_10_10_10_REV} packing of the given components,
+     * each clamped to <code>[-1 .. 1]</code>, w/ <code>x</code> in the least significant bits.
+     */
+    public static int packInt2_10_10_10_REV(final float x, final float y, final float z, final float w) {
+        return   ( toSNORM(x, 511) & 0x3ff )        |
+               ( ( toSNORM(y, 511) & 0x3ff ) << 10 ) |
+               ( ( toSNORM(z, 511) & 0x3ff ) << 20 ) |
+               ( ( toSNORM(w,   1) & 0x3   ) << 30 );
+    }
+
+    /**
+     * Decodes a signed normalized {@link GL3ES3#GL_INT_2_10_10_10_REV} packing as the GL does,
+     * i.e. <code>max(v / (2^(b-1)-1), -1)</code>.
+     * @param packed the packed components
+     * @param xyzw storage for the 4 decoded components
+     * @return the given storage
+     */
+    public static float[] unpackInt2_10_10_10_REV(final int packed, final float[] xyzw) {
+        xyzw[0] = Math.max( ( ( packed << 22 ) >> 22 ) / 511f, -1f );
+        xyzw[1] = Math.max( ( ( packed << 12 ) >> 22 ) / 511f, -1f );
+        xyzw[2] = Math.max( ( ( packed <<  2 ) >> 22 ) / 511f, -1f );
+        xyzw[3] = Math.max(   ( packed         >> 30 ),        -1f );
+        return xyzw;
+    }
+
+    /** Returns the {@link Encoding#HALF_FLOAT} bits of the given value, see {@link Encoding#HALF_FLOAT} for clamping. */
+    public static short toHalfFloat(final float v) {
+        final float a = Math.abs(v);
+        if( a < HALF_FLOAT_MIN_NORMAL ) {
+            return (short) Binary16.packFloat( 0f <= v ? 0f : -0f );
+        } else if( a > HALF_FLOAT_MAX ) {
+            return (short) Binary16.packFloat( 0f < v ? HALF_FLOAT_MAX : -HALF_FLOAT_MAX );
+        } else {
+            return (short) Binary16.packFloat(v);
+        }
+    }
+
+    /** Returns <code>round(clamp(v, -1, 1) * max)</code>. */
+    private static short toSNORM(final float v, final int max) {
+        final float c = v < -1f ? -1f : ( v > 1f ? 1f : v );
+        return (short) Math.round( c * max );
+    }
+}
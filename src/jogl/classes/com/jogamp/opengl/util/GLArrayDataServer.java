@@ -190,6 +190,66 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     return ads;
   }
 
+  /**
+   * Create a VBO, using a custom GLSL array attribute name
+   * and the given float data compressed via the given {@link GLArrayDataCompression.Encoding}.
+   * <p>
+   * The component count, data type and normalization are set according to the encoding,
+   * e.g. {@link GLArrayDataCompression.Encoding#INT_2_10_10_10_REV} always results in 4 packed components.
+   * </p>
+   * <p>
+   * For {@link GLArrayDataCompression.Encoding#SNORM16} the vertex shader must decode the attribute
+   * via <code>value * scale + bias</code>, see {@link #getDecodeScale()} and {@link #getDecodeBias()},
+   * e.g. by passing them as uniforms or by folding them into the model matrix.
+   * </p>
+   * <p>
+   * The returned instance is unsealed and holds the compressed data, hence may be {@link #seal(GL, boolean) sealed} right away.
+   * </p>
+   * @param name  The custom name for the GL attribute
+   * @param compsPerElement component count per element of the float data
+   * @param encoding the {@link GLArrayDataCompression.Encoding}
+   * @param data the float data from it's position to it's limit, not modified
+   * @param vboUsage {@link GL2ES2#GL_STREAM_DRAW}, {@link GL#GL_STATIC_DRAW} or {@link GL#GL_DYNAMIC_DRAW}
+   */
+  public static GLArrayDataServer createGLSLCompressed(final String name, final int compsPerElement,
+                                                       final GLArrayDataCompression.Encoding encoding, final FloatBuffer data,
+                                                       final int vboUsage)
+    throws GLException
+  {
+    final int elements = data.remaining() / compsPerElement;
+    final ByteBuffer bb = Buffers.newDirectByteBuffer( elements * encoding.getElementSizeInBytes(compsPerElement) );
+    float[] scale = null, bias = null;
+    final Buffer buffer;
+    switch( encoding ) {
+        case SNORM16: {
+            scale = new float[compsPerElement];
+            bias = new float[compsPerElement];
+            GLArrayDataCompression.computeScaleBias(data, compsPerElement, scale, bias);
+            final ShortBuffer sb = bb.asShortBuffer();
+            GLArrayDataCompression.encodeSNORM16(data, compsPerElement, scale, bias, sb);
+            buffer = sb;
+          } break;
+        case INT_2_10_10_10_REV:
+            GLArrayDataCompression.encodeInt2_10_10_10_REV(data, compsPerElement, bb);
+            buffer = bb;
+            break;
+        default: {
+            final ShortBuffer sb = bb.asShortBuffer();
+            GLArrayDataCompression.encodeHalfFloat(data, sb);
+            buffer = sb;
+          } break;
+    }
+    buffer.position(buffer.limit()); // filled, ready for sealing
+    final GLArrayDataServer ads = new GLArrayDataServer();
+    final GLArrayHandler glArrayHandler = new GLSLArrayHandler(ads);
+    ads.init(name, -1, encoding.getComponentCount(compsPerElement), encoding.glType, encoding.normalized, 0, buffer, buffer.limit(),
+             0 /* mappedElementCount */, true, glArrayHandler, 0, 0, vboUsage, GL.GL_ARRAY_BUFFER, true);
+    ads.encoding = encoding;
+    ads.decodeScale = scale;
+    ads.decodeBias = bias;
+    return ads;
+  }
+
   /**
    * Create a VBO data object for any target w/o render pipeline association, ie {@link GL#GL_ELEMENT_ARRAY_BUFFER}.
    *
@@ -501,7 +561,7 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     // super.destroy(gl):
     // - GLArrayDataClient.destroy(gl): disables & clears client-side buffer
     //   - GLArrayDataWrapper.destroy(gl) (clears all values 'vboName' ..)
-    final int _vboName = vboName;
+    final int _vboName = null == streamBuffer ? vboName : 0; // stream buffer is owned by user
     super.destroy(gl);
     if(_vboName!=0) {
         final int[] tmp = new int[] { _vboName } ;
@@ -525,6 +585,63 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     super.setVBOEnabled(vboUsage);
   }
 
+  /**
+   * Returns the {@link GLArrayDataCompression.Encoding} of the data if created via
+   * {@link #createGLSLCompressed(String, int, GLArrayDataCompression.Encoding, FloatBuffer, int) createGLSLCompressed(..)},
+   * otherwise <code>null</code>.
+   */
+  public final GLArrayDataCompression.Encoding getEncoding() { return encoding; }
+
+  /**
+   * Returns the per component decode scale of {@link GLArrayDataCompression.Encoding#SNORM16} compressed data,
+   * i.e. <code>decoded = value * scale + bias</code>, otherwise <code>null</code>.
+   */
+  public final float[] getDecodeScale() { return decodeScale; }
+
+  /**
+   * Returns the per component decode bias of {@link GLArrayDataCompression.Encoding#SNORM16} compressed data,
+   * i.e. <code>decoded = value * scale + bias</code>, otherwise <code>null</code>.
+   */
+  public final float[] getDecodeBias() { return decodeBias; }
+
+  /**
+   * Sets a {@link GLStreamBuffer} to stream this array's data into, instead of using an own VBO.
+   * <p>
+   * Each time the sealed data is written, i.e. after {@link #seal(GL, boolean) sealing} modified data,
+   * it is sub-allocated from the next free range of the stream buffer without re-specifying any buffer object,
+   * and the {@link #getVBOOffset() VBO offset} is updated accordingly.
+   * Hence the data must be written every frame, see {@link GLStreamBuffer}.
+   * </p>
+   * <p>
+   * The {@link GLStreamBuffer} is owned by the caller and not destroyed by {@link #destroy(GL)}.
+   * Only non-interleaved, non-{@link #mapStorage(GL, int) mapped} arrays with a matching {@link #getVBOTarget() VBO target} may be streamed.
+   * </p>
+   * @param stream the stream buffer, or <code>null</code> to use an own VBO again
+   * @throws IllegalArgumentException if the stream buffer's target doesn't match
+   * @throws IllegalStateException if this array is interleaved or mapped
+   */
+  public void setStreamBuffer(final GLStreamBuffer stream) throws IllegalArgumentException, IllegalStateException {
+      if( null != stream ) {
+          if( stream.getTarget() != vboTarget ) {
+              throw new IllegalArgumentException("Stream target 0x"+Integer.toHexString(stream.getTarget())+" != VBO target 0x"+Integer.toHexString(vboTarget));
+          }
+          if( 0 < interleavedOffset || 0 < mappedElementCount ) {
+              throw new IllegalStateException("Interleaved or mapped array can't be streamed: "+this);
+          }
+      }
+      if( streamBuffer != stream ) {
+          if( null != streamBuffer ) {
+              vboName = 0; // drop the stream buffer name, own VBO will be created
+          }
+          streamBuffer = stream;
+          vboOffset = 0;
+          bufferWritten = ( 0 == mappedElementCount ) ? false : true;
+      }
+  }
+
+  /** Returns the {@link GLStreamBuffer} this array's data is streamed into, or <code>null</code>, see {@link #setStreamBuffer(GLStreamBuffer)}. */
+  public final GLStreamBuffer getStreamBuffer() { return streamBuffer; }
+
   public GLBufferStorage mapStorage(final GL gl, final int access) {
       if( null != this.getBuffer() ) {
           throw new IllegalStateException("user buffer not null");
@@ -532,6 +649,9 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
       if( null != mappedStorage ) {
           throw new IllegalStateException("already mapped: "+mappedStorage);
       }
+      if( null != streamBuffer ) {
+          throw new IllegalStateException("streamed: "+streamBuffer);
+      }
       checkSeal(true);
       bindBuffer(gl, true);
       gl.glBufferData(getVBOTarget(), getSizeInBytes(), null, getVBOUsage());
@@ -549,6 +669,9 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
       if( null != mappedStorage ) {
           throw new IllegalStateException("already mapped: "+mappedStorage);
       }
+      if( null != streamBuffer ) {
+          throw new IllegalStateException("streamed: "+streamBuffer);
+      }
       checkSeal(true);
       bindBuffer(gl, true);
       gl.glBufferData(getVBOTarget(), getSizeInBytes(), null, getVBOUsage());
@@ -608,6 +731,8 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
                        ", vboUsage 0x"+Integer.toHexString(vboUsage)+
                        ", vboTarget 0x"+Integer.toHexString(vboTarget)+
                        ", vboOffset "+vboOffset+
+                       ", streamBuffer "+streamBuffer+
+                       ", encoding "+encoding+
                        ", sealed "+sealed+
                        ", bufferEnabled "+bufferEnabled+
                        ", bufferWritten "+bufferWritten+
@@ -636,7 +761,9 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
   @Override
   protected void init_vbo(final GL gl) {
     super.init_vbo(gl);
-    if(vboEnabled && vboName==0) {
+    if( vboEnabled && null != streamBuffer ) {
+        vboName = streamBuffer.validate(gl);
+    } else if(vboEnabled && vboName==0) {
         final int[] tmp = new int[1];
         gl.glGenBuffers(1, tmp, 0);
         vboName = tmp[0];
@@ -661,9 +788,17 @@ public class GLArrayDataServer extends GLArrayDataClient implements GLArrayDataE
     super(src);
     this.interleavedOffset = src.interleavedOffset;
     this.mappedStorage = src.mappedStorage;
+    this.streamBuffer = src.streamBuffer;
+    this.encoding = src.encoding;
+    this.decodeScale = src.decodeScale;
+    this.decodeBias = src.decodeBias;
   }
 
   private int interleavedOffset = 0;
   private GLBufferStorage mappedStorage = null;
+  private GLStreamBuffer streamBuffer = null;
+  private GLArrayDataCompression.Encoding encoding = null;
+  private float[] decodeScale = null;
+  private float[] decodeBias = null;
 }
 
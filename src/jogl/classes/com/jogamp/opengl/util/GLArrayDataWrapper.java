@@ -37,6 +37,7 @@ import java.nio.ShortBuffer;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES1;
 import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL3ES3;
 import com.jogamp.opengl.GLArrayData;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLProfile;
@@ -309,9 +310,12 @@ public class GLArrayDataWrapper implements GLArrayData {
     switch(dataType) {
         case GL.GL_BYTE:
         case GL.GL_UNSIGNED_BYTE:
+        case GL3ES3.GL_INT_2_10_10_10_REV:      // packed, byte addressed, see isPackedType(..)
+        case GL2ES2.GL_UNSIGNED_INT_2_10_10_10_REV:
             return ByteBuffer.class;
         case GL.GL_SHORT:
         case GL.GL_UNSIGNED_SHORT:
+        case GL.GL_HALF_FLOAT:
             return ShortBuffer.class;
         case GL.GL_UNSIGNED_INT:
         case GL.GL_FIXED:
@@ -324,6 +328,17 @@ public class GLArrayDataWrapper implements GLArrayData {
     }
   }
 
+  /**
+   * Returns <code>true</code> if the given data type packs all 4 components of an element into one 32bit integer,
+   * i.e. {@link GL3ES3#GL_INT_2_10_10_10_REV} or {@link GL2ES2#GL_UNSIGNED_INT_2_10_10_10_REV}.
+   * <p>
+   * Packed data is held in a {@link ByteBuffer}, i.e. each of the 4 components accounts for one byte of the element.
+   * </p>
+   */
+  public static final boolean isPackedType(final int dataType) {
+    return GL3ES3.GL_INT_2_10_10_10_REV == dataType || GL2ES2.GL_UNSIGNED_INT_2_10_10_10_REV == dataType;
+  }
+
   @Override
   public void setName(final String newName) {
     location = -1;
@@ -350,6 +365,13 @@ public class GLArrayDataWrapper implements GLArrayData {
     setVBOEnabled(0!=vboName);
   }
 
+  /**
+   * Set the byte offset within the VBO, i.e. the <code>pointer_buffer_offset</code> of the gl*Pointer call.
+   */
+  public void setVBOOffset(final long vboOffset) {
+    this.vboOffset=vboOffset;
+  }
+
  /**
   * @param vboUsage {@link GL2ES2#GL_STREAM_DRAW}, {@link GL#GL_STATIC_DRAW} or {@link GL#GL_DYNAMIC_DRAW}
   */
@@ -396,7 +418,14 @@ public class GLArrayDataWrapper implements GLArrayData {
     } else {
         this.normalized = false;
     }
-    componentByteSize = GLBuffers.sizeOfGLType(componentType);
+    if( isPackedType(componentType) ) {
+        if( 4 != componentsPerElement ) {
+            throw new GLException("Packed componentType requires 4 components: "+componentsPerElement);
+        }
+        componentByteSize = Buffers.SIZEOF_BYTE;
+    } else {
+        componentByteSize = GLBuffers.sizeOfGLType(componentType);
+    }
     if(0 > componentByteSize) {
         throw new GLException("Given componentType not supported: "+componentType+":\n\t"+this);
     }
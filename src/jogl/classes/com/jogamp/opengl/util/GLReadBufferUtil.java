@@ -30,11 +30,19 @@ package com.jogamp.opengl.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.jogamp.nativewindow.util.PixelFormat;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL3ES3;
 import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLBufferStorage;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLException;
 
@@ -49,8 +57,52 @@ import com.jogamp.opengl.util.texture.TextureIO;
 /**
  * Utility to read out the current FB to TextureData, optionally writing the data back to a texture object.
  * <p>May be used directly to write the TextureData to file (screenshot).</p>
+ * <p>
+ * For continuous capture, e.g. video recording or streaming, an asynchronous read mode
+ * is available via {@link #setAsyncReadMode(int, AsyncReadListener, Executor)} and {@link #readPixelsAsync(GL, boolean)},
+ * avoiding the pipeline stall of a synchronous <code>glReadPixels</code> into client memory.
+ * </p>
  */
 public class GLReadBufferUtil {
+    /**
+     * Receives pixels read asynchronously, see {@link GLReadBufferUtil#setAsyncReadMode(int, AsyncReadListener, Executor)}.
+     */
+    public static interface AsyncReadListener {
+        /**
+         * Delivers the pixels of one {@link GLReadBufferUtil#readPixelsAsync(GL, int, int, int, int, boolean) readPixelsAsync(..)} call,
+         * in call order, on the {@link Executor}'s thread or on the GL thread if no {@link Executor} is used.
+         * <p>
+         * The given {@link GLPixelBuffer} holds the tightly packed pixels from position zero
+         * and is only valid during this call, it is recycled for subsequent frames afterwards.
+         * </p>
+         * @param pixels the read pixels
+         * @param width width in pixels
+         * @param height height in pixels
+         * @param mustFlipVertically <code>true</code> if the rows are stored bottom-to-top, see {@link TextureData#getMustFlipVertically()}
+         * @param frameNumber zero based sequence number of the corresponding read call
+         */
+        void pixelsRead(GLPixelBuffer pixels, int width, int height, boolean mustFlipVertically, long frameNumber);
+    }
+
+    /** Default number of {@link GL2ES3#GL_PIXEL_PACK_BUFFER pixel pack buffer objects} in async read mode, {@value}. */
+    public static final int DEFAULT_ASYNC_SLOT_COUNT = 3;
+
+    /** Maximum time waiting for a pixel pack buffer's fence, i.e. for a frame to complete. */
+    private static final long ASYNC_FENCE_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+    /** A {@link GL2ES3#GL_PIXEL_PACK_BUFFER} of the async read ring and it's pending frame. */
+    private static class PackSlot {
+        int name = 0;
+        int size = 0;
+        long sync = 0;
+        boolean pending = false;
+        long frameNumber;
+        int width, height, byteSize;
+        boolean mustFlipVertically;
+        PixelFormat.Composition hostPixelComp;
+        GLPixelAttributes pixelAttribs;
+    }
+
     protected final GLPixelBufferProvider pixelBufferProvider;
     protected final Texture readTexture;
     protected final GLPixelStorageModes psm;
@@ -59,6 +111,17 @@ public class GLReadBufferUtil {
     protected GLPixelBuffer readPixelBuffer = null;
     protected TextureData readTextureData = null;
 
+    private AsyncReadListener asyncListener = null;
+    private Executor asyncExecutor = null;
+    private PackSlot[] packSlots = null;
+    private int packNext = 0;
+    private long asyncFrameNumber = 0;
+    private long asyncDroppedFrames = 0;
+    /** Recycled {@link GLPixelBuffer}s, returned by the consumer thread. */
+    private final ConcurrentLinkedQueue<GLPixelBuffer> asyncFreeBuffers = new ConcurrentLinkedQueue<GLPixelBuffer>();
+    /** Number of delivered {@link GLPixelBuffer}s not yet consumed. */
+    private final AtomicInteger asyncInFlight = new AtomicInteger(0);
+
     /**
      * @param alpha true for RGBA readPixels, otherwise RGB readPixels. Disclaimer: Alpha maybe forced on ES platforms!
      * @param write2Texture true if readPixel's TextureData shall be written to a 2d Texture
@@ -193,6 +256,9 @@ public class GLReadBufferUtil {
 
         boolean newData = false;
         if( null == readPixelBuffer || readPixelBuffer.requiresNewBuffer(gl, width, height, readPixelSize) ) {
+            if( null != readPixelBuffer && !( pixelBufferProvider instanceof GLPixelBuffer.SingletonGLPixelBufferProvider ) ) {
+                readPixelBuffer.dispose(); // allow recycling, e.g. via PooledGLPixelBufferProvider
+            }
             readPixelBuffer = pixelBufferProvider.allocate(gl, hostPixelComp, pixelAttribs, true, width, height, 1, readPixelSize);
             Buffers.rangeCheckBytes(readPixelBuffer.buffer, readPixelSize);
             try {
@@ -256,7 +322,343 @@ public class GLReadBufferUtil {
         return res;
     }
 
+    /**
+     * Enables or disables the asynchronous read mode used by {@link #readPixelsAsync(GL, int, int, int, int, boolean) readPixelsAsync(..)}.
+     * <p>
+     * Each frame is read into the next of <code>slotCount</code> {@link GL2ES3#GL_PIXEL_PACK_BUFFER pixel pack buffer objects} (PBO)
+     * and fenced via <code>glFenceSync</code>. Completed frames are mapped, copied into a recycled {@link GLPixelBuffer}
+     * and delivered to the {@link AsyncReadListener}. Hence with the default of {@link #DEFAULT_ASYNC_SLOT_COUNT} slots,
+     * frame <code>N-2</code> is mapped while frame <code>N</code> is being rendered.
+     * </p>
+     * <p>
+     * If the {@link AsyncReadListener} falls behind by more than <code>slotCount</code> frames, further frames are dropped
+     * instead of stalling the GL thread, see {@link #getAsyncDroppedFrames()}.
+     * </p>
+     * <p>
+     * If the {@link GLPixelBufferProvider} is a {@link GLPixelBuffer.SingletonGLPixelBufferProvider},
+     * {@link GLPixelBuffer#defaultProviderNoRowStride} is used for the delivered buffers.
+     * </p>
+     * <p>
+     * Disabling or changing the mode while frames are pending requires a GL context,
+     * hence call {@link #flushAsync(GL)} or {@link #dispose(GL)} before.
+     * </p>
+     * @param slotCount number of PBO slots, must be &ge; 2
+     * @param listener the {@link AsyncReadListener}, or <code>null</code> to disable the async read mode
+     * @param executor optional {@link Executor} to deliver the pixels on a consumer thread,
+     *                 if <code>null</code> the pixels are delivered on the GL thread.
+     * @throws IllegalArgumentException if <code>slotCount</code> &lt; 2
+     * @throws GLException if frames are still pending
+     */
+    public void setAsyncReadMode(final int slotCount, final AsyncReadListener listener, final Executor executor) throws IllegalArgumentException, GLException {
+        if( 2 > slotCount ) {
+            throw new IllegalArgumentException("Invalid slotCount "+slotCount);
+        }
+        if( hasAsyncPending() ) {
+            throw new GLException("Async frames still pending");
+        }
+        if( null != packSlots && 0 != packSlots[0].name ) {
+            throw new GLException("Async PBOs not disposed");
+        }
+        asyncListener = listener;
+        asyncExecutor = executor;
+        if( null != listener ) {
+            packSlots = new PackSlot[slotCount];
+            for(int i=0; i<slotCount; i++) {
+                packSlots[i] = new PackSlot();
+            }
+        } else {
+            packSlots = null;
+        }
+        packNext = 0;
+    }
+
+    /** Returns <code>true</code> if the async read mode is enabled, see {@link #setAsyncReadMode(int, AsyncReadListener, Executor)}. */
+    public boolean isAsyncReadMode() { return null != asyncListener; }
+
+    /**
+     * Returns <code>true</code> if the given {@link GL} supports the async read mode w/o falling back to synchronous reads,
+     * i.e. {@link GL#isGL3ES3()}, <code>glMapBufferRange</code> and <code>glFenceSync</code> are available.
+     */
+    public static boolean isAsyncReadSupported(final GL gl) {
+        return gl.isGL3ES3() && gl.isFunctionAvailable("glMapBufferRange") && gl.isFunctionAvailable("glFenceSync");
+    }
+
+    /** Returns the number of frames dropped in async read mode, since the {@link AsyncReadListener} fell behind. */
+    public long getAsyncDroppedFrames() { return asyncDroppedFrames; }
+
+    private boolean hasAsyncPending() {
+        if( null != packSlots ) {
+            for(int i=0; i<packSlots.length; i++) {
+                if( packSlots[i].pending ) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Asynchronously reads the drawable's pixels, see {@link #readPixelsAsync(GL, int, int, int, int, boolean)}.
+     */
+    public boolean readPixelsAsync(final GL gl, final boolean mustFlipVertically) throws GLException {
+        return readPixelsAsync(gl, 0, 0, 0, 0, mustFlipVertically);
+    }
+
+    /**
+     * Asynchronously reads the drawable's pixels into the next pixel pack buffer object
+     * and delivers all completed previous frames to the {@link AsyncReadListener},
+     * see {@link #setAsyncReadMode(int, AsyncReadListener, Executor)}.
+     * <p>
+     * Only blocks if all slots are still pending, i.e. if the GL is more than <code>slotCount</code> frames behind.
+     * </p>
+     * <p>
+     * If the async read mode is not {@link #isAsyncReadSupported(GL) supported},
+     * the pixels are read synchronously via {@link #readPixels(GL, int, int, int, int, boolean) readPixels(..)}
+     * and delivered immediately on the GL thread.
+     * </p>
+     * <p>
+     * The {@link TextureData} and {@link Texture} of this instance are not updated in async read mode.
+     * </p>
+     * @param gl the current GL context object. It's read drawable is being used as the pixel source.
+     * @param inX readPixel x offset
+     * @param inY readPixel y offset
+     * @param inWidth optional readPixel width value, used if [1 .. drawable.width], otherwise using drawable.width
+     * @param inHeight optional readPixel height, used if [1 .. drawable.height], otherwise using drawable.height
+     * @param mustFlipVertically indicates whether to flip the data vertically or not, see {@link #readPixels(GL, int, int, int, int, boolean)}.
+     * @return <code>true</code> if the read has been issued successfully
+     * @throws GLException if the async read mode is not enabled
+     */
+    public boolean readPixelsAsync(final GL gl, final int inX, final int inY, final int inWidth, final int inHeight, final boolean mustFlipVertically) throws GLException {
+        if( null == asyncListener ) {
+            throw new GLException("Async read mode not enabled");
+        }
+        if( !isAsyncReadSupported(gl) ) {
+            final boolean res = readPixels(gl, inX, inY, inWidth, inHeight, mustFlipVertically);
+            if( res ) {
+                asyncListener.pixelsRead(readPixelBuffer, readTextureData.getWidth(), readTextureData.getHeight(),
+                                         readTextureData.getMustFlipVertically(), asyncFrameNumber++);
+                readPixelBuffer.rewind();
+            }
+            return res;
+        }
+        final GLDrawable drawable = gl.getContext().getGLReadDrawable();
+        final int width, height;
+        if( 0 >= inWidth || drawable.getSurfaceWidth() < inWidth ) {
+            width = drawable.getSurfaceWidth();
+        } else {
+            width = inWidth;
+        }
+        if( 0 >= inHeight || drawable.getSurfaceHeight() < inHeight ) {
+            height = drawable.getSurfaceHeight();
+        } else {
+            height= inHeight;
+        }
+        final int glerr0 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr0) {
+            System.err.println("Info: GLReadBufferUtil.readPixelsAsync: pre-exisiting GL error 0x"+Integer.toHexString(glerr0));
+        }
+        final int reqCompCount = hasAlpha ? 4 : 3;
+        final PixelFormat.Composition hostPixelComp = pixelBufferProvider.getHostPixelComp(gl.getGLProfile(), reqCompCount);
+        final GLPixelAttributes pixelAttribs = pixelBufferProvider.getAttributes(gl, reqCompCount, true);
+        final int componentCount = pixelAttribs.pfmt.comp.componentCount();
+        hasAlpha = 0 <= pixelAttribs.pfmt.comp.find(PixelFormat.CType.A);
+        final int alignment = 4 == componentCount ? 4 : 1 ;
+        final int tmp[] = new int[1];
+        final int readPixelSize = GLBuffers.sizeof(gl, tmp, pixelAttribs.pfmt.comp.bytesPerPixel(), width, height, 1, true);
+
+        final PackSlot s = packSlots[packNext];
+        if( s.pending ) {
+            // all slots in flight: the oldest frame must be completed
+            completeSlot(gl, s, true);
+        }
+        packNext = ( packNext + 1 ) % packSlots.length;
+
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        if( 0 == s.name ) {
+            gl.glGenBuffers(1, tmp, 0);
+            s.name = tmp[0];
+            if( 0 == s.name ) {
+                throw new GLException("Create PBO name invalid, glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+        }
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, s.name);
+        try {
+            if( s.size != readPixelSize ) {
+                gl.glBufferData(GL2ES3.GL_PIXEL_PACK_BUFFER, readPixelSize, null, GL2ES3.GL_STREAM_READ);
+                s.size = readPixelSize;
+            }
+            psm.setPackAlignment(gl, alignment);
+            psm.setPackRowLength(gl3es3, width);
+            gl3es3.glReadBuffer(gl3es3.getDefaultReadBuffer());
+            gl.glReadPixels(inX, inY, width, height, pixelAttribs.format, pixelAttribs.type, 0L);
+            s.sync = gl3es3.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+            psm.restore(gl);
+        }
+        final int glerr1 = gl.glGetError();
+        if(GL.GL_NO_ERROR != glerr1) {
+            System.err.println("GLReadBufferUtil.readPixelsAsync: readPixels error 0x"+Integer.toHexString(glerr1)+
+                               " "+width+"x"+height+", "+pixelAttribs+", sz "+readPixelSize);
+            if( 0 != s.sync ) {
+                gl3es3.glDeleteSync(s.sync);
+                s.sync = 0;
+            }
+            return false;
+        }
+        s.pending = true;
+        s.frameNumber = asyncFrameNumber++;
+        s.width = width;
+        s.height = height;
+        s.byteSize = readPixelSize;
+        s.mustFlipVertically = drawable.isGLOriented() ? mustFlipVertically : !mustFlipVertically;
+        s.hostPixelComp = hostPixelComp;
+        s.pixelAttribs = pixelAttribs;
+
+        pollAsync(gl, false);
+        return true;
+    }
+
+    /**
+     * Blocks until all pending frames of the async read mode are completed and delivered to the {@link AsyncReadListener}.
+     * <p>
+     * Frames delivered via an {@link Executor} may not be consumed yet when returning.
+     * </p>
+     * @param gl the current GL context object
+     */
+    public void flushAsync(final GL gl) {
+        if( null != packSlots ) {
+            pollAsync(gl, true);
+        }
+    }
+
+    /** Completes pending slots in frame order, stops at the first incomplete slot if not <code>wait</code>ing. */
+    private void pollAsync(final GL gl, final boolean wait) {
+        for(int k=0; k<packSlots.length; k++) {
+            final PackSlot s = packSlots[ ( packNext + k ) % packSlots.length ]; // oldest first
+            if( s.pending && !completeSlot(gl, s, wait) ) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Completes the given pending slot if it's fence is signaled, waiting for it if requested.
+     * @return <code>true</code> if completed, otherwise <code>false</code>
+     */
+    private boolean completeSlot(final GL gl, final PackSlot s, final boolean wait) throws GLException {
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        final int status = gl3es3.glClientWaitSync(s.sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, wait ? ASYNC_FENCE_TIMEOUT : 0);
+        if( GL3ES3.GL_TIMEOUT_EXPIRED == status && !wait ) {
+            return false;
+        }
+        gl3es3.glDeleteSync(s.sync);
+        s.sync = 0;
+        s.pending = false;
+        if( GL3ES3.GL_WAIT_FAILED == status || GL3ES3.GL_TIMEOUT_EXPIRED == status ) {
+            asyncDroppedFrames++;
+            if( GL3ES3.GL_WAIT_FAILED == status ) {
+                throw new GLException("glClientWaitSync failed for frame "+s.frameNumber+", glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+            return true;
+        }
+        if( asyncInFlight.get() >= packSlots.length ) {
+            // consumer fell behind, drop frame instead of stalling
+            asyncDroppedFrames++;
+            return true;
+        }
+        GLPixelBuffer pb = asyncFreeBuffers.poll();
+        while( null != pb && ( pb.requiresNewBuffer(gl, s.width, s.height, s.byteSize) || !pb.pixelAttributes.equals(s.pixelAttribs) ) ) {
+            pb.dispose();
+            pb = asyncFreeBuffers.poll();
+        }
+        if( null == pb ) {
+            final GLPixelBufferProvider provider = pixelBufferProvider instanceof GLPixelBuffer.SingletonGLPixelBufferProvider ?
+                                                   GLPixelBuffer.defaultProviderNoRowStride : pixelBufferProvider;
+            pb = provider.allocate(gl, s.hostPixelComp, s.pixelAttribs, true, s.width, s.height, 1, s.byteSize);
+            if( !( pb.buffer instanceof ByteBuffer ) ) {
+                throw new GLException("Unsupported buffer type: "+pb.buffer.getClass().getName());
+            }
+        }
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, s.name);
+        try {
+            final GLBufferStorage storage = gl.mapBufferRange(GL2ES3.GL_PIXEL_PACK_BUFFER, 0, s.byteSize, GL.GL_MAP_READ_BIT);
+            final ByteBuffer mapped = storage.getMappedBuffer();
+            if( null == mapped ) {
+                throw new GLException("Mapping PBO failed: "+storage+", glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+            final ByteBuffer dst = (ByteBuffer) pb.buffer;
+            dst.clear();
+            dst.put(mapped);
+            dst.flip();
+            gl.glUnmapBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER);
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_PACK_BUFFER, 0);
+        }
+        deliver(pb, s.width, s.height, s.mustFlipVertically, s.frameNumber);
+        return true;
+    }
+
+    private void deliver(final GLPixelBuffer pb, final int width, final int height, final boolean mustFlipVertically, final long frameNumber) {
+        final AsyncReadListener listener = asyncListener;
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listener.pixelsRead(pb, width, height, mustFlipVertically, frameNumber);
+                } finally {
+                    pb.rewind();
+                    asyncFreeBuffers.offer(pb);
+                    asyncInFlight.decrementAndGet();
+                }
+            } };
+        asyncInFlight.incrementAndGet();
+        if( null != asyncExecutor ) {
+            try {
+                asyncExecutor.execute(task);
+            } catch (final RejectedExecutionException ree) {
+                // task will never run, recycle its buffer and release its in-flight slot
+                pb.rewind();
+                asyncFreeBuffers.offer(pb);
+                asyncInFlight.decrementAndGet();
+                asyncDroppedFrames++;
+                throw ree;
+            }
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Releases all GL resources, incl. the async read mode's pixel pack buffer objects.
+     * <p>
+     * Pending async frames are dropped, call {@link #flushAsync(GL)} before to deliver them.
+     * </p>
+     * @param gl the current GL context object
+     */
     public void dispose(final GL gl) {
+        if( null != packSlots ) {
+            final int[] tmp = { 0 };
+            for(int i=0; i<packSlots.length; i++) {
+                final PackSlot s = packSlots[i];
+                if( 0 != s.sync ) {
+                    gl.getGL3ES3().glDeleteSync(s.sync);
+                    s.sync = 0;
+                }
+                if( 0 != s.name ) {
+                    tmp[0] = s.name;
+                    gl.glDeleteBuffers(1, tmp, 0);
+                    s.name = 0;
+                }
+                s.size = 0;
+                s.pending = false;
+            }
+            packNext = 0;
+        }
+        GLPixelBuffer pb;
+        while( null != ( pb = asyncFreeBuffers.poll() ) ) {
+            pb.dispose();
+        }
         if(null != readTexture) {
             readTexture.destroy(gl);
             readTextureData = null;
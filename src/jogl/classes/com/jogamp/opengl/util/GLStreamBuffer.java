@@ -0,0 +1,315 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Streaming ring buffer object, sub-allocating each frame's vertex data from one large persistent buffer object.
+ * <p>
+ * Each {@link #write(GL, Buffer, int) write} maps the next free range via
+ * {@link GL#mapBufferRange(int, long, long, int) mapBufferRange(..)} using
+ * {@link GL#GL_MAP_UNSYNCHRONIZED_BIT} and {@link GL#GL_MAP_INVALIDATE_RANGE_BIT},
+ * hence the driver neither re-specifies the buffer nor synchronizes with pending draw calls.
+ * Instead the data of each frame is fenced via <code>glFenceSync</code> at {@link #endFrame(GL)},
+ * and a range is only reused after the fence of the frame using it has been signaled.
+ * </p>
+ * <p>
+ * If fences or <code>glMapBufferRange</code> are not available, see {@link #isUnsynchronizedSupported(GL)},
+ * the whole buffer is orphaned via <code>glBufferData(.., null, ..)</code> when wrapping around
+ * and the ranges are written via <code>glBufferSubData</code>.
+ * </p>
+ * <p>
+ * Written data is only valid for the draw calls of the current frame,
+ * i.e. it must be written again each frame, as done by immediate mode style geometry.
+ * </p>
+ * <p>
+ * One instance may be shared by multiple {@link ImmModeSink} and {@link GLArrayDataServer} instances,
+ * see {@link ImmModeSink#setStreamBuffer(GLStreamBuffer)} and {@link GLArrayDataServer#setStreamBuffer(GLStreamBuffer)}.
+ * </p>
+ */
+public class GLStreamBuffer {
+    /** Alignment of each written range in bytes, {@value}, satisfying <code>GL_MIN_MAP_BUFFER_ALIGNMENT</code>. */
+    public static final int ALIGNMENT = 64;
+
+    /** Maximum time waiting for a frame's fence before a range is reused. */
+    private static final long FENCE_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+
+    private static final int MAP_ACCESS = GL.GL_MAP_WRITE_BIT | GL.GL_MAP_INVALIDATE_RANGE_BIT | GL.GL_MAP_UNSYNCHRONIZED_BIT;
+
+    /** A fenced frame, covering all written bytes from it's virtual start position up to the next frame's. */
+    private static class Frame {
+        final long start;
+        final long sync;
+        Frame(final long start, final long sync) {
+            this.start = start;
+            this.sync = sync;
+        }
+    }
+
+    private final int target;
+    private final int capacity;
+    private final ArrayDeque<Frame> frames = new ArrayDeque<Frame>();
+    private int name = 0;
+    private boolean unsynchronized;
+    /** Virtual write position, i.e. monotonic byte count including skipped tail bytes at wrap around. */
+    private long head = 0;
+    /** Virtual start position of the current frame. */
+    private long frameStart = 0;
+    private long frameCount = 0;
+    private int wrapCount = 0;
+    private int stallCount = 0;
+
+    /**
+     * Creates a streaming ring buffer object, which is lazily created at first {@link #write(GL, Buffer, int) write}.
+     * @param target the buffer target, e.g. {@link GL#GL_ARRAY_BUFFER}
+     * @param capacity size of the buffer object in bytes, shall hold the data of at least three frames
+     * @throws IllegalArgumentException if capacity is less than {@link #ALIGNMENT}
+     */
+    public GLStreamBuffer(final int target, final int capacity) throws IllegalArgumentException {
+        if( ALIGNMENT > capacity ) {
+            throw new IllegalArgumentException("Invalid capacity "+capacity);
+        }
+        this.target = target;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns <code>true</code> if the given {@link GL} supports unsynchronized fenced writes,
+     * i.e. {@link GL#isGL3ES3()}, <code>glMapBufferRange</code> and <code>glFenceSync</code> are available.
+     * Otherwise writes fall back to orphaning the buffer at wrap around.
+     */
+    public static boolean isUnsynchronizedSupported(final GL gl) {
+        return gl.isGL3ES3() && gl.isFunctionAvailable("glMapBufferRange") && gl.isFunctionAvailable("glFenceSync");
+    }
+
+    /** Returns the buffer target. */
+    public final int getTarget() { return target; }
+
+    /** Returns the size of the buffer object in bytes. */
+    public final int getCapacity() { return capacity; }
+
+    /** Returns the buffer object name, or zero if not created yet, see {@link #validate(GL)}. */
+    public final int getName() { return name; }
+
+    /** Returns the number of {@link #endFrame(GL) ended} frames. */
+    public final long getFrameCount() { return frameCount; }
+
+    /** Returns the number of times writing wrapped around to the start of the buffer. */
+    public final int getWrapCount() { return wrapCount; }
+
+    /**
+     * Returns the number of times writing had to wait for a frame's fence,
+     * i.e. the GPU was still using the range to be reused. Should stay zero for an adequate {@link #getCapacity() capacity}.
+     */
+    public final int getStallCount() { return stallCount; }
+
+    /**
+     * Creates the buffer object if not done yet.
+     * @param gl the current GL context object
+     * @return the buffer object name
+     */
+    public final int validate(final GL gl) {
+        if( 0 == name ) {
+            final int[] tmp = new int[1];
+            gl.glGenBuffers(1, tmp, 0);
+            if( 0 == tmp[0] ) {
+                throw new GLException("Create buffer object name invalid, glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+            name = tmp[0];
+            unsynchronized = isUnsynchronizedSupported(gl);
+            gl.glBindBuffer(target, name);
+            gl.glBufferData(target, capacity, null, GL2ES2.GL_STREAM_DRAW);
+            head = 0;
+            frameStart = 0;
+        }
+        return name;
+    }
+
+    /**
+     * Writes the given data into the next free range of the buffer object.
+     * <p>
+     * The buffer object is left bound to it's {@link #getTarget() target}.
+     * </p>
+     * @param gl the current GL context object
+     * @param data the data to be written, starting at it's current position, which is not modified
+     * @param byteCount number of bytes to be written
+     * @return the byte offset of the written range within the buffer object,
+     *         to be used as the <code>pointer_buffer_offset</code> of the draw call
+     * @throws IllegalArgumentException if <code>byteCount</code> exceeds the {@link #getCapacity() capacity}
+     * @throws GLException if a frame's fence could not be awaited
+     */
+    public final long write(final GL gl, final Buffer data, final int byteCount) throws IllegalArgumentException, GLException {
+        if( 0 > byteCount || capacity < byteCount ) {
+            throw new IllegalArgumentException("Invalid byteCount "+byteCount+", capacity "+capacity);
+        }
+        validate(gl);
+        gl.glBindBuffer(target, name);
+        long pos = ( ( head + ALIGNMENT - 1 ) / ALIGNMENT ) * ALIGNMENT;
+        int offset = (int) ( pos % capacity );
+        if( offset + byteCount > capacity || ( 0 == offset && pos > 0 ) ) {
+            pos += ( capacity - offset ) % capacity;
+            offset = 0;
+            wrapCount++;
+            if( !unsynchronized ) {
+                // orphan the whole buffer, the driver keeps the old storage for pending draw calls
+                gl.glBufferData(target, capacity, null, GL2ES2.GL_STREAM_DRAW);
+            }
+        }
+        if( 0 < byteCount ) {
+            if( unsynchronized ) {
+                awaitRange(gl, pos + byteCount - capacity);
+                final GLBufferStorage storage = gl.mapBufferRange(target, offset, byteCount, MAP_ACCESS);
+                copy(storage.getMappedBuffer(), data, byteCount);
+                gl.glUnmapBuffer(target);
+            } else {
+                gl.glBufferSubData(target, offset, byteCount, data);
+            }
+        }
+        head = pos + byteCount;
+        return offset;
+    }
+
+    /**
+     * Ends the current frame, fencing all data written since the previous call.
+     * <p>
+     * Shall be called once per frame after all draw calls using the written data,
+     * e.g. at the end of {@link com.jogamp.opengl.GLEventListener#display(com.jogamp.opengl.GLAutoDrawable) display(..)}.
+     * </p>
+     * @param gl the current GL context object
+     */
+    public final void endFrame(final GL gl) {
+        frameCount++;
+        if( unsynchronized ) {
+            fenceFrame(gl);
+            // release signaled fences early w/o blocking
+            final GL3ES3 gl3es3 = gl.getGL3ES3();
+            while( !frames.isEmpty() ) {
+                final Frame f = frames.peekFirst();
+                if( GL3ES3.GL_TIMEOUT_EXPIRED == gl3es3.glClientWaitSync(f.sync, 0, 0) ) {
+                    break;
+                }
+                gl3es3.glDeleteSync(f.sync);
+                frames.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Releases all GL resources.
+     * @param gl the current GL context object
+     */
+    public void destroy(final GL gl) {
+        if( !frames.isEmpty() ) {
+            final GL3ES3 gl3es3 = gl.getGL3ES3();
+            while( !frames.isEmpty() ) {
+                gl3es3.glDeleteSync(frames.removeFirst().sync);
+            }
+        }
+        if( 0 != name ) {
+            final int[] tmp = new int[] { name };
+            gl.glDeleteBuffers(1, tmp, 0);
+            name = 0;
+        }
+        head = 0;
+        frameStart = 0;
+    }
+
+    /** Fences the current frame's data, if any written. */
+    private void fenceFrame(final GL gl) {
+        if( head > frameStart ) {
+            final long sync = gl.getGL3ES3().glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+            frames.addLast(new Frame(frameStart, sync));
+            frameStart = head;
+        }
+    }
+
+    /** Waits for all frames using data below the given virtual position, i.e. the data about to be overwritten. */
+    private void awaitRange(final GL gl, final long limit) throws GLException {
+        if( frameStart < limit ) {
+            // current frame exceeds the capacity, fence it now
+            fenceFrame(gl);
+        }
+        final GL3ES3 gl3es3 = gl.getGL3ES3();
+        while( !frames.isEmpty() && frames.peekFirst().start < limit ) {
+            final Frame f = frames.removeFirst();
+            final int status = gl3es3.glClientWaitSync(f.sync, GL3ES3.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+            gl3es3.glDeleteSync(f.sync);
+            if( GL3ES3.GL_WAIT_FAILED == status || GL3ES3.GL_TIMEOUT_EXPIRED == status ) {
+                throw new GLException("glClientWaitSync failed w/ 0x"+Integer.toHexString(status)+", glerr 0x"+Integer.toHexString(gl.glGetError())+", "+this);
+            }
+            if( GL3ES3.GL_ALREADY_SIGNALED != status ) {
+                stallCount++;
+            }
+        }
+    }
+
+    /** Copies <code>byteCount</code> bytes from the source's position into the destination, not modifying the source. */
+    private static void copy(final ByteBuffer dst, final Buffer src, final int byteCount) {
+        if( src instanceof ByteBuffer ) {
+            final ByteBuffer s = ((ByteBuffer)src).duplicate();
+            s.limit(s.position() + byteCount);
+            dst.put(s);
+        } else if( src instanceof FloatBuffer ) {
+            final FloatBuffer s = ((FloatBuffer)src).duplicate();
+            s.limit(s.position() + byteCount / Buffers.SIZEOF_FLOAT);
+            dst.asFloatBuffer().put(s);
+        } else if( src instanceof ShortBuffer ) {
+            final ShortBuffer s = ((ShortBuffer)src).duplicate();
+            s.limit(s.position() + byteCount / Buffers.SIZEOF_SHORT);
+            dst.asShortBuffer().put(s);
+        } else if( src instanceof IntBuffer ) {
+            final IntBuffer s = ((IntBuffer)src).duplicate();
+            s.limit(s.position() + byteCount / Buffers.SIZEOF_INT);
+            dst.asIntBuffer().put(s);
+        } else {
+            throw new GLException("Given Buffer Class not supported: "+src.getClass().getName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "GLStreamBuffer[target 0x"+Integer.toHexString(target)+", name "+name+", capacity "+capacity+
+               ", unsynchronized "+unsynchronized+", head "+head+", frameStart "+frameStart+", pendingFrames "+frames.size()+
+               ", frames "+frameCount+", wraps "+wrapCount+", stalls "+stallCount+"]";
+    }
+}
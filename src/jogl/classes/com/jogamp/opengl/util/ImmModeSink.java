@@ -394,6 +394,44 @@ public class ImmModeSink {
    */
   public void setResizeElementCount(final int v) { vboSet.setResizeElementCount(v); }
 
+  /**
+   * Sets the {@link DirectBufferPool} used to obtain the client buffer storage
+   * and to release the outgrown storage and the storage at {@link #destroy(GL)}.
+   * Pooling is disabled by default, i.e. storage is allocated and dropped w/o pooling.
+   * <p>
+   * Once a pool is set, client arrays of this sink, e.g. passed to a deferred or recording GL pipeline,
+   * must not be accessed after the next buffer growth or {@link #destroy(GL)}, since their storage might have been reused already.
+   * </p>
+   * @param pool the pool to be used, e.g. {@link GLArrayDataClient#DEFAULT_BUFFER_POOL}, or <code>null</code> to disable pooling
+   */
+  public void setBufferPool(final DirectBufferPool pool) { vboSet.setBufferPool(pool); }
+
+  /** Returns the {@link DirectBufferPool} used for the client buffer storage, may be <code>null</code>. */
+  public DirectBufferPool getBufferPool() { return vboSet.getBufferPool(); }
+
+  /**
+   * Sets a {@link GLStreamBuffer} to stream the VBO data into, instead of re-specifying an own VBO
+   * via <code>glBufferData</code> at each {@link #glEnd(GL, boolean) glEnd(..)} or {@link #draw(GL, boolean) draw(..)}.
+   * <p>
+   * Each used array is sub-allocated from the next free range of the stream buffer,
+   * which avoids implicit synchronization of the driver with pending draw calls when geometry is rebuilt per frame.
+   * Since streamed data is only valid within the current frame, this sink shall be refilled each frame,
+   * i.e. used with <code>immediateDraw</code> or {@link #reset(GL)} before rebuilding.
+   * </p>
+   * <p>
+   * The {@link GLStreamBuffer} is owned by the caller, who shall call {@link GLStreamBuffer#endFrame(GL)} once per frame.
+   * </p>
+   * @param stream the {@link GL#GL_ARRAY_BUFFER} stream buffer, or <code>null</code> to use an own VBO again
+   * @throws IllegalArgumentException if the stream buffer's target is not {@link GL#GL_ARRAY_BUFFER}
+   * @throws IllegalStateException if this sink doesn't use VBOs
+   */
+  public void setStreamBuffer(final GLStreamBuffer stream) throws IllegalArgumentException, IllegalStateException {
+    vboSet.setStreamBuffer(stream);
+  }
+
+  /** Returns the {@link GLStreamBuffer} the VBO data is streamed into, or <code>null</code>, see {@link #setStreamBuffer(GLStreamBuffer)}. */
+  public GLStreamBuffer getStreamBuffer() { return vboSet.getStreamBuffer(); }
+
   private void destroyList(final GL gl) {
     for(int i=0; i<vboSetList.size(); i++) {
         vboSetList.get(i).destroy(gl);
@@ -469,12 +507,39 @@ public class ImmModeSink {
     protected int getResizeElementCount() { return resizeElementCount; }
     protected void setResizeElementCount(final int v) { resizeElementCount=v; }
 
+    protected void setBufferPool(final DirectBufferPool pool) { bufferPool=pool; }
+    protected DirectBufferPool getBufferPool() { return bufferPool; }
+
     protected boolean getUseVBO() { return useVBO; }
 
+    protected void setStreamBuffer(final GLStreamBuffer stream) {
+        if( null != stream ) {
+            if( !useVBO ) {
+                throw new IllegalStateException("VBO not used: "+this);
+            }
+            if( GL.GL_ARRAY_BUFFER != stream.getTarget() ) {
+                throw new IllegalArgumentException("Stream target 0x"+Integer.toHexString(stream.getTarget())+" != GL_ARRAY_BUFFER");
+            }
+        }
+        if( streamBuffer != stream ) {
+            if( null != streamBuffer ) {
+                vboName = 0; // drop the stream buffer name, own VBO will be created
+            }
+            streamBuffer = stream;
+            bufferWritten = false;
+            bufferWrittenOnce = false;
+        }
+    }
+
+    protected GLStreamBuffer getStreamBuffer() { return streamBuffer; }
+
     protected final VBOSet regenerate(final GL gl) {
-        return new VBOSet(initialElementCount, vComps,
+        final VBOSet vs = new VBOSet(initialElementCount, vComps,
                           vDataType, cComps, cDataType, nComps, nDataType, tComps, tDataType,
                           useGLSL, glBufferUsage, shaderState, shaderProgram);
+        vs.streamBuffer = streamBuffer;
+        vs.bufferPool = bufferPool;
+        return vs;
     }
 
     protected void checkSeal(final boolean test) throws GLException {
@@ -911,7 +976,11 @@ public class ImmModeSink {
         vCount=0; cCount=0; nCount=0; tCount=0;
         vertexArray=null; colorArray=null; normalArray=null; textCoordArray=null;
         vArrayData=null; cArrayData=null; nArrayData=null; tArrayData=null;
+        if( null != buffer && null != bufferStoragePool ) {
+            bufferStoragePool.release(buffer);
+        }
         buffer=null;
+        bufferStoragePool=null;
     }
 
     public void reset(final GL gl) {
@@ -922,6 +991,7 @@ public class ImmModeSink {
     public void reset() {
         if(buffer!=null) {
             buffer.clear();
+            buffer.limit(bufferBytes); // pooled storage may exceed
         }
         rewind();
 
@@ -945,7 +1015,9 @@ public class ImmModeSink {
         final GL gl = glObj.getGL();
         if(seal) {
             if(useVBO) {
-                if(0 == vboName) {
+                if( null != streamBuffer ) {
+                    vboName = streamBuffer.validate(gl);
+                } else if(0 == vboName) {
                     final int[] tmp = new int[1];
                     gl.glGenBuffers(1, tmp, 0);
                     vboName = tmp[0];
@@ -1004,7 +1076,21 @@ public class ImmModeSink {
     final int nBytes  = nElems * nCompsBytes;
     final int tBytes  = tElems * tCompsBytes;
     final int delta = buffer.limit() - (vBytes+cBytes+nBytes+tBytes);
-    if( bufferWrittenOnce && delta > pageSize ) {
+    if( null != streamBuffer ) {
+        // sub-allocate each used array from the stream buffer w/o re-specifying any buffer object
+        if(0 < vBytes) {
+            vArrayData.setVBOOffset( streamBuffer.write(gl, vertexArray, vBytes) );
+        }
+        if(0 < cBytes) {
+            cArrayData.setVBOOffset( streamBuffer.write(gl, colorArray, cBytes) );
+        }
+        if(0 < nBytes) {
+            nArrayData.setVBOOffset( streamBuffer.write(gl, normalArray, nBytes) );
+        }
+        if(0 < tBytes) {
+            tArrayData.setVBOOffset( streamBuffer.write(gl, textCoordArray, tBytes) );
+        }
+    } else if( bufferWrittenOnce && delta > pageSize ) {
         if(0 < vBytes) {
             gl.glBufferSubData(GL.GL_ARRAY_BUFFER, vOffset, vBytes, vertexArray);
         }
@@ -1253,7 +1339,7 @@ public class ImmModeSink {
                        ", sealedGL "+sealedGL+
                        ", bufferEnabled "+bufferEnabled+
                        ", bufferWritten "+bufferWritten+" (once "+bufferWrittenOnce+")"+
-                       ", useVBO "+useVBO+", vboName "+vboName+
+                       ", useVBO "+useVBO+", vboName "+vboName+", streamBuffer "+streamBuffer+
                        ", useGLSL "+useGLSL+
                        glslS+
                        ",\n\t"+vArrayData+
@@ -1311,7 +1397,9 @@ public class ImmModeSink {
         final int nBytes  = nCount * nCompsBytes;
         final int tBytes  = tCount * tCompsBytes;
 
-        buffer = Buffers.newDirectByteBuffer( vBytes + cBytes + nBytes + tBytes );
+        bufferBytes = vBytes + cBytes + nBytes + tBytes;
+        bufferStoragePool = bufferPool;
+        buffer = null != bufferStoragePool ? bufferStoragePool.obtain( bufferBytes ) : Buffers.newDirectByteBuffer( bufferBytes );
         vOffset = 0;
 
         if(vBytes>0) {
@@ -1382,14 +1470,21 @@ public class ImmModeSink {
         return true;
     }
 
-    /** grow buffer by initialElementCount if there is no space for one more element in the designated buffer */
+    /**
+     * Grow buffer by at least resizeElementCount, doubling the element capacity,
+     * if there is no space for one more element in the designated buffer.
+     * The outgrown storage is returned to it's {@link #setBufferPool(DirectBufferPool) pool}, if any.
+     */
     protected final boolean growBuffer(final int type) {
         if( null !=buffer && !sealed ) {
             if( !fitElementInBuffer(type) ) {
                 // save olde values ..
+                final ByteBuffer _buffer=buffer;
+                final DirectBufferPool _bufferStoragePool=bufferStoragePool;
                 final Buffer _vertexArray=vertexArray, _colorArray=colorArray, _normalArray=normalArray, _textCoordArray=textCoordArray;
+                final int addElems = Math.max(resizeElementCount, Math.max(Math.max(vCount, cCount), Math.max(nCount, tCount)));
 
-                if ( reallocateBuffer(resizeElementCount) ) {
+                if ( reallocateBuffer(addElems) ) {
                     if(null!=_vertexArray) {
                         _vertexArray.flip();
                         Buffers.put(vertexArray, _vertexArray);
@@ -1406,6 +1501,9 @@ public class ImmModeSink {
                         _textCoordArray.flip();
                         Buffers.put(textCoordArray, _textCoordArray);
                     }
+                    if( null != _bufferStoragePool ) {
+                        _bufferStoragePool.release(_buffer);
+                    }
                     return true;
                 }
             }
@@ -1477,7 +1575,12 @@ public class ImmModeSink {
     private int mode, modeOrig, resizeElementCount;
 
     private ByteBuffer buffer;
+    private int bufferBytes;
+    private DirectBufferPool bufferPool;
+    /** Pool {@link #buffer} has been obtained from, or <code>null</code>. */
+    private DirectBufferPool bufferStoragePool;
     private int vboName;
+    private GLStreamBuffer streamBuffer;
 
     private static final int VERTEX = 0;
     private static final int COLOR = 1;
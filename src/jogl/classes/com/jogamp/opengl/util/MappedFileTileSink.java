@@ -0,0 +1,185 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.GLException;
+
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * {@link TileSink} writing the image as raw, tightly packed pixels into a memory-mapped file,
+ * allowing to export images larger than the available heap and direct memory.
+ * <p>
+ * The file holds <code>imageWidth * imageHeight * bytesPerPixel</code> bytes w/o header,
+ * stored bottom to top in OpenGL orientation or top to bottom, see {@link #MappedFileTileSink(File, boolean)}.
+ * It is mapped in segments of up to {@link #MAX_SEGMENT_SIZE} bytes of whole rows,
+ * hence multi-gigabyte images are supported. Only the touched pages occupy physical memory,
+ * which the operating system writes back on demand.
+ * </p>
+ * <p>
+ * Tiles may be delivered concurrently w/o locking, since they cover disjoint file regions.
+ * </p>
+ */
+public class MappedFileTileSink implements TileSink {
+    /** Maximum byte size of one mapped segment, {@value}. */
+    public static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    private final File file;
+    private final boolean topDown;
+    private RandomAccessFile raf = null;
+    private volatile MappedByteBuffer[] segments = null;
+    private GLPixelAttributes pixelAttributes;
+    private int imageWidth, imageHeight, bytesPerPixel, rowBytes, rowsPerSegment;
+
+    /**
+     * @param file the destination file, created or truncated by {@link #beginImage(int, int, GLPixelAttributes)}
+     * @param topDown if <code>true</code>, rows are stored top to bottom, otherwise bottom to top in OpenGL orientation
+     */
+    public MappedFileTileSink(final File file, final boolean topDown) {
+        this.file = file;
+        this.topDown = topDown;
+    }
+
+    /** Returns the destination file. */
+    public final File getFile() { return file; }
+
+    /** Returns <code>true</code> if rows are stored top to bottom, otherwise bottom to top. */
+    public final boolean isTopDown() { return topDown; }
+
+    /** Returns the {@link GLPixelAttributes} of the current or last image, describing the file's pixels. */
+    public final GLPixelAttributes getPixelAttributes() { return pixelAttributes; }
+
+    @Override
+    public synchronized void beginImage(final int imageWidth, final int imageHeight, final GLPixelAttributes pixelAttributes) throws GLException {
+        if( null != raf ) {
+            throw new GLException("Image already begun");
+        }
+        this.pixelAttributes = pixelAttributes;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.bytesPerPixel = pixelAttributes.pfmt.comp.bytesPerPixel();
+        this.rowBytes = imageWidth * bytesPerPixel;
+        if( 0 >= rowBytes || MAX_SEGMENT_SIZE < rowBytes ) {
+            throw new GLException("Unsupported image width "+imageWidth+", "+pixelAttributes);
+        }
+        this.rowsPerSegment = MAX_SEGMENT_SIZE / rowBytes;
+        final long size = (long)rowBytes * imageHeight;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            raf.setLength(size);
+            final FileChannel channel = raf.getChannel();
+            final int segmentCount = ( imageHeight + rowsPerSegment - 1 ) / rowsPerSegment;
+            final MappedByteBuffer[] segs = new MappedByteBuffer[segmentCount];
+            for(int i=0; i<segmentCount; i++) {
+                final long off = (long)i * rowsPerSegment * rowBytes;
+                segs[i] = channel.map(FileChannel.MapMode.READ_WRITE, off, Math.min((long)rowsPerSegment * rowBytes, size - off));
+            }
+            segments = segs;
+        } catch (final IOException e) {
+            closeFile();
+            throw new GLException("MappedFileTileSink: Could not map "+size+" bytes of "+file, e);
+        }
+    }
+
+    @Override
+    public void tileRendered(final GLPixelBuffer tile, final int tileX, final int tileY, final int tileWidth, final int tileHeight) throws GLException {
+        if( !( tile.buffer instanceof ByteBuffer ) ) {
+            throw new GLException("Unsupported buffer type: "+tile.buffer.getClass().getName());
+        }
+        final MappedByteBuffer[] segs = segments;
+        if( null == segs ) {
+            throw new GLException("Image not begun");
+        }
+        if( 0 > tileX || 0 > tileY || tileX + tileWidth > imageWidth || tileY + tileHeight > imageHeight ) {
+            throw new GLException("Tile "+tileX+"/"+tileY+" "+tileWidth+"x"+tileHeight+" exceeds image "+imageWidth+"x"+imageHeight);
+        }
+        // private views, allowing concurrent tiles
+        final ByteBuffer src = ((ByteBuffer) tile.buffer).duplicate();
+        final int srcPos = src.position();
+        final int tileRowBytes = tileWidth * bytesPerPixel;
+        ByteBuffer dst = null;
+        int dstSeg = -1;
+        for(int r=0; r<tileHeight; r++) {
+            final int y = tileY + r;
+            final int fileRow = topDown ? imageHeight - 1 - y : y;
+            final int seg = fileRow / rowsPerSegment;
+            if( seg != dstSeg ) {
+                dst = segs[seg].duplicate();
+                dstSeg = seg;
+            }
+            dst.position( ( fileRow % rowsPerSegment ) * rowBytes + tileX * bytesPerPixel );
+            src.limit(srcPos + ( r + 1 ) * tileRowBytes);
+            src.position(srcPos + r * tileRowBytes);
+            dst.put(src);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Forces all written data to the file and closes it.
+     * The mapped memory itself is released by the garbage collector.
+     * </p>
+     */
+    @Override
+    public synchronized void endImage(final boolean complete) throws GLException {
+        if( null == raf ) {
+            return;
+        }
+        try {
+            if( complete ) {
+                for(int i=0; i<segments.length; i++) {
+                    segments[i].force();
+                }
+            }
+        } finally {
+            segments = null;
+            closeFile();
+        }
+    }
+
+    private void closeFile() {
+        if( null != raf ) {
+            IOUtil.close(raf, false);
+            raf = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileTileSink["+file+", "+imageWidth+"x"+imageHeight+", topDown "+topDown+", "+pixelAttributes+"]";
+    }
+}
@@ -0,0 +1,442 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+import com.jogamp.opengl.GLException;
+
+import jogamp.opengl.Debug;
+
+/**
+ * Reorders triangle list index buffers and their vertices for GPU cache locality,
+ * e.g. for meshes from tessellation or triangulation emitted in arbitrary triangle order.
+ * <ul>
+ *   <li>{@link #optimizeVertexCache(Buffer, int, int) optimizeVertexCache(..)} reorders the triangles
+ *       for post-transform vertex cache locality, using Tom Forsyth's <i>Linear-Speed Vertex Cache Optimisation</i>.</li>
+ *   <li>{@link #optimizeVertexFetch(Buffer, int, int) optimizeVertexFetch(..)} renumbers the vertices in order of first use
+ *       for pre-transform vertex fetch locality, the vertex data is reordered via {@link #remapVertices(Buffer, int, int, int[]) remapVertices(..)}.</li>
+ *   <li>{@link #computeACMR(Buffer, int, int) computeACMR(..)} measures the average cache miss ratio per triangle,
+ *       i.e. transformed vertices per triangle w/ a FIFO cache, ranging from <code>0.5</code> (ideal grid) to <code>3</code> (no reuse).</li>
+ * </ul>
+ * <p>
+ * Indices are read from an {@link IntBuffer}, or unsigned from a {@link ShortBuffer} or {@link ByteBuffer}, using absolute access from index zero.
+ * The {@link GLArrayDataEditable} variants use the written indices, i.e. up to the position if unsealed, otherwise up to the limit.
+ * </p>
+ * <p>
+ * The vertex cache optimization only changes the triangle order, keeping each triangle's winding,
+ * hence it is safe for any triangle list, however it may increase overdraw of overlapping geometry.
+ * </p>
+ */
+public class MeshOptimizer {
+    protected static final boolean DEBUG = Debug.debug("MeshOptimizer");
+
+    /** Default FIFO cache size for {@link #computeACMR(Buffer, int, int)}, {@value}. */
+    public static final int DEFAULT_FIFO_CACHE_SIZE = 16;
+
+    /** Simulated LRU cache size of the vertex cache optimization scoring. */
+    private static final int CACHE_SIZE = 32;
+    private static final float CACHE_DECAY_POWER = 1.5f;
+    private static final float LAST_TRI_SCORE = 0.75f;
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+    private static final float VALENCE_BOOST_POWER = 0.5f;
+    private static final int MAX_VALENCE_TABLE = 64;
+
+    private static final float[] cachePosScore = new float[CACHE_SIZE];
+    private static final float[] valenceScore = new float[MAX_VALENCE_TABLE];
+    static {
+        for(int i=0; i<CACHE_SIZE; i++) {
+            if( i < 3 ) {
+                // the last triangle's vertices, deliberately not favored to avoid strip-like thin patches
+                cachePosScore[i] = LAST_TRI_SCORE;
+            } else {
+                final float scaler = 1f / ( CACHE_SIZE - 3 );
+                cachePosScore[i] = (float) Math.pow( 1f - ( i - 3 ) * scaler, CACHE_DECAY_POWER );
+            }
+        }
+        for(int i=1; i<MAX_VALENCE_TABLE; i++) {
+            valenceScore[i] = VALENCE_BOOST_SCALE * (float) Math.pow( i, -VALENCE_BOOST_POWER );
+        }
+    }
+
+    private static float vertexScore(final int cachePos, final int valence) {
+        if( 0 == valence ) {
+            return -1f; // no triangles left using this vertex
+        }
+        float score = 0 <= cachePos ? cachePosScore[cachePos] : 0f;
+        score += valence < MAX_VALENCE_TABLE ? valenceScore[valence] : VALENCE_BOOST_SCALE * (float) Math.pow( valence, -VALENCE_BOOST_POWER );
+        return score;
+    }
+
+    /**
+     * Returns the number of written indices of the given {@link GLArrayDataEditable},
+     * i.e. the limit if {@link GLArrayDataEditable#sealed() sealed}, otherwise the position.
+     */
+    private static int getIndexCount(final GLArrayDataEditable indices) {
+        final Buffer b = indices.getBuffer();
+        if( null == b ) {
+            return 0;
+        }
+        return indices.sealed() ? b.limit() : b.position();
+    }
+
+    /**
+     * Reorders the triangles of the given {@link GLArrayDataEditable} triangle list indices for vertex cache locality,
+     * see {@link #optimizeVertexCache(Buffer, int, int)}.
+     * @param indices the triangle list indices
+     * @param vertexCount number of vertices referenced, i.e. all indices are less than <code>vertexCount</code>
+     */
+    public static void optimizeVertexCache(final GLArrayDataEditable indices, final int vertexCount) {
+        optimizeVertexCache(indices.getBuffer(), getIndexCount(indices), vertexCount);
+    }
+
+    /**
+     * Reorders the triangles of the given triangle list indices for post-transform vertex cache locality,
+     * using Tom Forsyth's <i>Linear-Speed Vertex Cache Optimisation</i>.
+     * <p>
+     * Each step emits the highest scoring triangle adjacent to the simulated LRU cache,
+     * where a vertex scores by it's cache position and by it's count of remaining triangles.
+     * </p>
+     * @param indices the triangle list indices, written in place
+     * @param indexCount number of indices, a multiple of 3
+     * @param vertexCount number of vertices referenced, i.e. all indices are less than <code>vertexCount</code>
+     * @throws IllegalArgumentException if <code>indexCount</code> is not a multiple of 3 or an index exceeds <code>vertexCount</code>
+     */
+    public static void optimizeVertexCache(final Buffer indices, final int indexCount, final int vertexCount) throws IllegalArgumentException {
+        if( 0 != indexCount % 3 ) {
+            throw new IllegalArgumentException("indexCount "+indexCount+" not a multiple of 3");
+        }
+        final int triCount = indexCount / 3;
+        if( 2 > triCount ) {
+            return;
+        }
+        final float acmr0 = DEBUG ? computeACMR(indices, indexCount, DEFAULT_FIFO_CACHE_SIZE) : 0f;
+        final int[] src = new int[indexCount];
+        for(int i=0; i<indexCount; i++) {
+            src[i] = getIndex(indices, i, vertexCount);
+        }
+
+        // vertex -> triangles adjacency, CSR layout
+        final int[] valence = new int[vertexCount];
+        for(int i=0; i<indexCount; i++) {
+            valence[src[i]]++;
+        }
+        final int[] adjOffset = new int[vertexCount+1];
+        for(int v=0; v<vertexCount; v++) {
+            adjOffset[v+1] = adjOffset[v] + valence[v];
+        }
+        final int[] adjTris = new int[indexCount];
+        final int[] fill = new int[vertexCount];
+        for(int i=0; i<indexCount; i++) {
+            final int v = src[i];
+            adjTris[adjOffset[v] + fill[v]++] = i / 3;
+        }
+
+        final float[] vScore = new float[vertexCount];
+        for(int v=0; v<vertexCount; v++) {
+            vScore[v] = vertexScore(-1, valence[v]);
+        }
+        final float[] tScore = new float[triCount];
+        for(int t=0; t<triCount; t++) {
+            tScore[t] = vScore[src[t*3]] + vScore[src[t*3+1]] + vScore[src[t*3+2]];
+        }
+        final boolean[] emitted = new boolean[triCount];
+        int[] cache = new int[CACHE_SIZE+3];
+        int[] cacheNext = new int[CACHE_SIZE+3];
+        int cacheCount = 0;
+
+        int bestTri = -1;
+        float bestScore = -1f;
+        for(int t=0; t<triCount; t++) {
+            if( tScore[t] > bestScore ) {
+                bestScore = tScore[t];
+                bestTri = t;
+            }
+        }
+        int scanCursor = 0;
+        int outTri = 0;
+        while( outTri < triCount ) {
+            if( 0 > bestTri ) {
+                // no candidate adjacent to the cache, take the next one not emitted yet
+                while( emitted[scanCursor] ) {
+                    scanCursor++;
+                }
+                bestTri = scanCursor;
+            }
+            final int t = bestTri;
+            emitted[t] = true;
+            final int i0 = src[t*3], i1 = src[t*3+1], i2 = src[t*3+2];
+            putIndex(indices, outTri*3,   i0);
+            putIndex(indices, outTri*3+1, i1);
+            putIndex(indices, outTri*3+2, i2);
+            outTri++;
+
+            // remove the triangle from it's vertices adjacency
+            for(int k=0; k<3; k++) {
+                final int v = src[t*3+k];
+                final int o = adjOffset[v];
+                final int end = o + valence[v];
+                for(int j=o; j<end; j++) {
+                    if( adjTris[j] == t ) {
+                        adjTris[j] = adjTris[end-1];
+                        break;
+                    }
+                }
+                valence[v]--;
+            }
+
+            // LRU update: triangle's vertices first, followed by the previous cache content
+            int n = 0;
+            cacheNext[n++] = i0;
+            if( i1 != i0 ) { cacheNext[n++] = i1; }
+            if( i2 != i0 && i2 != i1 ) { cacheNext[n++] = i2; }
+            for(int j=0; j<cacheCount; j++) {
+                final int v = cache[j];
+                if( v != i0 && v != i1 && v != i2 ) {
+                    cacheNext[n++] = v;
+                }
+            }
+            final int[] tmp = cache; cache = cacheNext; cacheNext = tmp;
+            cacheCount = n;
+
+            // rescore cached and evicted vertices and their remaining triangles
+            bestTri = -1;
+            bestScore = -1f;
+            for(int j=0; j<cacheCount; j++) {
+                final int v = cache[j];
+                final int pos = j < CACHE_SIZE ? j : -1;
+                final float s = vertexScore(pos, valence[v]);
+                final float d = s - vScore[v];
+                vScore[v] = s;
+                final int o = adjOffset[v];
+                final int end = o + valence[v];
+                for(int a=o; a<end; a++) {
+                    final int at = adjTris[a];
+                    tScore[at] += d;
+                }
+            }
+            for(int j=0; j<cacheCount; j++) {
+                final int v = cache[j];
+                final int o = adjOffset[v];
+                final int end = o + valence[v];
+                for(int a=o; a<end; a++) {
+                    final int at = adjTris[a];
+                    if( tScore[at] > bestScore ) {
+                        bestScore = tScore[at];
+                        bestTri = at;
+                    }
+                }
+            }
+            if( cacheCount > CACHE_SIZE ) {
+                cacheCount = CACHE_SIZE; // evicted, already rescored w/o cache position
+            }
+        }
+        if( DEBUG ) {
+            System.err.println("MeshOptimizer.optimizeVertexCache: "+triCount+" triangles, "+vertexCount+" vertices, ACMR "+acmr0+" -> "+
+                               computeACMR(indices, indexCount, DEFAULT_FIFO_CACHE_SIZE));
+        }
+    }
+
+    /**
+     * Renumbers the vertices of the given {@link GLArrayDataEditable} indices in order of first use
+     * and reorders the given vertex attribute arrays accordingly,
+     * see {@link #optimizeVertexFetch(Buffer, int, int)} and {@link #remapVertices(Buffer, int, int, int[])}.
+     * @param indices the triangle list indices
+     * @param vertexCount number of vertices referenced, i.e. all indices are less than <code>vertexCount</code>
+     * @param attributes the non-interleaved vertex attribute arrays holding at least <code>vertexCount</code> elements each
+     * @return the remap table, i.e. <code>remap[oldIndex] = newIndex</code>
+     */
+    public static int[] optimizeVertexFetch(final GLArrayDataEditable indices, final int vertexCount, final GLArrayDataEditable... attributes) {
+        final int[] remap = optimizeVertexFetch(indices.getBuffer(), getIndexCount(indices), vertexCount);
+        for(int i=0; i<attributes.length; i++) {
+            final GLArrayDataEditable ad = attributes[i];
+            if( ad.getStride() != ad.getComponentCount() * ad.getComponentSizeInBytes() ) {
+                throw new IllegalArgumentException("Interleaved attribute not supported: "+ad);
+            }
+            remapVertices(ad.getBuffer(), ad.getComponentCount(), vertexCount, remap);
+        }
+        return remap;
+    }
+
+    /**
+     * Renumbers the vertices in order of their first use by the given indices for pre-transform vertex fetch locality,
+     * vertices not being used are moved to the end.
+     * <p>
+     * The indices are rewritten, the vertex data must be reordered via {@link #remapVertices(Buffer, int, int, int[])}
+     * using the returned remap table.
+     * </p>
+     * @param indices the indices, written in place
+     * @param indexCount number of indices
+     * @param vertexCount number of vertices referenced, i.e. all indices are less than <code>vertexCount</code>
+     * @return the remap table, i.e. <code>remap[oldIndex] = newIndex</code>
+     * @throws IllegalArgumentException if an index exceeds <code>vertexCount</code>
+     */
+    public static int[] optimizeVertexFetch(final Buffer indices, final int indexCount, final int vertexCount) throws IllegalArgumentException {
+        final int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        int next = 0;
+        for(int i=0; i<indexCount; i++) {
+            final int v = getIndex(indices, i, vertexCount);
+            if( 0 > remap[v] ) {
+                remap[v] = next++;
+            }
+            putIndex(indices, i, remap[v]);
+        }
+        for(int v=0; v<vertexCount; v++) {
+            if( 0 > remap[v] ) {
+                remap[v] = next++;
+            }
+        }
+        return remap;
+    }
+
+    /**
+     * Reorders the vertex data according to the given remap table, i.e. element <code>i</code> is moved to <code>remap[i]</code>.
+     * @param vertices non-interleaved vertex data, using absolute access from index zero
+     * @param componentsPerElement number of components per vertex
+     * @param vertexCount number of vertices
+     * @param remap the remap table as returned by {@link #optimizeVertexFetch(Buffer, int, int)}
+     */
+    public static void remapVertices(final Buffer vertices, final int componentsPerElement, final int vertexCount, final int[] remap) {
+        final int n = vertexCount * componentsPerElement;
+        if( vertices instanceof FloatBuffer ) {
+            final FloatBuffer b = (FloatBuffer)vertices;
+            final float[] tmp = new float[n];
+            for(int i=0; i<n; i++) { tmp[i] = b.get(i); }
+            for(int v=0; v<vertexCount; v++) {
+                for(int c=0; c<componentsPerElement; c++) {
+                    b.put(remap[v]*componentsPerElement+c, tmp[v*componentsPerElement+c]);
+                }
+            }
+        } else if( vertices instanceof ShortBuffer ) {
+            final ShortBuffer b = (ShortBuffer)vertices;
+            final short[] tmp = new short[n];
+            for(int i=0; i<n; i++) { tmp[i] = b.get(i); }
+            for(int v=0; v<vertexCount; v++) {
+                for(int c=0; c<componentsPerElement; c++) {
+                    b.put(remap[v]*componentsPerElement+c, tmp[v*componentsPerElement+c]);
+                }
+            }
+        } else if( vertices instanceof IntBuffer ) {
+            final IntBuffer b = (IntBuffer)vertices;
+            final int[] tmp = new int[n];
+            for(int i=0; i<n; i++) { tmp[i] = b.get(i); }
+            for(int v=0; v<vertexCount; v++) {
+                for(int c=0; c<componentsPerElement; c++) {
+                    b.put(remap[v]*componentsPerElement+c, tmp[v*componentsPerElement+c]);
+                }
+            }
+        } else if( vertices instanceof ByteBuffer ) {
+            final ByteBuffer b = (ByteBuffer)vertices;
+            final byte[] tmp = new byte[n];
+            for(int i=0; i<n; i++) { tmp[i] = b.get(i); }
+            for(int v=0; v<vertexCount; v++) {
+                for(int c=0; c<componentsPerElement; c++) {
+                    b.put(remap[v]*componentsPerElement+c, tmp[v*componentsPerElement+c]);
+                }
+            }
+        } else {
+            throw new GLException("Given Buffer Class not supported: "+vertices.getClass().getName());
+        }
+    }
+
+    /**
+     * Returns the average cache miss ratio (ACMR) of the given {@link GLArrayDataEditable} triangle list indices,
+     * see {@link #computeACMR(Buffer, int, int)}.
+     */
+    public static float computeACMR(final GLArrayDataEditable indices, final int cacheSize) {
+        return computeACMR(indices.getBuffer(), getIndexCount(indices), cacheSize);
+    }
+
+    /**
+     * Returns the average cache miss ratio (ACMR) of the given triangle list indices,
+     * i.e. the number of vertex transformations per triangle simulating a FIFO post-transform cache of the given size.
+     * @param indices the triangle list indices
+     * @param indexCount number of indices, a multiple of 3
+     * @param cacheSize FIFO cache size, e.g. {@link #DEFAULT_FIFO_CACHE_SIZE}
+     * @return the ACMR, zero if no triangles are given
+     */
+    public static float computeACMR(final Buffer indices, final int indexCount, final int cacheSize) {
+        final int triCount = indexCount / 3;
+        if( 0 == triCount ) {
+            return 0f;
+        }
+        final int[] fifo = new int[cacheSize];
+        Arrays.fill(fifo, -1);
+        int head = 0;
+        int misses = 0;
+        for(int i=0; i<triCount*3; i++) {
+            final int v = getIndex(indices, i, Integer.MAX_VALUE);
+            boolean hit = false;
+            for(int j=0; j<cacheSize; j++) {
+                if( fifo[j] == v ) {
+                    hit = true;
+                    break;
+                }
+            }
+            if( !hit ) {
+                misses++;
+                fifo[head] = v;
+                head = ( head + 1 ) % cacheSize;
+            }
+        }
+        return (float)misses / (float)triCount;
+    }
+
+    private static int getIndex(final Buffer indices, final int i, final int vertexCount) throws IllegalArgumentException {
+        final int v;
+        if( indices instanceof ShortBuffer ) {
+            v = ((ShortBuffer)indices).get(i) & 0xffff;
+        } else if( indices instanceof IntBuffer ) {
+            v = ((IntBuffer)indices).get(i);
+        } else if( indices instanceof ByteBuffer ) {
+            v = ((ByteBuffer)indices).get(i) & 0xff;
+        } else {
+            throw new GLException("Given Buffer Class not supported: "+indices.getClass().getName());
+        }
+        if( 0 > v || v >= vertexCount ) {
+            throw new IllegalArgumentException("Index "+v+" at "+i+" exceeds vertexCount "+vertexCount);
+        }
+        return v;
+    }
+
+    private static void putIndex(final Buffer indices, final int i, final int v) {
+        if( indices instanceof ShortBuffer ) {
+            ((ShortBuffer)indices).put(i, (short)v);
+        } else if( indices instanceof IntBuffer ) {
+            ((IntBuffer)indices).put(i, v);
+        } else {
+            ((ByteBuffer)indices).put(i, (byte)v);
+        }
+    }
+}
@@ -0,0 +1,854 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jogamp.opengl.FPSCounterImpl;
+
+import com.jogamp.common.ExceptionUtils;
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.common.util.SourcedInterruptedException;
+import com.jogamp.opengl.FPSCounter;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLDrawable;
+import com.jogamp.opengl.GLException;
+
+/**
+ * An {@link AnimatorBase} implementation driving each {@link GLAutoDrawable},
+ * or each configurable group of {@link GLAutoDrawable}s, on its own dedicated render thread.
+ * <p>
+ * The {@link #getThread() animator thread} issues a common frame pulse,
+ * which is consumed by all render threads concurrently.
+ * Hence a stall in one drawable's {@link GLAutoDrawable#display()} does not delay
+ * the drawables of other render threads within the same frame
+ * and rendering of independent views may utilize multiple CPU cores.
+ * </p>
+ * <p>
+ * Backpressure: The frame pulse runs at most {@link #setMaxFramesAhead(int) max frames ahead}
+ * of the slowest render thread, i.e. the animator thread blocks until the slowest render thread catches up.
+ * The default of <code>1</code> renders all drawables in lockstep.
+ * A render thread falling behind renders the latest pulse only, the skipped pulses are
+ * accumulated in {@link #getSkippedFrames(GLAutoDrawable)}.
+ * </p>
+ * <p>
+ * Exclusive context: If enabled via {@link #setExclusiveContext(boolean)},
+ * each {@link GLAutoDrawable}'s context is dedicated to its render thread while animating.
+ * A user thread passed via {@link #setExclusiveContext(Thread)} is not used.
+ * </p>
+ * <p>
+ * Each {@link GLAutoDrawable} has its own {@link #getFPSCounter(GLAutoDrawable) FPSCounter}
+ * updated on its render thread, while this animator's {@link FPSCounter} reflects the frame pulse.
+ * </p>
+ * <p>
+ * Since {@link GLAutoDrawable#display()} is called from the render threads directly,
+ * {@link #MODE_EXPECT_AWT_RENDERING_THREAD} is not honored. This animator is intended
+ * for NEWT and offscreen {@link GLAutoDrawable}s.
+ * </p>
+ * <p>
+ * The animator and render threads do not run as daemon threads,
+ * call {@link #stop() } to terminate the animation and its execution threads.
+ * </p>
+ */
+public class MultiThreadAnimator extends AnimatorBase {
+    private ThreadGroup threadGroup;
+    private Runnable runnable;
+    private int maxFramesAhead;
+    private volatile FramePacer framePacer;
+    boolean isAnimating;
+    volatile boolean pauseIssued;
+    volatile boolean stopIssued;
+
+    /** Render group key per drawable, if not contained the drawable itself is the key. */
+    private final HashMap<GLAutoDrawable, Integer> renderGroups = new HashMap<GLAutoDrawable, Integer>();
+    private final HashMap<GLAutoDrawable, FPSCounterImpl> drawableFPSCounter = new HashMap<GLAutoDrawable, FPSCounterImpl>();
+    private final HashMap<GLAutoDrawable, RenderThread> drawableRenderThread = new HashMap<GLAutoDrawable, RenderThread>();
+    /** Active render threads, only modified by the animator thread while holding this instance's lock. */
+    private volatile RenderThread[] renderThreads = new RenderThread[0];
+    private int renderThreadSeq = 0;
+
+    /** Synchronizes the frame pulse between the animator and render threads, never hold while locking this instance. */
+    private final Object pulseSync = new Object();
+    /** Current frame pulse, guarded by {@link #pulseSync}. */
+    private long pulse;
+
+    /**
+     * Creates a new, empty MultiThreadAnimator.
+     */
+    public MultiThreadAnimator() {
+        super();
+        maxFramesAhead = 1;
+        if(DEBUG) {
+            System.err.println("MultiThreadAnimator created");
+        }
+    }
+
+    /**
+     * Creates a new MultiThreadAnimator w/ an associated ThreadGroup
+     * used for the animator and all render threads.
+     */
+    public MultiThreadAnimator(final ThreadGroup tg) {
+        super();
+        maxFramesAhead = 1;
+        setThreadGroup(tg);
+        if(DEBUG) {
+            System.err.println("MultiThreadAnimator created, ThreadGroup: "+threadGroup);
+        }
+    }
+
+    @Override
+    protected final String getBaseName(final String prefix) {
+        return prefix + "MTAnimator" ;
+    }
+
+    @Override
+    protected final AnimatorImpl createCustomImpl() {
+        return pulseImpl;
+    }
+
+    @Override
+    protected final synchronized Thread getExclusiveContextThread(final GLAutoDrawable drawable) {
+        if( !isStarted() || !exclusiveContext ) {
+            return null;
+        }
+        final RenderThread rt = drawableRenderThread.get(drawable);
+        return null != rt ? rt.thread : null;
+    }
+
+    /**
+     * Set a {@link ThreadGroup} for the {@link #getThread() animation thread} and all render threads.
+     *
+     * @param tg the {@link ThreadGroup}
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setThreadGroup(final ThreadGroup tg) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        threadGroup = tg;
+    }
+
+    /**
+     * Assigns the given {@link GLAutoDrawable} to a render group.
+     * <p>
+     * All drawables of the same render group are rendered serially on one shared render thread.
+     * By default each drawable is rendered on its own render thread.
+     * </p>
+     *
+     * @param drawable the {@link GLAutoDrawable}, which may or may not be added yet
+     * @param group the render group, or <code>null</code> to use a dedicated render thread
+     * @throws GLException if the animator has already been started
+     */
+    public final synchronized void setRenderGroup(final GLAutoDrawable drawable, final Integer group) throws GLException {
+        if ( isStarted() ) {
+            throw new GLException("Animator already started.");
+        }
+        if( null != group ) {
+            renderGroups.put(drawable, group);
+        } else {
+            renderGroups.remove(drawable);
+        }
+    }
+
+    /**
+     * Sets the maximum number of frame pulses the animator thread may run ahead
+     * of the slowest render thread, defaults to <code>1</code>, i.e. lockstep.
+     * <p>
+     * A larger value lets fast render threads continue while a slow one falls behind,
+     * the latter skipping the missed pulses.
+     * </p>
+     *
+     * @param frames number of frames, must be &gt; 0
+     * @throws IllegalArgumentException if <code>frames</code> &lt; 1
+     */
+    public final void setMaxFramesAhead(final int frames) throws IllegalArgumentException {
+        if( 1 > frames ) {
+            throw new IllegalArgumentException("frames must be > 0, has "+frames);
+        }
+        synchronized(pulseSync) {
+            maxFramesAhead = frames;
+            pulseSync.notifyAll();
+        }
+    }
+
+    /** Returns the maximum number of frame pulses the animator thread may run ahead, see {@link #setMaxFramesAhead(int)}. */
+    public final int getMaxFramesAhead() {
+        synchronized(pulseSync) {
+            return maxFramesAhead;
+        }
+    }
+
+    /**
+     * Sets a {@link FramePacer} pacing the common frame pulse, see {@link Animator#setFramePacer(FramePacer)}.
+     * @param pacer the {@link FramePacer}, or <code>null</code> to issue pulses as fast as the render threads allow, which is the default.
+     */
+    public final synchronized void setFramePacer(final FramePacer pacer) {
+        if( null != pacer ) {
+            pacer.reset();
+        }
+        framePacer = pacer;
+    }
+
+    /** Returns the {@link FramePacer} if set, otherwise <code>null</code>. */
+    public final FramePacer getFramePacer() {
+        return framePacer;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implementation also wakes up the {@link #setFramePacer(FramePacer) frame pacer}, if set.
+     * </p>
+     */
+    @Override
+    protected void wakeUpAnimThread() {
+        super.wakeUpAnimThread();
+        final FramePacer pacer = framePacer;
+        if( null != pacer ) {
+            pacer.wakeUp();
+        }
+    }
+
+    /**
+     * Returns the {@link FPSCounter} of the given {@link GLAutoDrawable},
+     * updated on its render thread after each {@link GLAutoDrawable#display()} call.
+     * <p>
+     * The returned counter is valid while the drawable is added to this animator.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the drawable is not added to this animator
+     */
+    public final synchronized FPSCounter getFPSCounter(final GLAutoDrawable drawable) throws IllegalArgumentException {
+        if( !drawables.contains(drawable) ) {
+            throw new IllegalArgumentException("Drawable not added to animator: "+this+", "+drawable);
+        }
+        return getFPSCounterImpl(drawable);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Implementation adds the swap duration to the {@link #getFPSCounter(GLAutoDrawable) FPSCounter}
+     * of the swapped drawable, since render threads display their drawables concurrently.
+     * </p>
+     */
+    @Override
+    public void addSwapTime(final GLDrawable drawable, final long nanos) {
+        synchronized(pulseSync) {
+            final RenderThread[] rts = renderThreads;
+            for(int i=0; i<rts.length; i++) {
+                final GLAutoDrawable[] ds = rts[i].drawables;
+                for(int j=0; j<ds.length; j++) {
+                    if( ds[j] == drawable || ds[j].getDelegatedDrawable() == drawable ) {
+                        rts[i].fpsCounter[j].addSwapTime(nanos);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private final FPSCounterImpl getFPSCounterImpl(final GLAutoDrawable drawable) {
+        FPSCounterImpl c = drawableFPSCounter.get(drawable);
+        if( null == c ) {
+            c = new FPSCounterImpl();
+            drawableFPSCounter.put(drawable, c);
+        }
+        return c;
+    }
+
+    /**
+     * Returns the number of frame pulses skipped by the render thread of the given {@link GLAutoDrawable}
+     * since it has been started, or <code>0</code> if it is not running.
+     *
+     * @see #setMaxFramesAhead(int)
+     */
+    public final synchronized long getSkippedFrames(final GLAutoDrawable drawable) {
+        final RenderThread rt = drawableRenderThread.get(drawable);
+        if( null == rt ) {
+            return 0;
+        }
+        synchronized(pulseSync) {
+            return rt.skippedFrames;
+        }
+    }
+
+    /** Returns the number of running render threads. */
+    public final int getRenderThreadCount() {
+        return renderThreads.length;
+    }
+
+    private final AnimatorImpl pulseImpl = new AnimatorImpl() {
+        @Override
+        public void display(final ArrayList<GLAutoDrawable> drawables, final boolean ignoreExceptions, final boolean printExceptions) throws UncaughtAnimatorException {
+            issuePulse();
+        }
+
+        @Override
+        public boolean blockUntilDone(final Thread thread) {
+            // Render threads may not block, since the animator thread waits for them
+            final Thread ct = Thread.currentThread();
+            if( ct == thread ) {
+                return false;
+            }
+            final RenderThread[] rts = renderThreads;
+            for(int i=0; i<rts.length; i++) {
+                if( ct == rts[i].thread ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    /**
+     * Issues a new frame pulse to all render threads and blocks until the slowest render thread
+     * is within {@link #getMaxFramesAhead()} frames.
+     * <p>
+     * Shall only be called by the animator thread.
+     * </p>
+     * @throws UncaughtAnimatorException as caused by any render thread's {@link GLAutoDrawable#display()}
+     */
+    private void issuePulse() throws UncaughtAnimatorException {
+        final RenderThread[] rts = renderThreads;
+        UncaughtAnimatorException caught = null;
+        synchronized(pulseSync) {
+            final long p = ++pulse;
+            pulseSync.notifyAll();
+            try {
+                while( getMinRenderedPulse(rts) < p - maxFramesAhead + 1 ) {
+                    pulseSync.wait();
+                }
+            } catch (final InterruptedException e) {
+                caught = new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+            }
+        }
+        final UncaughtAnimatorException rtCaught = pollRenderThreadException(rts);
+        if( null != caught || null != rtCaught ) {
+            if( null != caught && null != rtCaught ) {
+                ExceptionUtils.dumpThrowable("(render thread)", rtCaught);
+            }
+            throw null != caught ? caught : rtCaught;
+        }
+    }
+
+    /**
+     * Optionally issues a new frame pulse and blocks until all render threads have rendered the last pulse.
+     * <p>
+     * Since render threads may call into this animator, this instance's monitor is released
+     * while waiting by polling for completion every {@link #POLLP_WAIT_FOR_RENDER_THREADS} ms.
+     * </p>
+     * <p>
+     * Shall only be called by the animator thread.
+     * </p>
+     * @return the first {@link UncaughtAnimatorException} caused by any render thread, or <code>null</code>
+     */
+    private synchronized UncaughtAnimatorException syncRenderThreads(final boolean newPulse) {
+        final RenderThread[] rts = renderThreads;
+        final long p;
+        synchronized(pulseSync) {
+            if( newPulse ) {
+                ++pulse;
+                pulseSync.notifyAll();
+            }
+            p = pulse;
+        }
+        while( true ) {
+            synchronized(pulseSync) {
+                if( getMinRenderedPulse(rts) >= p ) {
+                    break;
+                }
+            }
+            try {
+                wait(POLLP_WAIT_FOR_RENDER_THREADS);
+            } catch (final InterruptedException e) {
+                return new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+            }
+        }
+        return pollRenderThreadException(rts);
+    }
+    private static final long POLLP_WAIT_FOR_RENDER_THREADS = 2;
+
+    private UncaughtAnimatorException pollRenderThreadException(final RenderThread[] rts) {
+        UncaughtAnimatorException caught = null;
+        synchronized(pulseSync) {
+            for(int i=0; i<rts.length; i++) {
+                final RenderThread rt = rts[i];
+                if( null != rt.caughtException ) {
+                    if( null == caught ) {
+                        caught = rt.caughtException;
+                    } else {
+                        ExceptionUtils.dumpThrowable("(render thread)", rt.caughtException);
+                    }
+                    rt.caughtException = null;
+                }
+            }
+        }
+        return caught;
+    }
+
+    private static long getMinRenderedPulse(final RenderThread[] rts) {
+        long min = Long.MAX_VALUE;
+        for(int i=0; i<rts.length; i++) {
+            min = Math.min(min, rts[i].renderedPulse);
+        }
+        return min;
+    }
+
+    /**
+     * Starts render threads for new render groups, terminates those w/o drawables
+     * and assigns the current drawables to them.
+     * <p>
+     * Shall only be called by the animator thread while holding this instance's lock
+     * and while the render threads are idle, see {@link #pauseRenderThreads()}.
+     * </p>
+     */
+    private void updateRenderThreads() {
+        final Map<Object, ArrayList<GLAutoDrawable>> groups = new LinkedHashMap<Object, ArrayList<GLAutoDrawable>>();
+        for(int i=0; i<drawables.size(); i++) {
+            final GLAutoDrawable d = drawables.get(i);
+            final Integer group = renderGroups.get(d);
+            final Object key = null != group ? group : d;
+            ArrayList<GLAutoDrawable> l = groups.get(key);
+            if( null == l ) {
+                l = new ArrayList<GLAutoDrawable>();
+                groups.put(key, l);
+            }
+            l.add(d);
+        }
+        final ArrayList<RenderThread> quit = new ArrayList<RenderThread>();
+        final ArrayList<RenderThread> started = new ArrayList<RenderThread>();
+        final RenderThread[] oldRTs = renderThreads;
+        final RenderThread[] newRTs = new RenderThread[groups.size()];
+        drawableRenderThread.clear();
+        synchronized(pulseSync) {
+            for(int i=0; i<oldRTs.length; i++) {
+                if( !groups.containsKey(oldRTs[i].groupKey) ) {
+                    oldRTs[i].quitIssued = true;
+                    quit.add(oldRTs[i]);
+                }
+            }
+            int i=0;
+            for(final Iterator<Map.Entry<Object, ArrayList<GLAutoDrawable>>> iter = groups.entrySet().iterator(); iter.hasNext(); i++) {
+                final Map.Entry<Object, ArrayList<GLAutoDrawable>> e = iter.next();
+                RenderThread rt = null;
+                for(int j=0; null == rt && j<oldRTs.length; j++) {
+                    if( e.getKey().equals(oldRTs[j].groupKey) ) {
+                        rt = oldRTs[j];
+                    }
+                }
+                if( null == rt ) {
+                    rt = new RenderThread(e.getKey(), pulse);
+                    started.add(rt);
+                }
+                final ArrayList<GLAutoDrawable> l = e.getValue();
+                final GLAutoDrawable[] ds = l.toArray(new GLAutoDrawable[l.size()]);
+                final FPSCounterImpl[] cs = new FPSCounterImpl[ds.length];
+                for(int j=0; j<ds.length; j++) {
+                    cs[j] = getFPSCounterImpl(ds[j]);
+                    cs[j].resetFPSCounter();
+                    drawableRenderThread.put(ds[j], rt);
+                }
+                rt.drawables = ds;
+                rt.fpsCounter = cs;
+                newRTs[i] = rt;
+            }
+            renderThreads = newRTs;
+            pulseSync.notifyAll();
+        }
+        drawableFPSCounter.keySet().retainAll(drawableRenderThread.keySet());
+        for(int i=0; i<started.size(); i++) {
+            started.get(i).thread.start();
+        }
+        joinRenderThreads(quit);
+        if(DEBUG) {
+            System.err.println("MultiThreadAnimator.updateRenderThreads: "+newRTs.length+" render threads, started "+started.size()+", quit "+quit.size()+" - "+getThreadName());
+        }
+    }
+
+    /**
+     * Terminates all render threads.
+     * <p>
+     * Shall only be called by the animator thread while the render threads are idle,
+     * see {@link #pauseRenderThreads()}.
+     * </p>
+     */
+    private void stopRenderThreads() {
+        final ArrayList<RenderThread> quit = new ArrayList<RenderThread>();
+        synchronized(pulseSync) {
+            final RenderThread[] rts = renderThreads;
+            for(int i=0; i<rts.length; i++) {
+                rts[i].quitIssued = true;
+                quit.add(rts[i]);
+            }
+            renderThreads = new RenderThread[0];
+            pulseSync.notifyAll();
+        }
+        synchronized(this) {
+            drawableRenderThread.clear();
+        }
+        joinRenderThreads(quit);
+    }
+
+    private static void joinRenderThreads(final ArrayList<RenderThread> rts) {
+        for(int i=0; i<rts.size(); i++) {
+            final Thread t = rts.get(i).thread;
+            try {
+                t.join(TO_WAIT_FOR_FINISH_LIFECYCLE_ACTION);
+            } catch (final InterruptedException e) {
+                throw new GLException("Interrupted while joining "+t.getName(), SourcedInterruptedException.wrap(e));
+            }
+            if( t.isAlive() ) {
+                System.err.println("MultiThreadAnimator: Render thread "+t.getName()+" did not terminate within "+TO_WAIT_FOR_FINISH_LIFECYCLE_ACTION+" ms");
+            }
+        }
+    }
+
+    /**
+     * Waits until all render threads are idle,
+     * while releasing the exclusive context of all drawables if enabled.
+     */
+    private UncaughtAnimatorException pauseRenderThreads() {
+        if ( exclusiveContext && !drawablesEmpty ) {
+            setDrawablesExclCtxState(false);
+            return syncRenderThreads(true); // propagate exclusive context -> off!
+        } else {
+            return syncRenderThreads(false);
+        }
+    }
+
+    /** Renders the drawables of one render group on a dedicated thread. */
+    final class RenderThread implements Runnable {
+        final Object groupKey;
+        final Thread thread;
+        /** The following fields are guarded by {@link MultiThreadAnimator#pulseSync}. */
+        GLAutoDrawable[] drawables;
+        FPSCounterImpl[] fpsCounter;
+        long renderedPulse;
+        long skippedFrames;
+        boolean quitIssued;
+        UncaughtAnimatorException caughtException;
+
+        RenderThread(final Object groupKey, final long pulse) {
+            this.groupKey = groupKey;
+            this.renderedPulse = pulse;
+            this.thread = new InterruptSource.Thread(threadGroup, this, getThreadName()+"-"+baseName+"-render-"+(renderThreadSeq++));
+            this.thread.setDaemon(false); // force to be non daemon, regardless of parent thread
+        }
+
+        @Override
+        public void run() {
+            try {
+                while( true ) {
+                    final long p;
+                    final GLAutoDrawable[] ds;
+                    final FPSCounterImpl[] cs;
+                    synchronized(pulseSync) {
+                        while( !quitIssued && pulse <= renderedPulse ) {
+                            pulseSync.wait();
+                        }
+                        if( quitIssued ) {
+                            break;
+                        }
+                        p = pulse;
+                        skippedFrames += p - renderedPulse - 1;
+                        ds = drawables;
+                        cs = fpsCounter;
+                    }
+                    final UncaughtAnimatorException caught = display(ds, cs);
+                    synchronized(pulseSync) {
+                        if( null != caught && null == caughtException ) {
+                            caughtException = caught;
+                        }
+                        renderedPulse = p;
+                        pulseSync.notifyAll();
+                    }
+                }
+            } catch (final InterruptedException e) {
+                synchronized(pulseSync) {
+                    if( null == caughtException ) {
+                        caughtException = new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+                    }
+                }
+            } finally {
+                synchronized(pulseSync) {
+                    renderedPulse = Long.MAX_VALUE; // never block the animator thread
+                    pulseSync.notifyAll();
+                }
+                if(DEBUG) {
+                    System.err.println("MultiThreadAnimator render thread stopped: "+getThreadName());
+                }
+            }
+        }
+
+        private UncaughtAnimatorException display(final GLAutoDrawable[] ds, final FPSCounterImpl[] cs) {
+            for(int i=0; i<ds.length; i++) {
+                final long t0 = System.nanoTime();
+                try {
+                    ds[i].display();
+                } catch (final Throwable t) {
+                    if (ignoreExceptions) {
+                        if (printExceptions) {
+                            t.printStackTrace();
+                        }
+                    } else {
+                        return new UncaughtAnimatorException(ds[i], t);
+                    }
+                }
+                cs[i].recordDisplayTime(System.nanoTime() - t0);
+                cs[i].tickFPS();
+            }
+            return null;
+        }
+    }
+
+    class MainLoop implements Runnable {
+        @Override
+        public String toString() {
+            return "[started "+isStarted()+", animating "+isAnimating()+", paused "+isPaused()+", drawable "+drawables.size()+", drawablesEmpty "+drawablesEmpty+
+                   ", renderThreads "+renderThreads.length+"]";
+        }
+
+        @Override
+        public void run() {
+            ThreadDeath caughtThreadDeath = null;
+            UncaughtAnimatorException caughtException = null;
+
+            try {
+                synchronized (MultiThreadAnimator.this) {
+                    if(DEBUG) {
+                        System.err.println("MultiThreadAnimator start on " + getThreadName() + ": " + toString());
+                    }
+                    fpsCounter.resetFPSCounter();
+                    animThread = Thread.currentThread();
+                    isAnimating = false;
+                    // 'waitForStartedCondition' wake-up is handled below!
+                }
+
+                while (!stopIssued) {
+                    synchronized (MultiThreadAnimator.this) {
+                        // Pause; Also don't consume CPU unless there is work to be done and not paused
+                        boolean ectCleared = false;
+                        while ( !stopIssued && ( pauseIssued || drawablesEmpty ) ) {
+                            if( drawablesEmpty ) {
+                                pauseIssued = true;
+                            }
+                            final boolean wasPaused = pauseIssued;
+                            if (DEBUG) {
+                                System.err.println("MultiThreadAnimator pause on " + animThread.getName() + ": " + toString());
+                            }
+                            if ( !ectCleared ) {
+                                ectCleared = true;
+                                caughtException = pauseRenderThreads();
+                                if( null != caughtException ) {
+                                    stopIssued = true;
+                                    break; // end pause loop
+                                }
+                            }
+                            isAnimating = false;
+                            MultiThreadAnimator.this.notifyAll();
+                            try {
+                                MultiThreadAnimator.this.wait();
+                            } catch (final InterruptedException e) {
+                                caughtException = new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+                                stopIssued = true;
+                                break; // end pause loop
+                            }
+                            if (wasPaused) {
+                                // resume from pause -> reset counter
+                                fpsCounter.resetFPSCounter();
+                                if (DEBUG) {
+                                    System.err.println("MultiThreadAnimator resume on " + animThread.getName() + ": " + toString());
+                                }
+                            }
+                        }
+                        if (!stopIssued && !isAnimating) {
+                            // Wakes up 'waitForStartedCondition' sync
+                            // - and -
+                            // Resume from pause or drawablesEmpty,
+                            // implies !pauseIssued and !drawablesEmpty
+                            updateRenderThreads();
+                            isAnimating = true;
+                            setDrawablesExclCtxState(exclusiveContext); // may re-enable exclusive context
+                            if( null != framePacer ) {
+                                framePacer.reset();
+                            }
+                            MultiThreadAnimator.this.notifyAll();
+                        }
+                    } // sync MultiThreadAnimator.this
+                    if ( !pauseIssued && !stopIssued ) {
+                        final FramePacer pacer = framePacer;
+                        if( null != pacer ) {
+                            try {
+                                pacer.await();
+                            } catch (final InterruptedException e) {
+                                caughtException = new UncaughtAnimatorException(null, SourcedInterruptedException.wrap(e));
+                                stopIssued = true;
+                                break; // end animation loop
+                            }
+                            if( pauseIssued || stopIssued ) {
+                                continue; // woken up by a lifecycle action
+                            }
+                        }
+                        try {
+                            display();
+                        } catch (final UncaughtAnimatorException dre) {
+                            caughtException = dre;
+                            stopIssued = true;
+                            break; // end animation loop
+                        }
+                    }
+                }
+            } catch(final ThreadDeath td) {
+                if(DEBUG) {
+                    ExceptionUtils.dumpThrowable("", td);
+                }
+                caughtThreadDeath = td;
+            }
+            final UncaughtAnimatorException releaseException = pauseRenderThreads();
+            if( null != releaseException ) {
+                if( null == caughtException ) {
+                    caughtException = releaseException;
+                } else {
+                    ExceptionUtils.dumpThrowable("(setExclusiveContextThread)", releaseException);
+                }
+            }
+            stopRenderThreads();
+            boolean flushGLRunnables = false;
+            boolean throwCaughtException = false;
+            synchronized (MultiThreadAnimator.this) {
+                if(DEBUG) {
+                    System.err.println("MultiThreadAnimator stop on " + animThread.getName() + ": " + toString());
+                    if( null != caughtException ) {
+                        ExceptionUtils.dumpThrowable("", caughtException);
+                    }
+                }
+                stopIssued = false;
+                pauseIssued = false;
+                isAnimating = false;
+                if( null != caughtException ) {
+                    flushGLRunnables = true;
+                    throwCaughtException = !handleUncaughtException(caughtException);
+                }
+                animThread = null;
+                MultiThreadAnimator.this.notifyAll();
+            }
+            if( flushGLRunnables ) {
+                flushGLRunnables();
+            }
+            if( throwCaughtException ) {
+                throw caughtException;
+            }
+            if( null != caughtThreadDeath ) {
+                throw caughtThreadDeath;
+            }
+        }
+    }
+
+    @Override
+    public final synchronized boolean isAnimating() {
+        return animThread != null && isAnimating ;
+    }
+
+    @Override
+    public final synchronized boolean isPaused() {
+        return animThread != null && pauseIssued ;
+    }
+
+    @Override
+    public final synchronized boolean start() {
+        if ( isStarted() ) {
+            return false;
+        }
+        if (runnable == null) {
+            runnable = new MainLoop();
+        }
+        fpsCounter.resetFPSCounter();
+        final Thread thread = new InterruptSource.Thread(threadGroup, runnable, getThreadName()+"-"+baseName);
+        thread.setDaemon(false); // force to be non daemon, regardless of parent thread
+        if(DEBUG) {
+            final Thread ct = Thread.currentThread();
+            System.err.println("MultiThreadAnimator "+ct.getName()+"[daemon "+ct.isDaemon()+"]: starting "+thread.getName()+"[daemon "+thread.isDaemon()+"]");
+        }
+        thread.start();
+        return finishLifecycleAction(waitForStartedCondition, 0);
+    }
+    private final Condition waitForStartedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            return !isStarted() || (!drawablesEmpty && !isAnimating) ;
+        } };
+
+    @Override
+    public final synchronized boolean stop() {
+        if ( !isStarted() ) {
+            return false;
+        }
+        stopIssued = true;
+        return finishLifecycleAction(waitForStoppedCondition, 0);
+    }
+    private final Condition waitForStoppedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            return isStarted();
+        } };
+
+    @Override
+    public final synchronized boolean pause() {
+        if ( !isStarted() || pauseIssued ) {
+            return false;
+        }
+        pauseIssued = true;
+        return finishLifecycleAction(waitForPausedCondition, 0);
+    }
+    private final Condition waitForPausedCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            // end waiting if stopped as well
+            return isStarted() && isAnimating;
+        } };
+
+    @Override
+    public final synchronized boolean resume() {
+        if ( !isStarted() || !pauseIssued ) {
+            return false;
+        }
+        pauseIssued = false;
+        return finishLifecycleAction(waitForResumeCondition, 0);
+    }
+    private final Condition waitForResumeCondition = new Condition() {
+        @Override
+        public boolean eval() {
+            // end waiting if stopped as well
+            return isStarted() && ( !drawablesEmpty && !isAnimating || drawablesEmpty && !pauseIssued ) ;
+        } };
+}
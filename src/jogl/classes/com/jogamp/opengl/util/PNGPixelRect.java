@@ -56,6 +56,40 @@ import com.jogamp.common.util.IOUtil;
 public class PNGPixelRect extends PixelRectangle.GenericPixelRect {
     private static final boolean DEBUG = Debug.debug("PNG");
 
+    /**
+     * Reads only the PNG chunks preceding the image data from the specified InputStream,
+     * i.e. w/o inflating or converting any pixels.
+     *
+     * @param in input stream
+     * @param size optional int[2] receiving width and height of the image, maybe <code>null</code>
+     * @return the {@link PixelFormat} {@link #read(InputStream, PixelFormat, boolean, int, boolean) read(..)}
+     *         would produce w/o a desired destination {@link PixelFormat}
+     * @throws IOException
+     */
+    public static PixelFormat readHeader(final InputStream in, final int[] size) throws IOException {
+        final PngReader pngr = new PngReader(in, null);
+        final ImageInfo imgInfo = pngr.imgInfo;
+        final boolean indexed = imgInfo.indexed;
+        final boolean hasAlpha = indexed ? ( null != pngr.getMetadata().getTRNS() ) : imgInfo.alpha ;
+        final int channels = indexed ? ( hasAlpha ? 4 : 3 ) : imgInfo.channels ;
+        final int bytesPerPixel = indexed ? channels : imgInfo.bytesPixel ;
+        if( channels != bytesPerPixel ) {
+            throw new RuntimeException("PNGPixelRect currently only handles Channels [1/3/4] == BytePerPixel [1/3/4], channels: "+channels+", bytesPerPixel "+bytesPerPixel);
+        }
+        if( null != size ) {
+            size[0] = imgInfo.cols;
+            size[1] = imgInfo.rows;
+        }
+        switch( channels ) {
+            case 1: return PixelFormat.LUMINANCE;
+            case 2: if( imgInfo.greyscale && imgInfo.alpha ) { return PixelFormat.BGRA8888; } // save alpha value on gray-alpha
+                    break;
+            case 3: return PixelFormat.RGB888;
+            case 4: return PixelFormat.RGBA8888;
+        }
+        throw new RuntimeException("PNGPixelRect can only handle Lum/RGB/RGBA [1/3/4 channels] or Lum+A (GA) images for now. Channels "+channels + " Paletted: " + indexed);
+    }
+
     /**
      * Reads a PNG image from the specified InputStream.
      * <p>
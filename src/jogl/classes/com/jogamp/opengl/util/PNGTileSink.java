@@ -0,0 +1,299 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.nativewindow.util.PixelFormatUtil;
+import com.jogamp.opengl.GLException;
+
+import jogamp.opengl.util.pngj.ImageInfo;
+import jogamp.opengl.util.pngj.ImageLine;
+import jogamp.opengl.util.pngj.PngWriter;
+import jogamp.opengl.util.pngj.PngjException;
+import jogamp.opengl.util.pngj.chunks.PngChunkTextVar;
+
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * {@link TileSink} streaming the image into a PNG {@link OutputStream} row by row,
+ * allowing to export images larger than the available memory.
+ * <p>
+ * Tiles are collected in row bands, i.e. all tiles of equal y-pos and height.
+ * Since PNG rows are written top to bottom, a band is encoded and released
+ * as soon as it and all bands above are complete.
+ * Hence memory usage is bounded by a few bands, if tiles are rendered from the top to the bottom,
+ * e.g. via {@link TileRenderer#setRowOrder(int) TileRenderer.setRowOrder}({@link TileRenderer#TR_TOP_TO_BOTTOM TR_TOP_TO_BOTTOM})
+ * or via {@link ParallelTileRenderer}.
+ * Rendering from the bottom to the top buffers the whole image.
+ * </p>
+ * <p>
+ * Supported are 8 bit luminance, RGB and RGBA {@link PixelFormat}s, written as grayscale, RGB or RGBA PNG.
+ * </p>
+ * <p>
+ * Tiles may be delivered concurrently. While one thread encodes completed bands,
+ * other threads continue to deliver tiles.
+ * </p>
+ */
+public class PNGTileSink implements TileSink {
+    /** A row band of the image in OpenGL orientation. */
+    private static class Band {
+        final int y, height;
+        final byte[] data;
+        long pixelsLeft;
+        Band(final int y, final int height, final int rowBytes, final int imageWidth) {
+            this.y = y;
+            this.height = height;
+            this.data = new byte[height * rowBytes];
+            this.pixelsLeft = (long)imageWidth * height;
+        }
+    }
+
+    private final OutputStream outstream;
+    private final boolean closeOutstream;
+    private final double dpiX, dpiY;
+
+    private final ArrayList<Band> bands = new ArrayList<Band>();
+    private PixelFormat pixelformat;
+    private int imageWidth, imageHeight, bytesPerPixel, rowBytes;
+    private PngWriter png;
+    private ImageLine line;
+    /** y-pos of the top edge of the unwritten image part, in OpenGL orientation. */
+    private int unwrittenTop;
+    private int pngRow;
+    private boolean writing;
+    private int peakBands;
+
+    /**
+     * @param outstream the PNG output stream
+     * @param closeOutstream if <code>true</code>, <code>outstream</code> is closed by {@link #endImage(boolean)}
+     * @param dpiX horizontal resolution stored in the PNG
+     * @param dpiY vertical resolution stored in the PNG
+     */
+    public PNGTileSink(final OutputStream outstream, final boolean closeOutstream, final double dpiX, final double dpiY) {
+        this.outstream = outstream;
+        this.closeOutstream = closeOutstream;
+        this.dpiX = dpiX;
+        this.dpiY = dpiY;
+    }
+
+    /**
+     * Creates a PNG sink w/ 72 dpi.
+     * @param outstream the PNG output stream
+     * @param closeOutstream if <code>true</code>, <code>outstream</code> is closed by {@link #endImage(boolean)}
+     */
+    public PNGTileSink(final OutputStream outstream, final boolean closeOutstream) {
+        this(outstream, closeOutstream, 72.0, 72.0);
+    }
+
+    /** Returns the maximum number of concurrently buffered bands of the current or last image. */
+    public final synchronized int getPeakBandCount() { return peakBands; }
+
+    @Override
+    public synchronized void beginImage(final int imageWidth, final int imageHeight, final GLPixelAttributes pixelAttributes) throws GLException {
+        if( null != png ) {
+            throw new GLException("Image already begun");
+        }
+        final PixelFormat pfmt = pixelAttributes.pfmt;
+        final int bpp = pfmt.comp.bytesPerPixel();
+        if( 8 != pfmt.comp.bitsPerPixel() / pfmt.comp.componentCount() || ( 1 != bpp && 3 != bpp && 4 != bpp ) ) {
+            throw new GLException("Unsupported pixel format "+pfmt);
+        }
+        this.pixelformat = pfmt;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.bytesPerPixel = bpp;
+        this.rowBytes = imageWidth * bpp;
+        final ImageInfo imi = new ImageInfo(imageWidth, imageHeight, 8 /* bitdepth */,
+                                            4 == bpp /* alpha */, 1 == bpp /* grayscale */, false /* indexed */);
+        try {
+            png = new PngWriter(outstream, imi);
+            png.getMetadata().setDpi(dpiX, dpiY);
+            png.getMetadata().setTimeNow(0); // 0 seconds from now = now
+            png.getMetadata().setText(PngChunkTextVar.KEY_Title, "JogAmp PNGTileSink");
+        } catch (final PngjException e) {
+            throw new GLException("PNGTileSink: Could not begin image", e);
+        }
+        line = new ImageLine(imi);
+        bands.clear();
+        unwrittenTop = imageHeight;
+        pngRow = 0;
+        writing = false;
+        peakBands = 0;
+    }
+
+    @Override
+    public void tileRendered(final GLPixelBuffer tile, final int tileX, final int tileY, final int tileWidth, final int tileHeight) throws GLException {
+        if( !( tile.buffer instanceof ByteBuffer ) ) {
+            throw new GLException("Unsupported buffer type: "+tile.buffer.getClass().getName());
+        }
+        final ByteBuffer src = (ByteBuffer) tile.buffer;
+        final int srcPos = src.position();
+        final int tileRowBytes = tileWidth * bytesPerPixel;
+        synchronized( this ) {
+            if( null == png ) {
+                throw new GLException("Image not begun");
+            }
+            if( 0 > tileX || 0 > tileY || tileX + tileWidth > imageWidth || tileY + tileHeight > imageHeight ) {
+                throw new GLException("Tile "+tileX+"/"+tileY+" "+tileWidth+"x"+tileHeight+" exceeds image "+imageWidth+"x"+imageHeight);
+            }
+            final Band band = getBand(tileY, tileHeight);
+            for(int r=0; r<tileHeight; r++) {
+                src.position(srcPos + r * tileRowBytes);
+                src.get(band.data, r * rowBytes + tileX * bytesPerPixel, tileRowBytes);
+            }
+            src.position(srcPos);
+            band.pixelsLeft -= (long)tileWidth * tileHeight;
+            if( writing ) {
+                return; // the writing thread continues w/ this band
+            }
+            writing = true;
+        }
+        boolean ok = false;
+        try {
+            Band band;
+            while( null != ( band = pollWritableBand() ) ) {
+                writeBand(band);
+            }
+            ok = true;
+        } finally {
+            if( !ok ) {
+                synchronized( this ) {
+                    writing = false;
+                }
+            }
+        }
+    }
+
+    private Band getBand(final int y, final int height) throws GLException {
+        for(int i=bands.size()-1; i>=0; i--) {
+            final Band b = bands.get(i);
+            if( b.y == y ) {
+                if( b.height != height ) {
+                    throw new GLException("Tile height "+height+" != band height "+b.height+" at y "+y);
+                }
+                return b;
+            }
+        }
+        final Band b = new Band(y, height, rowBytes, imageWidth);
+        bands.add(b);
+        peakBands = Math.max(peakBands, bands.size());
+        return b;
+    }
+
+    /** Returns and removes the next band to write, or resets the writing flag and returns <code>null</code>. */
+    private synchronized Band pollWritableBand() {
+        for(int i=bands.size()-1; i>=0; i--) {
+            final Band b = bands.get(i);
+            if( b.y + b.height == unwrittenTop ) {
+                if( 0 < b.pixelsLeft ) {
+                    break;
+                }
+                bands.remove(i);
+                unwrittenTop = b.y;
+                return b;
+            }
+        }
+        writing = false;
+        return null;
+    }
+
+    /** Encodes the given band's rows from the top to the bottom, only called by the single writing thread. */
+    private void writeBand(final Band band) throws GLException {
+        final boolean hasAlpha = 4 == bytesPerPixel;
+        final int[] scanline = line.scanline;
+        final ByteBuffer data = ByteBuffer.wrap(band.data);
+        try {
+            for(int r=band.height-1; r>=0; r--) {
+                int dataOff = r * rowBytes;
+                if( 1 == bytesPerPixel ) {
+                    for (int j = 0; j < imageWidth; j++) {
+                        scanline[j] = band.data[dataOff++] & 0xff; // Luminance, 1 bytesPerPixel
+                    }
+                } else {
+                    int lineOff = 0;
+                    for (int j = 0; j < imageWidth; j++) {
+                        final int p = PixelFormatUtil.convertToInt32(hasAlpha ? PixelFormat.RGBA8888 : PixelFormat.RGB888, pixelformat, data, dataOff);
+                        scanline[lineOff++] = 0xff &   p;              // R
+                        scanline[lineOff++] = 0xff & ( p >>> 8 );      // G
+                        scanline[lineOff++] = 0xff & ( p >>> 16 );     // B
+                        if( hasAlpha ) {
+                            scanline[lineOff++] = 0xff & ( p >>> 24 ); // A
+                        }
+                        dataOff += bytesPerPixel;
+                    }
+                }
+                png.writeRow(line, pngRow++);
+            }
+        } catch (final PngjException e) {
+            throw new GLException("PNGTileSink: Could not write rows at y "+band.y, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Closes the output stream, if requested at construction.
+     * </p>
+     * @throws GLException if <code>complete</code> but not all rows have been written,
+     *                     or if the PNG could not be finished.
+     */
+    @Override
+    public synchronized void endImage(final boolean complete) throws GLException {
+        if( null == png ) {
+            return;
+        }
+        try {
+            if( complete ) {
+                if( pngRow != imageHeight ) {
+                    throw new GLException("PNGTileSink: Incomplete image, "+pngRow+"/"+imageHeight+" rows written, "+bands.size()+" bands pending");
+                }
+                png.end();
+            }
+        } catch (final PngjException e) {
+            throw new GLException("PNGTileSink: Could not end image", e);
+        } finally {
+            png = null;
+            line = null;
+            bands.clear();
+            if( closeOutstream ) {
+                IOUtil.close(outstream, false);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PNGTileSink["+imageWidth+"x"+imageHeight+", "+pixelformat+", rows "+pngRow+", peak bands "+peakBands+"]";
+    }
+}
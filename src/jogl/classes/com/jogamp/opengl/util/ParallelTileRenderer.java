@@ -0,0 +1,362 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.common.util.InterruptSource;
+import com.jogamp.nativewindow.util.Dimension;
+import com.jogamp.nativewindow.util.DimensionImmutable;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilitiesImmutable;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import jogamp.opengl.Debug;
+
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Renders a huge image, e.g. for a print-resolution export, by distributing it's tiles
+ * to multiple {@link GLOffscreenAutoDrawable}s, each rendering on it's own thread.
+ * <p>
+ * Each worker owns an offscreen {@link GLOffscreenAutoDrawable} of the tile size,
+ * created via {@link GLDrawableFactory#createOffscreenAutoDrawable(com.jogamp.nativewindow.AbstractGraphicsDevice, GLCapabilitiesImmutable, com.jogamp.opengl.GLCapabilitiesChooser, int, int) createOffscreenAutoDrawable(..)},
+ * optionally sharing it's context w/ a {@link #setSharedAutoDrawable(GLAutoDrawable) shared GLAutoDrawable},
+ * and a {@link RandomTileRenderer} attached to it.
+ * The {@link GLEventListener} of each worker is created via the given {@link ListenerFactory}
+ * and shall implement {@link TileRendererBase.TileRendererListener}, see {@link TileRendererBase#attachAutoDrawable(GLAutoDrawable)}.
+ * </p>
+ * <p>
+ * The workers pull the tiles from a shared counter, hence faster workers render more tiles.
+ * Each rendered tile is read back
+ * <ul>
+ *   <li>directly into it's location within the optional {@link #setImageBuffer(GLPixelBuffer) image buffer},
+ *       requiring a {@link com.jogamp.opengl.GL2ES3} context, see {@link TileRendererBase}.</li>
+ *   <li>and/or passed to the optional {@link #setTileSink(TileSink) tile sink},
+ *       see {@link TileRendererBase#setTileSink(TileSink, GLPixelAttributes)}.</li>
+ * </ul>
+ * Tile coordinates are in OpenGL orientation, i.e. the origin is the bottom-left corner.
+ * Tile rows are issued from the top to the bottom, allowing row-wise streaming sinks like {@link PNGTileSink}
+ * to release completed rows early.
+ * </p>
+ * <p>
+ * Usage:
+ * <pre>
+ *   final ParallelTileRenderer ptr = new ParallelTileRenderer(caps, 4, 512, 512, pixelAttribs, factory);
+ *   ptr.setImageSize(20000, 20000);
+ *   ptr.setTileSink(sink);
+ *   ptr.render();
+ *   ptr.dispose();
+ * </pre>
+ * </p>
+ */
+public class ParallelTileRenderer {
+    protected static final boolean DEBUG = Debug.debug("TileRenderer");
+
+    /** Creates the {@link GLEventListener} of each worker. */
+    public static interface ListenerFactory {
+        /**
+         * Creates the {@link GLEventListener} rendering the tiles of the given worker,
+         * which shall implement {@link TileRendererBase.TileRendererListener}.
+         * <p>
+         * Called once per worker on the thread creating the workers, i.e. the first {@link ParallelTileRenderer#render()} call.
+         * The listener is {@link GLEventListener#init(GLAutoDrawable) initialized} and used on the worker's thread.
+         * </p>
+         * @param workerIndex zero based worker index
+         */
+        GLEventListener createListener(int workerIndex);
+    }
+
+    private class Worker implements Runnable {
+        final int index;
+        final GLOffscreenAutoDrawable glad;
+        final RandomTileRenderer renderer = new RandomTileRenderer();
+
+        Worker(final int index, final GLDrawableFactory factory) {
+            this.index = index;
+            glad = factory.createOffscreenAutoDrawable(null, caps, null, tileWidth, tileHeight);
+            if( null != sharedAutoDrawable ) {
+                glad.setSharedAutoDrawable(sharedAutoDrawable);
+            }
+            glad.addGLEventListener(listenerFactory.createListener(index));
+            renderer.attachAutoDrawable(glad);
+        }
+
+        void setup() {
+            renderer.setImageSize(imageSize.getWidth(), imageSize.getHeight());
+            if( null != imageBuffer ) {
+                // private view on the shared image buffer, tiles write to disjoint regions
+                renderer.setImageBuffer(new GLPixelBuffer(imageBuffer.pixelAttributes, true, imageBuffer.width, imageBuffer.height, imageBuffer.depth,
+                                                          Buffers.slice(imageBuffer.buffer, 0, imageBuffer.buffer.capacity()), true));
+            } else {
+                renderer.setImageBuffer(null);
+            }
+            renderer.setTileSink(tileSink, pixelAttributes);
+        }
+
+        @Override
+        public void run() {
+            try {
+                final int imageWidth = imageSize.getWidth();
+                final int imageHeight = imageSize.getHeight();
+                int i;
+                while( null == error && ( i = nextTile.getAndIncrement() ) < tileCount ) {
+                    final int tX = ( i % columns ) * tileWidth;
+                    final int tY = ( rows - 1 - i / columns ) * tileHeight; // top to bottom
+                    final int tW = Math.min(tileWidth, imageWidth - tX);
+                    final int tH = Math.min(tileHeight, imageHeight - tY);
+                    renderer.display(tX, tY, tW, tH); // delivers tile to sink
+                    renderedTiles.incrementAndGet();
+                    if( DEBUG ) {
+                        System.err.println("ParallelTileRenderer.worker["+index+"]: tile #"+i+" "+tX+"/"+tY+" "+tW+"x"+tH);
+                    }
+                }
+            } catch (final Throwable t) {
+                setError(t);
+            }
+        }
+
+        void destroy() {
+            renderer.detachAutoDrawable();
+            renderer.setTileSink(null, null);
+            glad.destroy();
+        }
+    }
+
+    private final GLCapabilitiesImmutable caps;
+    private final int workerCount;
+    private final int tileWidth, tileHeight;
+    private final GLPixelAttributes pixelAttributes;
+    private final ListenerFactory listenerFactory;
+    private final Dimension imageSize = new Dimension(0, 0);
+    private GLAutoDrawable sharedAutoDrawable = null;
+    private GLPixelBuffer imageBuffer = null;
+    private TileSink tileSink = null;
+    private Worker[] workers = null;
+    private int columns, rows, tileCount;
+    private final AtomicInteger nextTile = new AtomicInteger(0);
+    private final AtomicInteger renderedTiles = new AtomicInteger(0);
+    private volatile Throwable error = null;
+
+    /**
+     * @param caps the {@link GLCapabilitiesImmutable} of the offscreen {@link GLOffscreenAutoDrawable}s
+     * @param workerCount number of workers, i.e. {@link GLOffscreenAutoDrawable}s and threads
+     * @param tileWidth maximum tile width
+     * @param tileHeight maximum tile height
+     * @param pixelAttributes {@link GLPixelAttributes} used for reading back the tiles,
+     *                        must match an {@link #setImageBuffer(GLPixelBuffer) image buffer}'s.
+     * @param listenerFactory creates each worker's {@link GLEventListener}
+     * @throws IllegalArgumentException if <code>workerCount</code> or the tile size is &le; 0
+     */
+    public ParallelTileRenderer(final GLCapabilitiesImmutable caps, final int workerCount, final int tileWidth, final int tileHeight,
+                                final GLPixelAttributes pixelAttributes, final ListenerFactory listenerFactory) throws IllegalArgumentException {
+        if( 0 >= workerCount ) {
+            throw new IllegalArgumentException("Invalid workerCount "+workerCount);
+        }
+        if( 0 >= tileWidth || 0 >= tileHeight ) {
+            throw new IllegalArgumentException("Tile size must be > 0x0");
+        }
+        if( null == caps || null == pixelAttributes || null == listenerFactory ) {
+            throw new IllegalArgumentException("Null caps, pixelAttributes or listenerFactory");
+        }
+        this.caps = caps;
+        this.workerCount = workerCount;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.pixelAttributes = pixelAttributes;
+        this.listenerFactory = listenerFactory;
+    }
+
+    /** Returns the number of workers. */
+    public final int getWorkerCount() { return workerCount; }
+
+    /**
+     * Sets the {@link GLAutoDrawable} all workers share their {@link com.jogamp.opengl.GLContext} with,
+     * allowing to use it's textures and buffer objects, see {@link com.jogamp.opengl.GLSharedContextSetter#setSharedAutoDrawable(GLAutoDrawable)}.
+     * <p>
+     * Must be set before the first {@link #render()} call.
+     * </p>
+     * @throws IllegalStateException if the workers have already been created
+     */
+    public final void setSharedAutoDrawable(final GLAutoDrawable sharedAutoDrawable) throws IllegalStateException {
+        if( null != workers ) {
+            throw new IllegalStateException("Workers already created");
+        }
+        this.sharedAutoDrawable = sharedAutoDrawable;
+    }
+
+    /** Sets the final image size. */
+    public final void setImageSize(final int width, final int height) {
+        imageSize.set(width, height);
+    }
+
+    /** @see #setImageSize(int, int) */
+    public final DimensionImmutable getImageSize() { return imageSize; }
+
+    /**
+     * Sets the optional image buffer receiving all tiles, i.e. of the {@link #setImageSize(int, int) image size}.
+     * @throws IllegalArgumentException if the buffer's {@link GLPixelAttributes} don't match
+     */
+    public final void setImageBuffer(final GLPixelBuffer buffer) throws IllegalArgumentException {
+        if( null != buffer && !pixelAttributes.equals(buffer.pixelAttributes) ) {
+            throw new IllegalArgumentException("Image buffer "+buffer.pixelAttributes+" != "+pixelAttributes);
+        }
+        imageBuffer = buffer;
+    }
+
+    /** @see #setImageBuffer(GLPixelBuffer) */
+    public final GLPixelBuffer getImageBuffer() { return imageBuffer; }
+
+    /** Sets the optional {@link TileSink} receiving each rendered tile. */
+    public final void setTileSink(final TileSink sink) {
+        tileSink = sink;
+    }
+
+    /** @see #setTileSink(TileSink) */
+    public final TileSink getTileSink() { return tileSink; }
+
+    /** Returns the number of tiles of the current image. */
+    public final int getTileCount() {
+        final int c = ( imageSize.getWidth() + tileWidth - 1 ) / tileWidth;
+        final int r = ( imageSize.getHeight() + tileHeight - 1 ) / tileHeight;
+        return c * r;
+    }
+
+    /** Returns the number of tiles rendered of the current or last {@link #render()} call, allowing to track progress. */
+    public final int getRenderedTileCount() { return renderedTiles.get(); }
+
+    private void setError(final Throwable t) {
+        synchronized( renderedTiles ) {
+            if( null == error ) {
+                error = t;
+            }
+        }
+    }
+
+    /**
+     * Renders all tiles of the {@link #setImageSize(int, int) image} and blocks until completion.
+     * <p>
+     * The workers are created on the first call.
+     * If a worker fails, all workers stop and the first error is thrown.
+     * </p>
+     * @throws IllegalStateException if the image size is not set or neither an image buffer nor a tile sink is set
+     * @throws GLException if a worker or the {@link TileSink} failed
+     * @throws InterruptedException if interrupted while waiting for the workers, which are stopped before
+     */
+    public void render() throws IllegalStateException, GLException, InterruptedException {
+        if( 0 >= imageSize.getWidth() || 0 >= imageSize.getHeight() ) {
+            throw new IllegalStateException("Image size has not been set");
+        }
+        if( null == imageBuffer && null == tileSink ) {
+            throw new IllegalStateException("Neither image buffer nor tile sink set");
+        }
+        if( null == workers ) {
+            final GLDrawableFactory factory = GLDrawableFactory.getFactory(null != caps.getGLProfile() ? caps.getGLProfile() : GLProfile.getDefault());
+            final Worker[] ws = new Worker[workerCount];
+            try {
+                for(int i=0; i<workerCount; i++) {
+                    ws[i] = new Worker(i, factory);
+                }
+            } catch (final RuntimeException re) {
+                for(int i=0; i<workerCount && null != ws[i]; i++) {
+                    ws[i].destroy();
+                }
+                throw re;
+            }
+            workers = ws;
+        }
+        columns = ( imageSize.getWidth() + tileWidth - 1 ) / tileWidth;
+        rows = ( imageSize.getHeight() + tileHeight - 1 ) / tileHeight;
+        tileCount = getTileCount();
+        nextTile.set(0);
+        renderedTiles.set(0);
+        error = null;
+        for(int i=0; i<workerCount; i++) {
+            workers[i].setup();
+        }
+        if( null != tileSink ) {
+            tileSink.beginImage(imageSize.getWidth(), imageSize.getHeight(), pixelAttributes);
+        }
+        final Thread[] threads = new Thread[workerCount];
+        InterruptedException interrupted = null;
+        try {
+            for(int i=0; i<workerCount; i++) {
+                threads[i] = new InterruptSource.Thread(null, workers[i], "ParallelTileRenderer-worker-"+i);
+                threads[i].start();
+            }
+        } finally {
+            for(int i=0; i<workerCount && null != threads[i]; i++) {
+                while( threads[i].isAlive() ) {
+                    try {
+                        threads[i].join();
+                    } catch (final InterruptedException ie) {
+                        // stop all workers, but wait for them to release their contexts
+                        setError(ie);
+                        interrupted = ie;
+                    }
+                }
+            }
+        }
+        final Throwable t = error;
+        if( null != tileSink ) {
+            tileSink.endImage(null == t);
+        }
+        if( null != interrupted ) {
+            throw interrupted;
+        }
+        if( null != t ) {
+            if( t instanceof GLException ) {
+                throw (GLException) t;
+            }
+            throw new GLException("ParallelTileRenderer: rendering failed after "+renderedTiles.get()+"/"+tileCount+" tiles", t);
+        }
+    }
+
+    /**
+     * Destroys all workers, i.e. their {@link GLOffscreenAutoDrawable}s incl. their {@link GLEventListener}s.
+     */
+    public void dispose() {
+        if( null != workers ) {
+            for(int i=0; i<workers.length; i++) {
+                workers[i].destroy();
+            }
+            workers = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelTileRenderer[workers "+workerCount+", tile "+tileWidth+"x"+tileHeight+", image "+imageSize+
+               ", tiles "+renderedTiles.get()+"/"+getTileCount()+", "+pixelAttributes+"]";
+    }
+}
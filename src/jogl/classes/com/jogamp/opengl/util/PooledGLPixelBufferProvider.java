@@ -0,0 +1,169 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import java.nio.ByteBuffer;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+
+import com.jogamp.opengl.util.GLPixelBuffer.DefaultGLPixelBufferProvider;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Thread safe {@link GLPixelBuffer.GLPixelBufferProvider} recycling its direct NIO {@link ByteBuffer}s
+ * via a {@link DirectBufferPool}.
+ * <p>
+ * Requested byte sizes are rounded up to a size class, i.e. one of four steps
+ * between two powers of two, wasting at most 25% of memory.
+ * A {@link GLPixelBuffer#dispose() disposed} {@link GLPixelBuffer} returns it's storage
+ * to the pool of it's size class, to be reused by a subsequent {@link #allocate(GL, PixelFormat.Composition, GLPixelAttributes, boolean, int, int, int, int) allocation}
+ * of the same size class, regardless of the {@link GLPixelAttributes}.
+ * Hence users shall {@link GLPixelBuffer#dispose() dispose} a {@link GLPixelBuffer} when no more used
+ * and must not access it afterwards.
+ * </p>
+ * <p>
+ * The amount of idle pooled memory is limited by {@link #getMaxPooledBytes()},
+ * exceeding it evicts the least recently released buffers.
+ * Buffers larger than {@link #getMaxBufferBytes()} are not pooled at all.
+ * </p>
+ * <p>
+ * This allows users with varying buffer sizes, e.g. {@link TileRenderer} tiles or screenshots,
+ * to avoid the allocation costs and delayed reclamation of direct memory.
+ * </p>
+ */
+public class PooledGLPixelBufferProvider extends DefaultGLPixelBufferProvider {
+    /** Smallest size class in bytes, {@value}. */
+    public static final int MIN_SIZE_CLASS = 4096;
+
+    /** Usage statistics, see {@link PooledGLPixelBufferProvider#getStats()}. */
+    public static class Stats extends DirectBufferPool.Stats {
+        Stats(final DirectBufferPool.Stats s) {
+            super(s);
+        }
+    }
+
+    /** {@link GLPixelBuffer} returning it's storage to the pool when {@link #dispose() disposed}. */
+    private class PooledGLPixelBuffer extends GLPixelBuffer {
+        private final ByteBuffer storage;
+        private boolean released = false;
+
+        PooledGLPixelBuffer(final GLPixelAttributes pixelAttributes, final boolean pack, final int width, final int height, final int depth,
+                            final ByteBuffer storage, final boolean allowRowStride) {
+            super(pixelAttributes, pack, width, height, depth, storage, allowRowStride);
+            this.storage = storage;
+        }
+
+        @Override
+        public void dispose() {
+            super.dispose();
+            synchronized( PooledGLPixelBufferProvider.this ) {
+                if( released ) {
+                    return;
+                }
+                released = true;
+            }
+            pool.release(storage);
+        }
+    }
+
+    /**
+     * Returns the size class of the given byte size, i.e. the byte size rounded up
+     * to {@link #MIN_SIZE_CLASS} or to one of four steps between two powers of two.
+     */
+    public static int getSizeClass(final int byteSize) {
+        return DirectBufferPool.getSizeClass(byteSize, MIN_SIZE_CLASS);
+    }
+
+    private final DirectBufferPool pool;
+
+    /**
+     * @param allowRowStride If <code>true</code>, allow row-stride, otherwise not.
+     * See {@link #getAllowRowStride()} and {@link GLPixelBuffer#requiresNewBuffer(GL, int, int, int)}.
+     * @param maxPooledBytes maximum number of idle bytes held by the pool
+     * @param maxBufferBytes maximum byte size of a buffer to be pooled, larger buffers are not recycled
+     * @throws IllegalArgumentException if <code>maxPooledBytes</code> or <code>maxBufferBytes</code> is negative
+     */
+    public PooledGLPixelBufferProvider(final boolean allowRowStride, final long maxPooledBytes, final int maxBufferBytes) throws IllegalArgumentException {
+        super(allowRowStride);
+        this.pool = new DirectBufferPool(MIN_SIZE_CLASS, maxPooledBytes, maxBufferBytes);
+    }
+
+    /** Maximum number of idle bytes held by the pool. */
+    public final long getMaxPooledBytes() { return pool.getMaxPooledBytes(); }
+
+    /** Maximum byte size of a buffer to be pooled. */
+    public final int getMaxBufferBytes() { return pool.getMaxBufferBytes(); }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns an NIO {@link ByteBuffer}, recycled from the pool if available.
+     * It's {@link ByteBuffer#remaining()} equals the requested byte size,
+     * while it's {@link ByteBuffer#capacity()} equals the {@link #getSizeClass(int) size class}.
+     * </p>
+     */
+    @Override
+    public GLPixelBuffer allocate(final GL gl, final PixelFormat.Composition hostPixComp, final GLPixelAttributes pixelAttributes,
+                                  final boolean pack, final int width, final int height, final int depth, final int minByteSize) {
+        // unused: hostPixComp
+        final int byteSize;
+        if( minByteSize > 0 ) {
+            byteSize = minByteSize;
+        } else {
+            final int[] tmp = { 0 };
+            byteSize = GLBuffers.sizeof(gl, tmp, pixelAttributes.pfmt.comp.bytesPerPixel(), width, height, depth, pack);
+        }
+        return new PooledGLPixelBuffer(pixelAttributes, pack, width, height, depth, pool.obtain(byteSize), getAllowRowStride());
+    }
+
+    /**
+     * Evicts all pooled buffers idle for at least the given duration.
+     * @param minIdleMillis minimum idle duration in milliseconds, zero evicts all pooled buffers
+     * @return the number of evicted buffers
+     */
+    public int evict(final long minIdleMillis) {
+        return pool.evict(minIdleMillis);
+    }
+
+    /** Returns a snapshot of the usage statistics. */
+    public Stats getStats() {
+        return new Stats(pool.getStats());
+    }
+
+    /** Resets the counters of the usage statistics, not affecting the byte counts. */
+    public void resetStats() {
+        pool.resetStats();
+    }
+
+    @Override
+    public String toString() {
+        return "PooledGLPixelBufferProvider[allowRowStride "+getAllowRowStride()+", maxPooled "+getMaxPooledBytes()+
+               ", maxBuffer "+getMaxBufferBytes()+", "+getStats()+"]";
+    }
+}
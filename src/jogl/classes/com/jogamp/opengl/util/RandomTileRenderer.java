@@ -188,6 +188,8 @@ public class RandomTileRenderer extends TileRendererBase {
             tileBuffer.flip();
         }
 
+        readTileToSink(gl, 0, 0, currentTileXPos, currentTileYPos, currentTileWidth, currentTileHeight);
+
         if( imageBuffer != null ) {
             final GLPixelAttributes pixelAttribs = imageBuffer.pixelAttributes;
             final int srcX = 0;
@@ -397,6 +397,11 @@ public class TileRenderer extends TileRendererBase {
         }
         validateGL(gl);
 
+        if( 0 == currentTile && null != tileSink ) {
+            final DimensionImmutable clippedImageSize = getClippedImageSize();
+            tileSink.beginImage(clippedImageSize.getWidth(), clippedImageSize.getHeight(), tileSinkAttributes);
+        }
+
         /* which tile (by row and column) we're about to render */
         if (rowOrder == TR_BOTTOM_TO_TOP) {
             currentRow = currentTile / columns;
@@ -491,6 +496,10 @@ public class TileRenderer extends TileRendererBase {
             tileBuffer.flip();
         }
 
+        readTileToSink(gl, tileBorder, tileBorder,
+                       currentColumn * tileSizeNB.getWidth(), currentRow * tileSizeNB.getHeight(),
+                       currentTileWidth - 2 * tileBorder, currentTileHeight - 2 * tileBorder);
+
         if( imageBuffer != null ) {
             final GLPixelAttributes pixelAttribs = imageBuffer.pixelAttributes;
             final int srcX = tileBorder;
@@ -531,6 +540,9 @@ public class TileRenderer extends TileRendererBase {
         currentTile++;
         if( currentTile >= rows * columns ) {
             currentTile = -1; /* all done */
+            if( null != tileSink ) {
+                tileSink.endImage(true);
+            }
         }
     }
 }
\ No newline at end of file
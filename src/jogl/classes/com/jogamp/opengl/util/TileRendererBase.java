@@ -47,6 +47,8 @@ import com.jogamp.opengl.GLEventListener;
 import com.jogamp.opengl.GLException;
 import jogamp.opengl.Debug;
 
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
 /**
  * A fairly direct port of Brian Paul's tile rendering library, found
  * at <a href = "http://www.mesa3d.org/brianp/TR.html">
@@ -85,6 +87,13 @@ import jogamp.opengl.Debug;
  * Further more, reading back of MSAA buffers is only supported since {@link GL2ES3}
  * since it requires to set the {@link GL2ES3#glReadBuffer(int) read-buffer}.
  * </p>
+ * <a name="tilesink"><h5>Streaming Tiles</h5></a>
+ * <p>
+ * Instead of assembling the final image in an {@link #setImageBuffer(GLPixelBuffer) image buffer},
+ * which size is limited by available memory, each rendered tile can be passed to a {@link TileSink},
+ * see {@link #setTileSink(TileSink, GLPixelAttributes)}, e.g. {@link PNGTileSink} or {@link MappedFileTileSink}
+ * streaming the image to disk w/ bounded memory.
+ * </p>
  *
  * @author ryanm, sgothel
  */
@@ -226,6 +235,9 @@ public abstract class TileRendererBase {
     protected boolean[] listenersInit;
     protected GLEventListener glEventListenerPre = null;
     protected GLEventListener glEventListenerPost = null;
+    protected TileSink tileSink = null;
+    protected GLPixelAttributes tileSinkAttributes = null;
+    private GLPixelBuffer tileSinkBuffer = null;
 
     private final String hashStr(final Object o) {
         final int h = null != o ? o.hashCode() : 0;
@@ -307,6 +319,68 @@ public abstract class TileRendererBase {
     /** @see #setImageBuffer(GLPixelBuffer) */
     public final GLPixelBuffer getImageBuffer() { return imageBuffer; }
 
+    /**
+     * Sets the {@link TileSink} receiving each rendered tile, w/o border and clipped to the image,
+     * read back w/ the given {@link GLPixelAttributes} into an internal buffer.
+     * <p>
+     * {@link TileRenderer} issues {@link TileSink#beginImage(int, int, GLPixelAttributes)} before it's first tile
+     * and {@link TileSink#endImage(boolean)} after it's last tile.
+     * Users of {@link RandomTileRenderer} shall issue both themselves.
+     * </p>
+     * @param sink the {@link TileSink}, or <code>null</code> to remove it
+     * @param pixelAttributes the {@link GLPixelAttributes} used for reading back the tiles
+     * @throws IllegalArgumentException if <code>sink</code> is not <code>null</code> but <code>pixelAttributes</code> is
+     */
+    public final void setTileSink(final TileSink sink, final GLPixelAttributes pixelAttributes) throws IllegalArgumentException {
+        if( null != sink && null == pixelAttributes ) {
+            throw new IllegalArgumentException("Null pixelAttributes");
+        }
+        tileSink = sink;
+        tileSinkAttributes = null != sink ? pixelAttributes : null;
+        if( null != tileSinkBuffer && ( null == sink || !tileSinkBuffer.pixelAttributes.equals(pixelAttributes) ) ) {
+            tileSinkBuffer.dispose();
+            tileSinkBuffer = null;
+        }
+        if( DEBUG ) {
+            System.err.println("TileRenderer: tile-sink "+tileSink+", "+tileSinkAttributes);
+        }
+    }
+
+    /** @see #setTileSink(TileSink, GLPixelAttributes) */
+    public final TileSink getTileSink() { return tileSink; }
+
+    /**
+     * Reads back the given tile region and passes it to the {@link #setTileSink(TileSink, GLPixelAttributes) tile sink}, if set.
+     * <p>
+     * Shall be called by {@link #endTile(GL)} implementations
+     * w/ {@link GLPixelStorageModes#setPackAlignment(GL, int) pack alignment} 1 and w/o pack row length.
+     * </p>
+     * @param gl the current GL context object
+     * @param srcX x-pos within the drawable
+     * @param srcY y-pos within the drawable
+     * @param imageX x-pos within the image
+     * @param imageY y-pos within the image
+     * @param width tile width w/o border
+     * @param height tile height w/o border
+     */
+    protected final void readTileToSink(final GL gl, final int srcX, final int srcY, final int imageX, final int imageY, final int width, final int height) throws GLException {
+        if( null == tileSink ) {
+            return;
+        }
+        final int readPixelSize = width * height * tileSinkAttributes.pfmt.comp.bytesPerPixel();
+        if( null == tileSinkBuffer || tileSinkBuffer.requiresNewBuffer(gl, width, height, readPixelSize) ) {
+            if( null != tileSinkBuffer ) {
+                tileSinkBuffer.dispose();
+            }
+            tileSinkBuffer = GLPixelBuffer.defaultProviderWithRowStride.allocate(gl, null, tileSinkAttributes, true, width, height, 1, readPixelSize);
+        }
+        tileSinkBuffer.clear();
+        gl.glReadPixels( srcX, srcY, width, height, tileSinkAttributes.format, tileSinkAttributes.type, tileSinkBuffer.buffer);
+        tileSinkBuffer.position( readPixelSize );
+        tileSinkBuffer.flip();
+        tileSink.tileRendered(tileSinkBuffer, imageX, imageY, width, height);
+    }
+
     /* pp */ final void validateGL(final GL gl) throws GLException {
         if( imageBuffer != null && !gl.isGL2ES3()) {
             throw new GLException("Using image-buffer w/ inssufficient GL context: "+gl.getContext().getGLVersion()+", "+gl.getGLProfile());
@@ -0,0 +1,80 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util;
+
+import com.jogamp.opengl.GLException;
+
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Receives rendered tiles of an image, e.g. to stream a huge image to disk
+ * instead of assembling it in one {@link TileRendererBase#setImageBuffer(GLPixelBuffer) image buffer}.
+ * <p>
+ * Tile coordinates and pixel rows are in OpenGL orientation, i.e. the origin is the bottom-left corner
+ * and the first row of a tile is it's bottom row.
+ * </p>
+ * @see ParallelTileRenderer#setTileSink(TileSink)
+ */
+public interface TileSink {
+    /**
+     * Starts a new image.
+     * @param imageWidth final image width in pixels
+     * @param imageHeight final image height in pixels
+     * @param pixelAttributes {@link GLPixelAttributes} of the following tiles
+     * @throws GLException if the sink could not be prepared, e.g. due to an I/O error
+     */
+    void beginImage(int imageWidth, int imageHeight, GLPixelAttributes pixelAttributes) throws GLException;
+
+    /**
+     * Receives one rendered tile.
+     * <p>
+     * The <code>tile</code>'s pixels are tightly packed, i.e. w/o row padding,
+     * starting at the current {@link GLPixelBuffer#position() position}
+     * and are only valid during this call.
+     * </p>
+     * <p>
+     * Implementations must be thread safe, since tiles may be delivered concurrently
+     * and in arbitrary order, e.g. by {@link ParallelTileRenderer}.
+     * </p>
+     * @param tile the rendered tile's pixels
+     * @param tileX the tile's x-pos within the image
+     * @param tileY the tile's y-pos within the image
+     * @param tileWidth the tile's width
+     * @param tileHeight the tile's height
+     * @throws GLException if the tile could not be consumed, e.g. due to an I/O error
+     */
+    void tileRendered(GLPixelBuffer tile, int tileX, int tileY, int tileWidth, int tileHeight) throws GLException;
+
+    /**
+     * Ends the image, called after all tiles have been {@link #tileRendered(GLPixelBuffer, int, int, int, int) delivered}
+     * or after an error.
+     * @param complete <code>true</code> if all tiles have been delivered, otherwise <code>false</code>
+     * @throws GLException if the image could not be completed, e.g. due to an I/O error
+     */
+    void endImage(boolean complete) throws GLException;
+}
@@ -34,6 +34,7 @@ import java.util.Iterator;
 
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
 import com.jogamp.opengl.GLArrayData;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLUniformData;
@@ -189,6 +190,7 @@ public class ShaderState {
 
         // register new one
         shaderProgram = prog;
+        invalidateUniformHandles();
 
         if(null!=shaderProgram) {
             // [re]set all data and use program if switching program,
@@ -967,6 +969,125 @@ public class ShaderState {
         return activeUniformDataMap.get(name);
     }
 
+    /**
+     * Returns a small integer handle for the given uniform data, to be used with {@link #uniform(GL2ES2, int)}.
+     * <p>
+     * The handle indexes a location table for the current shader program,
+     * which is resolved once per program and updated when switching programs,
+     * hence avoiding the name based location lookup for each update.
+     * </p>
+     * <p>
+     * Registering a uniform of an already registered name returns the same handle,
+     * now referencing the given data.
+     * Handles are valid until {@link #releaseAllUniforms(GL2ES2)}.
+     * </p>
+     * <p>
+     * The data will be managed like data passed to {@link #uniform(GL2ES2, GLUniformData)},
+     * i.e. it is retrieved via {@link #getUniform(String)} and updated when switching programs,
+     * but will not be transfered to the GPU before calling {@link #uniform(GL2ES2, int)}.
+     * </p>
+     *
+     * @see GLUniformData#setDirtyTracking(boolean)
+     */
+    public int getUniformHandle(final GLUniformData data) {
+        final String name = data.getName();
+        final Integer handle = uniformHandleMap.get(name);
+        final int idx;
+        if( null != handle ) {
+            idx = handle.intValue();
+            uniformHandleData.set(idx, data);
+        } else {
+            idx = uniformHandleData.size();
+            if( uniformHandleLocations.length == idx ) {
+                final int[] locations = new int[2*idx];
+                final int[] modCounts = new int[2*idx];
+                System.arraycopy(uniformHandleLocations, 0, locations, 0, idx);
+                System.arraycopy(uniformHandleModCounts, 0, modCounts, 0, idx);
+                uniformHandleLocations = locations;
+                uniformHandleModCounts = modCounts;
+            }
+            uniformHandleData.add(data);
+            uniformHandleMap.put(name, Integer.valueOf(idx));
+        }
+        uniformHandleLocations[idx] = LOCATION_UNRESOLVED;
+        uniformHandleModCounts[idx] = -1;
+        activeUniformDataMap.put(name, data);
+        return idx;
+    }
+
+    /**
+     * Set the uniform data of the given handle, if it's location is valid, i.e. &ge; 0.
+     * <p>
+     * The location is taken from the handle's location table entry, resolved once per program.
+     * </p>
+     * <p>
+     * If {@link GLUniformData#setDirtyTracking(boolean) dirty tracking} is enabled,
+     * data is only uploaded if it has been modified since its last upload to the current program.
+     * </p>
+     *
+     * @param handle the handle as returned by {@link #getUniformHandle(GLUniformData)}
+     * @return false, if the location could not be determined, otherwise true
+     * @throws GLException if the program is not in use or the handle is invalid
+     */
+    public boolean uniform(final GL2ES2 gl, final int handle) {
+        if(!shaderProgram.inUse()) throw new GLException("Program is not in use");
+        if( 0 > handle || handle >= uniformHandleData.size() ) {
+            throw new GLException("Invalid uniform handle "+handle+", not within [0.."+uniformHandleData.size()+")");
+        }
+        final GLUniformData data = uniformHandleData.get(handle);
+        int location = uniformHandleLocations[handle];
+        if( LOCATION_UNRESOLVED == location ) {
+            location = getUniformLocation(gl, data);
+            uniformHandleLocations[handle] = location;
+        }
+        if( 0 > location ) {
+            return false;
+        }
+        if( data.isDirty(uniformHandleModCounts[handle]) ) {
+            if( location != data.getLocation() ) {
+                data.setLocation(location);
+            }
+            if(DEBUG) {
+                System.err.println("ShaderState: glUniform: "+data);
+            }
+            gl.glUniform(data);
+            uniformHandleModCounts[handle] = data.getModCount();
+        }
+        return true;
+    }
+
+    /**
+     * Binds the given {@link UniformBlock} to the current program, once per program,
+     * and uploads its modified members via {@link UniformBlock#update(GL2ES3)}.
+     * <p>
+     * The block will be bound to a new program when switching programs.
+     * </p>
+     * <p>
+     * Requires {@link UniformBlock#isSupported(com.jogamp.opengl.GL) uniform buffer object support}.
+     * </p>
+     *
+     * @return false, if the current program does not declare the uniform block, otherwise true
+     * @throws GLException if the program is not in use
+     */
+    public boolean uniformBlock(final GL2ES2 gl, final UniformBlock block) {
+        if(!shaderProgram.inUse()) throw new GLException("Program is not in use");
+        final GL2ES3 gl3 = gl.getGL2ES3();
+        if( !uniformBlocks.contains(block) ) {
+            uniformBlocks.add(block);
+        }
+        if( !boundUniformBlocks.contains(block) ) {
+            if( !block.bindProgram(gl3, shaderProgram.program()) ) {
+                if(verbose) {
+                    System.err.println("ShaderState: uniformBlock failed, not declared: "+block);
+                }
+                return false;
+            }
+            boundUniformBlocks.add(block);
+        }
+        block.update(gl3);
+        return true;
+    }
+
     /**
      * Releases all mapped uniform data
      * and loses all indices
@@ -975,6 +1096,10 @@ public class ShaderState {
         activeUniformDataMap.clear();
         activeUniformLocationMap.clear();
         managedUniforms.clear();
+        uniformHandleMap.clear();
+        uniformHandleData.clear();
+        uniformBlocks.clear();
+        boundUniformBlocks.clear();
     }
 
     /**
@@ -984,8 +1109,8 @@ public class ShaderState {
      * hence both are updated.
      * </p>
      * <p>
-     * Note: Such update could only be prevented,
-     * if tracking a uniform/program dirty flag.
+     * The location table of uniform handles is updated as well,
+     * as are the uniform block bindings.
      * </p>
      *
      * @throws GLException is the program is not in use
@@ -1010,6 +1135,36 @@ public class ShaderState {
                 gl.glUniform(data);
             }
         }
+        invalidateUniformHandles();
+        for(int i=uniformHandleData.size()-1; i>=0; i--) {
+            final GLUniformData data = uniformHandleData.get(i);
+            if( activeUniformDataMap.get(data.getName()) == data ) {
+                // location resolved and data uploaded above
+                final int loc = data.getLocation();
+                uniformHandleLocations[i] = loc;
+                if( 0 <= loc ) {
+                    uniformHandleModCounts[i] = data.getModCount();
+                }
+            }
+        }
+        if( 0 < uniformBlocks.size() ) {
+            final GL2ES3 gl3 = gl.getGL2ES3();
+            for(int i=0; i<uniformBlocks.size(); i++) {
+                final UniformBlock block = uniformBlocks.get(i);
+                if( block.bindProgram(gl3, shaderProgram.program()) ) {
+                    boundUniformBlocks.add(block);
+                }
+            }
+        }
+    }
+
+    /** Marks all uniform handle locations unresolved and their data not uploaded, as well as all uniform blocks unbound. */
+    private final void invalidateUniformHandles() {
+        for(int i=uniformHandleData.size()-1; i>=0; i--) {
+            uniformHandleLocations[i] = LOCATION_UNRESOLVED;
+            uniformHandleModCounts[i] = -1;
+        }
+        boundUniformBlocks.clear();
     }
 
     public StringBuilder toString(StringBuilder sb, final boolean alsoUnlocated) {
@@ -1082,6 +1237,15 @@ public class ShaderState {
     private final HashMap<String, GLUniformData> activeUniformDataMap = new HashMap<String, GLUniformData>();
     private final ArrayList<GLUniformData> managedUniforms = new ArrayList<GLUniformData>();
 
+    /** Location of a uniform handle not yet resolved for the current program. */
+    private static final int LOCATION_UNRESOLVED = -2;
+    private final HashMap<String, Integer> uniformHandleMap = new HashMap<String, Integer>();
+    private final ArrayList<GLUniformData> uniformHandleData = new ArrayList<GLUniformData>();
+    private int[] uniformHandleLocations = new int[8];
+    private int[] uniformHandleModCounts = new int[8];
+    private final ArrayList<UniformBlock> uniformBlocks = new ArrayList<UniformBlock>();
+    private final ArrayList<UniformBlock> boundUniformBlocks = new ArrayList<UniformBlock>();
+
     private final HashMap<String, Object> attachedObjectsByString = new HashMap<String, Object>();
     private boolean resetAllShaderData = false;
 }
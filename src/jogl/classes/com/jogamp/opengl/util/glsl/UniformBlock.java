@@ -0,0 +1,300 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.glsl;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.GLExtensions;
+import com.jogamp.opengl.GLUniformData;
+
+/**
+ * Groups multiple {@link GLUniformData} into one uniform buffer object (UBO)
+ * of a GLSL uniform block in <code>std140</code> layout,
+ * available on GL3 and GLES3 contexts, see {@link #isSupported(GL)}.
+ * <p>
+ * Instead of issuing one <code>glUniform*</code> call per uniform and program,
+ * {@link #update(GL2ES3)} uploads the byte range covering all modified members with one <code>glBufferSubData</code> call
+ * and the buffer is shared by all programs declaring the uniform block.
+ * Members with {@link GLUniformData#setDirtyTracking(boolean) dirty tracking} enabled are only uploaded if modified,
+ * all others on every update.
+ * </p>
+ * <p>
+ * Members must be {@link #add(GLUniformData) added} in the order of their declaration within the uniform block
+ * before the first {@link #update(GL2ES3)}, their type and count must not change afterwards.
+ * Supported are scalar, vector and array types of <code>int</code> and <code>float</code> as well as square <code>float</code> matrices,
+ * i.e. the types supported by {@link com.jogamp.opengl.GL2ES2#glUniform(GLUniformData)}.
+ * </p>
+ * <p>
+ * Use {@link ShaderState#uniformBlock(com.jogamp.opengl.GL2ES2, UniformBlock)} to bind the block to the current program
+ * and update its data.
+ * </p>
+ */
+public class UniformBlock {
+    /** Modification count of a member never uploaded. */
+    private static final int NOT_UPLOADED = -1;
+
+    /**
+     * Returns true if uniform buffer objects are supported by the given context,
+     * i.e. a GL3 or GLES3 context or a GL2 context w/ {@link GLExtensions#ARB_uniform_buffer_object}.
+     */
+    public static boolean isSupported(final GL gl) {
+        return gl.isGL3ES3() || ( gl.isGL2ES3() && gl.isExtensionAvailable(GLExtensions.ARB_uniform_buffer_object) );
+    }
+
+    /**
+     * @param name the name of the uniform block as declared in the shader program
+     * @param binding the uniform buffer binding point, less than <code>GL_MAX_UNIFORM_BUFFER_BINDINGS</code>
+     */
+    public UniformBlock(final String name, final int binding) {
+        if( 0 > binding ) {
+            throw new IllegalArgumentException("Invalid binding "+binding);
+        }
+        this.name = name;
+        this.binding = binding;
+    }
+
+    /** Returns the name of the uniform block as declared in the shader program. */
+    public final String getName() { return name; }
+
+    /** Returns the uniform buffer binding point. */
+    public final int getBinding() { return binding; }
+
+    /** Returns the uniform buffer object name, which is non zero if created via {@link #update(GL2ES3)}. */
+    public final int getBufferName() { return bufferName; }
+
+    /** Returns the <code>std140</code> size of the uniform block in bytes. */
+    public final int getSize() { return size; }
+
+    /** Returns the number of members. */
+    public final int getMemberCount() { return members.size(); }
+
+    /** Returns the member at the given index. */
+    public final GLUniformData getMember(final int idx) { return members.get(idx); }
+
+    /** Returns the <code>std140</code> byte offset of the member at the given index. */
+    public final int getOffset(final int idx) {
+        if( 0 > idx || idx >= members.size() ) {
+            throw new IndexOutOfBoundsException("Member index "+idx+" not within [0.."+members.size()+")");
+        }
+        return offsets[idx];
+    }
+
+    /**
+     * Appends the given uniform to this block, laid out at its <code>std140</code> offset.
+     * @return the member index
+     * @throws GLException if the uniform buffer object has already been created or the data has an unsupported type or no elements
+     */
+    public final int add(final GLUniformData data) throws GLException {
+        if( 0 != bufferName ) {
+            throw new GLException("Uniform block "+name+" already created, cannot add "+data);
+        }
+        if( 0 >= data.count() ) {
+            throw new GLException("Uniform "+data.getName()+" has no data: "+data);
+        }
+        final int memberSize = getLayoutSize(data);
+        // arrays and matrices are aligned to vec4, as are vec3 and vec4
+        final int alignment = ( data.isMatrix() || 1 < data.count() || 3 <= data.components() ) ? 16 : memberSize;
+        final int idx = members.size();
+        if( offsets.length == idx ) {
+            offsets = grow(offsets);
+            sizes = grow(sizes);
+            modCounts = grow(modCounts);
+        }
+        final int offset = align(end, alignment);
+        members.add(data);
+        offsets[idx] = offset;
+        sizes[idx] = memberSize;
+        modCounts[idx] = NOT_UPLOADED;
+        end = offset + memberSize;
+        size = align(end, 16);
+        return idx;
+    }
+
+    /**
+     * Binds this uniform block of the given linked program to {@link #getBinding()}.
+     * <p>
+     * The binding is program state and hence only required once per program.
+     * </p>
+     * @return false if the given program does not declare a uniform block named {@link #getName()}, otherwise true
+     */
+    public final boolean bindProgram(final GL2ES3 gl, final int program) {
+        final int index = gl.glGetUniformBlockIndex(program, name);
+        if( GL2ES3.GL_INVALID_INDEX == index ) {
+            return false;
+        }
+        gl.glUniformBlockBinding(program, index, binding);
+        return true;
+    }
+
+    /**
+     * Uploads all modified members into the uniform buffer object w/ one <code>glBufferSubData</code> call
+     * and binds it to {@link #getBinding()} via <code>glBindBufferBase</code>.
+     * <p>
+     * The uniform buffer object is created at the first call.
+     * </p>
+     * @return true if data has been uploaded, otherwise false
+     * @throws GLException if a member's type or count has changed
+     */
+    public final boolean update(final GL2ES3 gl) throws GLException {
+        if( 0 == bufferName ) {
+            final int[] tmp = new int[1];
+            gl.glGenBuffers(1, tmp, 0);
+            bufferName = tmp[0];
+            staging = Buffers.newDirectByteBuffer(size);
+            gl.glBindBuffer(GL2ES3.GL_UNIFORM_BUFFER, bufferName);
+            gl.glBufferData(GL2ES3.GL_UNIFORM_BUFFER, size, null, GL.GL_DYNAMIC_DRAW);
+            for(int i=members.size()-1; i>=0; i--) {
+                modCounts[i] = NOT_UPLOADED;
+            }
+        }
+        int lo = size, hi = 0;
+        for(int i=0; i<members.size(); i++) {
+            final GLUniformData data = members.get(i);
+            if( data.isDirty(modCounts[i]) ) {
+                if( getLayoutSize(data) != sizes[i] ) {
+                    throw new GLException("Uniform "+data.getName()+" changed its layout in block "+name+": "+data);
+                }
+                write(data, offsets[i]);
+                modCounts[i] = data.getModCount();
+                lo = Math.min(lo, offsets[i]);
+                hi = Math.max(hi, offsets[i] + sizes[i]);
+            }
+        }
+        final boolean upload = lo < hi;
+        if( upload ) {
+            gl.glBindBuffer(GL2ES3.GL_UNIFORM_BUFFER, bufferName);
+            staging.limit(hi).position(lo);
+            gl.glBufferSubData(GL2ES3.GL_UNIFORM_BUFFER, lo, hi-lo, staging);
+            staging.clear();
+        }
+        gl.glBindBufferBase(GL2ES3.GL_UNIFORM_BUFFER, binding, bufferName);
+        return upload;
+    }
+
+    /**
+     * Deletes the uniform buffer object, which will be recreated by the next {@link #update(GL2ES3)}.
+     * Members are kept.
+     */
+    public final void destroy(final GL2ES3 gl) {
+        if( 0 != bufferName ) {
+            gl.glDeleteBuffers(1, new int[] { bufferName }, 0);
+            bufferName = 0;
+            staging = null;
+        }
+    }
+
+    /**
+     * Returns the <code>std140</code> size of the given uniform in bytes,
+     * where matrix columns and array elements use a vec4 stride.
+     */
+    private static int getLayoutSize(final GLUniformData data) {
+        if( data.isMatrix() ) {
+            return data.count() * data.columns() * 16;
+        } else if( 1 < data.count() ) {
+            return data.count() * 16;
+        } else {
+            return data.components() * 4;
+        }
+    }
+
+    /** Writes the given member at offset into the staging buffer in <code>std140</code> layout. */
+    private final void write(final GLUniformData data, final int offset) {
+        if( data.isMatrix() ) {
+            final FloatBuffer fb = (FloatBuffer) data.getBuffer();
+            final int n = data.columns();
+            final int columns = data.count() * n;
+            final int pos = fb.position();
+            for(int c=0; c<columns; c++) {
+                for(int r=0; r<n; r++) {
+                    staging.putFloat(offset + c*16 + r*4, fb.get(pos + c*n + r));
+                }
+            }
+            return;
+        }
+        final int components = data.components();
+        final int count = data.count();
+        final int stride = 1 < count ? 16 : components * 4;
+        final Object obj = data.getObject();
+        if( obj instanceof FloatBuffer ) {
+            final FloatBuffer fb = (FloatBuffer) obj;
+            final int pos = fb.position();
+            for(int e=0; e<count; e++) {
+                for(int i=0; i<components; i++) {
+                    staging.putFloat(offset + e*stride + i*4, fb.get(pos + e*components + i));
+                }
+            }
+        } else if( obj instanceof IntBuffer ) {
+            final IntBuffer ib = (IntBuffer) obj;
+            final int pos = ib.position();
+            for(int e=0; e<count; e++) {
+                for(int i=0; i<components; i++) {
+                    staging.putInt(offset + e*stride + i*4, ib.get(pos + e*components + i));
+                }
+            }
+        } else if( obj instanceof Float ) {
+            staging.putFloat(offset, ((Float)obj).floatValue());
+        } else if( obj instanceof Integer ) {
+            staging.putInt(offset, ((Integer)obj).intValue());
+        } else {
+            throw new GLException("Unsupported uniform data type in block "+name+": "+data);
+        }
+    }
+
+    private static int align(final int v, final int alignment) {
+        return ( v + alignment - 1 ) & ~( alignment - 1 );
+    }
+
+    private static int[] grow(final int[] a) {
+        final int[] b = new int[2*a.length];
+        System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
+
+    @Override
+    public String toString() {
+        return "UniformBlock["+name+", binding "+binding+", buffer "+bufferName+", size "+size+", members "+members.size()+"]";
+    }
+
+    private final String name;
+    private final int binding;
+    private final ArrayList<GLUniformData> members = new ArrayList<GLUniformData>();
+    private int[] offsets = new int[4];
+    private int[] sizes = new int[4];
+    private int[] modCounts = new int[4];
+    private int end = 0;
+    private int size = 0;
+    private int bufferName = 0;
+    private ByteBuffer staging = null;
+}
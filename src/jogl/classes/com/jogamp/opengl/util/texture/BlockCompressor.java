@@ -0,0 +1,864 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.jogamp.opengl.GL;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * CPU block compressor producing compressed {@link TextureData}
+ * from uncompressed {@link GL#GL_UNSIGNED_BYTE} texture data.
+ * <p>
+ * Supported {@link Format}s are {@link Format#BC1 BC1 (DXT1)} and {@link Format#BC3 BC3 (DXT5)},
+ * both writable as DDS via {@link #createDDSImage(TextureData)} or {@link TextureIO#write(TextureData, java.io.File)},
+ * and {@link Format#ETC1 ETC1} for OpenGL ES targets.
+ * </p>
+ * <p>
+ * The {@link Quality} trades encoding speed for image quality.
+ * If an {@link #setExecutor(ExecutorService) executor} is set,
+ * each level is split into bands of block rows encoded concurrently.
+ * </p>
+ * <p>
+ * Source images with a width or height not being a multiple of four
+ * are padded by replicating their edge pixels.
+ * </p>
+ */
+public class BlockCompressor {
+    /** ETC1 internal format of extension <code>GL_OES_compressed_ETC1_RGB8_texture</code>, {@value}. */
+    public static final int GL_ETC1_RGB8_OES = 0x8D64;
+
+    /** Compressed block format. */
+    public static enum Format {
+        /** BC1 / DXT1, opaque RGB, 8 bytes per 4x4 block. */
+        BC1(GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT, GL.GL_RGB, 8, DDSImage.D3DFMT_DXT1),
+        /** BC3 / DXT5, RGB w/ interpolated alpha, 16 bytes per 4x4 block. */
+        BC3(GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, GL.GL_RGBA, 16, DDSImage.D3DFMT_DXT5),
+        /** ETC1, opaque RGB, 8 bytes per 4x4 block. Not supported by DDS. */
+        ETC1(GL_ETC1_RGB8_OES, GL.GL_RGB, 8, DDSImage.D3DFMT_UNKNOWN);
+
+        /** OpenGL internal format */
+        public final int internalFormat;
+        /** OpenGL pixel format of the decompressed data */
+        public final int pixelFormat;
+        /** Size of one 4x4 block in bytes */
+        public final int blockSize;
+        /** DDS format or {@link DDSImage#D3DFMT_UNKNOWN} */
+        public final int d3dFormat;
+
+        Format(final int internalFormat, final int pixelFormat, final int blockSize, final int d3dFormat) {
+            this.internalFormat = internalFormat;
+            this.pixelFormat = pixelFormat;
+            this.blockSize = blockSize;
+            this.d3dFormat = d3dFormat;
+        }
+
+        /** Returns the format matching the given internal format or <code>null</code>. */
+        public static Format valueOf(final int internalFormat) {
+            final Format[] all = values();
+            for(int i=0; i<all.length; i++) {
+                if( all[i].internalFormat == internalFormat ) {
+                    return all[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Encoding quality vs speed. */
+    public static enum Quality {
+        /**
+         * Fast encoding.
+         * BC endpoints span the bounding box of the block colors, ETC1 bases are the sub-block averages.
+         */
+        FAST,
+        /**
+         * High quality encoding, default.
+         * BC endpoints follow the principal axis of the block colors refined by least squares,
+         * ETC1 bases are searched around the sub-block averages.
+         */
+        HIGH
+    }
+
+    /** Minimum number of block rows per concurrent task, {@value}. */
+    public static final int MIN_BLOCK_ROWS_PER_TASK = 4;
+
+    private final Format format;
+    private Quality quality;
+    private ExecutorService executor;
+    private MipmapBuilder mipmapBuilder;
+
+    /**
+     * Creates a compressor for the given {@link Format}
+     * using {@link Quality#HIGH} and no concurrency.
+     */
+    public BlockCompressor(final Format format) {
+        if( null == format ) {
+            throw new IllegalArgumentException("Null format");
+        }
+        this.format = format;
+        quality = Quality.HIGH;
+        executor = null;
+        mipmapBuilder = null;
+    }
+
+    /** Returns the {@link Format}. */
+    public final Format getFormat() { return format; }
+
+    /** Sets the {@link Quality}, defaults to {@link Quality#HIGH}. */
+    public final void setQuality(final Quality quality) {
+        if( null == quality ) {
+            throw new IllegalArgumentException("Null quality");
+        }
+        this.quality = quality;
+    }
+    /** Returns the {@link Quality}. */
+    public final Quality getQuality() { return quality; }
+
+    /**
+     * Sets the {@link ExecutorService} used to encode bands of block rows concurrently,
+     * e.g. a fixed thread pool sized to the number of available processors.
+     * <p>
+     * If <code>null</code>, the default, all work is performed on the calling thread.
+     * </p>
+     */
+    public final void setExecutor(final ExecutorService executor) { this.executor = executor; }
+    /** Returns the {@link ExecutorService} or <code>null</code>. */
+    public final ExecutorService getExecutor() { return executor; }
+
+    /**
+     * Sets the {@link MipmapBuilder} used by {@link #compress(TextureData, boolean)}
+     * to generate missing mipmaps. If <code>null</code>, the default,
+     * a {@link MipmapBuilder} sharing this instance's {@link #getExecutor() executor} is used.
+     */
+    public final void setMipmapBuilder(final MipmapBuilder mipmapBuilder) { this.mipmapBuilder = mipmapBuilder; }
+    /** Returns the {@link MipmapBuilder} or <code>null</code>. */
+    public final MipmapBuilder getMipmapBuilder() { return mipmapBuilder; }
+
+    /**
+     * Returns <code>true</code> if the given pixel format and type is supported as source,
+     * i.e. type is {@link GL#GL_UNSIGNED_BYTE}
+     * and format is one of {@link GL#GL_RGBA}, {@link GL#GL_BGRA}, {@link GL#GL_RGB}, {@link GL#GL_BGR},
+     * {@link GL#GL_LUMINANCE_ALPHA} or {@link GL#GL_LUMINANCE}.
+     */
+    public static boolean isSupported(final int pixelFormat, final int pixelType) {
+        if( GL.GL_UNSIGNED_BYTE != pixelType ) {
+            return false;
+        }
+        switch(pixelFormat) {
+            case GL.GL_RGBA:
+            case GL.GL_BGRA:
+            case GL.GL_RGB:
+            case GL.GL_BGR:
+            case GL.GL_LUMINANCE_ALPHA:
+            case GL.GL_LUMINANCE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** Returns the compressed size in bytes of one level of the given size. */
+    public static int getCompressedSize(final Format format, final int width, final int height) {
+        return ( ( width + 3 ) / 4 ) * ( ( height + 3 ) / 4 ) * format.blockSize;
+    }
+
+    /**
+     * Creates a new compressed {@link TextureData} from the given uncompressed texture data.
+     * <p>
+     * All levels of the source's {@link TextureData#getMipmapData() mipmap data} are compressed.
+     * If the source has no mipmap data and <code>mipmap</code> is <code>true</code>,
+     * the complete mipmap chain is generated via {@link MipmapBuilder} before compression.
+     * </p>
+     * @param data the uncompressed source
+     * @param mipmap whether to generate missing mipmaps
+     * @return the compressed texture data, levels are direct {@link ByteBuffer}s
+     * @throws IllegalArgumentException if the source is compressed, has a border, no buffer or an unsupported pixel format or type
+     */
+    public TextureData compress(TextureData data, final boolean mipmap) throws IllegalArgumentException {
+        if( data.isDataCompressed() ) {
+            throw new IllegalArgumentException("Source already compressed: "+data);
+        }
+        if( 0 != data.getBorder() ) {
+            throw new IllegalArgumentException("Border not supported: "+data);
+        }
+        final int pixelFormat = data.getPixelFormat();
+        if( !isSupported(pixelFormat, data.getPixelType()) ) {
+            throw new IllegalArgumentException("Unsupported pixel format 0x"+Integer.toHexString(pixelFormat)+
+                                               ", type 0x"+Integer.toHexString(data.getPixelType()));
+        }
+        final boolean isMipmapSource;
+        if( null == data.getMipmapData() && mipmap ) {
+            MipmapBuilder mb = mipmapBuilder;
+            if( null == mb ) {
+                mb = new MipmapBuilder();
+                mb.setExecutor(executor);
+            }
+            data = mb.build(data);
+            isMipmapSource = true;
+        } else {
+            isMipmapSource = null != data.getMipmapData();
+        }
+        final int width = data.getWidth();
+        final int height = data.getHeight();
+        final TextureData res;
+        if( isMipmapSource ) {
+            final Buffer[] src = data.getMipmapData();
+            final int bpp = MipmapBuilder.getComponentCount(pixelFormat);
+            final int align = Math.max(1, data.getAlignment());
+            final Buffer[] levels = new Buffer[src.length];
+            int w = width, h = height;
+            for(int i=0; i<src.length; i++) {
+                final int rowStride = 0 == i ? MipmapBuilder.getRowStride(data) : ( ( w * bpp + align - 1 ) / align ) * align;
+                levels[i] = compress(w, h, pixelFormat, src[i], rowStride);
+                w = Math.max(w / 2, 1);
+                h = Math.max(h / 2, 1);
+            }
+            res = new TextureData(data.getGLProfile(), format.internalFormat, width, height, 0,
+                                  format.pixelFormat, GL.GL_UNSIGNED_BYTE, true, data.getMustFlipVertically(), levels, null);
+        } else {
+            final ByteBuffer level = compress(width, height, pixelFormat, data.getBuffer(), MipmapBuilder.getRowStride(data));
+            res = new TextureData(data.getGLProfile(), format.internalFormat, width, height, 0,
+                                  format.pixelFormat, GL.GL_UNSIGNED_BYTE, false, true, data.getMustFlipVertically(), level, null);
+        }
+        res.setColorSpace(data.getColorSpace());
+        return res;
+    }
+
+    /**
+     * Compresses one uncompressed level.
+     * @param width source width
+     * @param height source height
+     * @param pixelFormat source pixel format, see {@link #isSupported(int, int)}
+     * @param src source {@link ByteBuffer} starting at it's current position
+     * @param srcRowStride source row stride in bytes, <code>0</code> for tightly packed rows
+     * @return the compressed level as a direct {@link ByteBuffer} of {@link #getCompressedSize(Format, int, int)} bytes
+     * @throws IllegalArgumentException if the pixel format is not supported, or if the source is too small
+     */
+    public ByteBuffer compress(final int width, final int height, final int pixelFormat,
+                               final Buffer src, final int srcRowStride) throws IllegalArgumentException {
+        if( !isSupported(pixelFormat, GL.GL_UNSIGNED_BYTE) ) {
+            throw new IllegalArgumentException("Unsupported pixel format 0x"+Integer.toHexString(pixelFormat));
+        }
+        if( !( src instanceof ByteBuffer ) ) {
+            throw new IllegalArgumentException("Source requires ByteBuffer: "+src);
+        }
+        if( 0 >= width || 0 >= height ) {
+            throw new IllegalArgumentException("Invalid size "+width+"x"+height);
+        }
+        final int bpp = MipmapBuilder.getComponentCount(pixelFormat);
+        final int rowStride = 0 < srcRowStride ? srcRowStride : width * bpp;
+        if( Buffers.remainingBytes(src) < rowStride * ( height - 1 ) + width * bpp ) {
+            throw new IllegalArgumentException("Source buffer too small: "+src+", row stride "+rowStride+", size "+width+"x"+height);
+        }
+        final ByteBuffer in = (ByteBuffer) src;
+        final int base = in.position();
+        final int blocksX = ( width + 3 ) / 4;
+        final int blocksY = ( height + 3 ) / 4;
+        final ByteBuffer out = Buffers.newDirectByteBuffer(getCompressedSize(format, width, height));
+        final Format fmt = format;
+        final boolean high = Quality.HIGH == quality;
+        forEachBlockRow(blocksY, new BlockRowTask() {
+            @Override
+            public void run(final int by0, final int by1) {
+                final int[] rgba = new int[16*4];
+                final byte[] block = new byte[fmt.blockSize];
+                final BlockEncoder enc = new BlockEncoder(high);
+                for(int by=by0; by<by1; by++) {
+                    for(int bx=0; bx<blocksX; bx++) {
+                        fetchBlock(in, base, rowStride, pixelFormat, width, height, bx*4, by*4, rgba);
+                        switch( fmt ) {
+                            case BC1:
+                                enc.encodeBC1(rgba, block, 0);
+                                break;
+                            case BC3:
+                                enc.encodeBC3Alpha(rgba, block, 0);
+                                enc.encodeBC1(rgba, block, 8);
+                                break;
+                            case ETC1:
+                                enc.encodeETC1(rgba, block);
+                                break;
+                        }
+                        final int o = ( by * blocksX + bx ) * fmt.blockSize;
+                        for(int i=0; i<block.length; i++) {
+                            out.put(o+i, block[i]);
+                        }
+                    }
+                }
+            } } );
+        return out;
+    }
+
+    /**
+     * Creates a {@link DDSImage} from the given compressed texture data,
+     * e.g. as produced by {@link #compress(TextureData, boolean)}, via {@link DDSImage#createFromData(int, int, int, ByteBuffer[])}.
+     * @throws IllegalArgumentException if the data's internal format is not a DDS compatible {@link Format}
+     */
+    public static DDSImage createDDSImage(final TextureData data) throws IllegalArgumentException {
+        final Format fmt = data.isDataCompressed() ? Format.valueOf(data.getInternalFormat()) : null;
+        if( null == fmt || DDSImage.D3DFMT_UNKNOWN == fmt.d3dFormat ) {
+            throw new IllegalArgumentException("Not a DDS compatible compressed format: "+data);
+        }
+        final ByteBuffer[] levels;
+        final Buffer[] mipmapData = data.getMipmapData();
+        if( null != mipmapData ) {
+            levels = new ByteBuffer[mipmapData.length];
+            for(int i=0; i<levels.length; i++) {
+                levels[i] = ((ByteBuffer) mipmapData[i]).duplicate();
+            }
+        } else {
+            levels = new ByteBuffer[] { ((ByteBuffer) data.getBuffer()).duplicate() };
+        }
+        return DDSImage.createFromData(fmt.d3dFormat, data.getWidth(), data.getHeight(), levels);
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    /** Work on a band of block rows [by0, by1). */
+    private static interface BlockRowTask {
+        void run(int by0, int by1);
+    }
+
+    private void forEachBlockRow(final int rows, final BlockRowTask task) {
+        final ExecutorService exec = executor;
+        final int bands = null != exec ? Math.min(Runtime.getRuntime().availableProcessors(), rows / MIN_BLOCK_ROWS_PER_TASK) : 1;
+        if( 1 >= bands ) {
+            task.run(0, rows);
+            return;
+        }
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(bands);
+        for(int b=0; b<bands; b++) {
+            final int y0 = (int) ( (long) rows * b / bands );
+            final int y1 = (int) ( (long) rows * ( b + 1 ) / bands );
+            tasks.add(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    task.run(y0, y1);
+                    return null;
+                } } );
+        }
+        try {
+            final List<Future<Object>> results = exec.invokeAll(tasks);
+            for(int b=0; b<results.size(); b++) {
+                results.get(b).get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while compressing", e);
+        } catch (final ExecutionException e) {
+            final Throwable t = e.getCause();
+            if( t instanceof RuntimeException ) {
+                throw (RuntimeException) t;
+            }
+            throw new RuntimeException(t);
+        }
+    }
+
+    /** Fetches the 4x4 block at pixel x0/y0 as RGBA, replicating edge pixels. */
+    private static void fetchBlock(final ByteBuffer in, final int base, final int rowStride, final int pixelFormat,
+                                   final int width, final int height, final int x0, final int y0, final int[] rgba) {
+        for(int j=0; j<4; j++) {
+            final int y = Math.min(y0 + j, height - 1);
+            for(int i=0; i<4; i++) {
+                final int x = Math.min(x0 + i, width - 1);
+                final int d = ( j * 4 + i ) * 4;
+                final int r, g, b, a;
+                switch( pixelFormat ) {
+                    case GL.GL_RGBA: {
+                        final int s = base + y * rowStride + x * 4;
+                        r = in.get(s) & 0xff; g = in.get(s+1) & 0xff; b = in.get(s+2) & 0xff; a = in.get(s+3) & 0xff;
+                    } break;
+                    case GL.GL_BGRA: {
+                        final int s = base + y * rowStride + x * 4;
+                        b = in.get(s) & 0xff; g = in.get(s+1) & 0xff; r = in.get(s+2) & 0xff; a = in.get(s+3) & 0xff;
+                    } break;
+                    case GL.GL_RGB: {
+                        final int s = base + y * rowStride + x * 3;
+                        r = in.get(s) & 0xff; g = in.get(s+1) & 0xff; b = in.get(s+2) & 0xff; a = 0xff;
+                    } break;
+                    case GL.GL_BGR: {
+                        final int s = base + y * rowStride + x * 3;
+                        b = in.get(s) & 0xff; g = in.get(s+1) & 0xff; r = in.get(s+2) & 0xff; a = 0xff;
+                    } break;
+                    case GL.GL_LUMINANCE_ALPHA: {
+                        final int s = base + y * rowStride + x * 2;
+                        r = g = b = in.get(s) & 0xff; a = in.get(s+1) & 0xff;
+                    } break;
+                    default: { // GL.GL_LUMINANCE
+                        final int s = base + y * rowStride + x;
+                        r = g = b = in.get(s) & 0xff; a = 0xff;
+                    } break;
+                }
+                rgba[d] = r; rgba[d+1] = g; rgba[d+2] = b; rgba[d+3] = a;
+            }
+        }
+    }
+
+    /** Per thread block encoder holding scratch state. */
+    private static final class BlockEncoder {
+        /** ETC1 modifier tables, positive values a/b, see OES_compressed_ETC1_RGB8_texture. */
+        private static final int[][] ETC1_MODIFIERS = {
+            { 2, 8 }, { 5, 17 }, { 9, 29 }, { 13, 42 }, { 18, 60 }, { 24, 80 }, { 33, 106 }, { 47, 183 } };
+
+        private final boolean high;
+        private final int[] palette = new int[4*3];
+        private final int[] indices = new int[16];
+        private final int[] bestIndices = new int[16];
+        private final int[] endpoints = new int[2];
+
+        BlockEncoder(final boolean high) {
+            this.high = high;
+        }
+
+        //
+        // BC1 / BC3
+        //
+
+        /** Encodes the color of the block as a 4-color BC1 block of 8 bytes at offset. */
+        void encodeBC1(final int[] rgba, final byte[] out, final int off) {
+            final float[] e0 = new float[3], e1 = new float[3];
+            if( high ) {
+                principalAxisEndpoints(rgba, e0, e1);
+            } else {
+                boundingBoxEndpoints(rgba, e0, e1);
+            }
+            int c0 = toRGB565(e0), c1 = toRGB565(e1);
+            int err = fitIndices(rgba, c0, c1, indices);
+            if( high ) {
+                for(int iter=0; iter<2; iter++) {
+                    if( !leastSquaresEndpoints(rgba, indices, e0, e1) ) {
+                        break;
+                    }
+                    final int n0 = toRGB565(e0), n1 = toRGB565(e1);
+                    final int nerr = fitIndices(rgba, n0, n1, bestIndices);
+                    if( nerr >= err ) {
+                        break;
+                    }
+                    c0 = n0; c1 = n1; err = nerr;
+                    System.arraycopy(bestIndices, 0, indices, 0, 16);
+                }
+            }
+            // 4-color mode requires c0 > c1
+            if( c0 < c1 ) {
+                final int t = c0; c0 = c1; c1 = t;
+                for(int i=0; i<16; i++) {
+                    indices[i] ^= 1; // 0<->1, 2<->3
+                }
+            } else if( c0 == c1 ) {
+                for(int i=0; i<16; i++) {
+                    indices[i] = 0;
+                }
+            }
+            int bits = 0;
+            for(int i=0; i<16; i++) {
+                bits |= indices[i] << ( 2 * i );
+            }
+            out[off+0] = (byte) c0;
+            out[off+1] = (byte) ( c0 >>> 8 );
+            out[off+2] = (byte) c1;
+            out[off+3] = (byte) ( c1 >>> 8 );
+            out[off+4] = (byte) bits;
+            out[off+5] = (byte) ( bits >>> 8 );
+            out[off+6] = (byte) ( bits >>> 16 );
+            out[off+7] = (byte) ( bits >>> 24 );
+        }
+
+        /** Encodes the alpha of the block as an 8-alpha BC3 alpha block of 8 bytes at offset. */
+        void encodeBC3Alpha(final int[] rgba, final byte[] out, final int off) {
+            int a0 = 0, a1 = 255;
+            for(int i=0; i<16; i++) {
+                final int a = rgba[i*4+3];
+                a0 = Math.max(a0, a);
+                a1 = Math.min(a1, a);
+            }
+            long bits = 0;
+            if( a0 > a1 ) {
+                final int[] alphas = new int[8];
+                alphas[0] = a0;
+                alphas[1] = a1;
+                for(int i=2; i<8; i++) {
+                    alphas[i] = ( ( 8 - i ) * a0 + ( i - 1 ) * a1 ) / 7;
+                }
+                for(int i=0; i<16; i++) {
+                    final int a = rgba[i*4+3];
+                    int best = 0, bestErr = Integer.MAX_VALUE;
+                    for(int k=0; k<8; k++) {
+                        final int e = Math.abs(alphas[k] - a);
+                        if( e < bestErr ) {
+                            bestErr = e;
+                            best = k;
+                        }
+                    }
+                    bits |= (long) best << ( 3 * i );
+                }
+            }
+            out[off+0] = (byte) a0;
+            out[off+1] = (byte) a1;
+            for(int i=0; i<6; i++) {
+                out[off+2+i] = (byte) ( bits >>> ( 8 * i ) );
+            }
+        }
+
+        /**
+         * Inset bounding box endpoints, picking the box diagonal
+         * by the sign of the green and blue covariance w/ red.
+         */
+        private static void boundingBoxEndpoints(final int[] rgba, final float[] e0, final float[] e1) {
+            final float[] mean = new float[3];
+            for(int c=0; c<3; c++) {
+                int min = 255, max = 0;
+                for(int i=0; i<16; i++) {
+                    final int v = rgba[i*4+c];
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                    mean[c] += v;
+                }
+                mean[c] /= 16f;
+                final float inset = ( max - min ) / 16f;
+                e0[c] = max - inset;
+                e1[c] = min + inset;
+            }
+            for(int c=1; c<3; c++) {
+                float cov = 0;
+                for(int i=0; i<16; i++) {
+                    cov += ( rgba[i*4] - mean[0] ) * ( rgba[i*4+c] - mean[c] );
+                }
+                if( cov < 0 ) {
+                    final float t = e0[c]; e0[c] = e1[c]; e1[c] = t;
+                }
+            }
+        }
+
+        private static void principalAxisEndpoints(final int[] rgba, final float[] e0, final float[] e1) {
+            final float[] mean = new float[3];
+            for(int i=0; i<16; i++) {
+                for(int c=0; c<3; c++) {
+                    mean[c] += rgba[i*4+c];
+                }
+            }
+            for(int c=0; c<3; c++) {
+                mean[c] /= 16f;
+            }
+            // covariance matrix: xx, xy, xz, yy, yz, zz
+            final float[] cov = new float[6];
+            for(int i=0; i<16; i++) {
+                final float r = rgba[i*4] - mean[0], g = rgba[i*4+1] - mean[1], b = rgba[i*4+2] - mean[2];
+                cov[0] += r*r; cov[1] += r*g; cov[2] += r*b;
+                cov[3] += g*g; cov[4] += g*b; cov[5] += b*b;
+            }
+            // power iteration for the principal axis
+            float ax = 1f, ay = 1f, az = 1f;
+            for(int iter=0; iter<8; iter++) {
+                final float nx = cov[0]*ax + cov[1]*ay + cov[2]*az;
+                final float ny = cov[1]*ax + cov[3]*ay + cov[4]*az;
+                final float nz = cov[2]*ax + cov[4]*ay + cov[5]*az;
+                final float len = Math.max(Math.abs(nx), Math.max(Math.abs(ny), Math.abs(nz)));
+                if( len < 1e-6f ) {
+                    break;
+                }
+                ax = nx / len; ay = ny / len; az = nz / len;
+            }
+            final float len2 = ax*ax + ay*ay + az*az;
+            float min = Float.MAX_VALUE, max = -Float.MAX_VALUE;
+            for(int i=0; i<16; i++) {
+                final float t = ( ( rgba[i*4] - mean[0] ) * ax + ( rgba[i*4+1] - mean[1] ) * ay + ( rgba[i*4+2] - mean[2] ) * az ) / len2;
+                min = Math.min(min, t);
+                max = Math.max(max, t);
+            }
+            e0[0] = mean[0] + ax * max; e0[1] = mean[1] + ay * max; e0[2] = mean[2] + az * max;
+            e1[0] = mean[0] + ax * min; e1[1] = mean[1] + ay * min; e1[2] = mean[2] + az * min;
+        }
+
+        /**
+         * Solves the endpoints minimizing the squared error for the given 4-color indices,
+         * returns <code>false</code> if the system is singular.
+         */
+        private static boolean leastSquaresEndpoints(final int[] rgba, final int[] indices, final float[] e0, final float[] e1) {
+            float aa = 0, bb = 0, ab = 0;
+            final float[] ax = new float[3], bx = new float[3];
+            for(int i=0; i<16; i++) {
+                final float w;
+                switch( indices[i] ) {
+                    case 0:  w = 1f; break;
+                    case 1:  w = 0f; break;
+                    case 2:  w = 2f/3f; break;
+                    default: w = 1f/3f; break;
+                }
+                final float v = 1f - w;
+                aa += w*w; bb += v*v; ab += w*v;
+                for(int c=0; c<3; c++) {
+                    ax[c] += w * rgba[i*4+c];
+                    bx[c] += v * rgba[i*4+c];
+                }
+            }
+            final float det = aa*bb - ab*ab;
+            if( Math.abs(det) < 1e-6f ) {
+                return false;
+            }
+            final float inv = 1f / det;
+            for(int c=0; c<3; c++) {
+                e0[c] = ( ax[c]*bb - bx[c]*ab ) * inv;
+                e1[c] = ( bx[c]*aa - ax[c]*ab ) * inv;
+            }
+            return true;
+        }
+
+        private static int toRGB565(final float[] c) {
+            final int r = clamp(Math.round(c[0] * 31f / 255f), 0, 31);
+            final int g = clamp(Math.round(c[1] * 63f / 255f), 0, 63);
+            final int b = clamp(Math.round(c[2] * 31f / 255f), 0, 31);
+            return ( r << 11 ) | ( g << 5 ) | b;
+        }
+
+        private static void fromRGB565(final int c, final int[] rgb, final int off) {
+            final int r = ( c >>> 11 ) & 0x1f, g = ( c >>> 5 ) & 0x3f, b = c & 0x1f;
+            rgb[off+0] = ( r << 3 ) | ( r >>> 2 );
+            rgb[off+1] = ( g << 2 ) | ( g >>> 4 );
+            rgb[off+2] = ( b << 3 ) | ( b >>> 2 );
+        }
+
+        /** Selects the nearest 4-color palette entry per pixel, returns the total squared error. */
+        private int fitIndices(final int[] rgba, final int c0, final int c1, final int[] idx) {
+            fromRGB565(c0, palette, 0);
+            fromRGB565(c1, palette, 3);
+            for(int c=0; c<3; c++) {
+                palette[6+c] = ( 2 * palette[c] + palette[3+c] ) / 3;
+                palette[9+c] = ( palette[c] + 2 * palette[3+c] ) / 3;
+            }
+            int total = 0;
+            for(int i=0; i<16; i++) {
+                int best = 0, bestErr = Integer.MAX_VALUE;
+                for(int k=0; k<4; k++) {
+                    final int dr = palette[k*3] - rgba[i*4], dg = palette[k*3+1] - rgba[i*4+1], db = palette[k*3+2] - rgba[i*4+2];
+                    final int e = dr*dr + dg*dg + db*db;
+                    if( e < bestErr ) {
+                        bestErr = e;
+                        best = k;
+                    }
+                }
+                idx[i] = best;
+                total += bestErr;
+            }
+            return total;
+        }
+
+        //
+        // ETC1
+        //
+
+        /** Encodes the block as an ETC1 block of 8 bytes, big endian. */
+        void encodeETC1(final int[] rgba, final byte[] out) {
+            long best = 0;
+            int bestErr = Integer.MAX_VALUE;
+            final int[] base0 = new int[3], base1 = new int[3];
+            final int[] tbl = new int[2];
+            final int[] idx = new int[16];
+            for(int flip=0; flip<2; flip++) {
+                final int[] avg0 = new int[3], avg1 = new int[3];
+                subBlockAverage(rgba, flip, 0, avg0);
+                subBlockAverage(rgba, flip, 1, avg1);
+                for(int diff=0; diff<2; diff++) {
+                    final int bits = 0 == diff ? 4 : 5;
+                    int err = searchBlock(rgba, flip, avg0, avg1, bits, high ? 1 : 0, base0, base1, tbl, idx);
+                    if( 1 == diff && !isDiffEncodable(base0, base1) ) {
+                        if( !high ) {
+                            continue;
+                        }
+                        // refined bases exceed the delta range, retry w/ the plain averages
+                        err = searchBlock(rgba, flip, avg0, avg1, bits, 0, base0, base1, tbl, idx);
+                        if( !isDiffEncodable(base0, base1) ) {
+                            continue;
+                        }
+                    }
+                    if( err < bestErr ) {
+                        bestErr = err;
+                        best = packETC1(diff, flip, base0, base1, tbl, idx);
+                    }
+                }
+            }
+            for(int i=0; i<8; i++) {
+                out[i] = (byte) ( best >>> ( 56 - 8 * i ) );
+            }
+        }
+
+        private int searchBlock(final int[] rgba, final int flip, final int[] avg0, final int[] avg1, final int bits, final int range,
+                                final int[] base0, final int[] base1, final int[] tbl, final int[] idx) {
+            quantize(avg0, bits, base0);
+            quantize(avg1, bits, base1);
+            return searchSubBlock(rgba, flip, 0, base0, bits, range, tbl, idx) +
+                   searchSubBlock(rgba, flip, 1, base1, bits, range, tbl, idx);
+        }
+
+        private static boolean isDiffEncodable(final int[] base0, final int[] base1) {
+            for(int c=0; c<3; c++) {
+                final int d = base1[c] - base0[c];
+                if( d < -4 || 3 < d ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Returns true if pixel x/y belongs to the given sub-block. */
+        private static boolean inSubBlock(final int x, final int y, final int flip, final int s) {
+            return ( 0 == flip ? ( x < 2 ) : ( y < 2 ) ) == ( 0 == s );
+        }
+
+        private static void subBlockAverage(final int[] rgba, final int flip, final int s, final int[] avg) {
+            for(int y=0; y<4; y++) {
+                for(int x=0; x<4; x++) {
+                    if( inSubBlock(x, y, flip, s) ) {
+                        final int i = ( y * 4 + x ) * 4;
+                        avg[0] += rgba[i]; avg[1] += rgba[i+1]; avg[2] += rgba[i+2];
+                    }
+                }
+            }
+            for(int c=0; c<3; c++) {
+                avg[c] = ( avg[c] + 4 ) / 8;
+            }
+        }
+
+        private static void quantize(final int[] rgb, final int bits, final int[] q) {
+            final int max = ( 1 << bits ) - 1;
+            for(int c=0; c<3; c++) {
+                q[c] = clamp(Math.round(rgb[c] * max / 255f), 0, max);
+            }
+        }
+
+        private static int expand(final int v, final int bits) {
+            return 4 == bits ? ( v << 4 ) | v : ( v << 3 ) | ( v >>> 2 );
+        }
+
+        /**
+         * Finds the best modifier table and pixel indices for the sub-block,
+         * searching quantized base colors within the given range around the given base.
+         * Updates base, tbl[s] and idx of the sub-block's pixels, returns the squared error.
+         */
+        private int searchSubBlock(final int[] rgba, final int flip, final int s, final int[] base,
+                                   final int bits, final int range, final int[] tbl, final int[] idx) {
+            final int max = ( 1 << bits ) - 1;
+            final int[] cand = new int[3];
+            final int[] bestBase = base.clone();
+            int bestErr = Integer.MAX_VALUE;
+            for(int dr=-range; dr<=range; dr++) {
+                for(int dg=-range; dg<=range; dg++) {
+                    for(int db=-range; db<=range; db++) {
+                        cand[0] = base[0] + dr; cand[1] = base[1] + dg; cand[2] = base[2] + db;
+                        if( cand[0] < 0 || cand[0] > max || cand[1] < 0 || cand[1] > max || cand[2] < 0 || cand[2] > max ) {
+                            continue;
+                        }
+                        final int r = expand(cand[0], bits), g = expand(cand[1], bits), b = expand(cand[2], bits);
+                        for(int t=0; t<8; t++) {
+                            final int err = fitSubBlock(rgba, flip, s, r, g, b, t, indices);
+                            if( err < bestErr ) {
+                                bestErr = err;
+                                bestBase[0] = cand[0]; bestBase[1] = cand[1]; bestBase[2] = cand[2];
+                                tbl[s] = t;
+                                for(int y=0; y<4; y++) {
+                                    for(int x=0; x<4; x++) {
+                                        if( inSubBlock(x, y, flip, s) ) {
+                                            idx[x*4+y] = indices[x*4+y];
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            base[0] = bestBase[0]; base[1] = bestBase[1]; base[2] = bestBase[2];
+            return bestErr;
+        }
+
+        /** Fits the pixel indices (column major) of the sub-block for base color r/g/b and table t, returns the squared error. */
+        private static int fitSubBlock(final int[] rgba, final int flip, final int s,
+                                       final int r, final int g, final int b, final int t, final int[] idx) {
+            final int[] mods = ETC1_MODIFIERS[t];
+            int total = 0;
+            for(int y=0; y<4; y++) {
+                for(int x=0; x<4; x++) {
+                    if( !inSubBlock(x, y, flip, s) ) {
+                        continue;
+                    }
+                    final int i = ( y * 4 + x ) * 4;
+                    int best = 0, bestErr = Integer.MAX_VALUE;
+                    for(int k=0; k<4; k++) {
+                        final int m = 0 == ( k & 2 ) ? mods[k & 1] : -mods[k & 1];
+                        final int er = clamp(r + m, 0, 255) - rgba[i];
+                        final int eg = clamp(g + m, 0, 255) - rgba[i+1];
+                        final int eb = clamp(b + m, 0, 255) - rgba[i+2];
+                        final int e = er*er + eg*eg + eb*eb;
+                        if( e < bestErr ) {
+                            bestErr = e;
+                            best = k;
+                        }
+                    }
+                    idx[x*4+y] = best;
+                    total += bestErr;
+                }
+            }
+            return total;
+        }
+
+        private static long packETC1(final int diff, final int flip, final int[] base0, final int[] base1, final int[] tbl, final int[] idx) {
+            long w = 0;
+            if( 0 == diff ) {
+                w |= (long) base0[0] << 60 | (long) base1[0] << 56;
+                w |= (long) base0[1] << 52 | (long) base1[1] << 48;
+                w |= (long) base0[2] << 44 | (long) base1[2] << 40;
+            } else {
+                w |= (long) base0[0] << 59 | (long) ( ( base1[0] - base0[0] ) & 7 ) << 56;
+                w |= (long) base0[1] << 51 | (long) ( ( base1[1] - base0[1] ) & 7 ) << 48;
+                w |= (long) base0[2] << 43 | (long) ( ( base1[2] - base0[2] ) & 7 ) << 40;
+            }
+            w |= (long) tbl[0] << 37 | (long) tbl[1] << 34;
+            w |= (long) diff << 33 | (long) flip << 32;
+            for(int i=0; i<16; i++) {
+                w |= (long) ( ( idx[i] >>> 1 ) & 1 ) << ( 16 + i );
+                w |= (long) ( idx[i] & 1 ) << i;
+            }
+            return w;
+        }
+
+        private static int clamp(final int v, final int min, final int max) {
+            return v < min ? min : ( v > max ? max : v );
+        }
+    }
+}
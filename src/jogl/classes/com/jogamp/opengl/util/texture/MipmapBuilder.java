@@ -0,0 +1,668 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * CPU mipmap chain generator operating on NIO buffers.
+ * <p>
+ * Produces all mipmap levels of an uncompressed image,
+ * usable as {@link TextureData#getMipmapData() mipmap data}.
+ * Used by {@link Texture} if mipmaps are requested and
+ * the GL implementation does not support automatic mipmap generation,
+ * replacing the GLU <code>gluBuild2DMipmaps</code> implementation.
+ * </p>
+ * <p>
+ * Supported pixel types are {@link GL#GL_UNSIGNED_BYTE} and {@link GL#GL_FLOAT}
+ * for pixel formats w/ one to four components, see {@link #isSupported(int, int)}.
+ * </p>
+ * <p>
+ * Each level is computed from the previous level's linear floating point values
+ * using a separable {@link Filter} with clamp-to-edge addressing.
+ * If {@link #setSRGB(boolean) sRGB} is enabled or the internal format is an sRGB format,
+ * color components of {@link GL#GL_UNSIGNED_BYTE} data are decoded to linear space before filtering
+ * and encoded back afterwards. Alpha is always treated linear.
+ * </p>
+ * <p>
+ * If an {@link #setExecutor(ExecutorService) executor} is set,
+ * each filter pass is split into row bands processed concurrently.
+ * </p>
+ * <p>
+ * The resulting {@link TextureData} may be cached to disk for
+ * {@link GL#GL_RGB} and {@link GL#GL_RGBA} {@link GL#GL_UNSIGNED_BYTE} data
+ * via {@link TextureIO#write(TextureData, java.io.File)} using the DDS suffix,
+ * which passes all mipmap levels to {@link com.jogamp.opengl.util.texture.spi.DDSImage#createFromData(int, int, int, ByteBuffer[])}.
+ * </p>
+ */
+public class MipmapBuilder {
+    /** Separable filter used for down-sampling. */
+    public static enum Filter {
+        /** Box filter averaging the covered source area, fastest. Default. */
+        BOX,
+        /** Kaiser windowed sinc filter of width 3 and alpha 4, sharper result at higher cost. */
+        KAISER
+    }
+
+    /** Minimum number of rows per concurrent task, {@value}. */
+    public static final int MIN_ROWS_PER_TASK = 16;
+
+    private Filter filter;
+    private boolean sRGB;
+    private ExecutorService executor;
+
+    /**
+     * Creates a builder using {@link Filter#BOX}, linear color space and no concurrency.
+     */
+    public MipmapBuilder() {
+        filter = Filter.BOX;
+        sRGB = false;
+        executor = null;
+    }
+
+    /** Sets the filter, defaults to {@link Filter#BOX}. */
+    public final void setFilter(final Filter filter) {
+        if( null == filter ) {
+            throw new IllegalArgumentException("Null filter");
+        }
+        this.filter = filter;
+    }
+    /** Returns the filter. */
+    public final Filter getFilter() { return filter; }
+
+    /**
+     * Enables sRGB correct filtering of {@link GL#GL_UNSIGNED_BYTE} color components,
+     * defaults to <code>false</code>.
+     * <p>
+     * sRGB filtering is always enabled for sRGB internal formats, see {@link #isSRGBFormat(int)}.
+     * </p>
+     */
+    public final void setSRGB(final boolean v) { sRGB = v; }
+    /** Returns whether sRGB correct filtering is enabled. */
+    public final boolean isSRGB() { return sRGB; }
+
+    /**
+     * Sets the {@link ExecutorService} used to process row bands concurrently,
+     * e.g. a fixed thread pool sized to the number of available processors.
+     * <p>
+     * If <code>null</code>, the default, all work is performed on the calling thread.
+     * </p>
+     */
+    public final void setExecutor(final ExecutorService executor) { this.executor = executor; }
+    /** Returns the {@link ExecutorService} or <code>null</code>. */
+    public final ExecutorService getExecutor() { return executor; }
+
+    /**
+     * Returns the number of components of the given pixel format,
+     * or <code>0</code> if not supported.
+     */
+    public static int getComponentCount(final int pixelFormat) {
+        switch(pixelFormat) {
+            case GL.GL_RGBA:
+            case GL.GL_BGRA:
+                return 4;
+            case GL.GL_RGB:
+            case GL.GL_BGR:
+                return 3;
+            case GL.GL_LUMINANCE_ALPHA:
+            case GL2ES2.GL_RG:
+                return 2;
+            case GL.GL_LUMINANCE:
+            case GL.GL_ALPHA:
+            case GL2ES2.GL_RED:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /** Returns the component index of alpha for the given pixel format or <code>-1</code> if none. */
+    private static int getAlphaIndex(final int pixelFormat) {
+        switch(pixelFormat) {
+            case GL.GL_RGBA:
+            case GL.GL_BGRA:
+                return 3;
+            case GL.GL_LUMINANCE_ALPHA:
+                return 1;
+            case GL.GL_ALPHA:
+                return 0;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the given pixel format and type is supported,
+     * i.e. type is {@link GL#GL_UNSIGNED_BYTE} or {@link GL#GL_FLOAT}
+     * and format is one of {@link GL#GL_RGBA}, {@link GL#GL_BGRA}, {@link GL#GL_RGB}, {@link GL#GL_BGR},
+     * {@link GL#GL_LUMINANCE_ALPHA}, {@link GL2ES2#GL_RG}, {@link GL#GL_LUMINANCE}, {@link GL#GL_ALPHA} or {@link GL2ES2#GL_RED}.
+     */
+    public static boolean isSupported(final int pixelFormat, final int pixelType) {
+        return ( GL.GL_UNSIGNED_BYTE == pixelType || GL.GL_FLOAT == pixelType ) && 0 < getComponentCount(pixelFormat);
+    }
+
+    /** Returns <code>true</code> if the given internal format stores sRGB encoded color components. */
+    public static boolean isSRGBFormat(final int internalFormat) {
+        switch(internalFormat) {
+            case GL.GL_SRGB:
+            case GL.GL_SRGB_ALPHA:
+            case GL.GL_SRGB8_ALPHA8:
+            case GL2ES3.GL_SRGB8:
+            case GL2.GL_SLUMINANCE:
+            case GL2.GL_SLUMINANCE8:
+            case GL2.GL_SLUMINANCE_ALPHA:
+            case GL2.GL_SLUMINANCE8_ALPHA8:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the number of levels of a complete mipmap chain for the given size,
+     * i.e. <code>1 + floor(log2(max(width, height)))</code>.
+     */
+    public static int getLevelCount(final int width, final int height) {
+        int n = Math.max(width, height);
+        int levels = 1;
+        while( n > 1 ) {
+            n >>= 1;
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Creates a new {@link TextureData} holding the complete mipmap chain
+     * generated from the given uncompressed texture data,
+     * see {@link #build(TextureData, int, int)}.
+     */
+    public TextureData build(final TextureData data) throws IllegalArgumentException {
+        return build(data, data.getWidth(), data.getHeight());
+    }
+
+    /**
+     * Creates a new {@link TextureData} holding the complete mipmap chain
+     * of the given level zero size generated from the given uncompressed texture data.
+     * <p>
+     * If the level zero size differs from the source size, the source is resampled,
+     * e.g. to produce power-of-two sized mipmaps.
+     * </p>
+     * <p>
+     * The source's {@link TextureData#getRowLength() row length} and {@link TextureData#getAlignment() alignment}
+     * are respected, the resulting levels are tightly packed w/ an alignment of 1.
+     * </p>
+     * @param data the source texture data, level zero is taken from {@link TextureData#getBuffer()}
+     * @param width level zero width
+     * @param height level zero height
+     * @throws IllegalArgumentException if the source is compressed, has a border, no buffer or an unsupported pixel format or type
+     */
+    public TextureData build(final TextureData data, final int width, final int height) throws IllegalArgumentException {
+        if( data.isDataCompressed() ) {
+            throw new IllegalArgumentException("Compressed data not supported: "+data);
+        }
+        if( 0 != data.getBorder() ) {
+            throw new IllegalArgumentException("Border not supported: "+data);
+        }
+        final Buffer[] levels = build(data.getWidth(), data.getHeight(), data.getPixelFormat(), data.getPixelType(),
+                                      data.getBuffer(), getRowStride(data), width, height,
+                                      sRGB || isSRGBFormat(data.getInternalFormat()));
+        final TextureData res = new TextureData(data.getGLProfile(), data.getInternalFormat(), width, height, 0,
+                                                data.getPixelAttributes(), false, data.getMustFlipVertically(), levels, null);
+        res.setColorSpace(data.getColorSpace());
+        return res;
+    }
+
+    /**
+     * Returns the source row stride in bytes of the given uncompressed texture data,
+     * considering it's {@link TextureData#getRowLength() row length} and {@link TextureData#getAlignment() alignment}.
+     */
+    public static int getRowStride(final TextureData data) {
+        final int bpp = getComponentCount(data.getPixelFormat()) * ( GL.GL_FLOAT == data.getPixelType() ? Buffers.SIZEOF_FLOAT : 1 );
+        final int rowPixels = 0 < data.getRowLength() ? data.getRowLength() : data.getWidth();
+        final int align = Math.max(1, data.getAlignment());
+        return ( ( rowPixels * bpp + align - 1 ) / align ) * align;
+    }
+
+    /**
+     * Generates the complete mipmap chain of the given level zero size.
+     * <p>
+     * Each returned level is a tightly packed direct {@link ByteBuffer},
+     * {@link GL#GL_FLOAT} data is stored in {@link ByteOrder#nativeOrder() native order}.
+     * </p>
+     * @param srcWidth source width
+     * @param srcHeight source height
+     * @param pixelFormat source and result pixel format
+     * @param pixelType source and result pixel type
+     * @param src source data starting at it's current position, either a {@link ByteBuffer} or a {@link FloatBuffer} for {@link GL#GL_FLOAT} data
+     * @param srcRowStride source row stride in bytes, <code>0</code> for tightly packed rows
+     * @param width level zero width
+     * @param height level zero height
+     * @return array of all levels, level zero first
+     * @throws IllegalArgumentException if pixel format or type is not supported, or if the source is too small
+     */
+    public ByteBuffer[] build(final int srcWidth, final int srcHeight, final int pixelFormat, final int pixelType,
+                              final Buffer src, final int srcRowStride, final int width, final int height) throws IllegalArgumentException {
+        return build(srcWidth, srcHeight, pixelFormat, pixelType, src, srcRowStride, width, height, sRGB);
+    }
+
+    private ByteBuffer[] build(final int srcWidth, final int srcHeight, final int pixelFormat, final int pixelType,
+                               final Buffer src, final int srcRowStride, final int width, final int height,
+                               final boolean useSRGB) throws IllegalArgumentException {
+        if( !isSupported(pixelFormat, pixelType) ) {
+            throw new IllegalArgumentException("Unsupported pixel format 0x"+Integer.toHexString(pixelFormat)+", type 0x"+Integer.toHexString(pixelType));
+        }
+        if( null == src ) {
+            throw new IllegalArgumentException("Null source buffer");
+        }
+        if( 0 >= srcWidth || 0 >= srcHeight || 0 >= width || 0 >= height ) {
+            throw new IllegalArgumentException("Invalid size: source "+srcWidth+"x"+srcHeight+", level zero "+width+"x"+height);
+        }
+        final Format fmt = new Format(pixelFormat, pixelType, useSRGB);
+        final int rowStride = 0 < srcRowStride ? srcRowStride : srcWidth * fmt.bytesPerPixel;
+        if( Buffers.remainingBytes(src) < rowStride * ( srcHeight - 1 ) + srcWidth * fmt.bytesPerPixel ) {
+            throw new IllegalArgumentException("Source buffer too small: "+src+", row stride "+rowStride+", size "+srcWidth+"x"+srcHeight);
+        }
+        final int levelCount = getLevelCount(width, height);
+        final ByteBuffer[] levels = new ByteBuffer[levelCount];
+
+        float[] cur = decode(fmt, src, srcWidth, srcHeight, rowStride);
+        int curWidth = srcWidth, curHeight = srcHeight;
+        int w = width, h = height;
+        for(int i=0; i<levelCount; i++) {
+            if( curWidth != w || curHeight != h ) {
+                cur = resample(fmt.comps, cur, curWidth, curHeight, w, h);
+                curWidth = w;
+                curHeight = h;
+                levels[i] = encode(fmt, cur, w, h);
+            } else {
+                // unscaled level zero, copy source bits to avoid a lossy round trip
+                levels[i] = repack(fmt, src, srcWidth, srcHeight, rowStride);
+            }
+            w = Math.max(w / 2, 1);
+            h = Math.max(h / 2, 1);
+        }
+        return levels;
+    }
+
+    //----------------------------------------------------------------------
+    // Internals only below this point
+    //
+
+    private static final class Format {
+        final int comps;
+        final int alphaIdx;
+        final boolean isFloat;
+        final boolean sRGB;
+        final int bytesPerPixel;
+
+        Format(final int pixelFormat, final int pixelType, final boolean sRGB) {
+            comps = getComponentCount(pixelFormat);
+            alphaIdx = getAlphaIndex(pixelFormat);
+            isFloat = GL.GL_FLOAT == pixelType;
+            this.sRGB = sRGB && !isFloat;
+            bytesPerPixel = comps * ( isFloat ? Buffers.SIZEOF_FLOAT : 1 );
+        }
+        final boolean isLinear(final int c) { return !sRGB || c == alphaIdx; }
+    }
+
+    /** Work on a band of rows [y0, y1). */
+    private static interface RowTask {
+        void run(int y0, int y1);
+    }
+
+    private void forEachRow(final int rows, final RowTask task) {
+        final ExecutorService exec = executor;
+        final int bands = null != exec ? Math.min(Runtime.getRuntime().availableProcessors(), rows / MIN_ROWS_PER_TASK) : 1;
+        if( 1 >= bands ) {
+            task.run(0, rows);
+            return;
+        }
+        final List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(bands);
+        for(int b=0; b<bands; b++) {
+            final int y0 = (int) ( (long) rows * b / bands );
+            final int y1 = (int) ( (long) rows * ( b + 1 ) / bands );
+            tasks.add(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    task.run(y0, y1);
+                    return null;
+                } } );
+        }
+        try {
+            final List<Future<Object>> results = exec.invokeAll(tasks);
+            for(int b=0; b<results.size(); b++) {
+                results.get(b).get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while building mipmaps", e);
+        } catch (final ExecutionException e) {
+            final Throwable t = e.getCause();
+            if( t instanceof RuntimeException ) {
+                throw (RuntimeException) t;
+            }
+            throw new RuntimeException(t);
+        }
+    }
+
+    private float[] decode(final Format fmt, final Buffer src, final int width, final int height, final int rowStride) {
+        final int comps = fmt.comps;
+        final float[] dst = new float[width * height * comps];
+        if( fmt.isFloat ) {
+            final FloatBuffer fb;
+            if( src instanceof ByteBuffer ) {
+                final ByteBuffer bb = (ByteBuffer) src;
+                fb = bb.duplicate().order(bb.order()).asFloatBuffer();
+            } else if( src instanceof FloatBuffer ) {
+                fb = ((FloatBuffer) src).duplicate();
+            } else {
+                throw new IllegalArgumentException("Float data requires ByteBuffer or FloatBuffer: "+src);
+            }
+            final int base = fb.position();
+            final int strideF = rowStride / Buffers.SIZEOF_FLOAT;
+            forEachRow(height, new RowTask() {
+                @Override
+                public void run(final int y0, final int y1) {
+                    final FloatBuffer in = fb.duplicate();
+                    for(int y=y0; y<y1; y++) {
+                        in.position(base + y * strideF);
+                        in.get(dst, y * width * comps, width * comps);
+                    }
+                } } );
+        } else {
+            if( !( src instanceof ByteBuffer ) ) {
+                throw new IllegalArgumentException("Byte data requires ByteBuffer: "+src);
+            }
+            final ByteBuffer bb = (ByteBuffer) src;
+            final int base = bb.position();
+            final float[][] lut = new float[comps][];
+            for(int c=0; c<comps; c++) {
+                lut[c] = fmt.isLinear(c) ? BYTE_TO_LINEAR : SRGB_TO_LINEAR;
+            }
+            forEachRow(height, new RowTask() {
+                @Override
+                public void run(final int y0, final int y1) {
+                    for(int y=y0; y<y1; y++) {
+                        int s = base + y * rowStride;
+                        int d = y * width * comps;
+                        for(int x=0; x<width; x++) {
+                            for(int c=0; c<comps; c++) {
+                                dst[d++] = lut[c][ bb.get(s++) & 0xff ];
+                            }
+                        }
+                    }
+                } } );
+        }
+        return dst;
+    }
+
+    private static ByteBuffer repack(final Format fmt, final Buffer src, final int width, final int height, final int rowStride) {
+        final int rowBytes = width * fmt.bytesPerPixel;
+        final ByteBuffer dst = Buffers.newDirectByteBuffer(rowBytes * height);
+        if( src instanceof FloatBuffer ) {
+            final FloatBuffer in = ((FloatBuffer) src).duplicate();
+            final FloatBuffer out = dst.asFloatBuffer();
+            final int base = in.position();
+            for(int y=0; y<height; y++) {
+                in.position(base + y * ( rowStride / Buffers.SIZEOF_FLOAT ));
+                in.limit(in.position() + width * fmt.comps);
+                out.put(in);
+                in.limit(in.capacity());
+            }
+        } else {
+            final ByteBuffer in = ((ByteBuffer) src).duplicate().order(((ByteBuffer) src).order());
+            final int base = in.position();
+            if( fmt.isFloat && in.order() != dst.order() ) {
+                final FloatBuffer out = dst.asFloatBuffer();
+                for(int y=0; y<height; y++) {
+                    final int s = base + y * rowStride;
+                    for(int x=0; x<width * fmt.comps; x++) {
+                        out.put(in.getFloat(s + x * Buffers.SIZEOF_FLOAT));
+                    }
+                }
+            } else {
+                for(int y=0; y<height; y++) {
+                    in.limit(base + y * rowStride + rowBytes);
+                    in.position(base + y * rowStride);
+                    dst.put(in);
+                }
+            }
+        }
+        dst.rewind();
+        return dst;
+    }
+
+    private ByteBuffer encode(final Format fmt, final float[] src, final int width, final int height) {
+        final int comps = fmt.comps;
+        final ByteBuffer dst = Buffers.newDirectByteBuffer(width * height * fmt.bytesPerPixel);
+        if( fmt.isFloat ) {
+            final FloatBuffer fb = dst.asFloatBuffer();
+            fb.put(src, 0, width * height * comps);
+        } else {
+            final boolean[] linear = new boolean[comps];
+            for(int c=0; c<comps; c++) {
+                linear[c] = fmt.isLinear(c);
+            }
+            forEachRow(height, new RowTask() {
+                @Override
+                public void run(final int y0, final int y1) {
+                    int i = y0 * width * comps;
+                    for(int y=y0; y<y1; y++) {
+                        for(int x=0; x<width; x++) {
+                            for(int c=0; c<comps; c++, i++) {
+                                dst.put(i, linear[c] ? linearToByte(src[i]) : linearToSRGB(src[i]));
+                            }
+                        }
+                    }
+                } } );
+        }
+        dst.rewind();
+        return dst;
+    }
+
+    private float[] resample(final int comps, final float[] src, final int srcWidth, final int srcHeight,
+                             final int dstWidth, final int dstHeight) {
+        final Kernel kx = new Kernel(filter, srcWidth, dstWidth);
+        final Kernel ky = new Kernel(filter, srcHeight, dstHeight);
+
+        // horizontal pass: srcWidth x srcHeight -> dstWidth x srcHeight
+        final float[] tmp;
+        if( srcWidth != dstWidth ) {
+            tmp = new float[dstWidth * srcHeight * comps];
+            forEachRow(srcHeight, new RowTask() {
+                @Override
+                public void run(final int y0, final int y1) {
+                    final int taps = kx.taps;
+                    for(int y=y0; y<y1; y++) {
+                        final int srow = y * srcWidth * comps;
+                        int d = y * dstWidth * comps;
+                        for(int x=0; x<dstWidth; x++) {
+                            final int k0 = x * taps;
+                            for(int c=0; c<comps; c++) {
+                                float sum = 0f;
+                                for(int k=k0; k<k0+taps; k++) {
+                                    sum += kx.weights[k] * src[srow + kx.index[k] * comps + c];
+                                }
+                                tmp[d++] = sum;
+                            }
+                        }
+                    }
+                } } );
+        } else {
+            tmp = src;
+        }
+        if( srcHeight == dstHeight ) {
+            return tmp;
+        }
+
+        // vertical pass: dstWidth x srcHeight -> dstWidth x dstHeight
+        final float[] dst = new float[dstWidth * dstHeight * comps];
+        final int rowLen = dstWidth * comps;
+        forEachRow(dstHeight, new RowTask() {
+            @Override
+            public void run(final int y0, final int y1) {
+                final int taps = ky.taps;
+                for(int y=y0; y<y1; y++) {
+                    final int drow = y * rowLen;
+                    final int k0 = y * taps;
+                    for(int k=k0; k<k0+taps; k++) {
+                        final float w = ky.weights[k];
+                        if( 0f != w ) {
+                            final int srow = ky.index[k] * rowLen;
+                            for(int i=0; i<rowLen; i++) {
+                                dst[drow + i] += w * tmp[srow + i];
+                            }
+                        }
+                    }
+                }
+            } } );
+        return dst;
+    }
+
+    /**
+     * Precomputed normalized weights and clamped source indices
+     * for one axis, <code>taps</code> entries per destination sample.
+     */
+    private static final class Kernel {
+        private static final float KAISER_WIDTH = 3f;
+        private static final float KAISER_ALPHA = 4f;
+
+        final int taps;
+        final int[] index;
+        final float[] weights;
+
+        Kernel(final Filter filter, final int srcLen, final int dstLen) {
+            final float scale = (float) dstLen / (float) srcLen;
+            final float fscale = Math.min(scale, 1f); // widen filter only for minification
+            final float support = ( Filter.BOX == filter ? 0.5f : KAISER_WIDTH ) / fscale;
+            taps = (int) Math.ceil(2f * support) + 1;
+            index = new int[dstLen * taps];
+            weights = new float[dstLen * taps];
+            for(int i=0; i<dstLen; i++) {
+                final float center = ( i + 0.5f ) / scale;
+                final int lo = (int) Math.floor(center - support);
+                float sum = 0f;
+                for(int t=0; t<taps; t++) {
+                    final int j = lo + t;
+                    final float w;
+                    if( Filter.BOX == filter ) {
+                        // area of source pixel [j, j+1] covered by the footprint
+                        w = Math.max(0f, Math.min(j + 1f, center + support) - Math.max(j, center - support));
+                    } else {
+                        w = kaiser( ( j + 0.5f - center ) * fscale );
+                    }
+                    index[i * taps + t] = Math.max(0, Math.min(srcLen - 1, j));
+                    weights[i * taps + t] = w;
+                    sum += w;
+                }
+                if( 0f != sum ) {
+                    for(int t=0; t<taps; t++) {
+                        weights[i * taps + t] /= sum;
+                    }
+                }
+            }
+        }
+
+        private static float kaiser(final float x) {
+            final float ax = Math.abs(x);
+            if( ax >= KAISER_WIDTH ) {
+                return 0f;
+            }
+            final double r = ax / KAISER_WIDTH;
+            final double window = bessel0(KAISER_ALPHA * Math.sqrt(1.0 - r * r)) / bessel0(KAISER_ALPHA);
+            final double sinc = 0f == ax ? 1.0 : Math.sin(Math.PI * ax) / ( Math.PI * ax );
+            return (float) ( sinc * window );
+        }
+
+        /** Zeroth order modified Bessel function of the first kind. */
+        private static double bessel0(final double x) {
+            final double xh = 0.5 * x;
+            double sum = 1.0, term = 1.0;
+            for(int k=1; k<32; k++) {
+                term *= ( xh / k ) * ( xh / k );
+                sum += term;
+                if( term < sum * 1e-12 ) {
+                    break;
+                }
+            }
+            return sum;
+        }
+    }
+
+    private static final float[] BYTE_TO_LINEAR = new float[256];
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+    private static final int SRGB_ENCODE_SIZE = 1 << 14;
+    private static final byte[] LINEAR_TO_SRGB = new byte[SRGB_ENCODE_SIZE + 1];
+    static {
+        for(int i=0; i<256; i++) {
+            final double v = i / 255.0;
+            BYTE_TO_LINEAR[i] = (float) v;
+            SRGB_TO_LINEAR[i] = (float) ( v <= 0.04045 ? v / 12.92 : Math.pow( ( v + 0.055 ) / 1.055, 2.4 ) );
+        }
+        for(int i=0; i<=SRGB_ENCODE_SIZE; i++) {
+            final double v = (double) i / SRGB_ENCODE_SIZE;
+            final double s = v <= 0.0031308 ? v * 12.92 : 1.055 * Math.pow(v, 1.0 / 2.4) - 0.055;
+            LINEAR_TO_SRGB[i] = (byte) (int) Math.round(s * 255.0);
+        }
+    }
+
+    private static byte linearToByte(final float v) {
+        if( v <= 0f ) {
+            return 0;
+        } else if( v >= 1f ) {
+            return (byte) 0xff;
+        }
+        return (byte) (int) ( v * 255f + 0.5f );
+    }
+
+    private static byte linearToSRGB(final float v) {
+        if( v <= 0f ) {
+            return 0;
+        } else if( v >= 1f ) {
+            return (byte) 0xff;
+        }
+        return LINEAR_TO_SRGB[ (int) ( v * SRGB_ENCODE_SIZE + 0.5f ) ];
+    }
+}
@@ -190,6 +190,12 @@ public class Texture {
     /** The texture coordinates corresponding to the entire image. */
     private TextureCoords coords;
 
+    /** Optional ring of pixel unpack buffer objects used as upload source. */
+    private TextureUploadRing uploadRing;
+
+    /** Optional mipmap builder used if mipmaps are requested w/o automatic mipmap generation. */
+    private MipmapBuilder mipmapBuilder;
+
     @Override
     public String toString() {
         final String targetS = target == imageTarget ? Integer.toHexString(target) : Integer.toHexString(target) + " - image "+Integer.toHexString(imageTarget);
@@ -207,6 +213,7 @@ public class Texture {
     // For testing alternate code paths on more capable hardware
     private static final boolean disableNPOT    = Debug.isPropertyDefined("jogl.texture.nonpot", true);
     private static final boolean disableTexRect = Debug.isPropertyDefined("jogl.texture.notexrect", true);
+    private static final boolean forceGLUMipmap = Debug.isPropertyDefined("jogl.texture.glumipmap", true);
 
     public Texture(final GL gl, final TextureData data) throws GLException {
         this.texID = 0;
@@ -659,11 +666,29 @@ public class Texture {
             }
 
             try {
-                // FIXME: may need check for GLUnsupportedException
-                final GLU glu = GLU.createGLU(gl);
-                glu.gluBuild2DMipmaps(texTarget, data.getInternalFormat(),
-                                      data.getWidth(), data.getHeight(),
-                                      data.getPixelFormat(), data.getPixelType(), data.getBuffer());
+                if ( !forceGLUMipmap && null != data.getBuffer() && 0 == data.getBorder() &&
+                     MipmapBuilder.isSupported(data.getPixelFormat(), data.getPixelType()) ) {
+                    // Generate the power-of-two sized mipmap chain on the CPU
+                    final MipmapBuilder builder = null != mipmapBuilder ? mipmapBuilder : new MipmapBuilder();
+                    final TextureData mipmaps = builder.build(data, texWidth, texHeight);
+                    final Buffer[] mipmapData = mipmaps.getMipmapData();
+                    gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, mipmaps.getAlignment());
+                    int width = texWidth;
+                    int height = texHeight;
+                    for (int i = 0; i < mipmapData.length; i++) {
+                        gl.glTexImage2D(texTarget, i, data.getInternalFormat(),
+                                        width, height, 0,
+                                        data.getPixelFormat(), data.getPixelType(), mipmapData[i]);
+                        width = Math.max(width / 2, 1);
+                        height = Math.max(height / 2, 1);
+                    }
+                } else {
+                    // FIXME: may need check for GLUnsupportedException
+                    final GLU glu = GLU.createGLU(gl);
+                    glu.gluBuild2DMipmaps(texTarget, data.getInternalFormat(),
+                                          data.getWidth(), data.getHeight(),
+                                          data.getPixelFormat(), data.getPixelType(), data.getBuffer());
+                }
             } finally {
                 gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, align[0]); // restore alignment
             }
@@ -951,6 +976,52 @@ public class Texture {
         return estimatedMemorySize;
     }
 
+    /**
+     * Sets the optional {@link TextureUploadRing} used to upload image data
+     * via pixel unpack buffer objects (PBO) instead of client memory.
+     * <p>
+     * If set and {@link TextureUploadRing#isSupported(GL) supported} by the current GL,
+     * {@link #updateImage(GL, TextureData) updateImage(..)} and {@link #updateSubImage(GL, TextureData, int, int, int) updateSubImage(..)}
+     * either use the {@link TextureData}'s buffer directly, if it is a {@link TextureUploadRing.Slot#getBuffer() mapped slot buffer} of the ring,
+     * or stage it into the next slot of the ring before uploading.
+     * </p>
+     * <p>
+     * The ring's GL resources are not owned by this texture and hence not released via {@link #destroy(GL)}.
+     * </p>
+     * @param ring the ring to use, or <code>null</code> to upload from client memory (default)
+     */
+    public void setUploadRing(final TextureUploadRing ring) {
+        uploadRing = ring;
+    }
+
+    /**
+     * Returns the {@link TextureUploadRing} set via {@link #setUploadRing(TextureUploadRing)}, maybe <code>null</code>.
+     */
+    public TextureUploadRing getUploadRing() {
+        return uploadRing;
+    }
+
+    /**
+     * Sets the optional {@link MipmapBuilder} used to generate the mipmap chain on the CPU,
+     * if mipmaps are requested by the {@link TextureData} but automatic mipmap generation
+     * is not available.
+     * <p>
+     * If <code>null</code>, the default, a {@link MipmapBuilder} w/ default settings is used.
+     * GLU's <code>gluBuild2DMipmaps</code> is used for pixel formats and types not
+     * {@link MipmapBuilder#isSupported(int, int) supported} by the {@link MipmapBuilder}.
+     * </p>
+     */
+    public void setMipmapBuilder(final MipmapBuilder builder) {
+        mipmapBuilder = builder;
+    }
+
+    /**
+     * Returns the {@link MipmapBuilder} set via {@link #setMipmapBuilder(MipmapBuilder)}, maybe <code>null</code>.
+     */
+    public MipmapBuilder getMipmapBuilder() {
+        return mipmapBuilder;
+    }
+
     /** Indicates whether this Texture is using automatic mipmap
         generation (via the OpenGL texture parameter
         GL_GENERATE_MIPMAP). This will automatically be used when
@@ -1082,11 +1153,51 @@ public class Texture {
 
         checkCompressedTextureExtensions(gl, data);
 
+        // Source the data from a pixel unpack buffer object if requested,
+        // either from the user filled mapped slot or by staging the client buffer.
+        TextureUploadRing.Slot pboSlot = null;
+        long pboOffset = 0;
+        if ( null != uploadRing && TextureUploadRing.isSupported(gl) ) {
+            pboSlot = uploadRing.getMappedSlot(buffer);
+            if ( null != pboSlot ) {
+                pboOffset = buffer.position();
+                uploadRing.unmap(gl, pboSlot);
+            } else {
+                pboSlot = uploadRing.stage(gl, buffer);
+            }
+            if (DEBUG && VERBOSE) {
+                System.out.println("PBO upload from "+pboSlot+", offset "+pboOffset);
+            }
+        }
+        try {
+            if ( null != pboSlot ) {
+                gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, pboSlot.getName());
+            }
+            updateSubImageImpl(gl, data, newTarget, mipmapLevel, dstx, dsty, srcx, srcy, width, height, rowlen, buffer, pboSlot, pboOffset);
+        } finally {
+            if ( null != pboSlot ) {
+                gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+            }
+        }
+    }
+
+    private void updateSubImageImpl(final GL gl, final TextureData data, final int newTarget, final int mipmapLevel,
+                                    final int dstx, final int dsty,
+                                    final int srcx, final int srcy, final int width, final int height,
+                                    final int rowlen, final Buffer buffer,
+                                    final TextureUploadRing.Slot pboSlot, final long pboOffset) throws GLException {
         if (data.isDataCompressed()) {
-            gl.glCompressedTexSubImage2D(newTarget, mipmapLevel,
-                                         dstx, dsty, width, height,
-                                         data.getInternalFormat(),
-                                         buffer.remaining(), buffer);
+            if ( null != pboSlot ) {
+                gl.glCompressedTexSubImage2D(newTarget, mipmapLevel,
+                                             dstx, dsty, width, height,
+                                             data.getInternalFormat(),
+                                             buffer.remaining(), pboOffset);
+            } else {
+                gl.glCompressedTexSubImage2D(newTarget, mipmapLevel,
+                                             dstx, dsty, width, height,
+                                             data.getInternalFormat(),
+                                             buffer.remaining(), buffer);
+            }
         } else {
             final int[] align = { 0 };
             final int[] rowLength = { 0 };
@@ -1119,10 +1230,17 @@ public class Texture {
                 }
             }
 
-            gl.glTexSubImage2D(newTarget, mipmapLevel,
-                               dstx, dsty, width, height,
-                               data.getPixelFormat(), data.getPixelType(),
-                               buffer);
+            if ( null != pboSlot ) {
+                gl.glTexSubImage2D(newTarget, mipmapLevel,
+                                   dstx, dsty, width, height,
+                                   data.getPixelFormat(), data.getPixelType(),
+                                   pboOffset);
+            } else {
+                gl.glTexSubImage2D(newTarget, mipmapLevel,
+                                   dstx, dsty, width, height,
+                                   data.getPixelFormat(), data.getPixelType(),
+                                   buffer);
+            }
             gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT,   align[0]);      // restore alignment
             if(gl.isGL2GL3()) {
                 gl.glPixelStorei(GL2ES2.GL_UNPACK_ROW_LENGTH,  rowLength[0]);  // restore row length
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+/**
+ * Immutable header information of an image source,
+ * as probed by {@link TextureIO#probe(com.jogamp.opengl.GLProfile, java.io.File) TextureIO.probe(..)}
+ * w/o decoding any image data.
+ * <p>
+ * The reported formats are the ones the corresponding {@link TextureData} would use
+ * if loaded with internalFormat and pixelFormat set to zero.
+ * </p>
+ */
+public class TextureHeader {
+    private final ImageType imageType;
+    private final int width;
+    private final int height;
+    private final int internalFormat;
+    private final int pixelFormat;
+    private final int pixelType;
+    private final int mipmapCount;
+    private final boolean isCompressed;
+
+    /**
+     * @param imageType the {@link ImageType} of the source, maybe <code>null</code> if unknown
+     * @param width width of the base level in pixels
+     * @param height height of the base level in pixels
+     * @param internalFormat OpenGL internal format
+     * @param pixelFormat OpenGL pixel format
+     * @param pixelType OpenGL pixel type
+     * @param mipmapCount number of mipmap levels stored in the source, 1 if only the base level is available
+     * @param isCompressed true if the source holds compressed texture data
+     */
+    public TextureHeader(final ImageType imageType, final int width, final int height,
+                         final int internalFormat, final int pixelFormat, final int pixelType,
+                         final int mipmapCount, final boolean isCompressed) {
+        this.imageType = imageType;
+        this.width = width;
+        this.height = height;
+        this.internalFormat = internalFormat;
+        this.pixelFormat = pixelFormat;
+        this.pixelType = pixelType;
+        this.mipmapCount = mipmapCount;
+        this.isCompressed = isCompressed;
+    }
+
+    /** Returns the {@link ImageType} of the source, maybe <code>null</code> if unknown. */
+    public final ImageType getImageType() { return imageType; }
+    /** Returns the width of the base level in pixels. */
+    public final int getWidth() { return width; }
+    /** Returns the height of the base level in pixels. */
+    public final int getHeight() { return height; }
+    /** Returns the OpenGL internal format. */
+    public final int getInternalFormat() { return internalFormat; }
+    /** Returns the OpenGL pixel format. */
+    public final int getPixelFormat() { return pixelFormat; }
+    /** Returns the OpenGL pixel type. */
+    public final int getPixelType() { return pixelType; }
+    /** Returns the number of mipmap levels stored in the source, 1 if only the base level is available. */
+    public final int getMipmapCount() { return mipmapCount; }
+    /** Returns true if the source holds compressed texture data. */
+    public final boolean isDataCompressed() { return isCompressed; }
+
+    @Override
+    public String toString() {
+        return "TextureHeader["+imageType+", "+width+"x"+height+
+               ", int 0x"+Integer.toHexString(internalFormat)+", pfmt 0x"+Integer.toHexString(pixelFormat)+
+               ", type 0x"+Integer.toHexString(pixelType)+", mipmaps "+mipmapCount+", compressed "+isCompressed+"]";
+    }
+}
@@ -443,6 +443,128 @@ public class TextureIO {
         return newTextureDataImpl(glp, url, internalFormat, pixelFormat, mipmap, fileSuffix);
     }
 
+    /**
+     * Creates a TextureData from the given side of a {@link DDSImage}. Does no OpenGL work.
+     * <p>
+     * The resulting TextureData's buffer or mipmap data are slices of the {@link DDSImage}'s buffer,
+     * i.e. if the {@link DDSImage} has been {@link DDSImage#read(File) read from a file}
+     * they directly reference the memory mapped file without any Java heap copy.
+     * </p>
+     * <p>
+     * Use this method to load each face of a cubemap, e.g.
+     * <pre>
+     *   final DDSImage image = DDSImage.read(file);
+     *   for(int i=0; i<6; i++) {
+     *       final TextureData face = TextureIO.newTextureData(glp, image, DDSImage.DDSCAPS2_CUBEMAP_POSITIVEX &lt;&lt; i, 0, 0, true);
+     *       texture.updateImage(gl, face, GL.GL_TEXTURE_CUBE_MAP_POSITIVE_X + i);
+     *   }
+     * </pre>
+     * </p>
+     *
+     * @param glp the OpenGL Profile this texture data should be
+     *                  created for.
+     * @param image the DDS image
+     * @param side the cubemap side, one of {@link DDSImage#DDSCAPS2_CUBEMAP_POSITIVEX} .. {@link DDSImage#DDSCAPS2_CUBEMAP_NEGATIVEZ},
+     *             or 0 for a 2D texture
+     * @param internalFormat the OpenGL internal format of the texture
+     *                   or 0 to use a default value
+     * @param pixelFormat the OpenGL pixel format of the texture
+     *                    or 0 to use a default value
+     * @param mipmap     whether the image's mipmaps shall be used
+     * @return the texture data of the given side
+     * @throws IllegalArgumentException if the side is not present
+     */
+    public static TextureData newTextureData(final GLProfile glp, final DDSImage image, final int side,
+                                             final int internalFormat,
+                                             final int pixelFormat,
+                                             final boolean mipmap) throws IllegalArgumentException {
+        if( ( 0 != side || image.isCubemap() ) && !image.isCubemapSidePresent(side) ) {
+            throw new IllegalArgumentException("Side 0x"+Integer.toHexString(side)+" not present");
+        }
+        final TextureData data = DDSTextureProvider.newTextureData(glp, image, side, internalFormat, pixelFormat, mipmap, false);
+        data.srcImageType = ddsImageType;
+        return data;
+    }
+
+    /**
+     * Reads only the header of the given file and returns its {@link TextureHeader}
+     * w/o decoding any image data. Does no OpenGL work.
+     * <p>
+     * Only {@link TextureProvider}s implementing {@link TextureProvider.SupportsProbe} are queried,
+     * i.e. all built-in providers for DDS, SGI, TGA, JPEG and PNG.
+     * </p>
+     *
+     * @param glp the OpenGL Profile the texture data would be created for.
+     * @param file the file to probe
+     * @return the {@link TextureHeader} or null if no probing {@link TextureProvider} supports the file format
+     * @throws IOException if an error occurred while reading the file
+     */
+    public static TextureHeader probe(final GLProfile glp, final File file) throws IOException {
+        if (file == null) {
+            throw new IOException("File was null");
+        }
+        final InputStream stream = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return probeImpl(glp, stream, IOUtil.getFileSuffix(file));
+        } catch(final IOException ioe) {
+            throw new IOException(ioe.getMessage()+", given file "+file.getAbsolutePath(), ioe);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Reads only the header of the given stream and returns its {@link TextureHeader}
+     * w/o decoding any image data. Does no OpenGL work.
+     * The stream is not closed.
+     *
+     * @param glp the OpenGL Profile the texture data would be created for.
+     * @param stream the stream to probe
+     * @param fileSuffix the suffix of the file name to be used as a
+     *                   hint of the file format to the underlying
+     *                   texture provider, or null if none and should be
+     *                   auto-detected (may not be supported for all
+     *                   formats)
+     * @return the {@link TextureHeader} or null if no probing {@link TextureProvider} supports the file format
+     * @throws IOException if an error occurred while reading the stream
+     * @see #probe(GLProfile, File)
+     */
+    public static TextureHeader probe(final GLProfile glp, final InputStream stream, final String fileSuffix) throws IOException {
+        return probeImpl(glp, stream, fileSuffix);
+    }
+
+    /**
+     * Reads only the header of the given URL and returns its {@link TextureHeader}
+     * w/o decoding any image data. Does no OpenGL work.
+     *
+     * @param glp the OpenGL Profile the texture data would be created for.
+     * @param url the URL to probe
+     * @param fileSuffix the suffix of the file name to be used as a
+     *                   hint of the file format to the underlying
+     *                   texture provider, or null if none and should be
+     *                   auto-detected (may not be supported for all
+     *                   formats)
+     * @return the {@link TextureHeader} or null if no probing {@link TextureProvider} supports the file format
+     * @throws IOException if an error occurred while reading the URL
+     * @see #probe(GLProfile, File)
+     */
+    public static TextureHeader probe(final GLProfile glp, final URL url, String fileSuffix) throws IOException {
+        if (url == null) {
+            throw new IOException("URL was null");
+        }
+        if (fileSuffix == null) {
+            fileSuffix = IOUtil.getFileSuffix(url.getPath());
+        }
+        final InputStream stream = new BufferedInputStream(url.openStream());
+        try {
+            return probeImpl(glp, stream, fileSuffix);
+        } catch(final IOException ioe) {
+            throw new IOException(ioe.getMessage()+", given URL "+url, ioe);
+        } finally {
+            stream.close();
+        }
+    }
+
     //----------------------------------------------------------------------
     // methods that *do* require a current context
     //
@@ -768,6 +890,7 @@ public class TextureIO {
     private static List<TextureProvider> textureProviders = new ArrayList<TextureProvider>();
     private static Map<ImageType,TextureProvider> imageType2TextureProvider = new HashMap<ImageType,TextureProvider>();
     private static List<TextureWriter>   textureWriters   = new ArrayList<TextureWriter>();
+    private static final ImageType ddsImageType = new ImageType(ImageType.T_DDS);
 
     static {
         // ImageIO provider, the fall-back, must be the first one added
@@ -875,6 +998,47 @@ public class TextureIO {
 
         throw new IOException("No suitable reader for given stream");
     }
+    private static TextureHeader probeImpl(final GLProfile glp, InputStream stream, String fileSuffix) throws IOException {
+        if (stream == null) {
+            throw new IOException("Stream was null");
+        }
+        if (!(stream instanceof BufferedInputStream)) {
+            stream = new BufferedInputStream(stream);
+        }
+
+        // First attempt to use an ImageType mapped TextureProvider for O(1)
+        // using stream parsed data, ignoring the given fileSuffix!
+        try {
+            final ImageType imageType = new ImageType(stream);
+            if( imageType.isDefined() ) {
+                final TextureProvider mappedProvider = imageType2TextureProvider.get(imageType);
+                if( mappedProvider instanceof TextureProvider.SupportsProbe ) {
+                    final TextureHeader header = ((TextureProvider.SupportsProbe)mappedProvider).probe(glp, stream, imageType.type);
+                    if (header != null) {
+                        return header;
+                    }
+                }
+            }
+        } catch (final IOException ioe) {
+            if(DEBUG) {
+                System.err.println("Caught "+ioe.getMessage());
+                ioe.printStackTrace();
+            }
+        }
+
+        fileSuffix = toLowerCase(fileSuffix);
+
+        for (final Iterator<TextureProvider> iter = textureProviders.iterator(); iter.hasNext(); ) {
+            final TextureProvider provider = iter.next();
+            if( provider instanceof TextureProvider.SupportsProbe ) {
+                final TextureHeader header = ((TextureProvider.SupportsProbe)provider).probe(glp, stream, fileSuffix);
+                if (header != null) {
+                    return header;
+                }
+            }
+        }
+        return null;
+    }
     private static TextureData newTextureDataImpl(final GLProfile glp, final File file,
                                                   final int internalFormat,
                                                   final int pixelFormat,
@@ -885,6 +1049,10 @@ public class TextureIO {
         }
         final InputStream stream = new BufferedInputStream(new FileInputStream(file));
         try {
+            final TextureData data = newTextureDataMapped(glp, file, stream, internalFormat, pixelFormat, mipmap);
+            if( null != data ) {
+                return data;
+            }
             return newTextureDataImpl( glp, stream, internalFormat, pixelFormat, mipmap,
                                        (fileSuffix != null) ? fileSuffix : IOUtil.getFileSuffix(file) );
         } catch(final IOException ioe) {
@@ -893,6 +1061,31 @@ public class TextureIO {
             stream.close();
         }
     }
+    /**
+     * Memory maps the given file if it's {@link ImageType} is handled by the built-in {@link DDSTextureProvider},
+     * otherwise returns <code>null</code> and leaves the stream at it's current position.
+     */
+    private static TextureData newTextureDataMapped(final GLProfile glp, final File file, final InputStream stream,
+                                                    final int internalFormat,
+                                                    final int pixelFormat,
+                                                    final boolean mipmap) throws IOException {
+        final ImageType imageType;
+        try {
+            imageType = new ImageType(stream);
+        } catch (final IOException ioe) {
+            if(DEBUG) {
+                System.err.println("Caught "+ioe.getMessage());
+            }
+            return null;
+        }
+        if( !ddsImageType.equals(imageType) || !( imageType2TextureProvider.get(imageType) instanceof DDSTextureProvider ) ) {
+            return null;
+        }
+        final DDSImage image = DDSImage.read(file);
+        final TextureData data = DDSTextureProvider.newTextureData(glp, image, 0, internalFormat, pixelFormat, mipmap, true);
+        data.srcImageType = imageType;
+        return data;
+    }
     private static TextureData newTextureDataImpl(final GLProfile glp, final URL url,
                                                   final int internalFormat,
                                                   final int pixelFormat,
@@ -913,8 +1106,8 @@ public class TextureIO {
 
     //----------------------------------------------------------------------
     // DDS image provider
-    static class DDSTextureProvider implements TextureProvider {
-        private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_DDS) };
+    static class DDSTextureProvider implements TextureProvider, TextureProvider.SupportsProbe {
+        private static final ImageType[] imageTypes = new ImageType[] { ddsImageType };
         @Override
         public final ImageType[] getImageTypes() {
             return imageTypes;
@@ -931,17 +1124,53 @@ public class TextureIO {
                 final byte[] data = IOUtil.copyStream2ByteArray(stream);
                 final ByteBuffer buf = ByteBuffer.wrap(data);
                 final DDSImage image = DDSImage.read(buf);
-                return newTextureData(glp, image, internalFormat, pixelFormat, mipmap);
+                return newTextureData(glp, image, 0, internalFormat, pixelFormat, mipmap, true);
             }
 
             return null;
         }
 
-        private TextureData newTextureData(final GLProfile glp, final DDSImage image,
-                                           int internalFormat,
-                                           int pixelFormat,
-                                           boolean mipmap) {
-            final DDSImage.ImageInfo info = image.getMipMap(0);
+        @Override
+        public TextureHeader probe(final GLProfile glp, final InputStream stream, final String fileSuffix) throws IOException {
+            if (ImageType.T_DDS.equals(fileSuffix) ||
+                ImageType.T_DDS.equals(ImageType.Util.getFileSuffix(stream))) {
+                final DDSImage image = DDSImage.readHeader(stream);
+                final int pixelFormat = DDSImage.D3DFMT_R8G8B8 == image.getPixelFormat() ? GL.GL_RGB : GL.GL_RGBA;
+                int internalFormat = pixelFormat;
+                if (image.isCompressed()) {
+                    switch (image.getCompressionFormat()) {
+                    case DDSImage.D3DFMT_DXT1:
+                        internalFormat = GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+                        break;
+                    case DDSImage.D3DFMT_DXT3:
+                        internalFormat = GL.GL_COMPRESSED_RGBA_S3TC_DXT3_EXT;
+                        break;
+                    case DDSImage.D3DFMT_DXT5:
+                        internalFormat = GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+                        break;
+                    default:
+                        internalFormat = 0; // unsupported by newTextureData(..)
+                        break;
+                    }
+                }
+                return new TextureHeader(ddsImageType, image.getWidth(), image.getHeight(),
+                                         internalFormat, pixelFormat, GL.GL_UNSIGNED_BYTE,
+                                         Math.max(1, image.getNumMipMaps()), image.isCompressed());
+            }
+            return null;
+        }
+
+        /**
+         * The resulting {@link TextureData} references slices of the given {@link DDSImage}'s buffer.
+         * @param closeOnFlush if true, the {@link TextureData.Flusher} closes the given {@link DDSImage}
+         */
+        static TextureData newTextureData(final GLProfile glp, final DDSImage image,
+                                          final int side,
+                                          int internalFormat,
+                                          int pixelFormat,
+                                          boolean mipmap,
+                                          final boolean closeOnFlush) {
+            final DDSImage.ImageInfo info = image.getMipMap(side, 0);
             if (pixelFormat == 0) {
                 switch (image.getPixelFormat()) {
                 case DDSImage.D3DFMT_R8G8B8:
@@ -978,7 +1207,7 @@ public class TextureIO {
                     break;
                 }
             }
-            final TextureData.Flusher flusher = new TextureData.Flusher() {
+            final TextureData.Flusher flusher = !closeOnFlush ? null : new TextureData.Flusher() {
                     @Override
                     public void flush() {
                         image.close();
@@ -988,7 +1217,7 @@ public class TextureIO {
             if (mipmap && image.getNumMipMaps() > 0) {
                 final Buffer[] mipmapData = new Buffer[image.getNumMipMaps()];
                 for (int i = 0; i < image.getNumMipMaps(); i++) {
-                    mipmapData[i] = image.getMipMap(i).getData();
+                    mipmapData[i] = image.getMipMap(side, i).getData();
                 }
                 data = new TextureData(glp, internalFormat,
                                        info.getWidth(),
@@ -1022,7 +1251,7 @@ public class TextureIO {
 
     //----------------------------------------------------------------------
     // SGI RGB image provider
-    static class SGITextureProvider implements TextureProvider {
+    static class SGITextureProvider implements TextureProvider, TextureProvider.SupportsProbe {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_SGI_RGB) };
         @Override
         public final ImageType[] getImageTypes() {
@@ -1061,11 +1290,24 @@ public class TextureIO {
 
             return null;
         }
+
+        @Override
+        public TextureHeader probe(final GLProfile glp, final InputStream stream, final String fileSuffix) throws IOException {
+            if (SGI.equals(fileSuffix) ||
+                ImageType.T_SGI_RGB.equals(fileSuffix) ||
+                SGI.equals(ImageType.Util.getFileSuffix(stream)) ||
+                ImageType.T_SGI_RGB.equals(ImageType.Util.getFileSuffix(stream))) {
+                final SGIImage image = SGIImage.readHeader(stream);
+                return new TextureHeader(imageTypes[0], image.getWidth(), image.getHeight(),
+                                         image.getFormat(), image.getFormat(), GL.GL_UNSIGNED_BYTE, 1, false);
+            }
+            return null;
+        }
     }
 
     //----------------------------------------------------------------------
     // TGA (Targa) image provider
-    static class TGATextureProvider implements TextureProvider {
+    static class TGATextureProvider implements TextureProvider, TextureProvider.SupportsProbe {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_TGA) };
         @Override
         public final ImageType[] getImageTypes() {
@@ -1105,11 +1347,30 @@ public class TextureIO {
 
             return null;
         }
+
+        @Override
+        public TextureHeader probe(final GLProfile glp, final InputStream stream, final String fileSuffix) throws IOException {
+            if (ImageType.T_TGA.equals(fileSuffix)) {
+                final TGAImage image = TGAImage.readHeader(glp, stream);
+                if( 0 == image.getGLFormat() ) {
+                    throw new IOException("TGADecoder unsupported image type or pixel depth");
+                }
+                final int internalFormat;
+                if(glp.isGL2ES3()) {
+                    internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
+                } else {
+                    internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
+                }
+                return new TextureHeader(imageTypes[0], image.getWidth(), image.getHeight(),
+                                         internalFormat, image.getGLFormat(), GL.GL_UNSIGNED_BYTE, 1, false);
+            }
+            return null;
+        }
     }
 
     //----------------------------------------------------------------------
     // PNG image provider
-    static class PNGTextureProvider implements TextureProvider {
+    static class PNGTextureProvider implements TextureProvider, TextureProvider.SupportsProbe {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_PNG) };
         @Override
         public final ImageType[] getImageTypes() {
@@ -1152,11 +1413,31 @@ public class TextureIO {
 
             return null;
         }
+
+        @Override
+        public TextureHeader probe(final GLProfile glp, final InputStream stream, final String fileSuffix) throws IOException {
+            if (ImageType.T_PNG.equals(fileSuffix) ||
+                ImageType.T_PNG.equals(ImageType.Util.getFileSuffix(stream))) {
+                final int[] size = new int[2];
+                final PixelFormat pixelformat = PNGPixelRect.readHeader(stream, size);
+                final GLPixelAttributes glpa = new GLPixelAttributes(glp, pixelformat, false /* pack */);
+                final boolean hasAlpha = 4 == glpa.pfmt.comp.bytesPerPixel();
+                final int internalFormat;
+                if(glp.isGL2ES3()) {
+                    internalFormat = hasAlpha ? GL.GL_RGBA8 : GL.GL_RGB8;
+                } else {
+                    internalFormat = hasAlpha ? GL.GL_RGBA : GL.GL_RGB;
+                }
+                return new TextureHeader(imageTypes[0], size[0], size[1],
+                                         internalFormat, glpa.format, glpa.type, 1, false);
+            }
+            return null;
+        }
     }
 
     //----------------------------------------------------------------------
     // JPEG image provider
-    static class JPGTextureProvider implements TextureProvider {
+    static class JPGTextureProvider implements TextureProvider, TextureProvider.SupportsProbe {
         private static final ImageType[] imageTypes = new ImageType[] { new ImageType(ImageType.T_JPG) };
         @Override
         public final ImageType[] getImageTypes() {
@@ -1197,6 +1478,23 @@ public class TextureIO {
 
             return null;
         }
+
+        @Override
+        public TextureHeader probe(final GLProfile glp, final InputStream stream, final String fileSuffix) throws IOException {
+            if (ImageType.T_JPG.equals(fileSuffix) ||
+                ImageType.T_JPG.equals(ImageType.Util.getFileSuffix(stream))) {
+                final JPEGImage image = JPEGImage.readHeader(stream);
+                final int internalFormat;
+                if(glp.isGL2ES3()) {
+                    internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA8:GL.GL_RGB8;
+                } else {
+                    internalFormat = (image.getBytesPerPixel()==4)?GL.GL_RGBA:GL.GL_RGB;
+                }
+                return new TextureHeader(imageTypes[0], image.getWidth(), image.getHeight(),
+                                         internalFormat, image.getGLFormat(), image.getGLType(), 1, false);
+            }
+            return null;
+        }
     }
 
     //----------------------------------------------------------------------
@@ -1209,7 +1507,8 @@ public class TextureIO {
             if (ImageType.T_DDS.equals(IOUtil.getFileSuffix(file))) {
                 // See whether the DDS writer can handle this TextureData
                 final GLPixelAttributes pixelAttribs = data.getPixelAttributes();
-                final int pixelFormat = pixelAttribs.format;
+                // Compressed data, e.g. produced by BlockCompressor, carries the compression format as internal format
+                final int pixelFormat = data.isDataCompressed() ? data.getInternalFormat() : pixelAttribs.format;
                 final int pixelType   = pixelAttribs.type;
                 if (pixelType != GL.GL_BYTE &&
                     pixelType != GL.GL_UNSIGNED_BYTE) {
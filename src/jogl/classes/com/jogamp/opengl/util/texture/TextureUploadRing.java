@@ -0,0 +1,334 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.util.texture;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Ring of {@link GL2ES3#GL_PIXEL_UNPACK_BUFFER pixel unpack buffer objects} (PBO)
+ * used as the upload source for {@link Texture} image data.
+ * <p>
+ * Instead of passing client memory to <code>glTexSubImage2D</code>,
+ * which forces the GL implementation to copy the data synchronously,
+ * the data is staged into the next PBO of this ring and the texture
+ * is specified from the PBO's storage.
+ * Each slot's storage is orphaned before it gets mapped,
+ * hence a slot still being consumed by the GL is never stalled on.
+ * </p>
+ * <p>
+ * Two usage patterns are supported:
+ * <ul>
+ *   <li>Implicit: Attach the ring via {@link Texture#setUploadRing(TextureUploadRing)}.
+ *       {@link Texture#updateImage(GL, TextureData) updateImage(..)} and
+ *       {@link Texture#updateSubImage(GL, TextureData, int, int, int) updateSubImage(..)}
+ *       will {@link #stage(GL, Buffer) stage} the {@link TextureData}'s client buffer
+ *       into the next slot and upload from there.</li>
+ *   <li>Explicit: {@link #map(GL, int) Map} a slot on the GL thread,
+ *       fill its {@link Slot#getBuffer() mapped buffer} on any thread,
+ *       and use the mapped buffer instance as the {@link TextureData}'s buffer.
+ *       The attached {@link Texture} recognizes the mapped buffer,
+ *       {@link #unmap(GL, Slot) unmaps} it and uses the PBO as the upload source
+ *       without an additional copy.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Requires a GL profile supporting pixel buffer objects, see {@link #isSupported(GL)}.
+ * All methods taking a {@link GL} instance must be called on the thread holding the current context.
+ * </p>
+ */
+public class TextureUploadRing {
+    /** Default number of PBO slots, {@value}. */
+    public static final int DEFAULT_SLOT_COUNT = 3;
+
+    /** A single pixel unpack buffer object of the {@link TextureUploadRing}. */
+    public static class Slot {
+        private final int index;
+        private int name;
+        private long size;
+        private ByteBuffer mappedBuffer;
+
+        private Slot(final int index) {
+            this.index = index;
+            this.name = 0;
+            this.size = 0;
+            this.mappedBuffer = null;
+        }
+
+        /** Returns the index of this slot within it's ring. */
+        public final int getIndex() { return index; }
+
+        /** Returns the GL buffer name or <code>0</code> if not yet created. */
+        public final int getName() { return name; }
+
+        /** Returns the size of the current storage in bytes. */
+        public final long getSize() { return size; }
+
+        /** Returns <code>true</code> if this slot is mapped. */
+        public final boolean isMapped() { return null != mappedBuffer; }
+
+        /**
+         * Returns the mapped {@link ByteBuffer} in {@link ByteOrder#nativeOrder() native order},
+         * or <code>null</code> if not mapped.
+         * <p>
+         * The mapped buffer may be written by any thread until {@link TextureUploadRing#unmap(GL, Slot)}.
+         * </p>
+         */
+        public final ByteBuffer getBuffer() { return mappedBuffer; }
+
+        @Override
+        public final String toString() {
+            return "Slot["+index+", name "+name+", size "+size+", mapped "+isMapped()+"]";
+        }
+    }
+
+    private final Slot[] slots;
+    private int next;
+    private long stagedBytes;
+    private int stagedCount;
+
+    /**
+     * Creates a ring w/ {@link #DEFAULT_SLOT_COUNT} slots.
+     * <p>
+     * GL resources are lazily created on first use.
+     * </p>
+     */
+    public TextureUploadRing() {
+        this(DEFAULT_SLOT_COUNT);
+    }
+
+    /**
+     * Creates a ring w/ the given number of slots.
+     * <p>
+     * GL resources are lazily created on first use.
+     * </p>
+     * @param slotCount number of PBO slots, must be &ge; 1
+     * @throws IllegalArgumentException if <code>slotCount</code> &lt; 1
+     */
+    public TextureUploadRing(final int slotCount) throws IllegalArgumentException {
+        if( 1 > slotCount ) {
+            throw new IllegalArgumentException("Invalid slotCount "+slotCount);
+        }
+        slots = new Slot[slotCount];
+        for(int i=0; i<slotCount; i++) {
+            slots[i] = new Slot(i);
+        }
+        next = 0;
+    }
+
+    /**
+     * Returns <code>true</code> if the given {@link GL} supports pixel buffer objects
+     * and {@link GL#glMapBufferRange(int, long, long, int) mapping a buffer range},
+     * i.e. {@link GL#isGL2ES3()} and {@link GL#isFunctionAvailable(String) glMapBufferRange} is available.
+     */
+    public static boolean isSupported(final GL gl) {
+        return gl.isGL2ES3() && gl.isFunctionAvailable("glMapBufferRange");
+    }
+
+    /** Returns the number of slots. */
+    public final int getSlotCount() { return slots.length; }
+
+    /** Returns the number of {@link #stage(GL, Buffer) staged} or {@link #map(GL, int) mapped} uploads. */
+    public final int getStagedCount() { return stagedCount; }
+
+    /** Returns the number of bytes {@link #stage(GL, Buffer) staged} or {@link #map(GL, int) mapped}. */
+    public final long getStagedBytes() { return stagedBytes; }
+
+    /**
+     * Returns the currently {@link Slot#isMapped() mapped} slot whose {@link Slot#getBuffer() mapped buffer}
+     * is the given buffer instance, otherwise <code>null</code>.
+     */
+    public final Slot getMappedSlot(final Buffer buffer) {
+        if( null == buffer ) {
+            return null;
+        }
+        for(int i=0; i<slots.length; i++) {
+            final Slot s = slots[i];
+            if( s.mappedBuffer == buffer ) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps the next slot with a freshly orphaned storage of <code>byteCount</code> bytes
+     * for writing, see {@link GL#GL_MAP_INVALIDATE_BUFFER_BIT}.
+     * <p>
+     * The {@link GL2ES3#GL_PIXEL_UNPACK_BUFFER} binding is reset to zero when returning.
+     * </p>
+     * @param gl current GL object
+     * @param byteCount storage size in bytes
+     * @return the mapped slot
+     * @throws GLException if the next slot is still mapped or if the mapping failed
+     */
+    public final Slot map(final GL gl, final int byteCount) throws GLException {
+        final Slot s = slots[next];
+        if( s.isMapped() ) {
+            throw new GLException("Next slot still mapped: "+s);
+        }
+        next = ( next + 1 ) % slots.length;
+        if( 0 == s.name ) {
+            final int[] tmp = { 0 };
+            gl.glGenBuffers(1, tmp, 0);
+            s.name = tmp[0];
+            if( 0 == s.name ) {
+                throw new GLException("Create PBO name invalid, glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+        }
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, s.name);
+        try {
+            // orphan previous storage, the GL may still source pending uploads from it
+            gl.glBufferData(GL2ES3.GL_PIXEL_UNPACK_BUFFER, byteCount, null, GL2ES2.GL_STREAM_DRAW);
+            s.size = byteCount;
+            final GLBufferStorage storage = gl.mapBufferRange(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0, byteCount,
+                                                              GL.GL_MAP_WRITE_BIT | GL.GL_MAP_INVALIDATE_BUFFER_BIT);
+            final ByteBuffer bb = storage.getMappedBuffer();
+            if( null == bb ) {
+                throw new GLException("Mapping PBO failed: "+s+", "+storage+", glerr 0x"+Integer.toHexString(gl.glGetError()));
+            }
+            s.mappedBuffer = bb.order(ByteOrder.nativeOrder());
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+        }
+        stagedCount++;
+        stagedBytes += byteCount;
+        return s;
+    }
+
+    /**
+     * Unmaps the given slot, making it's content available as an upload source.
+     * <p>
+     * The {@link GL2ES3#GL_PIXEL_UNPACK_BUFFER} binding is reset to zero when returning.
+     * </p>
+     * @param gl current GL object
+     * @param s the slot to unmap
+     * @throws GLException if the slot is not mapped or if the content was corrupted while mapped
+     */
+    public final void unmap(final GL gl, final Slot s) throws GLException {
+        if( !s.isMapped() ) {
+            throw new GLException("Slot not mapped: "+s);
+        }
+        s.mappedBuffer = null;
+        gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, s.name);
+        final boolean ok;
+        try {
+            ok = gl.glUnmapBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER);
+        } finally {
+            gl.glBindBuffer(GL2ES3.GL_PIXEL_UNPACK_BUFFER, 0);
+        }
+        if( !ok ) {
+            throw new GLException("PBO content corrupted while mapped: "+s);
+        }
+    }
+
+    /**
+     * Copies the {@link Buffer#remaining() remaining} elements of the given client buffer
+     * into the next slot, which is {@link #map(GL, int) mapped} and {@link #unmap(GL, Slot) unmapped}.
+     * <p>
+     * The given buffer's position is not modified.
+     * </p>
+     * @param gl current GL object
+     * @param src the client buffer to stage
+     * @return the unmapped slot holding the data at offset zero
+     * @throws GLException if mapping failed
+     */
+    public final Slot stage(final GL gl, final Buffer src) throws GLException {
+        final int byteCount = Buffers.remainingBytes(src);
+        final Slot s = map(gl, byteCount);
+        try {
+            copy(src, s.mappedBuffer);
+        } finally {
+            unmap(gl, s);
+        }
+        return s;
+    }
+
+    private static void copy(final Buffer src, final ByteBuffer dst) {
+        if( src instanceof ByteBuffer ) {
+            dst.put( ((ByteBuffer)src).duplicate() );
+        } else if( src instanceof IntBuffer ) {
+            dst.asIntBuffer().put( ((IntBuffer)src).duplicate() );
+        } else if( src instanceof ShortBuffer ) {
+            dst.asShortBuffer().put( ((ShortBuffer)src).duplicate() );
+        } else if( src instanceof FloatBuffer ) {
+            dst.asFloatBuffer().put( ((FloatBuffer)src).duplicate() );
+        } else if( src instanceof CharBuffer ) {
+            dst.asCharBuffer().put( ((CharBuffer)src).duplicate() );
+        } else if( src instanceof LongBuffer ) {
+            dst.asLongBuffer().put( ((LongBuffer)src).duplicate() );
+        } else if( src instanceof DoubleBuffer ) {
+            dst.asDoubleBuffer().put( ((DoubleBuffer)src).duplicate() );
+        } else {
+            throw new GLException("Unsupported buffer type: "+src.getClass().getName());
+        }
+        dst.rewind();
+    }
+
+    /**
+     * Deletes all GL buffer objects of this ring.
+     * <p>
+     * Mapped slots are implicitly unmapped.
+     * The ring can be reused afterwards, GL resources will be recreated on demand.
+     * </p>
+     * @param gl current GL object
+     */
+    public void destroy(final GL gl) {
+        for(int i=0; i<slots.length; i++) {
+            final Slot s = slots[i];
+            if( 0 != s.name ) {
+                final int[] tmp = { s.name };
+                gl.glDeleteBuffers(1, tmp, 0);
+            }
+            s.name = 0;
+            s.size = 0;
+            s.mappedBuffer = null;
+        }
+        next = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TextureUploadRing[slots "+slots.length+", next "+next+", staged "+stagedCount+" / "+stagedBytes+" bytes]";
+    }
+}
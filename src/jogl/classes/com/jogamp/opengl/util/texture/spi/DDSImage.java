@@ -168,7 +168,9 @@ public class DDSImage {
     }
 
     /** Reads a DirectDraw surface from the specified file, returning
-        the resulting DDSImage.
+        the resulting DDSImage. The file is memory mapped read-only,
+        hence the image data returned by {@link #getMipMap(int, int)}
+        references the mapped file w/o any Java heap copy.
 
         @param file File object
         @return DDS image object
@@ -193,6 +195,34 @@ public class DDSImage {
         return image;
     }
 
+    /** Reads only the header of a DirectDraw surface from the specified
+        InputStream, returning a DDSImage w/o any image data.
+        <p>
+        Only the header based queries, e.g. {@link #getWidth()}, {@link #getHeight()},
+        {@link #getPixelFormat()}, {@link #isCompressed()}, {@link #getCompressionFormat()},
+        {@link #getNumMipMaps()} and {@link #isCubemap()}, are valid on the returned instance.
+        </p>
+
+        @param in Input stream, positioned at the DDS magic number
+        @return DDS image object w/o image data
+        @throws java.io.IOException if an I/O exception occurred
+    */
+    public static DDSImage readHeader(final InputStream in) throws IOException {
+        final byte[] hdr = new byte[Header.writtenSize()];
+        int off = 0;
+        while( off < hdr.length ) {
+            final int n = in.read(hdr, off, hdr.length - off);
+            if( 0 > n ) {
+                throw new IOException("Premature end of stream reading DDS header, got "+off+" of "+hdr.length+" bytes");
+            }
+            off += n;
+        }
+        final DDSImage image = new DDSImage();
+        image.readFromBuffer(ByteBuffer.wrap(hdr));
+        image.buf = null;
+        return image;
+    }
+
     /** Closes open files and resources associated with the open
         DDSImage. No other methods may be called on this object once
         this is called. */
@@ -402,11 +432,11 @@ public class DDSImage {
         for (int i = 0; i < map; i++) {
             seek += mipMapSizeInBytes(i);
         }
-        buf.limit(seek + mipMapSizeInBytes(map));
-        buf.position(seek);
-        final ByteBuffer next = buf.slice();
-        buf.position(0);
-        buf.limit(buf.capacity());
+        // slice a duplicate, leaving the shared buffer untouched for concurrent access
+        final ByteBuffer dup = buf.duplicate();
+        dup.limit(seek + mipMapSizeInBytes(map));
+        dup.position(seek);
+        final ByteBuffer next = dup.slice();
         return new ImageInfo(next, mipMapWidth(map), mipMapHeight(map), isCompressed(), getCompressionFormat());
     }
 
@@ -695,8 +725,12 @@ public class DDSImage {
     private void readFromFile(final File file) throws IOException {
         fis = new FileInputStream(file);
         chan = fis.getChannel();
-        final ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY,
-                                  0, (int) file.length());
+        final long size = chan.size();
+        if( Integer.MAX_VALUE < size ) {
+            close();
+            throw new IOException("File too large to be mapped: "+size+" bytes, "+file);
+        }
+        final ByteBuffer buf = chan.map(FileChannel.MapMode.READ_ONLY, 0, size);
         readFromBuffer(buf);
     }
 
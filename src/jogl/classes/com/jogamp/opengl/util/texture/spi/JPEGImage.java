@@ -60,6 +60,18 @@ public class JPEGImage {
         return new JPEGImage(in, ColorSpace.RGB);
     }
 
+    /**
+     * Reads only the JPEG header up to the frame header from the specified InputStream,
+     * returning a JPEGImage w/o any image data using {@link ColorSpace#RGB}, i.e. {@link #getData()} returns <code>null</code>.
+     */
+    public static JPEGImage readHeader(final InputStream in) throws IOException {
+        final JPEGDecoder decoder = new JPEGDecoder();
+        decoder.parseHeader(in);
+        final JPEGImage res = new JPEGImage(decoder.getWidth(), decoder.getHeight(), ColorSpace.RGB);
+        decoder.clear(null);
+        return res;
+    }
+
     private static class JPEGColorSink implements JPEGDecoder.ColorSink  {
         int width=0, height=0;
         int sourceComponents=0;
@@ -139,6 +151,15 @@ public class JPEGImage {
         }
         decoder.clear(null);
     }
+    private JPEGImage(final int width, final int height, final ColorSpace cs) {
+        pixelStorage = new JPEGColorSink(cs);
+        pixelWidth = width;
+        pixelHeight = height;
+        data = null;
+        bytesPerPixel = 3;
+        glFormat = GL.GL_RGB;
+        reversedChannels = false; // RGB[A]
+    }
     private final JPEGColorSink pixelStorage;
     private final int pixelWidth, pixelHeight, glFormat, bytesPerPixel;
     private final boolean reversedChannels;
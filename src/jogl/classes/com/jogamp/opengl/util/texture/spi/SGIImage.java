@@ -162,6 +162,19 @@ public class SGIImage {
         return res;
     }
 
+    /** Reads only the 512 byte header of an SGI image from the specified
+        InputStream, returning an SGIImage w/o any image data, i.e.
+        {@link #getData()} returns <code>null</code>. */
+    public static SGIImage readHeader(final InputStream in) throws IOException {
+        final Header header = new Header(new DataInputStream(in));
+        if( MAGIC != header.magic ) {
+            throw new IOException("Incorrect magic number "+header.magic+" (expected "+MAGIC+")");
+        }
+        final SGIImage res = new SGIImage(header);
+        res.format = GL.GL_RGBA; // decodeImage(..) always produces RGBA
+        return res;
+    }
+
     /** Writes this SGIImage to the specified file name. If
         flipVertically is set, outputs the scanlines from top to bottom
         rather than the default bottom to top order. */
@@ -412,6 +412,31 @@ public class TGAImage {
         return res;
     }
 
+    /**
+     * Reads only the Targa header from the specified InputStream, returning a TGAImage w/o any image data,
+     * i.e. {@link #getData()} returns <code>null</code>.
+     * <p>
+     * {@link #getGLFormat()} and {@link #getBytesPerPixel()} are set as by {@link #read(GLProfile, InputStream)}
+     * if the image type is supported by the decoder, otherwise both are zero.
+     * </p>
+     */
+    public static TGAImage readHeader(final GLProfile glp, final InputStream in) throws IOException {
+        final Header header = new Header(new LEDataInputStream(in));
+        final TGAImage res = new TGAImage(header);
+        switch (header.imageType()) {
+        case Header.UTRUECOLOR:
+        case Header.TRUECOLOR:
+            switch (header.pixelDepth) {
+            case 24:
+            case 32:
+                res.setupImage24_32(glp);
+                break;
+            }
+            break;
+        }
+        return res;
+    }
+
     /** Writes the image in Targa format to the specified file name. */
     public void write(final String filename) throws IOException {
         write(new File(filename));
@@ -46,6 +46,7 @@ import java.io.InputStream;
 import com.jogamp.opengl.GLProfile;
 import com.jogamp.opengl.util.texture.ImageType;
 import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureHeader;
 
 
 /** Plug-in interface to TextureIO to support reading OpenGL textures
@@ -68,6 +69,27 @@ public interface TextureProvider {
         ImageType[] getImageTypes();
     }
 
+    /**
+     * Optional additional interface for {@link TextureProvider} implementation
+     * supporting header-only probing of image sources.
+     * <p>
+     * Use case: Indexing many image sources, e.g. for texture atlases or memory budgets,
+     * w/o decoding the image data.
+     * </p>
+     */
+    public static interface SupportsProbe {
+        /**
+         * Reads only the header of the image source from the stream and returns its {@link TextureHeader},
+         * or null if the file format was not supported by this TextureProvider.
+         * <p>
+         * Arguments have the same semantics as in {@link TextureProvider#newTextureData(GLProfile, InputStream, int, int, boolean, String)}.
+         * </p>
+         *
+         * @throws IOException if an error occurred while reading the stream
+         */
+        TextureHeader probe(GLProfile glp, InputStream stream, String fileSuffix) throws IOException;
+    }
+
     /**
      * Returns the known supported {@link ImageType}s, or {@code null} if unknown.
      * <p>
@@ -241,6 +241,7 @@ public class VBORegion2PMSAAES2  extends GLRegion {
     @Override
     protected void updateImpl(final GL2ES2 gl) {
         // seal buffers
+        optimizeIndices(indicesBuffer, gca_VerticesAttr.getElementCount());
         indicesBuffer.seal(gl, true);
         indicesBuffer.enableBuffer(gl, false);
         gca_CurveParamsAttr.seal(gl, true);
@@ -168,6 +168,7 @@ public class VBORegionSPES2 extends GLRegion {
                 colorTexBBox[3] = box.getMaxY() * tcSy;
             }
         }
+        optimizeIndices(indicesBuffer, gca_VerticesAttr.getElementCount());
         indicesBuffer.seal(gl, true);
         indicesBuffer.enableBuffer(gl, false);
         if(DEBUG_INSTANCE) {
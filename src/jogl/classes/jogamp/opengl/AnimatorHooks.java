@@ -0,0 +1,60 @@
+/**
+ * Copyright 2026 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import com.jogamp.opengl.GLAnimatorControl;
+import com.jogamp.opengl.GLDrawable;
+
+/**
+ * Callbacks of a {@link GLAnimatorControl} implementation,
+ * invoked by the {@link GLDrawableHelper} of an animated drawable.
+ * <p>
+ * Allows the helper to notify the animator w/o depending on its implementation.
+ * </p>
+ */
+public interface AnimatorHooks {
+    /**
+     * Adds the duration of an automatic {@link GLDrawable#swapBuffers()} call
+     * within the current frame in nanoseconds.
+     * <p>
+     * Called on the thread performing the swap, which may differ from the animation thread.
+     * </p>
+     * @param drawable the swapped drawable, i.e. the {@link com.jogamp.opengl.GLAutoDrawable#getDelegatedDrawable() delegated drawable}
+     * @param nanos the swap duration in nanoseconds
+     */
+    void addSwapTime(GLDrawable drawable, long nanos);
+
+    /**
+     * Returns the {@link WakeUpCallback} of a throttling frame rate governor, or <code>null</code> if none is set.
+     * <p>
+     * Woken up when an animated drawable is {@link com.jogamp.opengl.GLAutoDrawable#markDirty() marked dirty}
+     * or a {@link com.jogamp.opengl.GLRunnable} is enqueued.
+     * </p>
+     */
+    WakeUpCallback getFrameRateGovernor();
+}
@@ -29,11 +29,18 @@ package jogamp.opengl;
 
 import java.io.PrintStream;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.jogamp.opengl.FPSCounter;
+import com.jogamp.opengl.FrameTimeSnapshot;
 
 /**
  * Default implementation of FPSCounter to be used for FPSCounter implementing renderer.
+ * <p>
+ * Per frame nanosecond durations are recorded lock-free via {@link FrameTimeHistogram}s,
+ * hence {@link #getFrameTimeSnapshot()} may be called from any thread while rendering.
+ * </p>
  */
 public class FPSCounterImpl implements FPSCounter {
     private int fpsUpdateFramesInterval;
@@ -42,6 +49,17 @@ public class FPSCounterImpl implements FPSCounter {
     private int  fpsTotalFrames;
     private float fpsLast, fpsTotal;
 
+    private final FrameTimeHistogram frameTimes = new FrameTimeHistogram();
+    private final FrameTimeHistogram displayTimes = new FrameTimeHistogram();
+    private final FrameTimeHistogram swapTimes = new FrameTimeHistogram();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    /** Swap durations added via {@link #addSwapTime(long)} since the last {@link #recordDisplayTime(long)}. */
+    private final AtomicLong pendingSwapNanos = new AtomicLong();
+    private final AtomicInteger pendingSwaps = new AtomicInteger();
+    /** Last {@link #tickFPS()} in nanoseconds, {@link Long#MIN_VALUE} if none. */
+    private final AtomicLong lastTickNanos = new AtomicLong(Long.MIN_VALUE);
+    private volatile long targetFramePeriod;
+
     /** Creates a disabled instance */
     public FPSCounterImpl() {
         setUpdateFPSFrames(0, null);
@@ -52,9 +70,69 @@ public class FPSCounterImpl implements FPSCounter {
      * update interval is reached.<br>
      *
      * Shall be called by actual FPSCounter implementing renderer, after display a new frame.
-     *
+     * <p>
+     * The nanosecond frame duration since the previous call is recorded lock-free,
+     * only the millisecond interval values are updated synchronized.
+     * </p>
      */
-    public final synchronized void tickFPS() {
+    public final void tickFPS() {
+        final long now = System.nanoTime();
+        final long last = lastTickNanos.getAndSet(now);
+        if( Long.MIN_VALUE != last ) {
+            final long d = now - last;
+            frameTimes.record(d);
+            final long target = targetFramePeriod;
+            if( 0 < target ) {
+                final long missed = ( d + target / 2 ) / target - 1;
+                if( 0 < missed ) {
+                    droppedFrames.addAndGet(missed);
+                }
+            }
+        }
+        tickFPSInterval();
+    }
+
+    /**
+     * Records the duration of one frame's display call(s) in nanoseconds.
+     * <p>
+     * Shall be called by actual FPSCounter implementing renderer, after display a new frame.
+     * </p>
+     * <p>
+     * If swap durations have been {@link #addSwapTime(long) added} within this frame,
+     * their sum is recorded as the frame's swap time and subtracted from the given duration.
+     * </p>
+     */
+    public final void recordDisplayTime(final long nanos) {
+        if( 0 < pendingSwaps.getAndSet(0) ) {
+            final long swap = pendingSwapNanos.getAndSet(0);
+            swapTimes.record(swap);
+            displayTimes.record(Math.max(0, nanos - swap));
+        } else {
+            displayTimes.record(nanos);
+        }
+    }
+
+    /**
+     * Adds the duration of one {@link com.jogamp.opengl.GLDrawable#swapBuffers()} call
+     * performed within the current frame's display call(s) in nanoseconds,
+     * see {@link #recordDisplayTime(long)}.
+     * <p>
+     * May be called from any thread.
+     * </p>
+     */
+    public final void addSwapTime(final long nanos) {
+        pendingSwapNanos.addAndGet(nanos);
+        pendingSwaps.incrementAndGet();
+    }
+
+    /**
+     * Records the duration of one frame's {@link com.jogamp.opengl.GLDrawable#swapBuffers()} call in nanoseconds.
+     */
+    public final void recordSwapTime(final long nanos) {
+        swapTimes.record(nanos);
+    }
+
+    private final synchronized void tickFPSInterval() {
         fpsTotalFrames++;
         if(fpsUpdateFramesInterval>0 && fpsTotalFrames%fpsUpdateFramesInterval == 0) {
             final long now = TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
@@ -107,6 +185,13 @@ public class FPSCounterImpl implements FPSCounter {
         fpsTotalFrames = 0;
         fpsLast = 0f; fpsTotal = 0f;
         fpsLastPeriod = 0; fpsTotalDuration=0;
+        frameTimes.reset();
+        displayTimes.reset();
+        swapTimes.reset();
+        droppedFrames.set(0);
+        pendingSwaps.set(0);
+        pendingSwapNanos.set(0);
+        lastTickNanos.set(Long.MIN_VALUE);
     }
 
     @Override
@@ -148,4 +233,20 @@ public class FPSCounterImpl implements FPSCounter {
     public final synchronized float getTotalFPS() {
         return fpsTotal;
     }
+
+    @Override
+    public final void setTargetFramePeriod(final long nanos) {
+        targetFramePeriod = Math.max(0, nanos);
+    }
+
+    @Override
+    public final long getTargetFramePeriod() {
+        return targetFramePeriod;
+    }
+
+    @Override
+    public final FrameTimeSnapshot getFrameTimeSnapshot() {
+        return new FrameTimeSnapshot(System.nanoTime(), targetFramePeriod, droppedFrames.get(),
+                                     frameTimes.snapshot(), displayTimes.snapshot(), swapTimes.snapshot());
+    }
 }
@@ -0,0 +1,146 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package jogamp.opengl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.jogamp.opengl.FrameTimeSnapshot;
+
+/**
+ * Lock-free logarithmic histogram of nanosecond durations.
+ * <p>
+ * Each power of two range is split into {@link #SUB_BUCKETS} linear sub-buckets,
+ * resulting in a relative error of <code>1/{@link #SUB_BUCKETS}</code>.
+ * Durations above {@link #MAX_VALUE} are clamped.
+ * </p>
+ * <p>
+ * {@link #record(long)} may be called concurrently with {@link #snapshot()},
+ * a snapshot taken while recording may be off by the frames recorded meanwhile.
+ * </p>
+ */
+public class FrameTimeHistogram {
+    /** Sub-bucket bits, {@value}. */
+    private static final int SUB_BITS = 5;
+    /** Linear sub-buckets per power of two, {@value}. */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+    /** Highest power of two tracked, 2^40 ns, i.e. ~18 minutes. */
+    private static final int MAX_BIT = 40;
+    /** Highest recorded value in nanoseconds, larger values are clamped. */
+    public static final long MAX_VALUE = ( 1L << ( MAX_BIT + 1 ) ) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray( ( MAX_BIT - SUB_BITS + 2 ) * SUB_BUCKETS );
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(0);
+
+    /** Returns the bucket index of the given value. */
+    static int indexOf(final long v) {
+        if( v < SUB_BUCKETS ) {
+            return (int) v;
+        }
+        final int msb = 63 - Long.numberOfLeadingZeros(v);
+        final int shift = msb - SUB_BITS;
+        return ( shift + 1 ) * SUB_BUCKETS + (int) ( ( v >>> shift ) & ( SUB_BUCKETS - 1 ) );
+    }
+
+    /** Returns the highest value of the given bucket index. */
+    static long highestValueOf(final int idx) {
+        final int bucket = idx / SUB_BUCKETS;
+        final long sub = idx % SUB_BUCKETS;
+        if( 0 == bucket ) {
+            return sub;
+        }
+        final int shift = bucket - 1;
+        return ( ( ( SUB_BUCKETS + sub + 1 ) << shift ) - 1 );
+    }
+
+    /** Records the given duration in nanoseconds, negative values are ignored. */
+    public final void record(long ns) {
+        if( 0 > ns ) {
+            return;
+        }
+        if( ns > MAX_VALUE ) {
+            ns = MAX_VALUE;
+        }
+        counts.incrementAndGet(indexOf(ns));
+        count.incrementAndGet();
+        sum.addAndGet(ns);
+        long m;
+        while( ns < ( m = min.get() ) && !min.compareAndSet(m, ns) ) { }
+        while( ns > ( m = max.get() ) && !max.compareAndSet(m, ns) ) { }
+    }
+
+    /** Clears all recorded values. */
+    public final void reset() {
+        for(int i=counts.length()-1; i>=0; i--) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+
+    /** Returns the number of recorded values. */
+    public final long getCount() { return count.get(); }
+
+    /** Returns an immutable {@link FrameTimeSnapshot.Distribution} of the recorded values. */
+    public final FrameTimeSnapshot.Distribution snapshot() {
+        final int len = counts.length();
+        final long[] c = new long[len];
+        long n = 0;
+        for(int i=0; i<len; i++) {
+            c[i] = counts.get(i);
+            n += c[i];
+        }
+        if( 0 == n ) {
+            return new FrameTimeSnapshot.Distribution(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        final long _max = max.get();
+        final long _min = Math.min(min.get(), _max);
+        final long mean = sum.get() / Math.max(1, count.get());
+        return new FrameTimeSnapshot.Distribution(n, _min, _max, mean,
+                                                  percentile(c, n, 50.0, _max), percentile(c, n, 90.0, _max),
+                                                  percentile(c, n, 95.0, _max), percentile(c, n, 99.0, _max),
+                                                  percentile(c, n, 99.9, _max));
+    }
+
+    private static long percentile(final long[] c, final long n, final double p, final long max) {
+        final long rank = Math.max(1, (long) Math.ceil( p / 100.0 * n ));
+        long acc = 0;
+        for(int i=0; i<c.length; i++) {
+            acc += c[i];
+            if( acc >= rank ) {
+                return Math.min(highestValueOf(i), max);
+            }
+        }
+        return max;
+    }
+}
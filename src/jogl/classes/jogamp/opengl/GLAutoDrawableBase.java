@@ -30,6 +30,7 @@ package jogamp.opengl;
 
 import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.jogamp.nativewindow.AbstractGraphicsDevice;
 import com.jogamp.nativewindow.NativeSurface;
@@ -37,6 +38,7 @@ import com.jogamp.nativewindow.NativeWindowException;
 import com.jogamp.nativewindow.WindowClosingProtocol;
 import com.jogamp.nativewindow.WindowClosingProtocol.WindowClosingMode;
 import com.jogamp.opengl.FPSCounter;
+import com.jogamp.opengl.FrameTimeSnapshot;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GLAnimatorControl;
 import com.jogamp.opengl.GLAutoDrawable;
@@ -44,6 +46,7 @@ import com.jogamp.opengl.GLCapabilitiesImmutable;
 import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLEventListenerProfiler;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLOffscreenAutoDrawable;
 import com.jogamp.opengl.GLProfile;
@@ -114,6 +117,7 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
         if(null != context && null != drawable) {
             context.setGLDrawable(drawable, false);
         }
+        helper.setSwapTimeCounter(fpsCounter);
         resetFPSCounter();
     }
 
@@ -209,6 +213,7 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
 
     /** Default implementation to handle repaint events from the windowing system */
     protected final void defaultWindowRepaintOp() {
+        helper.markDirty(); // exposed content must be rendered, even if governed
         final GLDrawable _drawable = drawable;
         if( null != _drawable && _drawable.isRealized() ) {
             if( !_drawable.getNativeSurface().isSurfaceLockedByOtherThread() && !helper.isAnimatorAnimatingOnOtherThread() ) {
@@ -255,6 +260,7 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
                 }
             }
             sendReshape = true; // async if display() doesn't get called below, but avoiding deadlock
+            helper.markDirty();
             if( _drawable.isRealized() ) {
                 if( !_drawable.getNativeSurface().isSurfaceLockedByOtherThread() && !helper.isAnimatorAnimatingOnOtherThread() ) {
                     display();
@@ -440,7 +446,9 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
                 helper.reshape(GLAutoDrawableBase.this, 0, 0, getSurfaceWidth(), getSurfaceHeight());
                 sendReshape = false;
             }
+            final long t0 = System.nanoTime();
             helper.display(GLAutoDrawableBase.this);
+            fpsCounter.recordDisplayTime(System.nanoTime() - t0);
             fpsCounter.tickFPS();
         } };
 
@@ -647,6 +655,43 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
         return helper.invoke(this, wait, glRunnables);
     }
 
+    @Override
+    public Future<Boolean> invokeAsync(final GLRunnable glRunnable) throws IllegalStateException {
+        return helper.invokeAsync(this, glRunnable);
+    }
+
+    @Override
+    public final void setGLEventListenerProfiler(final GLEventListenerProfiler profiler) {
+        helper.setGLEventListenerProfiler(profiler);
+    }
+
+    @Override
+    public final GLEventListenerProfiler getGLEventListenerProfiler() {
+        return helper.getGLEventListenerProfiler();
+    }
+
+    @Override
+    public final void markDirty() {
+        helper.markDirty();
+    }
+
+    @Override
+    public final boolean isDirty() {
+        return helper.isDirty();
+    }
+
+    /**
+     * Sets the time budget for executing queued {@link GLRunnable}s per {@link #display()} in nanoseconds,
+     * deferring the remaining ones to the next {@link #display()}. Zero, the default, disables the budget.
+     * @throws IllegalArgumentException if <code>nanos</code> is negative
+     */
+    public final void setGLRunnableTimeBudget(final long nanos) throws IllegalArgumentException {
+        helper.setGLRunnableTimeBudget(nanos);
+    }
+
+    /** Returns the time budget for executing queued {@link GLRunnable}s per {@link #display()} in nanoseconds. */
+    public final long getGLRunnableTimeBudget() { return helper.getGLRunnableTimeBudget(); }
+
     @Override
     public void flushGLRunnables() {
         helper.flushGLRunnables();
@@ -739,6 +784,21 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
         return fpsCounter.getTotalFPS();
     }
 
+    @Override
+    public final void setTargetFramePeriod(final long nanos) {
+        fpsCounter.setTargetFramePeriod(nanos);
+    }
+
+    @Override
+    public final long getTargetFramePeriod() {
+        return fpsCounter.getTargetFramePeriod();
+    }
+
+    @Override
+    public final FrameTimeSnapshot getFrameTimeSnapshot() {
+        return fpsCounter.getFrameTimeSnapshot();
+    }
+
     //
     // GLDrawable delegation
     //
@@ -771,6 +831,7 @@ public abstract class GLAutoDrawableBase implements GLAutoDrawable, GLStateKeepe
             _drawable.setRealized(realized);
             if( realized && _drawable.isRealized() ) {
                 sendReshape=true; // ensure a reshape is being send ..
+                helper.markDirty();
             }
         } finally {
             _lock.unlock();
@@ -93,6 +93,14 @@ import com.jogamp.common.util.PropertyAccess;
  * maybe shared across multiple OpenGL context, hence this class is thread safe and employs synchronization.
  * </p>
  * <p>
+ * Synchronization is lock-striped by buffer name, i.e. the buffer-name to {@link GLBufferStorage} map
+ * is partitioned into {@link #STRIPE_COUNT} segments, each guarded by its own monitor.
+ * All operations on one buffer, incl. the native dispatch, are performed atomically while holding its segment's monitor,
+ * while operations on buffers of different segments may proceed concurrently.
+ * Hence multiple threads of a shared context group do not contend on a single monitor
+ * for every buffer storage creation and mapping.
+ * </p>
+ * <p>
  * Implementation requires and utilizes a local {@link GLBufferStateTracker}
  * to resolve the actual buffer-name bound to the given target.
  * </p>
@@ -124,13 +132,40 @@ public class GLBufferObjectTracker {
     }
 
     /**
-     * Map from buffer names to GLBufferObject.
+     * Number of lock-striped segments, a power of two.
+     * <p>
+     * Buffer names are usually allocated sequentially,
+     * hence the lower bits of the name are sufficient to spread buffers across segments.
+     * </p>
      */
-    private final IntObjectHashMap bufferName2StorageMap;
+    public static final int STRIPE_COUNT = 16;
+    private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+
+    /**
+     * Lock-striped segment, mapping buffer names to GLBufferStorageImpl.
+     * <p>
+     * The segment instance itself is used as the monitor guarding its map and the tracked storage instances.
+     * </p>
+     */
+    private static final class Stripe {
+        final IntObjectHashMap bufferName2StorageMap;
+        Stripe() {
+            bufferName2StorageMap = new IntObjectHashMap();
+            bufferName2StorageMap.setKeyNotFoundValue(null);
+        }
+    }
+
+    private final Stripe[] stripes;
 
     public GLBufferObjectTracker() {
-        bufferName2StorageMap = new IntObjectHashMap();
-        bufferName2StorageMap.setKeyNotFoundValue(null);
+        stripes = new Stripe[STRIPE_COUNT];
+        for(int i=0; i<STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private final Stripe getStripe(final int bufferName) {
+        return stripes[bufferName & STRIPE_MASK];
     }
 
     public static interface CreateStorageDispatch {
@@ -152,7 +187,7 @@ public class GLBufferObjectTracker {
      * @throws GLException if size is less-or-eqaul zero for <code>glBufferStorage</code>, or size is less-than zero otherwise
      * @throws GLException if a native GL-Error occurs
      */
-    public synchronized final void createBufferStorage(final GLBufferStateTracker bufferStateTracker, final GL caller,
+    public final void createBufferStorage(final GLBufferStateTracker bufferStateTracker, final GL caller,
                                                        final int target, final long size, final Buffer data, final int mutableUsage, final int immutableFlags,
                                                        final CreateStorageDispatch dispatch) throws GLException {
         final int glerrPre = caller.glGetError(); // clear
@@ -170,23 +205,26 @@ public class GLBufferObjectTracker {
             throw new GLException(String.format("%s: Invalid size %d for buffer %d on target 0x%X", GL_INVALID_VALUE, size, bufferName, target));
         }
 
-        dispatch.create(target, size, data, mutableBuffer ? mutableUsage : immutableFlags);
-        final int glerrPost = caller.glGetError(); // be safe, catch failure!
-        if(GL.GL_NO_ERROR != glerrPost) {
-            throw new GLException(String.format("GL-Error 0x%X while creating %s storage for target 0x%X -> buffer %d of size %d with data %s",
-                    glerrPost, mutableBuffer ? "mutable" : "immutable", target, bufferName, size, data));
-        }
-        final GLBufferStorageImpl objOld = (GLBufferStorageImpl) bufferName2StorageMap.get(bufferName);
-        if( null != objOld ) {
-            objOld.reset(size, mutableUsage, immutableFlags);
-            if (DEBUG) {
-                System.err.printf("%s.%s target: 0x%X -> reset %d: %s%n", msgClazzName, msgCreateBound, target, bufferName, objOld);
+        final Stripe stripe = getStripe(bufferName);
+        synchronized( stripe ) {
+            dispatch.create(target, size, data, mutableBuffer ? mutableUsage : immutableFlags);
+            final int glerrPost = caller.glGetError(); // be safe, catch failure!
+            if(GL.GL_NO_ERROR != glerrPost) {
+                throw new GLException(String.format("GL-Error 0x%X while creating %s storage for target 0x%X -> buffer %d of size %d with data %s",
+                        glerrPost, mutableBuffer ? "mutable" : "immutable", target, bufferName, size, data));
             }
-        } else {
-            final GLBufferStorageImpl objNew = new GLBufferStorageImpl(bufferName, size, mutableUsage, immutableFlags);
-            bufferName2StorageMap.put(bufferName, objNew);
-            if (DEBUG) {
-                System.err.printf("%s.%s target: 0x%X -> new %d: %s%n", msgClazzName, msgCreateBound, target, bufferName, objNew);
+            final GLBufferStorageImpl objOld = (GLBufferStorageImpl) stripe.bufferName2StorageMap.get(bufferName);
+            if( null != objOld ) {
+                objOld.reset(size, mutableUsage, immutableFlags);
+                if (DEBUG) {
+                    System.err.printf("%s.%s target: 0x%X -> reset %d: %s%n", msgClazzName, msgCreateBound, target, bufferName, objOld);
+                }
+            } else {
+                final GLBufferStorageImpl objNew = new GLBufferStorageImpl(bufferName, size, mutableUsage, immutableFlags);
+                stripe.bufferName2StorageMap.put(bufferName, objNew);
+                if (DEBUG) {
+                    System.err.printf("%s.%s target: 0x%X -> new %d: %s%n", msgClazzName, msgCreateBound, target, bufferName, objNew);
+                }
             }
         }
     }
@@ -204,7 +242,7 @@ public class GLBufferObjectTracker {
      * @throws GLException if size is less-than zero
      * @throws GLException if a native GL-Error occurs
      */
-    public synchronized final void createBufferStorage(final GL caller,
+    public final void createBufferStorage(final GL caller,
                                                        final int bufferName, final long size, final Buffer data, final int mutableUsage, final int immutableFlags,
                                                        final CreateStorageDispatch dispatch) throws GLException {
         final int glerrPre = caller.glGetError(); // clear
@@ -218,34 +256,40 @@ public class GLBufferObjectTracker {
         if( !mutableBuffer ) {
             throw new InternalError("Immutable glNamedBufferStorage not supported yet");
         }
-        dispatch.create(bufferName, size, data, mutableUsage);
-        final int glerrPost = caller.glGetError(); // be safe, catch failure!
-        if(GL.GL_NO_ERROR != glerrPost) {
-            throw new GLException(String.format("GL-Error 0x%X while creating %s storage for buffer %d of size %d with data %s",
-                                                glerrPost, "mutable", bufferName, size, data));
-        }
-        final GLBufferStorageImpl objOld = (GLBufferStorageImpl) bufferName2StorageMap.get(bufferName);
-        if( null != objOld ) {
-            objOld.reset(size, mutableUsage, immutableFlags);
-            if (DEBUG) {
-                System.err.printf("%s.%s direct: reset %d: %s%n", msgClazzName, msgCreateNamed, bufferName, objOld);
+        final Stripe stripe = getStripe(bufferName);
+        synchronized( stripe ) {
+            dispatch.create(bufferName, size, data, mutableUsage);
+            final int glerrPost = caller.glGetError(); // be safe, catch failure!
+            if(GL.GL_NO_ERROR != glerrPost) {
+                throw new GLException(String.format("GL-Error 0x%X while creating %s storage for buffer %d of size %d with data %s",
+                                                    glerrPost, "mutable", bufferName, size, data));
             }
-        } else {
-            final GLBufferStorageImpl objNew = new GLBufferStorageImpl(bufferName, size, mutableUsage, immutableFlags);
-            bufferName2StorageMap.put(bufferName, objNew);
-            if (DEBUG) {
-                System.err.printf("%s.%s direct: new %d: %s%n", msgClazzName, msgCreateNamed, bufferName, objNew);
+            final GLBufferStorageImpl objOld = (GLBufferStorageImpl) stripe.bufferName2StorageMap.get(bufferName);
+            if( null != objOld ) {
+                objOld.reset(size, mutableUsage, immutableFlags);
+                if (DEBUG) {
+                    System.err.printf("%s.%s direct: reset %d: %s%n", msgClazzName, msgCreateNamed, bufferName, objOld);
+                }
+            } else {
+                final GLBufferStorageImpl objNew = new GLBufferStorageImpl(bufferName, size, mutableUsage, immutableFlags);
+                stripe.bufferName2StorageMap.put(bufferName, objNew);
+                if (DEBUG) {
+                    System.err.printf("%s.%s direct: new %d: %s%n", msgClazzName, msgCreateNamed, bufferName, objNew);
+                }
             }
         }
     }
 
     /**
      * Must be called when deleting GL buffer objects vis <code>glDeleteBuffers</code>.
+     * <p>
+     * Each buffer is untracked atomically, however, the whole set of buffers is not.
+     * </p>
      * @param count
      * @param bufferNames
      * @param offset
      */
-    public synchronized final void notifyBuffersDeleted(final int count, final int[] bufferNames, final int offset) {
+    public final void notifyBuffersDeleted(final int count, final int[] bufferNames, final int offset) {
         for(int i=0; i<count; i++) {
             notifyBufferDeleted(bufferNames[i+offset], i, count);
         }
@@ -255,7 +299,7 @@ public class GLBufferObjectTracker {
      * @param n
      * @param bufferNames
      */
-    public synchronized final void notifyBuffersDeleted(final int n, final IntBuffer bufferNames) {
+    public final void notifyBuffersDeleted(final int n, final IntBuffer bufferNames) {
         final int offset = bufferNames.position();
         for(int i=0; i<n; i++) {
             notifyBufferDeleted(bufferNames.get(i+offset), i, n);
@@ -267,19 +311,22 @@ public class GLBufferObjectTracker {
      * @param i
      * @param count
      */
-    private synchronized final void notifyBufferDeleted(final int bufferName, final int i, final int count) {
-        final GLBufferStorageImpl objOld = (GLBufferStorageImpl) bufferName2StorageMap.put(bufferName, null);
-        if (DEBUG) {
-            System.err.printf("%s.notifyBuffersDeleted()[%d/%d]: %d: %s -> null%n", msgClazzName, i+1, count, bufferName, objOld);
-        }
-        if( null == objOld ) {
+    private final void notifyBufferDeleted(final int bufferName, final int i, final int count) {
+        final Stripe stripe = getStripe(bufferName);
+        synchronized( stripe ) {
+            final GLBufferStorageImpl objOld = (GLBufferStorageImpl) stripe.bufferName2StorageMap.remove(bufferName);
             if (DEBUG) {
-                System.err.printf("%s: %s.notifyBuffersDeleted()[%d/%d]: Buffer %d not tracked%n", warning, msgClazzName, i+1, count, bufferName);
-                ExceptionUtils.dumpStack(System.err);
+                System.err.printf("%s.notifyBuffersDeleted()[%d/%d]: %d: %s -> null%n", msgClazzName, i+1, count, bufferName, objOld);
+            }
+            if( null == objOld ) {
+                if (DEBUG) {
+                    System.err.printf("%s: %s.notifyBuffersDeleted()[%d/%d]: Buffer %d not tracked%n", warning, msgClazzName, i+1, count, bufferName);
+                    ExceptionUtils.dumpStack(System.err);
+                }
+                return;
             }
-            return;
+            objOld.setMappedBuffer(null);
         }
-        objOld.setMappedBuffer(null);
     }
 
     public static interface MapBufferDispatch {
@@ -302,9 +349,9 @@ public class GLBufferObjectTracker {
      * @throws GLException if buffer is already mapped
      * @throws GLException if buffer has invalid store size, i.e. less-than zero
      */
-    public synchronized final GLBufferStorage mapBuffer(final GLBufferStateTracker bufferStateTracker,
-                                                        final GL caller, final int target, final int access,
-                                                        final MapBufferAllDispatch dispatch) throws GLException {
+    public final GLBufferStorage mapBuffer(final GLBufferStateTracker bufferStateTracker,
+                                          final GL caller, final int target, final int access,
+                                          final MapBufferAllDispatch dispatch) throws GLException {
         return this.mapBufferImpl(bufferStateTracker, caller, target, false /* useRange */, 0 /* offset */, 0 /* length */, access, dispatch);
     }
     /**
@@ -315,9 +362,9 @@ public class GLBufferObjectTracker {
      * @throws GLException if buffer has invalid store size, i.e. less-than zero
      * @throws GLException if buffer mapping range does not fit, incl. offset
      */
-    public synchronized final GLBufferStorage mapBuffer(final GLBufferStateTracker bufferStateTracker,
-                                                        final GL caller, final int target, final long offset, final long length, final int access,
-                                                        final MapBufferRangeDispatch dispatch) throws GLException {
+    public final GLBufferStorage mapBuffer(final GLBufferStateTracker bufferStateTracker,
+                                          final GL caller, final int target, final long offset, final long length, final int access,
+                                          final MapBufferRangeDispatch dispatch) throws GLException {
         return this.mapBufferImpl(bufferStateTracker, caller, target, true /* useRange */, offset, length, access, dispatch);
     }
     /**
@@ -326,7 +373,7 @@ public class GLBufferObjectTracker {
      * @throws GLException if buffer is already mapped
      * @throws GLException if buffer has invalid store size, i.e. less-than zero
      */
-    public synchronized final GLBufferStorage mapBuffer(final int bufferName, final int access, final MapBufferAllDispatch dispatch) throws GLException {
+    public final GLBufferStorage mapBuffer(final int bufferName, final int access, final MapBufferAllDispatch dispatch) throws GLException {
         return this.mapBufferImpl(0 /* target */, bufferName, true /* isNamedBuffer */, false /* useRange */, 0 /* offset */, 0 /* length */, access, dispatch);
     }
     /**
@@ -336,7 +383,7 @@ public class GLBufferObjectTracker {
      * @throws GLException if buffer has invalid store size, i.e. less-than zero
      * @throws GLException if buffer mapping range does not fit, incl. offset
      */
-    public synchronized final GLBufferStorage mapBuffer(final int bufferName, final long offset, final long length, final int access, final MapBufferRangeDispatch dispatch) throws GLException {
+    public final GLBufferStorage mapBuffer(final int bufferName, final long offset, final long length, final int access, final MapBufferRangeDispatch dispatch) throws GLException {
         return this.mapBufferImpl(0 /* target */, bufferName, true /* isNamedBuffer */, true /* useRange */, offset, length, access, dispatch);
     }
     /**
@@ -346,10 +393,10 @@ public class GLBufferObjectTracker {
      * @throws GLException if buffer has invalid store size, i.e. less-than zero
      * @throws GLException if buffer mapping range does not fit, incl. optional offset
      */
-    private synchronized final GLBufferStorage mapBufferImpl(final GLBufferStateTracker bufferStateTracker,
-                                                             final GL caller, final int target, final boolean useRange,
-                                                             final long offset, final long length, final int access,
-                                                             final MapBufferDispatch dispatch) throws GLException {
+    private final GLBufferStorage mapBufferImpl(final GLBufferStateTracker bufferStateTracker,
+                                               final GL caller, final int target, final boolean useRange,
+                                               final long offset, final long length, final int access,
+                                               final MapBufferDispatch dispatch) throws GLException {
         final int bufferName = bufferStateTracker.getBoundBufferObject(target, caller);
         if( 0 == bufferName ) {
             throw new GLException(String.format("%s.%s: %s Buffer for target 0x%X not bound", msgClazzName, msgMapBuffer, GL_INVALID_OPERATION, target));
@@ -370,9 +417,16 @@ public class GLBufferObjectTracker {
      * @throws GLException if buffer has invalid store size, i.e. less-than zero
      * @throws GLException if buffer mapping range does not fit, incl. optional offset
      */
-    private synchronized final GLBufferStorage mapBufferImpl(final int target, final int bufferName, final boolean isNamedBuffer, final boolean useRange, long offset,
-                                                             long length, final int access, final MapBufferDispatch dispatch) throws GLException {
-        final GLBufferStorageImpl store = (GLBufferStorageImpl)bufferName2StorageMap.get(bufferName);
+    private final GLBufferStorage mapBufferImpl(final int target, final int bufferName, final boolean isNamedBuffer, final boolean useRange, long offset,
+                                               long length, final int access, final MapBufferDispatch dispatch) throws GLException {
+        final Stripe stripe = getStripe(bufferName);
+        synchronized( stripe ) {
+            return mapBufferImpl(stripe, target, bufferName, isNamedBuffer, useRange, offset, length, access, dispatch);
+        }
+    }
+    private final GLBufferStorage mapBufferImpl(final Stripe stripe, final int target, final int bufferName, final boolean isNamedBuffer, final boolean useRange, long offset,
+                                                long length, final int access, final MapBufferDispatch dispatch) throws GLException {
+        final GLBufferStorageImpl store = (GLBufferStorageImpl)stripe.bufferName2StorageMap.get(bufferName);
         if ( null == store ) {
             throw new GLException("Buffer with name "+bufferName+" not tracked");
         }
@@ -440,28 +494,33 @@ public class GLBufferObjectTracker {
      * if native unmapping was successful.
      * </p>
      */
-    public synchronized final boolean unmapBuffer(final GLBufferStateTracker bufferStateTracker, final GL caller,
-                                                  final int target,
-                                                  final UnmapBufferDispatch dispatch) {
+    public final boolean unmapBuffer(final GLBufferStateTracker bufferStateTracker, final GL caller,
+                                     final int target,
+                                     final UnmapBufferDispatch dispatch) {
         final int bufferName = bufferStateTracker.getBoundBufferObject(target, caller);
         final GLBufferStorageImpl store;
+        final boolean res;
         if( 0 == bufferName ) {
             if (DEBUG) {
                 System.err.printf("%s: %s.%s: Buffer for target 0x%X not bound%n", warning, msgClazzName, msgUnmapped, target);
                 ExceptionUtils.dumpStack(System.err);
             }
             store = null;
+            res = dispatch.unmap(target);
         } else {
-            store = (GLBufferStorageImpl) bufferName2StorageMap.get(bufferName);
-            if( DEBUG && null == store ) {
-                System.err.printf("%s: %s.%s: Buffer %d not tracked%n", warning, msgClazzName, msgUnmapped, bufferName);
-                ExceptionUtils.dumpStack(System.err);
+            final Stripe stripe = getStripe(bufferName);
+            synchronized( stripe ) {
+                store = (GLBufferStorageImpl) stripe.bufferName2StorageMap.get(bufferName);
+                if( DEBUG && null == store ) {
+                    System.err.printf("%s: %s.%s: Buffer %d not tracked%n", warning, msgClazzName, msgUnmapped, bufferName);
+                    ExceptionUtils.dumpStack(System.err);
+                }
+                res = dispatch.unmap(target);
+                if( res && null != store ) {
+                    store.setMappedBuffer(null);
+                }
             }
         }
-        final boolean res = dispatch.unmap(target);
-        if( res && null != store ) {
-            store.setMappedBuffer(null);
-        }
         if( DEBUG ) {
             System.err.printf("%s.%s %s target: 0x%X -> %d: %s%n", msgClazzName, msgUnmapped, res ? "OK" : "Failed", target, bufferName, store.toString(false));
             if(!res) {
@@ -477,16 +536,21 @@ public class GLBufferObjectTracker {
      * if native unmapping was successful.
      * </p>
      */
-    public synchronized final boolean unmapBuffer(final int bufferName,
-                                                  final UnmapBufferDispatch dispatch) {
-        final GLBufferStorageImpl store = (GLBufferStorageImpl) bufferName2StorageMap.get(bufferName);
-        if (DEBUG && null == store ) {
-            System.err.printf("%s: %s.%s: Buffer %d not tracked%n", warning, msgClazzName, msgUnmapped, bufferName);
-            ExceptionUtils.dumpStack(System.err);
-        }
-        final boolean res = dispatch.unmap(bufferName);
-        if( res && null != store ) {
-            store.setMappedBuffer(null);
+    public final boolean unmapBuffer(final int bufferName,
+                                     final UnmapBufferDispatch dispatch) {
+        final GLBufferStorageImpl store;
+        final boolean res;
+        final Stripe stripe = getStripe(bufferName);
+        synchronized( stripe ) {
+            store = (GLBufferStorageImpl) stripe.bufferName2StorageMap.get(bufferName);
+            if (DEBUG && null == store ) {
+                System.err.printf("%s: %s.%s: Buffer %d not tracked%n", warning, msgClazzName, msgUnmapped, bufferName);
+                ExceptionUtils.dumpStack(System.err);
+            }
+            res = dispatch.unmap(bufferName);
+            if( res && null != store ) {
+                store.setMappedBuffer(null);
+            }
         }
         if (DEBUG) {
             System.err.printf("%s.%s %s %d: %s%n", msgClazzName, msgUnmapped, res ? "OK" : "Failed", bufferName, store.toString(false));
@@ -497,8 +561,11 @@ public class GLBufferObjectTracker {
         return res;
     }
 
-    public synchronized final GLBufferStorage getBufferStorage(final int bufferName) {
-        return (GLBufferStorageImpl)bufferName2StorageMap.get(bufferName);
+    public final GLBufferStorage getBufferStorage(final int bufferName) {
+        final Stripe stripe = getStripe(bufferName);
+        synchronized( stripe ) {
+            return (GLBufferStorageImpl)stripe.bufferName2StorageMap.get(bufferName);
+        }
     }
 
     /**
@@ -508,12 +575,17 @@ public class GLBufferObjectTracker {
      * there are no other shared GLContext instances left.
      * </p>
      */
-    public synchronized final void clear() {
+    public final void clear() {
         if (DEBUG) {
           System.err.printf("%s.clear() - Thread %s%n", msgClazzName, Thread.currentThread().getName());
           // ExceptionUtils.dumpStackTrace(System.err);
         }
-        bufferName2StorageMap.clear();
+        for(int i=0; i<STRIPE_COUNT; i++) {
+            final Stripe stripe = stripes[i];
+            synchronized( stripe ) {
+                stripe.bufferName2StorageMap.clear();
+            }
+        }
     }
 
     private static final String warning  = "WARNING";
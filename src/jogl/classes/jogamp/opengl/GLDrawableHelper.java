@@ -44,6 +44,9 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.jogamp.nativewindow.NativeSurface;
 import com.jogamp.nativewindow.NativeWindowException;
@@ -56,6 +59,7 @@ import com.jogamp.opengl.GLContext;
 import com.jogamp.opengl.GLDrawable;
 import com.jogamp.opengl.GLDrawableFactory;
 import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLEventListenerProfiler;
 import com.jogamp.opengl.GLException;
 import com.jogamp.opengl.GLFBODrawable;
 import com.jogamp.opengl.GLRunnable;
@@ -81,14 +85,24 @@ public class GLDrawableHelper {
   private final Object listenersLock = new Object();
   private final ArrayList<GLEventListener> listeners = new ArrayList<GLEventListener>();
   private final HashSet<GLEventListener> listenersToBeInit = new HashSet<GLEventListener>();
-  private final Object glRunnablesLock = new Object();
-  private ArrayList<GLRunnableTask> glRunnables = new ArrayList<GLRunnableTask>();
-  private volatile int glRunnableCount = 0;
+  private final Object animatorLock = new Object();
+  /** Lock-free multiple producer queue, consumed by the GL thread only. */
+  private final ConcurrentLinkedQueue<GLRunnableTask> glRunnables = new ConcurrentLinkedQueue<GLRunnableTask>();
+  private final AtomicInteger glRunnableCount = new AtomicInteger(0);
+  /** Incremented at the start of each {@link #flushGLRunnables()}, allowing invokers to detect a concurrent flush. */
+  private final AtomicInteger glRunnableFlushCount = new AtomicInteger(0);
+  /** Number of invokers driving {@link GLAutoDrawable#display()} themselves, suspending the time budget. */
+  private final AtomicInteger glRunnableDrainCount = new AtomicInteger(0);
+  private volatile long glRunnableTimeBudget = 0;
   private boolean autoSwapBufferMode;
   private volatile Thread exclusiveContextThread;
   /** -1 release, 0 nop, 1 claim */
   private volatile int exclusiveContextSwitch;
-  private GLAnimatorControl animatorCtrl;
+  private volatile GLAnimatorControl animatorCtrl;
+  private volatile FPSCounterImpl swapTimeCounter;
+  private volatile GLEventListenerProfiler listenerProfiler;
+  /** Content changed since last {@link #display(GLAutoDrawable)}, initially <code>true</code>. */
+  private volatile boolean dirty = true;
   private static Runnable nop = new Runnable() { @Override public void run() {} };
 
   private GLContext sharedContext;
@@ -107,10 +121,9 @@ public class GLDrawableHelper {
     autoSwapBufferMode = true;
     exclusiveContextThread = null;
     exclusiveContextSwitch = 0;
-    synchronized(glRunnablesLock) {
-        glRunnableCount = 0;
-        glRunnables.clear();
-    }
+    glRunnables.clear();
+    glRunnableCount.set(0);
+    glRunnableTimeBudget = 0;
     animatorCtrl = null;
     sharedContext = null;
     sharedAutoDrawable = null;
@@ -557,6 +570,10 @@ public class GLDrawableHelper {
             }
         }
     }
+    final GLEventListenerProfiler profiler = listenerProfiler;
+    if( null != profiler && null != autoDrawable.getGL() ) {
+        profiler.releaseGL(autoDrawable.getGL());
+    }
     if( null != firstCaught ) {
         flushGLRunnables();
         throw GLException.newGLException(firstCaught);
@@ -641,9 +658,32 @@ public class GLDrawableHelper {
   }
 
   private final void init(final GLEventListener l, final GLAutoDrawable drawable, final boolean sendReshape) {
-      l.init(drawable);
-      if(sendReshape) {
-          l.reshape(drawable, 0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+      final GLEventListenerProfiler profiler = listenerProfiler;
+      if( null == profiler ) {
+          l.init(drawable);
+          if(sendReshape) {
+              l.reshape(drawable, 0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+          }
+      } else {
+          profiler.beginCallback(drawable, l, GLEventListenerProfiler.Phase.INIT);
+          try {
+              l.init(drawable);
+          } finally {
+              profiler.endCallback(drawable);
+          }
+          if(sendReshape) {
+              reshape(profiler, l, drawable, 0, 0, drawable.getSurfaceWidth(), drawable.getSurfaceHeight());
+          }
+      }
+  }
+
+  private static final void reshape(final GLEventListenerProfiler profiler, final GLEventListener l, final GLAutoDrawable drawable,
+                                    final int x, final int y, final int width, final int height) {
+      profiler.beginCallback(drawable, l, GLEventListenerProfiler.Phase.RESHAPE);
+      try {
+          l.reshape(drawable, x, y, width, height);
+      } finally {
+          profiler.endCallback(drawable);
       }
   }
 
@@ -671,14 +711,16 @@ public class GLDrawableHelper {
   }
 
   public final void display(final GLAutoDrawable drawable) {
+    dirty = false; // cleared upfront, retaining marks issued while rendering
     displayImpl(drawable);
     // runForAllGLEventListener(drawable, displayAction);
-    if( glRunnableCount > 0 && !execGLRunnables(drawable) ) { // glRunnableCount volatile OK; execGL.. only executed if size > 0
+    if( glRunnableCount.get() > 0 && !execGLRunnables(drawable) ) { // execGL.. only executed if size > 0
         displayImpl(drawable);
         // runForAllGLEventListener(drawable, displayAction);
     }
   }
   private final void displayImpl(final GLAutoDrawable drawable) {
+      final GLEventListenerProfiler profiler = listenerProfiler;
       synchronized(listenersLock) {
           final ArrayList<GLEventListener> _listeners = listeners;
           final int listenerCount = _listeners.size();
@@ -689,7 +731,16 @@ public class GLDrawableHelper {
             if( listenersToBeInit.remove(listener) ) {
                 init( listener, drawable, true /* sendReshape */ );
             }
-            listener.display(drawable);
+            if( null == profiler ) {
+                listener.display(drawable);
+            } else {
+                profiler.beginCallback(drawable, listener, GLEventListenerProfiler.Phase.DISPLAY);
+                try {
+                    listener.display(drawable);
+                } finally {
+                    profiler.endCallback(drawable);
+                }
+            }
           }
       }
   }
@@ -740,49 +791,146 @@ public class GLDrawableHelper {
 
   public final void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) {
     setViewportAndClear(drawable, x, y, width, height);
+    final GLEventListenerProfiler profiler = listenerProfiler;
     synchronized(listenersLock) {
         for (int i=0; i < listeners.size(); i++) {
             final GLEventListener l = listeners.get(i);
             // GLEventListener may need to be init,
             // in case this one is added after the realization of the GLAutoDrawable
             if( listenersToBeInit.remove(l) ) {
-                l.init(drawable);
+                init(l, drawable, false /* sendReshape */);
+            }
+            if( null == profiler ) {
+                l.reshape(drawable, x, y, width, height);
+            } else {
+                reshape(profiler, l, drawable, x, y, width, height);
             }
-            l.reshape(drawable, x, y, width, height);
         }
     }
   }
 
-  private final boolean execGLRunnables(final GLAutoDrawable drawable) { // glRunnables.size()>0
-    // swap one-shot list asap
-    final ArrayList<GLRunnableTask> _glRunnables;
-    synchronized(glRunnablesLock) {
-        if( glRunnables.size() > 0 ) {
-            glRunnableCount = 0;
-            _glRunnables = glRunnables;
-            glRunnables = new ArrayList<GLRunnableTask>();
-        } else {
-            return true;
-        }
-    }
+  /**
+   * Drains the {@link GLRunnable}s enqueued before this call in one batch,
+   * tasks enqueued meanwhile are executed w/ the next {@link #display(GLAutoDrawable)}.
+   * Draining stops early, if the {@link #setGLRunnableTimeBudget(long) time budget} is exceeded,
+   * unless an invoker drives this {@link #display(GLAutoDrawable)} to execute its task.
+   */
+  private final boolean execGLRunnables(final GLAutoDrawable drawable) { // glRunnableCount>0
+    final int count = glRunnableCount.get();
+    final long budget = glRunnableTimeBudget;
+    final long t0 = 0 < budget ? System.nanoTime() : 0;
     boolean res = true;
-    for (int i=0; i < _glRunnables.size(); i++) {
-        res = _glRunnables.get(i).run(drawable) && res;
+    for (int i=0; i < count; i++) {
+        final GLRunnableTask task = glRunnables.poll();
+        if( null == task ) {
+            break;
+        }
+        glRunnableCount.decrementAndGet();
+        res = task.run(drawable) && res;
+        if( 0 < budget && System.nanoTime() - t0 >= budget && 0 == glRunnableDrainCount.get() ) {
+            break; // remaining tasks are executed w/ next display
+        }
     }
     return res;
   }
 
   public final void flushGLRunnables() {
-    synchronized(glRunnablesLock) {
-        glRunnableCount = 0;
-        while( glRunnables.size() > 0 ) {
-            glRunnables.remove(0).flush();
-        }
+    glRunnableFlushCount.incrementAndGet();
+    GLRunnableTask task;
+    while( null != ( task = glRunnables.poll() ) ) {
+        glRunnableCount.decrementAndGet();
+        task.flush();
+    }
+  }
+
+  /**
+   * Sets the time budget for executing queued {@link GLRunnable}s per {@link #display(GLAutoDrawable)} in nanoseconds.
+   * <p>
+   * Once exceeded, the remaining {@link GLRunnable}s are deferred to the next {@link #display(GLAutoDrawable)},
+   * while at least one {@link GLRunnable} is executed per {@link #display(GLAutoDrawable)}.
+   * The budget is ignored for {@link #display(GLAutoDrawable)} calls issued by {@link #invoke(GLAutoDrawable, boolean, GLRunnable)}
+   * on behalf of the caller, i.e. w/o an animator, hence the caller's {@link GLRunnable} is always executed.
+   * A value of zero, the default, executes all {@link GLRunnable}s queued before the {@link #display(GLAutoDrawable)} call.
+   * </p>
+   * @param nanos time budget in nanoseconds, zero disables the budget
+   * @throws IllegalArgumentException if <code>nanos</code> is negative
+   */
+  public final void setGLRunnableTimeBudget(final long nanos) throws IllegalArgumentException {
+    if( 0 > nanos ) {
+        throw new IllegalArgumentException("Negative budget "+nanos);
+    }
+    glRunnableTimeBudget = nanos;
+  }
+
+  /** Returns the time budget for executing queued {@link GLRunnable}s per {@link #display(GLAutoDrawable)} in nanoseconds, see {@link #setGLRunnableTimeBudget(long)}. */
+  public final long getGLRunnableTimeBudget() { return glRunnableTimeBudget; }
+
+  /** Returns the number of queued {@link GLRunnable}s. */
+  public final int getGLRunnableCount() { return Math.max(0, glRunnableCount.get()); }
+
+  /**
+   * Marks the content as changed, see {@link GLAutoDrawable#markDirty()}.
+   * The mark is cleared w/ the next {@link #display(GLAutoDrawable)}.
+   * <p>
+   * Wakes up a throttled animator, see {@link AnimatorHooks#getFrameRateGovernor()}.
+   * </p>
+   */
+  public final void markDirty() {
+      dirty = true;
+      wakeUpGovernor();
+  }
+
+  /** Wakes up the frame rate governor of the animator animating this drawable, if any, see {@link AnimatorHooks}. */
+  private final void wakeUpGovernor() {
+      final GLAnimatorControl animator = animatorCtrl;
+      if( animator instanceof AnimatorHooks ) {
+          final WakeUpCallback governor = ((AnimatorHooks)animator).getFrameRateGovernor();
+          if( null != governor ) {
+              governor.wakeUp();
+          }
+      }
+  }
+
+  /**
+   * Returns <code>true</code> if {@link #markDirty() marked dirty} since the last {@link #display(GLAutoDrawable)}
+   * or {@link GLRunnable}s are queued, see {@link GLAutoDrawable#isDirty()}.
+   */
+  public final boolean isDirty() { return dirty || 0 < glRunnableCount.get(); }
+
+  private final void enqueueTask(final GLRunnableTask task) {
+    glRunnables.offer(task);
+    glRunnableCount.incrementAndGet();
+    wakeUpGovernor();
+  }
+
+  /**
+   * Flushes the given enqueued task, if a {@link #flushGLRunnables()} has been started
+   * since <code>flushCount</code> has been read and the task is still queued,
+   * i.e. the flush may have missed the task enqueued meanwhile, e.g. while destroying the drawable.
+   * <p>
+   * This keeps checking the animator state and enqueuing the task atomic with respect to flushing,
+   * hence a waiting invoker is never blocked by a task left in the queue of a dead drawable.
+   * </p>
+   */
+  private final void flushIfFlushedMeanwhile(final GLRunnableTask task, final int flushCount) {
+    if( flushCount != glRunnableFlushCount.get() && glRunnables.remove(task) ) {
+        glRunnableCount.decrementAndGet();
+        task.flush();
+    }
+  }
+
+  /** Issues {@link GLAutoDrawable#display()} executing all queued tasks, ignoring the {@link #setGLRunnableTimeBudget(long) time budget}. */
+  private final void displayDrain(final GLAutoDrawable drawable) {
+    glRunnableDrainCount.incrementAndGet();
+    try {
+        drawable.display();
+    } finally {
+        glRunnableDrainCount.decrementAndGet();
     }
   }
 
   public final void setAnimator(final GLAnimatorControl animator) throws GLException {
-    synchronized(glRunnablesLock) {
+    synchronized(animatorLock) {
         if(animatorCtrl!=animator && null!=animator && null!=animatorCtrl) {
             throw new GLException("Trying to register GLAnimatorControl "+animator+", where "+animatorCtrl+" is already registered. Unregister first.");
         }
@@ -791,25 +939,29 @@ public class GLDrawableHelper {
   }
 
   public final GLAnimatorControl getAnimator() {
-    synchronized(glRunnablesLock) {
+    synchronized(animatorLock) {
         return animatorCtrl;
     }
   }
 
   public final boolean isAnimatorStartedOnOtherThread() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isStarted() && animatorCtrl.getThread() != Thread.currentThread() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isStarted() && a.getThread() != Thread.currentThread() : false ;
   }
 
   public final boolean isAnimatorStarted() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isStarted() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isStarted() : false ;
   }
 
   public final boolean isAnimatorAnimatingOnOtherThread() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isAnimating() && animatorCtrl.getThread() != Thread.currentThread() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isAnimating() && a.getThread() != Thread.currentThread() : false ;
   }
 
   public final boolean isAnimatorAnimating() {
-    return ( null != animatorCtrl ) ? animatorCtrl.isAnimating() : false ;
+    final GLAnimatorControl a = animatorCtrl;
+    return ( null != a ) ? a.isAnimating() : false ;
   }
 
   public static final boolean isLockedByOtherThread(final GLAutoDrawable d) {
@@ -877,56 +1029,55 @@ public class GLDrawableHelper {
         return false;
     }
 
-    final GLRunnableTask rTask;
-    final Object rTaskLock = new Object();
-    synchronized(rTaskLock) {
-        boolean deferredHere;
-        synchronized(glRunnablesLock) {
-            final boolean isGLThread = drawable.isThreadGLCapable();
-            deferredHere = isAnimatorAnimatingOnOtherThread();
-            if( deferredHere ) {
-                if( wait && isLockedByThisThread(drawable) ) {
-                    if( isGLThread ) {
-                        // Run immediately, don't defer since locked by this thread, but isGLThread
-                        deferredHere = false;
-                        wait = false;
-                    } else {
-                        // Locked by this thread, but _not_ isGLThread -> ERROR
-                        throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                    }
-                }
+    final int flushCount = glRunnableFlushCount.get();
+    boolean deferredHere = isAnimatorAnimatingOnOtherThread();
+    if( deferredHere ) {
+        if( wait && isLockedByThisThread(drawable) ) {
+            if( drawable.isThreadGLCapable() ) {
+                // Run immediately, don't defer since locked by this thread, but isGLThread
+                deferredHere = false;
+                wait = false;
             } else {
-                if( !isGLThread && isLockedByThisThread(drawable) ) {
-                    // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
-                    throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                }
-                wait = false; // don't wait if exec immediately
+                // Locked by this thread, but _not_ isGLThread -> ERROR
+                throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
             }
-            rTask = new GLRunnableTask(glRunnable,
-                                       wait ? rTaskLock : null,
-                                       wait  /* catch Exceptions if waiting for result */);
-            glRunnableCount++;
-            glRunnables.add(rTask);
         }
-        if( !deferredHere ) {
-            drawable.display();
-        } else if( wait ) {
-            try {
-                while( rTask.isInQueue() ) {
-                    rTaskLock.wait(); // free lock, allow execution of rTask
-                }
-            } catch (final InterruptedException ie) {
-                throw new InterruptedRuntimeException(ie);
-            }
-            final Throwable throwable = rTask.getThrowable();
-            if(null!=throwable) {
-                throw new RuntimeException(throwable);
-            }
+    } else {
+        checkNotDeferredLock(drawable);
+        wait = false; // don't wait if exec immediately
+    }
+    final GLRunnableTask rTask = new GLRunnableTask(glRunnable, wait /* catch Exceptions if waiting for result */);
+    enqueueTask(rTask);
+    if( !deferredHere ) {
+        displayDrain(drawable);
+    } else {
+        flushIfFlushedMeanwhile(rTask, flushCount);
+        if( wait ) {
+            awaitTask(rTask);
         }
     }
     return true;
   }
 
+  private static final void checkNotDeferredLock(final GLAutoDrawable drawable) throws IllegalStateException {
+    if( !drawable.isThreadGLCapable() && isLockedByThisThread(drawable) ) {
+        // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
+        throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
+    }
+  }
+
+  private static final void awaitTask(final GLRunnableTask rTask) {
+    try {
+        rTask.await(); // allow execution of rTask
+    } catch (final InterruptedException ie) {
+        throw new InterruptedRuntimeException(ie);
+    }
+    final Throwable throwable = rTask.getThrowable();
+    if(null!=throwable) {
+        throw new RuntimeException(throwable);
+    }
+  }
+
   /**
    * @see #invoke(GLAutoDrawable, boolean, GLRunnable)
    *
@@ -943,68 +1094,80 @@ public class GLDrawableHelper {
     }
 
     final int count = newGLRunnables.size();
-    final GLRunnableTask rTask;
-    final Object rTaskLock = new Object();
-    synchronized(rTaskLock) {
-        boolean deferredHere;
-        synchronized(glRunnablesLock) {
-            final boolean isGLThread = drawable.isThreadGLCapable();
-            deferredHere = isAnimatorAnimatingOnOtherThread();
-            if( deferredHere ) {
-                if( wait && isLockedByThisThread(drawable) ) {
-                    if( isGLThread ) {
-                        // Run immediately, don't defer since locked by this thread, but isGLThread
-                        deferredHere = false;
-                        wait = false;
-                    } else {
-                        // Locked by this thread, but _not_ isGLThread -> ERROR
-                        throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                    }
-                }
+    final int flushCount = glRunnableFlushCount.get();
+    boolean deferredHere = isAnimatorAnimatingOnOtherThread();
+    if( deferredHere ) {
+        if( wait && isLockedByThisThread(drawable) ) {
+            if( drawable.isThreadGLCapable() ) {
+                // Run immediately, don't defer since locked by this thread, but isGLThread
+                deferredHere = false;
+                wait = false;
             } else {
-                if( !isGLThread && isLockedByThisThread(drawable) ) {
-                    // Will be deferred on GL thread by display() (blocking), but locked by this thread -> ERROR
-                    throw new IllegalStateException("Not deferred, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
-                }
-                wait = false; // don't wait if exec immediately
+                // Locked by this thread, but _not_ isGLThread -> ERROR
+                throw new IllegalStateException("Deferred, wait, isLocked on current and not GL-Thread: thread "+Thread.currentThread());
             }
-            for(int i=0; i<count-1; i++) {
-                glRunnableCount++;
-                glRunnables.add( new GLRunnableTask(newGLRunnables.get(i), null, false) );
-            }
-            rTask = new GLRunnableTask(newGLRunnables.get(count-1),
-                                       wait ? rTaskLock : null,
-                                       wait  /* catch Exceptions if waiting for result */);
-            glRunnableCount++;
-            glRunnables.add(rTask);
         }
-        if( !deferredHere ) {
-            drawable.display();
-        } else if( wait ) {
-            try {
-                while( rTask.isInQueue() ) {
-                    rTaskLock.wait(); // free lock, allow execution of rTask
-                }
-            } catch (final InterruptedException ie) {
-                throw new InterruptedRuntimeException(ie);
-            }
-            final Throwable throwable = rTask.getThrowable();
-            if(null!=throwable) {
-                throw new RuntimeException(throwable);
-            }
+    } else {
+        checkNotDeferredLock(drawable);
+        wait = false; // don't wait if exec immediately
+    }
+    final GLRunnableTask[] tasks = new GLRunnableTask[count];
+    for(int i=0; i<count-1; i++) {
+        tasks[i] = new GLRunnableTask(newGLRunnables.get(i), false);
+        enqueueTask( tasks[i] );
+    }
+    final GLRunnableTask rTask = new GLRunnableTask(newGLRunnables.get(count-1), wait /* catch Exceptions if waiting for result */);
+    tasks[count-1] = rTask;
+    enqueueTask(rTask);
+    if( !deferredHere ) {
+        displayDrain(drawable);
+    } else {
+        for(int i=0; i<count; i++) {
+            flushIfFlushedMeanwhile(tasks[i], flushCount);
+        }
+        if( wait ) {
+            awaitTask(rTask);
         }
     }
     return true;
   }
 
+  /**
+   * Enqueues the given {@link GLRunnable} like {@link #invoke(GLAutoDrawable, boolean, GLRunnable) invoke(drawable, false, glRunnable)},
+   * returning a {@link Future} to query it's result instead of blocking.
+   * <p>
+   * The {@link Future}'s {@link Future#get()} returns the {@link GLRunnable#run(GLAutoDrawable)} result,
+   * throws an {@link java.util.concurrent.ExecutionException} if the latter failed or
+   * a {@link java.util.concurrent.CancellationException} if it was flushed due to {@link #flushGLRunnables()}.
+   * </p>
+   * @return the {@link Future}, or <code>null</code> if <code>drawable</code> or <code>glRunnable</code> is <code>null</code>
+   * @throws IllegalStateException in case the drawable is locked by this thread, no animator is running on another thread
+   *                               and this is not the GL thread.
+   */
+  public final Future<Boolean> invokeAsync(final GLAutoDrawable drawable, final GLRunnable glRunnable) throws IllegalStateException {
+    if( null == glRunnable || null == drawable ) {
+        return null;
+    }
+    final int flushCount = glRunnableFlushCount.get();
+    final boolean deferredHere = isAnimatorAnimatingOnOtherThread();
+    if( !deferredHere ) {
+        checkNotDeferredLock(drawable);
+    }
+    final GLRunnableTask rTask = new GLRunnableTask(glRunnable, true /* catch Exceptions, available via Future */);
+    enqueueTask(rTask);
+    if( !deferredHere ) {
+        displayDrain(drawable);
+    } else {
+        flushIfFlushedMeanwhile(rTask, flushCount);
+    }
+    return rTask;
+  }
+
   public final void enqueue(final GLRunnable glRunnable) {
     if( null == glRunnable) {
         return;
     }
-    synchronized(glRunnablesLock) {
-        glRunnableCount++;
-        glRunnables.add( new GLRunnableTask(glRunnable, null, false) );
-    }
+    enqueueTask( new GLRunnableTask(glRunnable, false) );
   }
 
   public final void setAutoSwapBufferMode(final boolean enable) {
@@ -1015,6 +1178,53 @@ public class GLDrawableHelper {
     return autoSwapBufferMode;
   }
 
+  /**
+   * Sets the {@link FPSCounterImpl} receiving the duration of each automatic
+   * {@link GLDrawable#swapBuffers()} call, see {@link #setAutoSwapBufferMode(boolean)}.
+   * <p>
+   * The counter is not cleared by {@link #reset()}.
+   * </p>
+   * @param counter the counter, or <code>null</code> to disable swap time recording
+   */
+  public final void setSwapTimeCounter(final FPSCounterImpl counter) {
+    swapTimeCounter = counter;
+  }
+
+  /**
+   * Sets the {@link GLEventListenerProfiler} measuring each {@link GLEventListener} callback.
+   * <p>
+   * The profiler is not cleared by {@link #reset()}.
+   * </p>
+   * @param profiler the profiler, or <code>null</code> to disable profiling
+   */
+  public final void setGLEventListenerProfiler(final GLEventListenerProfiler profiler) {
+    listenerProfiler = profiler;
+  }
+
+  /** Returns the {@link GLEventListenerProfiler}, or <code>null</code> if not profiling. */
+  public final GLEventListenerProfiler getGLEventListenerProfiler() {
+    return listenerProfiler;
+  }
+
+  /**
+   * Performs an automatic {@link GLDrawable#swapBuffers()}, recording its duration
+   * to the {@link #setSwapTimeCounter(FPSCounterImpl) swap time counter}
+   * and to the animator via {@link AnimatorHooks#addSwapTime(GLDrawable, long)}, if supported.
+   */
+  private final void swapBuffers(final GLDrawable drawable) {
+    final long t0 = System.nanoTime();
+    drawable.swapBuffers();
+    final long dt = System.nanoTime() - t0;
+    final FPSCounterImpl counter = swapTimeCounter;
+    if( null != counter ) {
+        counter.recordSwapTime(dt);
+    }
+    final GLAnimatorControl animator = animatorCtrl;
+    if( animator instanceof AnimatorHooks ) {
+        ((AnimatorHooks)animator).addSwapTime(drawable, dt);
+    }
+  }
+
   private final String getExclusiveContextSwitchString() {
       return 0 == exclusiveContextSwitch ? "nop" : ( 0 > exclusiveContextSwitch ? "released" : "claimed" ) ;
   }
@@ -1292,7 +1502,7 @@ public class GLDrawableHelper {
                   }
                   runnable.run();
                   if ( autoSwapBufferMode ) {
-                      drawable.swapBuffers();
+                      swapBuffers(drawable);
                   }
               } catch (final Throwable t) {
                   glEventListenerCaught = t;
@@ -1409,7 +1619,7 @@ public class GLDrawableHelper {
                   tdS = System.currentTimeMillis();
                   tdR = tdS - tdR; // render time
                   if ( autoSwapBufferMode ) {
-                      drawable.swapBuffers();
+                      swapBuffers(drawable);
                       tdX = System.currentTimeMillis();
                       tdS = tdX - tdS; // swapBuffers
                   }
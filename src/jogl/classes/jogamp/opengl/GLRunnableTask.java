@@ -28,63 +28,74 @@
 
 package jogamp.opengl;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.jogamp.opengl.GLRunnable;
 import com.jogamp.common.ExceptionUtils;
 import com.jogamp.opengl.GLAutoDrawable;
 
 /**
  * Helper class to provide a Runnable queue implementation with a Runnable wrapper
- * which notifies after execution for the <code>invokeAndWait()</code> semantics.
+ * which signals it's completion for the <code>invokeAndWait()</code> semantics.
+ * <p>
+ * Implements {@link Future} as the result handle of {@link GLAutoDrawable#invokeAsync(GLRunnable)},
+ * where {@link #get()} returns the {@link GLRunnable#run(GLAutoDrawable)} result.
+ * Completion is signaled via a {@link CountDownLatch}, i.e. w/o a monitor shared between
+ * the executing and the waiting thread.
+ * </p>
  */
-public class GLRunnableTask implements GLRunnable {
-    GLRunnable runnable;
-    Object notifyObject;
-    boolean catchExceptions;
-    volatile boolean isExecuted;
-    volatile boolean isFlushed;
+public class GLRunnableTask implements GLRunnable, Future<Boolean> {
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int EXECUTED = 2;
+    private static final int FLUSHED = 3;
+    private static final int CANCELLED = 4;
 
-    Throwable runnableException;
+    private final GLRunnable runnable;
+    private final boolean catchExceptions;
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile boolean result = false;
+    private volatile Throwable runnableException = null;
 
-    public GLRunnableTask(final GLRunnable runnable, final Object notifyObject, final boolean catchExceptions) {
+    /**
+     * @param runnable the {@link GLRunnable} to execute
+     * @param catchExceptions if <code>true</code>, exceptions are caught and available via {@link #getThrowable()},
+     *                        otherwise they are re-thrown on the executing thread.
+     */
+    public GLRunnableTask(final GLRunnable runnable, final boolean catchExceptions) {
         this.runnable = runnable ;
-        this.notifyObject = notifyObject ;
         this.catchExceptions = catchExceptions;
-        isExecuted = false;
-        isFlushed = false;
     }
 
+    /**
+     * Executes the {@link GLRunnable}, if not {@link #cancel(boolean) cancelled} or {@link #flush() flushed}.
+     */
     @Override
     public boolean run(final GLAutoDrawable drawable) {
+        if( !state.compareAndSet(QUEUED, RUNNING) ) {
+            return true; // cancelled or flushed
+        }
         boolean res = true;
-        if(null == notifyObject) {
-            try {
-                res = runnable.run(drawable);
-            } catch (final Throwable t) {
-                runnableException = t;
-                if(catchExceptions) {
-                    ExceptionUtils.dumpThrowable("", runnableException);
-                } else {
-                    throw new RuntimeException(runnableException);
-                }
-            } finally {
-                isExecuted=true;
-            }
-        } else {
-            synchronized (notifyObject) {
-                try {
-                    res = runnable.run(drawable);
-                } catch (final Throwable t) {
-                    runnableException = t;
-                    if(catchExceptions) {
-                        ExceptionUtils.dumpThrowable("", runnableException);
-                    } else {
-                        throw new RuntimeException(runnableException);
-                    }
-                } finally {
-                    isExecuted=true;
-                    notifyObject.notifyAll();
-                }
+        try {
+            res = runnable.run(drawable);
+            result = res;
+        } catch (final Throwable t) {
+            runnableException = t;
+            if(catchExceptions) {
+                ExceptionUtils.dumpThrowable("", runnableException);
+            } else {
+                throw new RuntimeException(runnableException);
             }
+        } finally {
+            state.set(EXECUTED);
+            done.countDown();
         }
         return res;
     }
@@ -100,31 +111,88 @@ public class GLRunnableTask implements GLRunnable {
      * @see #isInQueue()
      */
     public void flush() {
-        if(!isExecuted() && null != notifyObject) {
-            synchronized (notifyObject) {
-                isFlushed=true;
-                notifyObject.notifyAll();
-            }
+        if( state.compareAndSet(QUEUED, FLUSHED) ) {
+            done.countDown();
         }
     }
 
     /**
-     * @return !{@link #isExecuted()} && !{@link #isFlushed()}
+     * Blocks until this task has been executed, {@link #flush() flushed} or {@link #cancel(boolean) cancelled}.
      */
-    public boolean isInQueue() { return !isExecuted && !isFlushed; }
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    /**
+     * @return !{@link #isExecuted()} && !{@link #isFlushed()} && !{@link #isCancelled()}
+     */
+    public boolean isInQueue() { return 0 < done.getCount(); }
 
     /**
      * @return whether this task has been executed.
      * @see #isInQueue()
      */
-    public boolean isExecuted() { return isExecuted; }
+    public boolean isExecuted() { return EXECUTED == state.get(); }
 
     /**
      * @return whether this task has been flushed.
      * @see #isInQueue()
      */
-    public boolean isFlushed() { return isFlushed; }
+    public boolean isFlushed() { return FLUSHED == state.get(); }
 
     public Throwable getThrowable() { return runnableException; }
-}
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Only succeeds if not yet running, <code>mayInterruptIfRunning</code> is ignored.
+     * </p>
+     */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        if( state.compareAndSet(QUEUED, CANCELLED) ) {
+            done.countDown();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() { return CANCELLED == state.get(); }
+
+    @Override
+    public boolean isDone() { return !isInQueue(); }
+
+    /**
+     * {@inheritDoc}
+     * @throws CancellationException if {@link #cancel(boolean) cancelled} or {@link #flush() flushed},
+     *                               e.g. due to destruction of the {@link GLAutoDrawable}.
+     */
+    @Override
+    public Boolean get() throws InterruptedException, ExecutionException {
+        done.await();
+        return getResult();
+    }
+
+    @Override
+    public Boolean get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if( !done.await(timeout, unit) ) {
+            throw new TimeoutException("GLRunnable not executed within "+timeout+" "+unit+": "+runnable);
+        }
+        return getResult();
+    }
+
+    private Boolean getResult() throws ExecutionException {
+        switch( state.get() ) {
+            case CANCELLED:
+                throw new CancellationException("GLRunnable cancelled: "+runnable);
+            case FLUSHED:
+                throw new CancellationException("GLRunnable flushed: "+runnable);
+            default:
+                if( null != runnableException ) {
+                    throw new ExecutionException(runnableException);
+                }
+                return Boolean.valueOf(result);
+        }
+    }
+}
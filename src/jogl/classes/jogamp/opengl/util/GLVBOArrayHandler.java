@@ -33,6 +33,8 @@ import java.nio.Buffer;
 import com.jogamp.opengl.GL;
 
 import com.jogamp.opengl.util.GLArrayDataEditable;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.GLStreamBuffer;
 
 /**
  * Interleaved fixed function arrays, i.e. where this buffer data
@@ -57,7 +59,7 @@ public abstract class GLVBOArrayHandler implements GLArrayHandler {
         if(!ad.isVBOWritten()) {
             final Buffer buffer = ad.getBuffer();
             if(null!=buffer) {
-                gl.glBufferData(ad.getVBOTarget(), buffer.limit() * ad.getComponentSizeInBytes(), buffer, ad.getVBOUsage());
+                writeBuffer(gl, buffer, buffer.limit() * ad.getComponentSizeInBytes());
             }
             ad.setVBOWritten(true);
         }
@@ -67,5 +69,18 @@ public abstract class GLVBOArrayHandler implements GLArrayHandler {
     return true;
   }
 
+  /**
+   * Writes the given buffer into the bound VBO via <code>glBufferData</code>,
+   * or if a {@link GLArrayDataServer#getStreamBuffer() stream buffer} is used,
+   * into it's next free range while updating the {@link GLArrayDataServer#setVBOOffset(long) VBO offset}.
+   */
+  protected final void writeBuffer(final GL gl, final Buffer buffer, final long byteCount) {
+    final GLStreamBuffer stream = ad instanceof GLArrayDataServer ? ((GLArrayDataServer)ad).getStreamBuffer() : null;
+    if( null != stream ) {
+        ((GLArrayDataServer)ad).setVBOOffset( stream.write(gl, buffer, (int)byteCount) );
+    } else {
+        gl.glBufferData(ad.getVBOTarget(), byteCount, buffer, ad.getVBOUsage());
+    }
+  }
 }
 
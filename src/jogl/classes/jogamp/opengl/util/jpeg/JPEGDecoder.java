@@ -514,6 +514,89 @@ public class JPEGDecoder {
         adobe = null;
         components = null;
     }
+    /**
+     * Parses the JPEG stream up to and including the first frame header (SOF) only,
+     * i.e. w/o reading quantization or huffman tables and w/o decoding any scan.
+     * <p>
+     * Afterwards {@link #getWidth()}, {@link #getHeight()} and the optional
+     * {@link #getJFIFHeader() JFIF}, {@link #getEXIFHeader() EXIF} and {@link #getAdobeHeader() Adobe}
+     * headers preceding the frame are available. {@link #getPixel(ColorSink, int, int)} cannot be used.
+     * </p>
+     */
+    public synchronized JPEGDecoder parseHeader(final InputStream inputStream) throws IOException {
+        clear(inputStream);
+
+        int fileMarker = readUInt16();
+        if ( fileMarker != M_SOI ) {
+            throw new CodecException("SOI not found, but has marker "+toHexString(fileMarker));
+        }
+        fileMarker = readUInt16();
+        while (fileMarker != M_EOI) {
+            if(DEBUG) { System.err.println("JPG.parseHeader got marker "+toHexString(fileMarker)); }
+            switch(fileMarker) {
+            case M_APP00:
+            case M_APP01:
+            case M_APP02:
+            case M_APP03:
+            case M_APP04:
+            case M_APP05:
+            case M_APP06:
+            case M_APP07:
+            case M_APP08:
+            case M_APP09:
+            case M_APP10:
+            case M_APP11:
+            case M_APP12:
+            case M_APP13:
+            case M_APP14:
+            case M_APP15:
+            case M_ANO: {
+                final byte[] appData = readDataBlock();
+
+                if ( fileMarker == M_APP00 ) {
+                    jfif = JFIF.get( appData );
+                }
+                if ( fileMarker == M_APP01 ) {
+                    exif = EXIF.get(appData);
+                }
+                if (fileMarker == M_APP14) {
+                    adobe = Adobe.get(appData);
+                }
+            }
+            break;
+
+            case M_QTT:
+            case M_DHT:
+            case M_DRI:
+                readDataBlock(); // skip
+                break;
+
+            case M_SOF0:
+            case M_SOF2: {
+                int count = 0;
+                final int sofLen = readUInt16(); count+=2; // header length;
+                readUInt8(); count++; // precision
+                height = readUInt16(); count+=2; // scanLines
+                width = readUInt16(); count+=2; // samplesPerLine
+                final int componentsCount = readUInt8(); count++;
+                for (int i = 0; i < 3 * componentsCount; i++) {
+                    readUInt8(); count++; // componentId, h/v, qttIdx
+                }
+                if(count!=sofLen){
+                    throw new CodecException("ERROR: SOF format error [count!=Length]");
+                }
+                if(DEBUG) { System.err.println("JPG.parseHeader.SOF[02]: "+this); }
+                return this;
+            }
+
+            default:
+                throw new CodecException("unknown JPEG marker " + toHexString(fileMarker) + " before frame header, " + bstream);
+            }
+            fileMarker = readUInt16();
+        }
+        throw new CodecException("no frame header found in stream "+this);
+    }
+
     public synchronized JPEGDecoder parse(final InputStream inputStream) throws IOException {
         clear(inputStream);
 
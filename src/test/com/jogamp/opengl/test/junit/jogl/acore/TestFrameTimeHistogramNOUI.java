@@ -0,0 +1,161 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jogamp.opengl.FPSCounterImpl;
+import jogamp.opengl.FrameTimeHistogram;
+
+import com.jogamp.opengl.FrameTimeSnapshot;
+
+/**
+ * Validates {@link FrameTimeHistogram} percentiles and {@link FPSCounterImpl} dropped frame counting w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFrameTimeHistogramNOUI {
+    /** Relative error bound of the histogram. */
+    static final double EPS = 1.0 / FrameTimeHistogram.SUB_BUCKETS;
+
+    private static void assertNear(final String msg, final long expected, final long has) {
+        Assert.assertTrue(msg+": expected "+expected+", has "+has, Math.abs(has - expected) <= expected * EPS + 1);
+    }
+
+    @Test
+    public void test01Percentiles() {
+        final FrameTimeHistogram h = new FrameTimeHistogram();
+        // 1 .. 10000 us
+        for(int i=1; i<=10000; i++) {
+            h.record(i*1000L);
+        }
+        final FrameTimeSnapshot.Distribution d = h.snapshot();
+        System.err.println(d);
+        Assert.assertEquals(10000, d.getCount());
+        Assert.assertEquals(1000L, d.getMin());
+        Assert.assertEquals(10000000L, d.getMax());
+        Assert.assertEquals(5000500L, d.getMean());
+        assertNear("p50", 5000000L, d.getP50());
+        assertNear("p90", 9000000L, d.getP90());
+        assertNear("p95", 9500000L, d.getP95());
+        assertNear("p99", 9900000L, d.getP99());
+        assertNear("p999", 9990000L, d.getP999());
+        Assert.assertTrue(d.getP999() <= d.getMax());
+    }
+
+    @Test
+    public void test02EmptyAndReset() {
+        final FrameTimeHistogram h = new FrameTimeHistogram();
+        Assert.assertEquals(0, h.snapshot().getCount());
+        Assert.assertEquals(0, h.snapshot().getMax());
+        h.record(17);
+        h.record(-1); // ignored
+        Assert.assertEquals(1, h.getCount());
+        Assert.assertEquals(17, h.snapshot().getP99());
+        h.reset();
+        Assert.assertEquals(0, h.snapshot().getCount());
+    }
+
+    @Test
+    public void test03Concurrent() throws InterruptedException {
+        final FrameTimeHistogram h = new FrameTimeHistogram();
+        final int threads = 4, n = 100000;
+        final Thread[] t = new Thread[threads];
+        for(int i=0; i<threads; i++) {
+            t[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int j=0; j<n; j++) {
+                        h.record(16666666L);
+                    }
+                } });
+            t[i].start();
+        }
+        for(int i=0; i<threads; i++) {
+            t[i].join();
+        }
+        final FrameTimeSnapshot.Distribution d = h.snapshot();
+        Assert.assertEquals(threads*n, d.getCount());
+        Assert.assertEquals(16666666L, d.getMin());
+        Assert.assertEquals(16666666L, d.getMax());
+        Assert.assertEquals(16666666L, d.getP50());
+    }
+
+    @Test
+    public void test04DroppedFrames() throws InterruptedException {
+        final FPSCounterImpl fps = new FPSCounterImpl();
+        final long target = TimeUnit.MILLISECONDS.toNanos(10);
+        fps.setTargetFramePeriod(target);
+        fps.tickFPS();
+        Thread.sleep(45); // ~4 periods, 3 dropped
+        fps.tickFPS();
+        fps.recordDisplayTime(TimeUnit.MILLISECONDS.toNanos(2));
+        fps.recordSwapTime(TimeUnit.MILLISECONDS.toNanos(1));
+        final FrameTimeSnapshot s = fps.getFrameTimeSnapshot();
+        System.err.println(s);
+        Assert.assertEquals(target, s.getTargetFramePeriod());
+        Assert.assertEquals(1, s.getFrameTimes().getCount());
+        Assert.assertTrue("dropped "+s.getDroppedFrames(), s.getDroppedFrames() >= 3);
+        Assert.assertEquals(1, s.getDisplayTimes().getCount());
+        Assert.assertEquals(1, s.getSwapTimes().getCount());
+
+        fps.resetFPSCounter();
+        final FrameTimeSnapshot r = fps.getFrameTimeSnapshot();
+        Assert.assertEquals(0, r.getDroppedFrames());
+        Assert.assertEquals(0, r.getFrameTimes().getCount());
+        fps.tickFPS(); // first tick after reset has no predecessor
+        Assert.assertEquals(0, fps.getFrameTimeSnapshot().getFrameTimes().getCount());
+    }
+
+    @Test
+    public void test05SwapTimeExcludedFromDisplayTime() {
+        final FPSCounterImpl fps = new FPSCounterImpl();
+        final long ms = TimeUnit.MILLISECONDS.toNanos(1);
+        // one frame w/ two swapped drawables
+        fps.addSwapTime(2*ms);
+        fps.addSwapTime(3*ms);
+        fps.recordDisplayTime(12*ms);
+        // one frame w/o swap
+        fps.recordDisplayTime(4*ms);
+        final FrameTimeSnapshot s = fps.getFrameTimeSnapshot();
+        System.err.println(s);
+        Assert.assertEquals(1, s.getSwapTimes().getCount());
+        Assert.assertEquals(5*ms, s.getSwapTimes().getMax());
+        Assert.assertEquals(2, s.getDisplayTimes().getCount());
+        Assert.assertEquals(4*ms, s.getDisplayTimes().getMin());
+        Assert.assertEquals(7*ms, s.getDisplayTimes().getMax());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFrameTimeHistogramNOUI.class.getName());
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jogamp.opengl.GLBufferObjectTracker;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates the lock-striped {@link GLBufferObjectTracker} w/ a mock GL,
+ * i.e. per-buffer atomicity of storage creation, mapping and unmapping across threads,
+ * and benchmarks its throughput with multiple threads.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLBufferObjectTrackerNOUI {
+    static int loops = 20000;
+    static int maxThreads = 8;
+
+    /** Mock GL, all calls are no-op and <code>glGetError</code> returns <code>GL_NO_ERROR</code>. */
+    static final GL mockGL = (GL) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            return "glGetError".equals(m.getName()) ? Integer.valueOf(GL.GL_NO_ERROR) : null;
+        } });
+
+    /** Mock native dispatch, tracking the number of concurrently mapped buffers. */
+    static class MockDispatch implements GLBufferObjectTracker.CreateStorageDispatch,
+                                         GLBufferObjectTracker.MapBufferRangeDispatch,
+                                         GLBufferObjectTracker.UnmapBufferDispatch {
+        final ByteBuffer storage = ByteBuffer.allocateDirect(256);
+        final AtomicInteger mapped = new AtomicInteger();
+        final AtomicInteger maxMapped = new AtomicInteger();
+
+        @Override
+        public void create(final int targetOrBufferName, final long size, final Buffer data, final int mutableUsageOrImmutableFlags) { }
+        @Override
+        public long mapBuffer(final int targetOrBufferName, final long offset, final long length, final int access) {
+            final int m = mapped.incrementAndGet();
+            int max;
+            while( m > ( max = maxMapped.get() ) && !maxMapped.compareAndSet(max, m) ) { }
+            return 1;
+        }
+        @Override
+        public ByteBuffer allocNioByteBuffer(final long addr, final long length) {
+            return storage.duplicate();
+        }
+        @Override
+        public boolean unmap(final int targetOrBufferName) {
+            mapped.decrementAndGet();
+            return true;
+        }
+    }
+
+    @Test
+    public void test01_Semantics() {
+        final GLBufferObjectTracker tracker = new GLBufferObjectTracker();
+        final MockDispatch dispatch = new MockDispatch();
+        for(int name=1; name<=2*GLBufferObjectTracker.STRIPE_COUNT; name++) {
+            tracker.createBufferStorage(mockGL, name, 64, null, GL.GL_STATIC_DRAW, 0, dispatch);
+        }
+        final GLBufferStorage store = tracker.getBufferStorage(3);
+        Assert.assertNotNull(store);
+        Assert.assertEquals(64, store.getSize());
+
+        Assert.assertSame(store, tracker.mapBuffer(3, 0, 32, GL.GL_MAP_WRITE_BIT, dispatch));
+        Assert.assertNotNull(store.getMappedBuffer());
+        try {
+            tracker.mapBuffer(3, 0, 32, GL.GL_MAP_WRITE_BIT, dispatch);
+            Assert.fail("Mapped buffer mapped again");
+        } catch (final GLException e) { }
+        // Same stripe, different buffer
+        Assert.assertNotNull(tracker.mapBuffer(3+GLBufferObjectTracker.STRIPE_COUNT, 0, 64, GL.GL_MAP_WRITE_BIT, dispatch).getMappedBuffer());
+        try {
+            tracker.mapBuffer(3, 0, 128, GL.GL_MAP_WRITE_BIT, dispatch);
+            Assert.fail("Out of range mapping");
+        } catch (final GLException e) { }
+
+        Assert.assertTrue(tracker.unmapBuffer(3, dispatch));
+        Assert.assertNull(store.getMappedBuffer());
+
+        // Recreation resets the existing storage instance
+        tracker.createBufferStorage(mockGL, 3, 128, null, GL.GL_DYNAMIC_DRAW, 0, dispatch);
+        Assert.assertSame(store, tracker.getBufferStorage(3));
+        Assert.assertEquals(128, store.getSize());
+
+        tracker.notifyBuffersDeleted(2, new int[] { 3, 3+GLBufferObjectTracker.STRIPE_COUNT }, 0);
+        Assert.assertNull(tracker.getBufferStorage(3));
+        Assert.assertNull(tracker.getBufferStorage(3+GLBufferObjectTracker.STRIPE_COUNT));
+        Assert.assertNotNull(tracker.getBufferStorage(4));
+        try {
+            tracker.mapBuffer(3, 0, 32, GL.GL_MAP_WRITE_BIT, dispatch);
+            Assert.fail("Deleted buffer mapped");
+        } catch (final GLException e) { }
+
+        tracker.clear();
+        for(int name=1; name<=2*GLBufferObjectTracker.STRIPE_COUNT; name++) {
+            Assert.assertNull(tracker.getBufferStorage(name));
+        }
+    }
+
+    /** All threads compete for mapping the same buffer, which shall only be mapped once at a time. */
+    @Test
+    public void test02_SharedBufferMapExclusive() throws InterruptedException {
+        final GLBufferObjectTracker tracker = new GLBufferObjectTracker();
+        final MockDispatch dispatch = new MockDispatch();
+        tracker.createBufferStorage(mockGL, 7, 64, null, GL.GL_DYNAMIC_DRAW, 0, dispatch);
+        final AtomicInteger maps = new AtomicInteger();
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        runThreads(maxThreads, errors, new Worker() {
+            @Override
+            public void run(final int threadIdx) {
+                for(int i=0; i<loops/10; i++) {
+                    try {
+                        tracker.mapBuffer(7, 0, 64, GL.GL_MAP_WRITE_BIT, dispatch);
+                    } catch (final GLException e) {
+                        continue; // already mapped by another thread
+                    }
+                    maps.incrementAndGet();
+                    Assert.assertTrue(tracker.unmapBuffer(7, dispatch));
+                }
+            } });
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        System.err.println("Shared buffer: maps "+maps.get()+", max concurrently mapped "+dispatch.maxMapped.get());
+        Assert.assertTrue(0 < maps.get());
+        Assert.assertEquals(1, dispatch.maxMapped.get());
+        Assert.assertEquals(0, dispatch.mapped.get());
+        Assert.assertNull(tracker.getBufferStorage(7).getMappedBuffer());
+    }
+
+    /** Contention benchmark: each thread creates, maps, unmaps and deletes its own buffers. */
+    @Test
+    public void test03_ContentionBenchmark() throws InterruptedException {
+        for(int threadCount=1; threadCount<=maxThreads; threadCount*=2) {
+            final GLBufferObjectTracker tracker = new GLBufferObjectTracker();
+            final MockDispatch dispatch = new MockDispatch();
+            final int tc = threadCount;
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            final long t0 = System.nanoTime();
+            runThreads(threadCount, errors, new Worker() {
+                @Override
+                public void run(final int threadIdx) {
+                    final int[] names = new int[1];
+                    for(int i=0; i<loops; i++) {
+                        final int name = 1 + threadIdx + ( i % 64 ) * tc; // interleaved, distinct per thread
+                        names[0] = name;
+                        tracker.createBufferStorage(mockGL, name, 64, null, GL.GL_DYNAMIC_DRAW, 0, dispatch);
+                        final GLBufferStorage store = tracker.mapBuffer(name, 0, 64, GL.GL_MAP_WRITE_BIT, dispatch);
+                        Assert.assertEquals(name, store.getName());
+                        Assert.assertNotNull(store.getMappedBuffer());
+                        Assert.assertTrue(tracker.unmapBuffer(name, dispatch));
+                        Assert.assertNull(store.getMappedBuffer());
+                        tracker.notifyBuffersDeleted(1, names, 0);
+                    }
+                } });
+            final long t1 = System.nanoTime();
+            Assert.assertTrue(errors.toString(), errors.isEmpty());
+            Assert.assertEquals(0, dispatch.mapped.get());
+            final long ops = 4L * loops * threadCount;
+            System.err.printf("Threads %d: %d ops in %.2f ms, %.1f ops/ms%n",
+                              threadCount, ops, (t1-t0)/1e6, ops/((t1-t0)/1e6));
+        }
+    }
+
+    static interface Worker {
+        void run(int threadIdx);
+    }
+
+    static void runThreads(final int threadCount, final List<Throwable> errors, final Worker worker) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[threadCount];
+        for(int i=0; i<threadCount; i++) {
+            final int threadIdx = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        worker.run(threadIdx);
+                    } catch (final Throwable t) {
+                        synchronized( errors ) {
+                            errors.add(t);
+                        }
+                    }
+                } }, "Worker-"+i);
+            threads[i].start();
+        }
+        start.countDown();
+        for(int i=0; i<threadCount; i++) {
+            threads[i].join();
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-loops")) {
+                loops = MiscUtils.atoi(args[++i], loops);
+            } else if(args[i].equals("-threads")) {
+                maxThreads = MiscUtils.atoi(args[++i], maxThreads);
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestGLBufferObjectTrackerNOUI.class.getName());
+    }
+}
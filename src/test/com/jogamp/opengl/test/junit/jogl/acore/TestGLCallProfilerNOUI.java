@@ -0,0 +1,105 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.List;
+
+import com.jogamp.opengl.GLCallProfiler;
+import com.jogamp.opengl.GLCallProfiler.Entry;
+import com.jogamp.opengl.GLCallProfiler.Snapshot;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLCallProfiler}'s counting, timing, snapshot and top-N report,
+ * as used by the generated <code>ProfileGL*</code> pipelines.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCallProfilerNOUI {
+    static final String[] names = new String[] { "glBindBuffer", "glClear", "glDrawArrays", "glUniform1f" };
+
+    private static void call(final GLCallProfiler p, final int slot, final long sleepMillis) throws InterruptedException {
+        final long t0 = p.begin(slot);
+        if( 0 < sleepMillis ) {
+            Thread.sleep(sleepMillis);
+        }
+        p.end(slot, t0);
+    }
+
+    @Test
+    public void test01_Counting() throws InterruptedException {
+        final GLCallProfiler p = new GLCallProfiler(names);
+        Assert.assertFalse(p.isTimingEnabled());
+        for(int i=0; i<10; i++) {
+            call(p, 0, 0);
+            call(p, 2, 0);
+            call(p, 2, 0);
+        }
+        call(p, 1, 0);
+        final Snapshot s = p.snapshot(false);
+        Assert.assertEquals(3, s.getEntries().size());
+        Assert.assertEquals(31, s.getTotalCount());
+        Assert.assertEquals(0, s.getTotalNanos());
+        Assert.assertNull(s.getEntry("glUniform1f"));
+        Assert.assertEquals(20, s.getEntry("glDrawArrays").getCount());
+
+        final List<Entry> top = s.getTop(2, false);
+        Assert.assertEquals(2, top.size());
+        Assert.assertEquals("glDrawArrays", top.get(0).getName());
+        Assert.assertEquals("glBindBuffer", top.get(1).getName());
+        System.err.println(s.toString(2, false));
+
+        // per frame report
+        Assert.assertEquals(31, p.snapshot(true).getTotalCount());
+        Assert.assertEquals(0, p.snapshot(false).getTotalCount());
+    }
+
+    @Test
+    public void test02_Timing() throws InterruptedException {
+        final GLCallProfiler p = new GLCallProfiler(names);
+        p.setTimingEnabled(true);
+        call(p, 1, 10);
+        for(int i=0; i<5; i++) {
+            call(p, 3, 0);
+        }
+        final Snapshot s = p.snapshot(false);
+        Assert.assertTrue(s.getEntry("glClear").getNanos() >= 10000000);
+        Assert.assertEquals("glClear", s.getTop(1, true).get(0).getName());
+        Assert.assertEquals("glUniform1f", s.getTop(1, false).get(0).getName());
+        System.err.println(s.toString(4, true));
+        p.reset();
+        Assert.assertTrue(p.snapshot(false).getEntries().isEmpty());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCallProfilerNOUI.class.getName());
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GLCommandBuffer;
+import com.jogamp.opengl.GLException;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLCommandBuffer} recording, copying of client data, growth and in order execution
+ * of buffers recorded on multiple threads, as used by the generated <code>DeferredGL*</code> pipelines.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCommandBufferNOUI {
+    /** Mirrors the executor generated for the deferred pipeline. */
+    static final GLCommandBuffer.Executor executor = new GLCommandBuffer.Executor() {
+        @Override
+        public void execute(final GL gl, final GLCommandBuffer cb, final int slot) {
+            final GL2ES2 target = (GL2ES2) gl;
+            switch (slot) {
+                case 0: target.glClearColor(cb.getFloat(), cb.getFloat(), cb.getFloat(), cb.getFloat()); break;
+                case 1: target.glBufferData(cb.getInt(), cb.getLong(), (java.nio.Buffer) cb.getBuffer(), cb.getInt()); break;
+                case 2: target.glUniform4fv(cb.getInt(), cb.getInt(), (float[]) cb.getObject(), cb.getInt()); break;
+                case 3: target.glDrawArrays(cb.getInt(), cb.getInt(), cb.getInt()); break;
+                default: throw new GLException("Invalid slot "+slot);
+            }
+        } };
+
+    /** Mock GL recording each call as <code>name(args)</code>, w/ buffer content. */
+    static class MockGL implements InvocationHandler {
+        final List<String> calls = new ArrayList<String>();
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            final StringBuilder sb = new StringBuilder(m.getName()).append("(");
+            for(int i=0; i<args.length; i++) {
+                final Object a = args[i];
+                if( 0 < i ) { sb.append(", "); }
+                if( a instanceof FloatBuffer ) {
+                    final FloatBuffer fb = (FloatBuffer)a;
+                    Assert.assertTrue(fb.isDirect());
+                    sb.append(fb.remaining()).append(" floats, sum ");
+                    float sum = 0;
+                    for(int j=fb.position(); j<fb.limit(); j++) { sum += fb.get(j); }
+                    sb.append(sum);
+                } else if( a instanceof float[] ) {
+                    sb.append(Arrays.toString((float[])a));
+                } else {
+                    sb.append(a);
+                }
+            }
+            calls.add(sb.append(")").toString());
+            return null;
+        }
+
+        GL2ES2 newGL() {
+            return (GL2ES2) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL2ES2.class }, this);
+        }
+    }
+
+    @Test
+    public void test01_CopyAndGrowth() {
+        final GLCommandBuffer cb = new GLCommandBuffer(64);
+        cb.attach(executor);
+        final FloatBuffer vertices = Buffers.newDirectFloatBuffer(1000);
+        for(int i=0; i<vertices.capacity(); i++) {
+            vertices.put(i, 1f);
+        }
+        vertices.position(1);
+        final float[] color = new float[] { 0f, 0.25f, 0.5f, 1f };
+
+        cb.begin(0); cb.put(0.5f); cb.put(0f); cb.put(0f); cb.put(1f);
+        cb.begin(2); cb.put(3); cb.put(1); cb.put(color); cb.put(0);
+        cb.begin(1); cb.put(GL.GL_ARRAY_BUFFER); cb.put(999L*4); cb.put(vertices); cb.put(GL.GL_STATIC_DRAW);
+        cb.begin(1); cb.put(GL.GL_ARRAY_BUFFER); cb.put(0L); cb.put((FloatBuffer)null); cb.put(GL.GL_STATIC_DRAW);
+        cb.begin(3); cb.put(GL.GL_TRIANGLES); cb.put(0); cb.put(3);
+        Assert.assertEquals(5, cb.getCommandCount());
+        Assert.assertEquals(1, vertices.position());
+        Assert.assertTrue(cb.getSize() > 999*4);
+
+        // client data has been copied
+        color[0] = 1f;
+        vertices.put(1, 100f);
+
+        final MockGL mock = new MockGL();
+        cb.execute(mock.newGL());
+        cb.execute(mock.newGL()); // repeatable
+        final List<String> expected = Arrays.asList(
+                "glClearColor(0.5, 0.0, 0.0, 1.0)",
+                "glUniform4fv(3, 1, [0.0, 0.25, 0.5, 1.0], 0)",
+                "glBufferData(34962, 3996, 999 floats, sum 999.0, 35044)",
+                "glBufferData(34962, 0, null, 35044)",
+                "glDrawArrays(4, 0, 3)");
+        Assert.assertEquals(expected, mock.calls.subList(0, 5));
+        Assert.assertEquals(expected, mock.calls.subList(5, 10));
+        System.err.println(cb);
+
+        cb.reset();
+        Assert.assertEquals(0, cb.getCommandCount());
+        Assert.assertEquals(0, cb.getSize());
+        mock.calls.clear();
+        cb.execute(mock.newGL());
+        Assert.assertTrue(mock.calls.isEmpty());
+    }
+
+    @Test
+    public void test02_MultiThreadedRecording() throws InterruptedException {
+        final int workers = 4, callsPerWorker = 1000;
+        final GLCommandBuffer[] buffers = new GLCommandBuffer[workers];
+        final Thread[] threads = new Thread[workers];
+        for(int w=0; w<workers; w++) {
+            final GLCommandBuffer cb = new GLCommandBuffer(64);
+            cb.attach(executor);
+            buffers[w] = cb;
+            final int first = w * callsPerWorker;
+            threads[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int i=0; i<callsPerWorker; i++) {
+                        cb.begin(3); cb.put(GL.GL_TRIANGLES); cb.put(first + i); cb.put(3);
+                    }
+                } }, "Worker-"+w);
+            threads[w].start();
+        }
+        for(int w=0; w<workers; w++) {
+            threads[w].join();
+        }
+        final MockGL mock = new MockGL();
+        final GL2ES2 gl = mock.newGL();
+        for(int w=0; w<workers; w++) {
+            buffers[w].execute(gl);
+        }
+        Assert.assertEquals(workers * callsPerWorker, mock.calls.size());
+        for(int i=0; i<mock.calls.size(); i++) {
+            Assert.assertEquals("glDrawArrays(4, "+i+", 3)", mock.calls.get(i));
+        }
+    }
+
+    @Test
+    public void test03_ExecutorMismatch() {
+        final GLCommandBuffer cb = new GLCommandBuffer();
+        cb.attach(executor);
+        cb.attach(executor);
+        try {
+            cb.attach(new GLCommandBuffer.Executor() {
+                @Override
+                public void execute(final GL gl, final GLCommandBuffer cb, final int slot) { } });
+            Assert.fail("Executor mismatch not detected");
+        } catch (final GLException gle) {
+            System.err.println("Expected: "+gle.getMessage());
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCommandBufferNOUI.class.getName());
+    }
+}
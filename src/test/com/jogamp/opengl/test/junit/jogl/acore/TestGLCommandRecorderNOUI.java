@@ -0,0 +1,362 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLCommandRecorder;
+import com.jogamp.opengl.GLCommandReplayer;
+import com.jogamp.opengl.GLException;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates the {@link GLCommandRecorder} and {@link GLCommandReplayer} round trip,
+ * as used by the generated <code>RecordGL*</code> pipelines, replaying against a mock GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLCommandRecorderNOUI {
+    static final String[] names = new String[] { "glClearColor", "glBufferData", "glUniform4fv", "glShaderSource", "glDrawArrays" };
+    static final String[] signatures = new String[] { "float,float,float,float", "int,long,java.nio.Buffer,int", "int,int,[F,int",
+                                                      "int,int,[Ljava.lang.String;,[I,int", "int,int,int" };
+
+    /** Mock GL recording each call as <code>name(args)</code>, w/ buffer content. */
+    static class MockGL implements InvocationHandler {
+        final List<String> calls = new ArrayList<String>();
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            if( m.getName().startsWith("gl") ) {
+                calls.add(m.getName()+toString(args));
+            }
+            return null;
+        }
+
+        static String toString(final Object[] args) {
+            final StringBuilder sb = new StringBuilder("(");
+            for(int i=0; null != args && i<args.length; i++) {
+                final Object a = args[i];
+                if( 0 < i ) { sb.append(", "); }
+                if( a instanceof FloatBuffer ) {
+                    final FloatBuffer fb = (FloatBuffer)a;
+                    sb.append(fb.remaining()).append(" floats, last ").append(fb.get(fb.limit()-1));
+                } else if( a instanceof float[] ) {
+                    sb.append(Arrays.toString((float[])a));
+                } else if( a instanceof int[] ) {
+                    sb.append(Arrays.toString((int[])a));
+                } else if( a instanceof String[] ) {
+                    sb.append(Arrays.toString((String[])a));
+                } else {
+                    sb.append(a);
+                }
+            }
+            return sb.append(")").toString();
+        }
+
+        GL2ES2 newGL() {
+            return (GL2ES2) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL2ES2.class }, this);
+        }
+    }
+
+    /**
+     * Mock GL creating object names and handles from a counter and returning new zeroed storage for each mapping,
+     * retained in {@link #mapped}.
+     */
+    static class ObjectMockGL extends MockGL {
+        final List<ByteBuffer> mapped = new ArrayList<ByteBuffer>();
+        int next;
+
+        ObjectMockGL(final int next) {
+            this.next = next;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            super.invoke(proxy, m, args);
+            final String name = m.getName();
+            if( null != args && ( name.startsWith("glGen") || name.startsWith("glCreate") ) ) {
+                for(int i=0; i<args.length; i++) {
+                    if( args[i] instanceof int[] ) {
+                        final int[] v = (int[])args[i];
+                        for(int j=0; j<((Integer)args[0]).intValue(); j++) {
+                            v[((Integer)args[i+1]).intValue()+j] = next++;
+                        }
+                    } else if( args[i] instanceof IntBuffer ) {
+                        final IntBuffer v = (IntBuffer)args[i];
+                        for(int j=0; j<((Integer)args[0]).intValue(); j++) {
+                            v.put(v.position()+j, next++);
+                        }
+                    }
+                }
+            }
+            final Class<?> ret = m.getReturnType();
+            final boolean produces = name.startsWith("glCreate") || name.equals("glFenceSync");
+            if( int.class == ret ) {
+                return Integer.valueOf( produces ? next++ : 0 );
+            } else if( long.class == ret ) {
+                return Long.valueOf( produces ? next++ : 0 );
+            } else if( boolean.class == ret ) {
+                return Boolean.TRUE;
+            } else if( ByteBuffer.class == ret ) {
+                final ByteBuffer storage = Buffers.newDirectByteBuffer(8);
+                mapped.add(storage);
+                return storage;
+            } else if( GLBufferStorage.class == ret ) {
+                final ByteBuffer storage = Buffers.newDirectByteBuffer(((Long)args[2]).intValue());
+                mapped.add(storage);
+                return new GLBufferStorage(0, storage.capacity(), GL.GL_DYNAMIC_DRAW, 0) { { setMappedBuffer(storage); } };
+            }
+            return null;
+        }
+
+        GL3ES3 newGL3ES3() {
+            return (GL3ES3) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL3ES3.class }, this);
+        }
+    }
+
+    /** Records 2 frames, issuing the same calls on the given mock to obtain the expected sequence. */
+    private static byte[] record(final int stagingSize, final GL2ES2 expected) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final GLCommandRecorder r = new GLCommandRecorder(Channels.newChannel(out), stagingSize);
+        r.attach(names, signatures);
+
+        final FloatBuffer vertices = Buffers.newDirectFloatBuffer(1000);
+        for(int i=0; i<vertices.capacity(); i++) {
+            vertices.put(i, i);
+        }
+        vertices.position(10); // only remaining elements are recorded
+        final float[] color = new float[] { 0f, 0.25f, 0.5f, 1f };
+        final String[] source = new String[] { "void main() { gl_FragColor = vec4(1.0); } // \u00e4\u00f6\u00fc" };
+
+        for(int frame=0; frame<2; frame++) {
+            r.begin(0); r.put(0.5f); r.put(0f); r.put(0f); r.put(1f);
+            expected.glClearColor(0.5f, 0f, 0f, 1f);
+            r.begin(1); r.put(GL.GL_ARRAY_BUFFER); r.put((long)vertices.remaining()*4); r.put(vertices); r.put(GL.GL_STATIC_DRAW);
+            expected.glBufferData(GL.GL_ARRAY_BUFFER, vertices.remaining()*4, vertices.slice(), GL.GL_STATIC_DRAW);
+            r.begin(1); r.put(GL.GL_ARRAY_BUFFER); r.put(0L); r.put((FloatBuffer)null); r.put(GL.GL_STATIC_DRAW);
+            expected.glBufferData(GL.GL_ARRAY_BUFFER, 0, null, GL.GL_STATIC_DRAW);
+            r.begin(2); r.put(3); r.put(1); r.put(color); r.put(0);
+            expected.glUniform4fv(3, 1, color, 0);
+            r.begin(3); r.put(7); r.put(1); r.put(source); r.put((int[])null); r.put(0);
+            expected.glShaderSource(7, 1, source, null, 0);
+            r.begin(4); r.put(GL.GL_TRIANGLES); r.put(0); r.put(frame);
+            expected.glDrawArrays(GL.GL_TRIANGLES, 0, frame);
+            r.frame();
+        }
+        Assert.assertEquals(10, vertices.position());
+        Assert.assertEquals(12, r.getCallCount());
+        Assert.assertEquals(2, r.getFrameCount());
+        r.close();
+        Assert.assertEquals(out.size(), r.getBytesWritten());
+        return out.toByteArray();
+    }
+
+    private static void testRoundTrip(final int stagingSize) {
+        final MockGL expected = new MockGL();
+        final byte[] log = record(stagingSize, expected.newGL());
+        System.err.println("Log size "+log.length+" bytes, staging "+stagingSize);
+
+        final MockGL actual = new MockGL();
+        final GLCommandReplayer p = new GLCommandReplayer(Channels.newChannel(new ByteArrayInputStream(log)));
+        Assert.assertTrue(p.replayFrame(actual.newGL()));
+        Assert.assertEquals(expected.calls.subList(0, 6), actual.calls);
+        Assert.assertEquals(1, p.getFrameCount());
+        Assert.assertEquals(2, p.replayAll(actual.newGL()));
+        Assert.assertEquals(expected.calls, actual.calls);
+        Assert.assertEquals(12, p.getCallCount());
+        Assert.assertTrue(p.getTotalNanos() >= p.getLastFrameNanos());
+        System.err.println(p);
+        Assert.assertEquals("glBufferData(34962, 3960, 990 floats, last 999.0, 35044)", actual.calls.get(1));
+    }
+
+    @Test
+    public void test01_RoundTrip() {
+        testRoundTrip(GLCommandRecorder.DEFAULT_STAGING_SIZE);
+    }
+
+    @Test
+    public void test02_RoundTripSmallStaging() {
+        testRoundTrip(64);
+    }
+
+    @Test
+    public void test03_Corrupt() {
+        final byte[] log = record(GLCommandRecorder.DEFAULT_STAGING_SIZE, new MockGL().newGL());
+        final MockGL actual = new MockGL();
+        try {
+            new GLCommandReplayer(Channels.newChannel(new ByteArrayInputStream(log, 0, log.length - 6))).replayAll(actual.newGL());
+            Assert.fail("Truncated log not detected");
+        } catch (final GLException gle) {
+            System.err.println("Expected: "+gle.getMessage());
+        }
+        log[0] = 'X';
+        try {
+            new GLCommandReplayer(Channels.newChannel(new ByteArrayInputStream(log)));
+            Assert.fail("Invalid magic not detected");
+        } catch (final GLException gle) {
+            System.err.println("Expected: "+gle.getMessage());
+        }
+    }
+
+    @Test
+    public void test04_ObjectNames() {
+        final String[] names = new String[] { "glGenBuffers", "glBindBuffer", "glDeleteBuffers", "glCreateProgram", "glUseProgram",
+                                              "glFenceSync", "glClientWaitSync", "glCreateShader", "glAttachShader", "glGenTextures", "glBindTexture" };
+        final String[] signatures = new String[] { "int,[I,int", "int,int", "int,[I,int", "", "int",
+                                                   "int,int", "long,int,long", "int", "int,int", "int,java.nio.IntBuffer", "int,int" };
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final GLCommandRecorder r = new GLCommandRecorder(Channels.newChannel(out));
+        r.attach(names, signatures);
+        final GL3ES3 gl = new ObjectMockGL(1).newGL3ES3();
+
+        // issued as by the recording pipeline: call record, downstream call, result
+        final int[] buffers = new int[3];
+        r.begin(0); r.put(2); r.put(buffers); r.put(1);
+        gl.glGenBuffers(2, buffers, 1);
+        r.result(buffers, 1, 2);
+        r.begin(1); r.put(GL.GL_ARRAY_BUFFER); r.put(buffers[2]);
+        r.begin(1); r.put(GL.GL_ARRAY_BUFFER); r.put(42); // unknown name
+        r.begin(3);
+        final int program = gl.glCreateProgram();
+        r.result(program);
+        r.begin(4); r.put(program);
+        r.begin(5); r.put(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE); r.put(0);
+        final long sync = gl.glFenceSync(GL3ES3.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        r.result(sync);
+        r.begin(6); r.put(sync); r.put(0); r.put(0L);
+        r.begin(7); r.put(GL2ES2.GL_VERTEX_SHADER);
+        final int shader = gl.glCreateShader(GL2ES2.GL_VERTEX_SHADER);
+        r.result(shader);
+        r.begin(8); r.put(program); r.put(shader);
+        r.begin(2); r.put(2); r.put(buffers); r.put(1);
+        final IntBuffer textures = Buffers.newDirectIntBuffer(2);
+        textures.position(1);
+        r.begin(9); r.put(1); r.put(textures);
+        gl.glGenTextures(1, textures);
+        r.result(textures, 1);
+        r.begin(10); r.put(GL.GL_TEXTURE_2D); r.put(textures.get(1));
+        r.frame();
+        r.close();
+        Assert.assertEquals("[0, 1, 2]", Arrays.toString(buffers));
+        Assert.assertEquals(3, program);
+        Assert.assertEquals(4L, sync);
+        Assert.assertEquals(5, shader);
+        Assert.assertEquals(6, textures.get(1));
+
+        final ObjectMockGL actual = new ObjectMockGL(100);
+        final GLCommandReplayer p = new GLCommandReplayer(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        Assert.assertEquals(1, p.replayAll(actual.newGL3ES3()));
+        Assert.assertEquals(106, actual.next);
+        Assert.assertEquals("glBindBuffer(34962, 101)", actual.calls.get(1));
+        Assert.assertEquals("glBindBuffer(34962, 42)", actual.calls.get(2));
+        Assert.assertEquals("glUseProgram(102)", actual.calls.get(4));
+        Assert.assertEquals("glClientWaitSync(103, 0, 0)", actual.calls.get(6));
+        Assert.assertEquals("glAttachShader(102, 104)", actual.calls.get(8));
+        Assert.assertEquals("glDeleteBuffers(2, [0, 100, 101], 1)", actual.calls.get(9));
+        Assert.assertEquals("glBindTexture(3553, 105)", actual.calls.get(11));
+    }
+
+    @Test
+    public void test05_MappedWrites() {
+        final String[] names = new String[] { "mapBufferRange", "glFlushMappedBufferRange", "glUnmapBuffer", "glMapBuffer" };
+        final String[] signatures = new String[] { "int,long,long,int", "int,long,long", "int", "int,int" };
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final GLCommandRecorder r = new GLCommandRecorder(Channels.newChannel(out), 64);
+        r.attach(names, signatures);
+        final GL3ES3 gl = new ObjectMockGL(1).newGL3ES3();
+
+        // buffer 1 and 2 mapped concurrently, e.g. via GLArrayDataServer.mapStorage(..), the latter w/ explicit flush
+        final int write = GL.GL_MAP_WRITE_BIT | GL.GL_MAP_INVALIDATE_RANGE_BIT;
+        r.begin(0); r.put(GL.GL_ARRAY_BUFFER); r.put(0L); r.put(100L); r.put(write);
+        final GLBufferStorage s1 = gl.mapBufferRange(GL.GL_ARRAY_BUFFER, 0, 100, write);
+        r.mapped(1, s1, write, true);
+        r.begin(0); r.put(GL.GL_ARRAY_BUFFER); r.put(0L); r.put(8L); r.put(write | GL.GL_MAP_FLUSH_EXPLICIT_BIT);
+        final GLBufferStorage s2 = gl.mapBufferRange(GL.GL_ARRAY_BUFFER, 0, 8, write | GL.GL_MAP_FLUSH_EXPLICIT_BIT);
+        r.mapped(2, s2, write | GL.GL_MAP_FLUSH_EXPLICIT_BIT, true);
+        for(int i=0; i<100; i++) {
+            s1.getMappedBuffer().put(i, (byte)i);
+        }
+        for(int i=0; i<8; i++) {
+            s2.getMappedBuffer().put(i, (byte)(100+i));
+        }
+        r.unmap(1);
+        r.begin(2); r.put(GL.GL_ARRAY_BUFFER);
+        r.flushMapped(2, 2, 4);
+        r.begin(1); r.put(GL.GL_ARRAY_BUFFER); r.put(2L); r.put(4L);
+        s2.getMappedBuffer().put(7, (byte)-1); // not flushed
+        r.unmap(2);
+        r.begin(2); r.put(GL.GL_ARRAY_BUFFER);
+
+        // read only mapping is not recorded
+        r.begin(3); r.put(GL.GL_ARRAY_BUFFER); r.put(GL2ES3.GL_READ_ONLY);
+        final ByteBuffer s3 = gl.glMapBuffer(GL.GL_ARRAY_BUFFER, GL2ES3.GL_READ_ONLY);
+        r.mapped(3, s3, GL2ES3.GL_READ_ONLY, false);
+        s3.put(0, (byte)1);
+        r.unmap(3);
+        r.begin(2); r.put(GL.GL_ARRAY_BUFFER);
+        r.close();
+
+        final ObjectMockGL actual = new ObjectMockGL(100);
+        final GLCommandReplayer p = new GLCommandReplayer(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        Assert.assertEquals(0, p.replayAll(actual.newGL3ES3()));
+        Assert.assertEquals(3, actual.mapped.size());
+        final ByteBuffer r1 = actual.mapped.get(0);
+        for(int i=0; i<100; i++) {
+            Assert.assertEquals(i, r1.get(i));
+        }
+        final byte[] r2 = new byte[8];
+        actual.mapped.get(1).get(r2);
+        Assert.assertEquals("[0, 0, 102, 103, 104, 105, 0, 0]", Arrays.toString(r2));
+        Assert.assertEquals(0, actual.mapped.get(2).get(0));
+        Assert.assertEquals(7, p.getCallCount());
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLCommandRecorderNOUI.class.getName());
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.jogamp.opengl.GLAnimatorControl;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLRunnable;
+
+import jogamp.opengl.GLDrawableHelper;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLDrawableHelper}'s {@link GLRunnable} queue w/ a mock {@link GLAutoDrawable}:
+ * the time budget never skips the invoker's task and a flush racing an invoker never leaves its task queued.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLDrawableHelperRunnablesNOUI {
+    /** Returns a mock {@link GLAutoDrawable}, which {@link GLAutoDrawable#display()} issues {@link GLDrawableHelper#display(GLAutoDrawable)}. */
+    static GLAutoDrawable createDrawable(final GLDrawableHelper helper) {
+        return (GLAutoDrawable) Proxy.newProxyInstance(GLAutoDrawable.class.getClassLoader(), new Class<?>[] { GLAutoDrawable.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method m, final Object[] args) {
+                final String n = m.getName();
+                if( n.equals("display") ) {
+                    helper.display((GLAutoDrawable)proxy);
+                    return null;
+                } else if( n.equals("isThreadGLCapable") || n.equals("isRealized") ) {
+                    return Boolean.TRUE;
+                }
+                return boolean.class == m.getReturnType() ? Boolean.FALSE : null;
+            } });
+    }
+
+    static GLRunnable sleeper(final int[] counter) {
+        return new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) {
+                try { Thread.sleep(2); } catch (final InterruptedException e) { }
+                counter[0]++;
+                return true;
+            } };
+    }
+
+    @Test
+    public void test01_TimeBudgetExecutesInvokersTask() {
+        final GLDrawableHelper helper = new GLDrawableHelper();
+        final GLAutoDrawable drawable = createDrawable(helper);
+        helper.setGLRunnableTimeBudget(TimeUnit.MILLISECONDS.toNanos(1));
+        final int[] counter = { 0 };
+        for(int i=0; i<4; i++) {
+            helper.enqueue(sleeper(counter));
+        }
+        // budget limits a regular display
+        drawable.display();
+        Assert.assertEquals(1, counter[0]);
+        Assert.assertEquals(3, helper.getGLRunnableCount());
+
+        // invoke w/o animator drives display, executing all tasks up to the invoker's one
+        final boolean[] executed = { false };
+        Assert.assertTrue(helper.invoke(drawable, false, new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable d) {
+                executed[0] = true;
+                return true;
+            } }));
+        Assert.assertTrue(executed[0]);
+        Assert.assertEquals(4, counter[0]);
+        Assert.assertEquals(0, helper.getGLRunnableCount());
+    }
+
+    @Test
+    public void test02_FlushRacingInvoke() throws Exception {
+        final GLDrawableHelper helper = new GLDrawableHelper();
+        final GLAutoDrawable drawable = createDrawable(helper);
+        final Thread animatorThread = new Thread();
+        // Animating on another thread, flushing while the invoker queries the animator state,
+        // i.e. between the check and enqueuing the task.
+        helper.setAnimator((GLAnimatorControl) Proxy.newProxyInstance(GLAnimatorControl.class.getClassLoader(), new Class<?>[] { GLAnimatorControl.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method m, final Object[] args) {
+                final String n = m.getName();
+                if( n.equals("isAnimating") ) {
+                    helper.flushGLRunnables();
+                    return Boolean.TRUE;
+                } else if( n.equals("getThread") ) {
+                    return animatorThread;
+                }
+                return boolean.class == m.getReturnType() ? Boolean.FALSE : null;
+            } }));
+        final int[] counter = { 0 };
+        final Future<Boolean> f = helper.invokeAsync(drawable, sleeper(counter));
+        Assert.assertTrue(f.isDone());
+        Assert.assertTrue(f.isCancelled() || ((jogamp.opengl.GLRunnableTask)f).isFlushed());
+        Assert.assertEquals(0, helper.getGLRunnableCount());
+
+        Assert.assertTrue(helper.invoke(drawable, false, sleeper(counter)));
+        Assert.assertEquals(0, helper.getGLRunnableCount());
+        Assert.assertEquals(0, counter[0]);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLDrawableHelperRunnablesNOUI.class.getName());
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.List;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLEventListenerProfiler;
+import com.jogamp.opengl.GLEventListenerProfiler.Phase;
+import com.jogamp.opengl.GLEventListenerProfiler.Stats;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLEventListenerProfiler}'s CPU time aggregation over it's rolling window,
+ * w/o GPU timing and hence w/o a GL context.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLEventListenerProfilerNOUI {
+    static class NopListener implements GLEventListener {
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) { }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    }
+
+    private static void sleepCallback(final GLEventListenerProfiler profiler, final GLEventListener l, final Phase phase, final long millis) throws InterruptedException {
+        profiler.beginCallback(null, l, phase);
+        try {
+            Thread.sleep(millis);
+        } finally {
+            profiler.endCallback(null);
+        }
+    }
+
+    @Test
+    public void test01_Aggregation() throws InterruptedException {
+        final GLEventListenerProfiler profiler = new GLEventListenerProfiler(4, false);
+        final GLEventListener l0 = new NopListener();
+        final GLEventListener l1 = new NopListener();
+        Assert.assertNull(profiler.getStats(l0, Phase.DISPLAY));
+
+        sleepCallback(profiler, l0, Phase.INIT, 1);
+        for(int i=0; i<6; i++) {
+            sleepCallback(profiler, l0, Phase.DISPLAY, 1);
+            sleepCallback(profiler, l1, Phase.DISPLAY, 10);
+        }
+        final List<Stats> all = profiler.getStats();
+        System.err.println(all);
+        Assert.assertEquals(3, all.size());
+        Assert.assertSame(l0, all.get(0).getListener());
+        Assert.assertEquals(Phase.INIT, all.get(0).getPhase());
+        Assert.assertEquals(1, all.get(0).getCount());
+
+        final Stats s0 = profiler.getStats(l0, Phase.DISPLAY);
+        final Stats s1 = profiler.getStats(l1, Phase.DISPLAY);
+        Assert.assertEquals(6, s0.getTotalCount());
+        Assert.assertEquals(4, s0.getCount());
+        Assert.assertEquals(0, s0.getGPUCount());
+        Assert.assertTrue(s0.getCPUMin() >= 1000000);
+        Assert.assertTrue(s0.getCPUMin() <= s0.getCPUMean() && s0.getCPUMean() <= s0.getCPUMax());
+        Assert.assertTrue(s1.getCPUMin() >= 10000000);
+        Assert.assertTrue(s1.getCPUMean() > s0.getCPUMean());
+    }
+
+    @Test
+    public void test02_ExceptionAndReset() {
+        final GLEventListenerProfiler profiler = new GLEventListenerProfiler();
+        final GLEventListener l0 = new NopListener();
+        try {
+            profiler.beginCallback(null, l0, Phase.RESHAPE);
+            try {
+                throw new RuntimeException("expected");
+            } finally {
+                profiler.endCallback(null);
+            }
+        } catch (final RuntimeException re) { }
+        Assert.assertEquals(1, profiler.getStats(l0, Phase.RESHAPE).getTotalCount());
+        profiler.reset();
+        Assert.assertTrue(profiler.getStats().isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void test03_InvalidWindow() {
+        new GLEventListenerProfiler(0, false);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLEventListenerProfilerNOUI.class.getName());
+    }
+}
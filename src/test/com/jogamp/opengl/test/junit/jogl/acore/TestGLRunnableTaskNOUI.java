@@ -0,0 +1,137 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLRunnable;
+
+import jogamp.opengl.GLRunnableTask;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLRunnableTask}'s {@link java.util.concurrent.Future} semantics,
+ * as returned by {@link GLAutoDrawable#invokeAsync(GLRunnable)}.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLRunnableTaskNOUI {
+    static final GLRunnable resultFalse = new GLRunnable() {
+        @Override
+        public boolean run(final GLAutoDrawable drawable) { return false; }
+    };
+
+    @Test
+    public void test01_ExecuteResult() throws InterruptedException, ExecutionException {
+        final GLRunnableTask task = new GLRunnableTask(resultFalse, true);
+        Assert.assertTrue(task.isInQueue());
+        Assert.assertFalse(task.isDone());
+        Assert.assertFalse(task.run(null));
+        Assert.assertTrue(task.isExecuted());
+        Assert.assertTrue(task.isDone());
+        Assert.assertEquals(Boolean.FALSE, task.get());
+        // executed tasks can't be cancelled nor re-executed
+        Assert.assertFalse(task.cancel(true));
+        Assert.assertTrue(task.isExecuted());
+    }
+
+    @Test
+    public void test02_ExecutionException() throws InterruptedException {
+        final RuntimeException ex = new RuntimeException("expected");
+        final GLRunnableTask task = new GLRunnableTask(new GLRunnable() {
+            @Override
+            public boolean run(final GLAutoDrawable drawable) { throw ex; }
+        }, true);
+        task.run(null);
+        Assert.assertSame(ex, task.getThrowable());
+        try {
+            task.get();
+            Assert.fail("ExecutionException expected");
+        } catch (final ExecutionException ee) {
+            Assert.assertSame(ex, ee.getCause());
+        }
+    }
+
+    @Test
+    public void test03_CancelAndFlush() throws InterruptedException, ExecutionException {
+        final GLRunnableTask cancelled = new GLRunnableTask(resultFalse, true);
+        Assert.assertTrue(cancelled.cancel(false));
+        Assert.assertTrue(cancelled.isCancelled());
+        Assert.assertTrue(cancelled.run(null)); // skipped
+        Assert.assertFalse(cancelled.isExecuted());
+        try {
+            cancelled.get();
+            Assert.fail("CancellationException expected");
+        } catch (final CancellationException ce) { }
+
+        final GLRunnableTask flushed = new GLRunnableTask(resultFalse, true);
+        flushed.flush();
+        Assert.assertTrue(flushed.isFlushed());
+        Assert.assertTrue(flushed.isDone());
+        Assert.assertFalse(flushed.cancel(false));
+        try {
+            flushed.get();
+            Assert.fail("CancellationException expected");
+        } catch (final CancellationException ce) { }
+    }
+
+    @Test
+    public void test04_CrossThreadGet() throws InterruptedException, ExecutionException, TimeoutException {
+        final GLRunnableTask task = new GLRunnableTask(resultFalse, true);
+        try {
+            task.get(10, TimeUnit.MILLISECONDS);
+            Assert.fail("TimeoutException expected");
+        } catch (final TimeoutException te) { }
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final Thread executor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    started.await();
+                } catch (final InterruptedException ie) { }
+                task.run(null);
+            } }, "GLRunnableTask-Executor");
+        executor.start();
+        started.countDown();
+        Assert.assertEquals(Boolean.FALSE, task.get(5, TimeUnit.SECONDS));
+        executor.join();
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLRunnableTaskNOUI.class.getName());
+    }
+}
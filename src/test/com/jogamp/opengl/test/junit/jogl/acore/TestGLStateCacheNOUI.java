@@ -0,0 +1,228 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLStateCache;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLStateCache}'s redundant call detection and invalidation,
+ * as used by the generated <code>StateCacheGL*</code> pipelines.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLStateCacheNOUI {
+
+    @Test
+    public void test01_Bindings() {
+        final GLStateCache sc = new GLStateCache();
+        Assert.assertTrue(sc.glBindBuffer(GL.GL_ARRAY_BUFFER, 1));
+        Assert.assertFalse(sc.glBindBuffer(GL.GL_ARRAY_BUFFER, 1));
+        Assert.assertTrue(sc.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 1));
+
+        // texture bindings are unknown w/o known active unit
+        Assert.assertTrue(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertTrue(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertFalse(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertFalse(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE1));
+        Assert.assertTrue(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertFalse(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+
+        // element array binding is vertex array state
+        Assert.assertTrue(sc.glBindVertexArray(7));
+        Assert.assertTrue(sc.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 1));
+        Assert.assertFalse(sc.glBindVertexArray(7));
+        Assert.assertFalse(sc.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 1));
+        Assert.assertFalse(sc.glBindBuffer(GL.GL_ARRAY_BUFFER, 1));
+
+        // GL_FRAMEBUFFER binds draw and read
+        Assert.assertTrue(sc.glBindFramebuffer(GL.GL_FRAMEBUFFER, 2));
+        Assert.assertFalse(sc.glBindFramebuffer(GL2ES3.GL_READ_FRAMEBUFFER, 2));
+        Assert.assertTrue(sc.glBindFramebuffer(GL2ES3.GL_DRAW_FRAMEBUFFER, 0));
+        Assert.assertTrue(sc.glBindFramebuffer(GL.GL_FRAMEBUFFER, 2));
+
+        Assert.assertEquals(8, sc.getElidedBindingCount());
+        sc.invalidateBuffers();
+        Assert.assertTrue(sc.glBindBuffer(GL.GL_ARRAY_BUFFER, 1));
+    }
+
+    @Test
+    public void test02_CapsBlendDepth() {
+        final GLStateCache sc = new GLStateCache();
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertFalse(sc.glEnable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glDisable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glDisable(GL.GL_DEPTH_TEST));
+        Assert.assertFalse(sc.glDisable(GL.GL_DEPTH_TEST));
+
+        Assert.assertTrue(sc.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA));
+        Assert.assertFalse(sc.glBlendFuncSeparate(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA, GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA));
+        Assert.assertTrue(sc.glBlendFuncSeparate(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA, GL.GL_ONE, GL.GL_ZERO));
+        Assert.assertTrue(sc.glDepthMask(false));
+        Assert.assertFalse(sc.glDepthMask(false));
+        Assert.assertTrue(sc.glDepthFunc(GL.GL_LEQUAL));
+        Assert.assertFalse(sc.glDepthFunc(GL.GL_LEQUAL));
+
+        Assert.assertEquals(2, sc.getElidedCapabilityCount());
+        Assert.assertEquals(3, sc.getElidedBlendDepthCount());
+
+        sc.invalidateAll();
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glDepthMask(false));
+        sc.resetCounter();
+        Assert.assertEquals(0, sc.getElidedCallCount());
+    }
+
+    @Test
+    public void test03_Uniforms() {
+        final GLStateCache sc = new GLStateCache();
+        // unknown program
+        Assert.assertTrue(sc.glUniform1i(0, 1));
+        Assert.assertTrue(sc.glUniform1i(0, 1));
+
+        Assert.assertTrue(sc.glUseProgram(5));
+        Assert.assertTrue(sc.glUniform1i(0, 1));
+        Assert.assertFalse(sc.glUniform1i(0, 1));
+        Assert.assertTrue(sc.glUniform1f(0, Float.intBitsToFloat(1))); // same bits, other type
+        Assert.assertTrue(sc.glUniform4f(1, 1f, 2f, 3f, 4f));
+        Assert.assertFalse(sc.glUniform4f(1, 1f, 2f, 3f, 4f));
+        Assert.assertTrue(sc.glUniform4f(1, 1f, 2f, 3f, 5f));
+
+        // values are kept per program
+        Assert.assertTrue(sc.glUseProgram(6));
+        Assert.assertTrue(sc.glUniform4f(1, 1f, 2f, 3f, 5f));
+        Assert.assertTrue(sc.glUseProgram(5));
+        Assert.assertFalse(sc.glUniform4f(1, 1f, 2f, 3f, 5f));
+
+        // invalid location is passed
+        Assert.assertTrue(sc.glUniform1i(-1, 1));
+        Assert.assertTrue(sc.glUniform1i(-1, 1));
+
+        Assert.assertEquals(3, sc.getElidedUniformCount());
+        sc.invalidateUniforms();
+        Assert.assertTrue(sc.glUniform4f(1, 1f, 2f, 3f, 5f));
+        Assert.assertFalse(sc.glUseProgram(5));
+    }
+
+    @Test
+    public void test04_TextureUnitCaps() {
+        final GLStateCache sc = new GLStateCache();
+        // texture unit caps are unknown w/o known active unit
+        Assert.assertTrue(sc.glEnable(GL.GL_TEXTURE_2D));
+        Assert.assertTrue(sc.glEnable(GL.GL_TEXTURE_2D));
+
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.glEnable(GL.GL_TEXTURE_2D));
+        Assert.assertFalse(sc.glEnable(GL.GL_TEXTURE_2D));
+        Assert.assertTrue(sc.glEnable(GL2.GL_TEXTURE_GEN_S));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE1));
+        Assert.assertTrue(sc.glEnable(GL.GL_TEXTURE_2D));
+        Assert.assertTrue(sc.glEnable(GL2.GL_TEXTURE_GEN_S));
+        Assert.assertFalse(sc.glEnable(GL.GL_TEXTURE_2D));
+        Assert.assertTrue(sc.glDisable(GL.GL_TEXTURE_CUBE_MAP));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.glDisable(GL.GL_TEXTURE_CUBE_MAP));
+        Assert.assertFalse(sc.glEnable(GL.GL_TEXTURE_2D));
+
+        // other caps are not per unit
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE1));
+        Assert.assertFalse(sc.glEnable(GL.GL_BLEND));
+
+        Assert.assertEquals(4, sc.getElidedCapabilityCount());
+    }
+
+    @Test
+    public void test05_DisplayListBypass() {
+        final GLStateCache sc = new GLStateCache();
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glUseProgram(5));
+        Assert.assertTrue(sc.glNewList(1, GL2.GL_COMPILE));
+        Assert.assertTrue(sc.isCompilingList());
+
+        // all calls are forwarded and not shadowed while compiling
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertTrue(sc.glDepthFunc(GL.GL_LESS));
+        Assert.assertTrue(sc.glDepthFunc(GL.GL_LESS));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.glActiveTexture(GL.GL_TEXTURE0));
+        Assert.assertTrue(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertTrue(sc.glBindTexture(GL.GL_TEXTURE_2D, 3));
+        Assert.assertTrue(sc.glUseProgram(6));
+        Assert.assertTrue(sc.glUseProgram(6));
+        Assert.assertEquals(0, sc.getElidedCallCount());
+
+        // state is unknown after compilation
+        Assert.assertTrue(sc.glEndList());
+        Assert.assertFalse(sc.isCompilingList());
+        Assert.assertTrue(sc.glUseProgram(5));
+        Assert.assertTrue(sc.glEnable(GL.GL_BLEND));
+        Assert.assertFalse(sc.glEnable(GL.GL_BLEND));
+    }
+
+    @Test
+    public void test06_UniformInvalidation() {
+        final GLStateCache sc = new GLStateCache();
+        Assert.assertTrue(sc.glUseProgram(5));
+        Assert.assertTrue(sc.glUniform1i(0, 1));
+        Assert.assertTrue(sc.glUniform1i(1, 1));
+        Assert.assertTrue(sc.glUniform1i(3, 1));
+        Assert.assertTrue(sc.glUseProgram(6));
+        Assert.assertTrue(sc.glUniform1i(0, 1));
+
+        // e.g. glUniform1iv(0, 2, ..) w/ program 6
+        sc.invalidateUniforms(0, 2);
+        Assert.assertTrue(sc.glUniform1i(0, 1));
+        Assert.assertTrue(sc.glUseProgram(5));
+        Assert.assertFalse(sc.glUniform1i(0, 1));
+        Assert.assertFalse(sc.glUniform1i(1, 1));
+
+        // e.g. glProgramUniform1iv(5, 1, 2, ..) w/ program 5 or 6
+        sc.invalidateProgramUniforms(5, 1, 2);
+        Assert.assertFalse(sc.glUniform1i(0, 1));
+        Assert.assertTrue(sc.glUniform1i(1, 1));
+        Assert.assertFalse(sc.glUniform1i(3, 1));
+        sc.invalidateProgramUniforms(6, 0, 1);
+        Assert.assertFalse(sc.glUniform1i(0, 1));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLStateCacheNOUI.class.getName());
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.acore.anim;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLEventListener;
+
+import com.jogamp.newt.opengl.GLWindow;
+import com.jogamp.opengl.util.MultiThreadAnimator;
+import com.jogamp.opengl.test.junit.util.AWTRobotUtil;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.test.junit.jogl.demos.es2.GearsES2;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link MultiThreadAnimator}: dedicated render threads per drawable or group,
+ * exclusive context per render thread, per-drawable FPS counters and backpressure.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMultiThreadAnimatorNEWT extends UITestCase {
+    static final int width = 320;
+    static final int height = 240;
+    static long duration = 3*500; // ms
+
+    /** Records the threads calling display() and optionally stalls. */
+    static class ThreadRecorder implements GLEventListener {
+        final Set<Thread> threads = new HashSet<Thread>();
+        final long stall;
+        ThreadRecorder(final long stall) { this.stall = stall; }
+        @Override
+        public void init(final GLAutoDrawable drawable) { }
+        @Override
+        public void dispose(final GLAutoDrawable drawable) { }
+        @Override
+        public void display(final GLAutoDrawable drawable) {
+            synchronized(threads) {
+                threads.add(Thread.currentThread());
+            }
+            if( 0 < stall ) {
+                try {
+                    Thread.sleep(stall);
+                } catch (final InterruptedException e) { }
+            }
+        }
+        @Override
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+        Set<Thread> getThreads() {
+            synchronized(threads) {
+                return new HashSet<Thread>(threads);
+            }
+        }
+    }
+
+    protected GLWindow createGLWindow(final GLCapabilities caps, final int x, final int y, final GLEventListener demo, final ThreadRecorder rec) throws InterruptedException {
+        final GLWindow glWindow = GLWindow.create(caps);
+        Assert.assertNotNull(glWindow);
+        glWindow.addGLEventListener(demo);
+        glWindow.addGLEventListener(rec);
+        glWindow.setPosition(x, y);
+        glWindow.setSize(width, height);
+        glWindow.setTitle("GLWindow: "+x+"/"+y);
+        glWindow.setVisible(true);
+        Assert.assertTrue(AWTRobotUtil.waitForRealized(glWindow, true));
+        Assert.assertTrue(AWTRobotUtil.waitForVisible(glWindow, true));
+        Assert.assertTrue(AWTRobotUtil.waitForContextCreated(glWindow, true));
+        return glWindow;
+    }
+
+    static void destroy(final GLWindow ... windows) {
+        for(int i=0; i<windows.length; i++) {
+            windows[i].destroy();
+            Assert.assertTrue(AWTRobotUtil.waitForRealized(windows[i], false));
+        }
+    }
+
+    private void testGroups(final boolean exclusiveContext) throws InterruptedException {
+        final GLCapabilities caps = new GLCapabilities(null);
+        final ThreadRecorder r1 = new ThreadRecorder(0), r2 = new ThreadRecorder(0), r3 = new ThreadRecorder(0);
+        final GLWindow c1 = createGLWindow(caps, 0, 0, new GearsES2(0), r1);
+        final GLWindow c2 = createGLWindow(caps, width, 0, new GearsES2(0), r2);
+        final GLWindow c3 = createGLWindow(caps, 0, height, new GearsES2(0), r3);
+
+        final MultiThreadAnimator animator = new MultiThreadAnimator();
+        animator.setExclusiveContext(exclusiveContext);
+        animator.setRenderGroup(c2, Integer.valueOf(1));
+        animator.setRenderGroup(c3, Integer.valueOf(1));
+        animator.add(c1);
+        animator.add(c2);
+        animator.add(c3);
+        animator.start();
+        Assert.assertTrue(animator.isAnimating());
+        Assert.assertEquals(2, animator.getRenderThreadCount());
+        if( exclusiveContext ) {
+            Assert.assertNotNull(c1.getExclusiveContextThread());
+            Assert.assertNotNull(c2.getExclusiveContextThread());
+            Assert.assertNotSame(c1.getExclusiveContextThread(), c2.getExclusiveContextThread());
+            Assert.assertSame(c2.getExclusiveContextThread(), c3.getExclusiveContextThread());
+        }
+        Thread.sleep(duration/2);
+
+        animator.pause();
+        Assert.assertTrue(animator.isPaused());
+        Assert.assertNull(c1.getExclusiveContextThread());
+        Assert.assertNull(c2.getExclusiveContextThread());
+        animator.resume();
+        Assert.assertTrue(animator.isAnimating());
+        Thread.sleep(duration/2);
+
+        Assert.assertTrue(animator.getFPSCounter(c1).getFrameTimeSnapshot().getFrameTimes().getCount() > 0);
+        Assert.assertTrue(animator.getFPSCounter(c3).getFrameTimeSnapshot().getFrameTimes().getCount() > 0);
+        System.err.println("c1: "+animator.getFPSCounter(c1).getFrameTimeSnapshot());
+        System.err.println("c2: "+animator.getFPSCounter(c2).getFrameTimeSnapshot());
+        System.err.println("pulse: "+animator.getFrameTimeSnapshot());
+
+        animator.stop();
+        Assert.assertFalse(animator.isStarted());
+        Assert.assertEquals(0, animator.getRenderThreadCount());
+        Assert.assertNull(c1.getExclusiveContextThread());
+        Assert.assertNull(c3.getExclusiveContextThread());
+
+        final Set<Thread> t1 = r1.getThreads(), t2 = r2.getThreads(), t3 = r3.getThreads();
+        Assert.assertFalse(t1.contains(animator.getThread()));
+        t1.retainAll(t2);
+        Assert.assertTrue("Shared render thread "+t1, t1.isEmpty());
+        Assert.assertEquals(t2, t3);
+
+        destroy(c1, c2, c3);
+    }
+
+    @Test
+    public void test01RenderGroups() throws InterruptedException {
+        testGroups(false);
+    }
+
+    @Test
+    public void test02RenderGroupsExclusiveContext() throws InterruptedException {
+        testGroups(true);
+    }
+
+    @Test
+    public void test03Backpressure() throws InterruptedException {
+        final GLCapabilities caps = new GLCapabilities(null);
+        final ThreadRecorder fast = new ThreadRecorder(0), slow = new ThreadRecorder(30);
+        final GLWindow c1 = createGLWindow(caps, 0, 0, new GearsES2(0), fast);
+        final GLWindow c2 = createGLWindow(caps, width, 0, new GearsES2(0), slow);
+
+        final MultiThreadAnimator animator = new MultiThreadAnimator();
+        animator.setMaxFramesAhead(4);
+        animator.add(c1);
+        animator.add(c2);
+        animator.start();
+        Thread.sleep(duration);
+        final long skipped = animator.getSkippedFrames(c2);
+        System.err.println("skipped fast "+animator.getSkippedFrames(c1)+", slow "+skipped);
+        animator.stop();
+        Assert.assertTrue("skipped "+skipped, skipped > 0);
+
+        final long slowFrames = animator.getFPSCounter(c2).getFrameTimeSnapshot().getFrameTimes().getCount();
+        final long pulses = animator.getFrameTimeSnapshot().getFrameTimes().getCount();
+        // the frame pulse is bound by the slow render thread, which skips frames to keep up
+        Assert.assertTrue("slow "+slowFrames+", pulses "+pulses, slowFrames < pulses);
+        Assert.assertTrue("pulses "+pulses, pulses <= ( slowFrames + 1 ) * 4 + 4);
+        destroy(c1, c2);
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-time")) {
+                i++;
+                try {
+                    duration = Integer.parseInt(args[i]);
+                } catch (final Exception ex) { ex.printStackTrace(); }
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestMultiThreadAnimatorNEWT.class.getName());
+    }
+}
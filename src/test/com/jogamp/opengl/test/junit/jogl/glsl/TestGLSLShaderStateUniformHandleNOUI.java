@@ -0,0 +1,280 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.glsl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLUniformData;
+import com.jogamp.opengl.util.glsl.ShaderProgram;
+import com.jogamp.opengl.util.glsl.ShaderState;
+import com.jogamp.opengl.util.glsl.UniformBlock;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link ShaderState}'s uniform handles w/ dirty tracked {@link GLUniformData},
+ * as well as {@link UniformBlock}'s <code>std140</code> layout and partial uploads, using a mock GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLSLShaderStateUniformHandleNOUI {
+
+    /** Mock GL, w/ valid programs and uniform locations for names starting w/ <code>u</code>. */
+    static class MockGL implements InvocationHandler {
+        final List<String> calls = new ArrayList<String>();
+        final ByteBuffer ubo = ByteBuffer.allocate(1024).order(ByteOrder.nativeOrder());
+        final GL2ES3 gl = (GL2ES3) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL2ES3.class }, this);
+        int nextName = 1;
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            final String name = m.getName();
+            if( "getGL2ES2".equals(name) || "getGL2ES3".equals(name) ) {
+                return gl;
+            } else if( "glCreateProgram".equals(name) ) {
+                return Integer.valueOf(nextName++);
+            } else if( "glIsProgram".equals(name) ) {
+                return Boolean.TRUE;
+            } else if( "glGetProgramiv".equals(name) ) {
+                ((int[])args[2])[((Integer)args[3]).intValue()] = 1;
+                return null;
+            } else if( "glGenBuffers".equals(name) ) {
+                ((int[])args[1])[((Integer)args[2]).intValue()] = nextName++;
+                return null;
+            } else if( "glGetUniformLocation".equals(name) ) {
+                calls.add(name+"("+args[0]+", "+args[1]+")");
+                final String uname = (String)args[1];
+                return Integer.valueOf( uname.startsWith("u") ? uname.length() : -1 );
+            } else if( "glGetUniformBlockIndex".equals(name) ) {
+                return Integer.valueOf( "Block".equals(args[1]) ? 0 : GL2ES3.GL_INVALID_INDEX );
+            } else if( "glUniform".equals(name) ) {
+                final GLUniformData data = (GLUniformData)args[0];
+                calls.add(name+"("+data.getName()+"@"+data.getLocation()+")");
+                return null;
+            } else if( "glBufferSubData".equals(name) ) {
+                final int offset = (int) ((Long)args[1]).longValue();
+                final int size = (int) ((Long)args[2]).longValue();
+                final ByteBuffer data = (ByteBuffer)args[3];
+                for(int i=0; i<size; i++) {
+                    ubo.put(offset+i, data.get(data.position()+i));
+                }
+                calls.add(name+"("+offset+", "+size+")");
+                return null;
+            } else if( "glUniformBlockBinding".equals(name) || "glBindBufferBase".equals(name) ) {
+                calls.add(name+"("+args[0]+", "+args[1]+", "+args[2]+")");
+                return null;
+            }
+            final Class<?> rt = m.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+
+        int count(final String prefix) {
+            int c = 0;
+            for(int i=0; i<calls.size(); i++) {
+                if( calls.get(i).startsWith(prefix) ) { c++; }
+            }
+            return c;
+        }
+    }
+
+    @Test
+    public void test01_UniformHandleDirtyTracking() {
+        final MockGL mock = new MockGL();
+        final GL2ES3 gl = mock.gl;
+        final ShaderState st = new ShaderState();
+        final ShaderProgram sp0 = new ShaderProgram();
+        Assert.assertTrue(sp0.link(gl, System.err));
+        st.attachShaderProgram(gl, sp0, true);
+
+        final GLUniformData color = new GLUniformData("uColor", 4, Buffers.newDirectFloatBuffer(new float[] { 1f, 0f, 0f, 1f }));
+        color.setDirtyTracking(true);
+        final GLUniformData time = new GLUniformData("uTime", 0f); // untracked
+        final GLUniformData missing = new GLUniformData("missing", 0);
+        final int hColor = st.getUniformHandle(color);
+        final int hTime = st.getUniformHandle(time);
+        final int hMissing = st.getUniformHandle(missing);
+        Assert.assertEquals(hColor, st.getUniformHandle(color));
+        Assert.assertEquals(3, new java.util.HashSet<Integer>(java.util.Arrays.asList(hColor, hTime, hMissing)).size());
+
+        for(int i=0; i<10; i++) {
+            Assert.assertTrue(st.uniform(gl, hColor));
+            Assert.assertTrue(st.uniform(gl, hTime));
+            Assert.assertFalse(st.uniform(gl, hMissing));
+        }
+        // Locations resolved once, tracked uniform uploaded once, untracked each time
+        Assert.assertEquals(3, mock.count("glGetUniformLocation"));
+        Assert.assertEquals(1, mock.count("glUniform(uColor"));
+        Assert.assertEquals(10, mock.count("glUniform(uTime"));
+
+        color.setDirty();
+        Assert.assertTrue(st.uniform(gl, hColor));
+        Assert.assertTrue(st.uniform(gl, hColor));
+        Assert.assertEquals(2, mock.count("glUniform(uColor"));
+        color.setData(Buffers.newDirectFloatBuffer(new float[] { 0f, 1f, 0f, 1f }));
+        Assert.assertTrue(st.uniform(gl, hColor));
+        Assert.assertEquals(3, mock.count("glUniform(uColor"));
+
+        // Switching programs resolves and uploads all data once, handles remain valid
+        final ShaderProgram sp1 = new ShaderProgram();
+        Assert.assertTrue(sp1.link(gl, System.err));
+        mock.calls.clear();
+        st.attachShaderProgram(gl, sp1, true);
+        Assert.assertEquals(1, mock.count("glUniform(uColor@6)"));
+        Assert.assertEquals(3, mock.count("glGetUniformLocation("+sp1.program()));
+        Assert.assertTrue(st.uniform(gl, hColor));
+        Assert.assertTrue(st.uniform(gl, hTime));
+        Assert.assertFalse(st.uniform(gl, hMissing));
+        Assert.assertEquals(1, mock.count("glUniform(uColor"));
+        Assert.assertEquals(2, mock.count("glUniform(uTime"));
+        Assert.assertEquals(3, mock.count("glGetUniformLocation"));
+
+        st.releaseAllUniforms(gl);
+        try {
+            st.uniform(gl, hColor);
+            Assert.fail("Released handle used");
+        } catch (final com.jogamp.opengl.GLException e) { }
+    }
+
+    @Test
+    public void test02_UniformBlockLayout() {
+        final MockGL mock = new MockGL();
+        final GL2ES3 gl = mock.gl;
+        final UniformBlock block = new UniformBlock("Block", 2);
+        final GLUniformData scale = new GLUniformData("scale", 2f).setDirtyTracking(true);
+        final GLUniformData dir = new GLUniformData("dir", 3, Buffers.newDirectFloatBuffer(new float[] { 1f, 2f, 3f })).setDirtyTracking(true);
+        final GLUniformData weights = new GLUniformData("weights", 1, Buffers.newDirectFloatBuffer(new float[] { 4f, 5f })).setDirtyTracking(true);
+        final FloatBuffer m3 = Buffers.newDirectFloatBuffer(new float[] { 1f, 2f, 3f, 4f, 5f, 6f, 7f, 8f, 9f });
+        final GLUniformData mat = new GLUniformData("mat", 3, 3, m3).setDirtyTracking(true);
+        final GLUniformData flag = new GLUniformData("flag", 7).setDirtyTracking(true);
+        Assert.assertEquals(0, block.add(scale));
+        block.add(dir);
+        block.add(weights);
+        block.add(mat);
+        block.add(flag);
+        // std140: float@0, vec3@16, float[2]@32 stride 16, mat3@64 column stride 16, int@112
+        Assert.assertEquals(0, block.getOffset(0));
+        Assert.assertEquals(16, block.getOffset(1));
+        Assert.assertEquals(32, block.getOffset(2));
+        Assert.assertEquals(64, block.getOffset(3));
+        Assert.assertEquals(112, block.getOffset(4));
+        Assert.assertEquals(128, block.getSize());
+
+        Assert.assertTrue(block.update(gl));
+        Assert.assertEquals("glBufferSubData(0, 116)", mock.calls.get(0));
+        final ByteBuffer ubo = mock.ubo;
+        Assert.assertEquals(2f, ubo.getFloat(0), 0f);
+        Assert.assertEquals(3f, ubo.getFloat(16+8), 0f);
+        Assert.assertEquals(4f, ubo.getFloat(32), 0f);
+        Assert.assertEquals(5f, ubo.getFloat(48), 0f);
+        Assert.assertEquals(4f, ubo.getFloat(64+16), 0f);
+        Assert.assertEquals(9f, ubo.getFloat(64+32+8), 0f);
+        Assert.assertEquals(7, ubo.getInt(112));
+
+        // Nothing modified, no upload but binding
+        mock.calls.clear();
+        Assert.assertFalse(block.update(gl));
+        Assert.assertEquals(0, mock.count("glBufferSubData"));
+        Assert.assertEquals(1, mock.count("glBindBufferBase("+GL2ES3.GL_UNIFORM_BUFFER+", 2, "));
+
+        // Only the modified range is uploaded
+        m3.put(4, 50f);
+        mat.setDirty();
+        weights.setData(Buffers.newDirectFloatBuffer(new float[] { 40f, 41f }));
+        Assert.assertTrue(block.update(gl));
+        Assert.assertEquals(1, mock.count("glBufferSubData(32, 80)"));
+        Assert.assertEquals(50f, ubo.getFloat(64+16+4), 0f);
+        Assert.assertEquals(41f, ubo.getFloat(48), 0f);
+
+        // Layout is fixed
+        try {
+            block.add(new GLUniformData("late", 1f));
+            Assert.fail("Member added after creation");
+        } catch (final com.jogamp.opengl.GLException e) { }
+        weights.setData(Buffers.newDirectFloatBuffer(new float[] { 1f, 2f, 3f }));
+        try {
+            block.update(gl);
+            Assert.fail("Member layout changed");
+        } catch (final com.jogamp.opengl.GLException e) { }
+        block.destroy(gl);
+        Assert.assertEquals(0, block.getBufferName());
+    }
+
+    @Test
+    public void test03_ShaderStateUniformBlock() {
+        final MockGL mock = new MockGL();
+        final GL2ES3 gl = mock.gl;
+        final ShaderState st = new ShaderState();
+        final ShaderProgram sp0 = new ShaderProgram();
+        Assert.assertTrue(sp0.link(gl, System.err));
+        st.attachShaderProgram(gl, sp0, true);
+
+        final UniformBlock block = new UniformBlock("Block", 1);
+        block.add(new GLUniformData("scale", 2f).setDirtyTracking(true));
+        final UniformBlock other = new UniformBlock("Other", 3);
+        other.add(new GLUniformData("scale", 2f));
+
+        for(int i=0; i<5; i++) {
+            Assert.assertTrue(st.uniformBlock(gl, block));
+        }
+        Assert.assertFalse(st.uniformBlock(gl, other));
+        Assert.assertEquals(1, mock.count("glUniformBlockBinding("+sp0.program()+", 0, 1)"));
+        Assert.assertEquals(1, mock.count("glBufferSubData"));
+
+        // Bound to the new program when switching
+        final ShaderProgram sp1 = new ShaderProgram();
+        Assert.assertTrue(sp1.link(gl, System.err));
+        st.attachShaderProgram(gl, sp1, true);
+        Assert.assertEquals(1, mock.count("glUniformBlockBinding("+sp1.program()+", 0, 1)"));
+        Assert.assertTrue(st.uniformBlock(gl, block));
+        Assert.assertEquals(1, mock.count("glUniformBlockBinding("+sp1.program()+", 0, 1)"));
+        Assert.assertEquals(1, mock.count("glBufferSubData"));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLSLShaderStateUniformHandleNOUI.class.getName());
+    }
+}
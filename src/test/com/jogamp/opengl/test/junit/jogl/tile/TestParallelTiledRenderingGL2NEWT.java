@@ -0,0 +1,157 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.tile;
+
+import com.jogamp.opengl.test.junit.jogl.demos.gl2.Gears;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.ParallelTileRenderer;
+import com.jogamp.opengl.util.TileSink;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Demos {@link ParallelTileRenderer} rendering {@link Gears} w/ multiple offscreen workers,
+ * assembling the image buffer to produce a PNG file and validating the {@link TileSink} delivery.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestParallelTiledRenderingGL2NEWT extends UITestCase {
+    static int workerCount = 4;
+
+    @Test
+    public void test01_ImageBuffer() throws IOException, InterruptedException {
+        doTest(false);
+    }
+    @Test
+    public void test02_TileSink() throws IOException, InterruptedException {
+        doTest(true);
+    }
+
+    void doTest(final boolean useSink) throws IOException, InterruptedException {
+        final GLProfile glp = GLProfile.getMaxFixedFunc(true);
+        final GLCapabilities caps = new GLCapabilities(glp);
+        caps.setOnscreen(false);
+        caps.setFBO(true);
+
+        final int tileSize = 128;
+        final int imageWidth = 256 * 6 + 17; // partial edge tiles
+        final int imageHeight = 256 * 4 + 9;
+        final GLPixelAttributes pixelAttribs = new GLPixelAttributes(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+
+        final ParallelTileRenderer renderer = new ParallelTileRenderer(caps, workerCount, tileSize, tileSize, pixelAttribs,
+            new ParallelTileRenderer.ListenerFactory() {
+                @Override
+                public GLEventListener createListener(final int workerIndex) {
+                    return new Gears();
+                } });
+        renderer.setImageSize(imageWidth, imageHeight);
+
+        final int[] sinkTiles = { 0, 0 };
+        final long[] sinkPixels = { 0 };
+        if( useSink ) {
+            renderer.setTileSink(new TileSink() {
+                @Override
+                public void beginImage(final int width, final int height, final GLPixelAttributes pa) {
+                    Assert.assertEquals(imageWidth, width);
+                    Assert.assertEquals(imageHeight, height);
+                }
+                @Override
+                public synchronized void tileRendered(final GLPixelBuffer tile, final int tileX, final int tileY, final int tileWidth, final int tileHeight) {
+                    Assert.assertTrue(tile.buffer.remaining() >= tileWidth * tileHeight * 4);
+                    sinkTiles[0]++;
+                    sinkPixels[0] += tileWidth * tileHeight;
+                }
+                @Override
+                public void endImage(final boolean complete) {
+                    Assert.assertTrue(complete);
+                    sinkTiles[1] = 1;
+                }
+            });
+        } else {
+            final GLPixelBuffer imageBuffer = GLPixelBuffer.defaultProviderWithRowStride.allocate(null, null, pixelAttribs, true,
+                                                                                                  imageWidth, imageHeight, 1, imageWidth * imageHeight * 4);
+            renderer.setImageBuffer(imageBuffer);
+        }
+
+        final long t0 = System.currentTimeMillis();
+        renderer.render();
+        final long t1 = System.currentTimeMillis();
+        System.err.println(renderer+", "+(t1-t0)+" ms");
+        Assert.assertEquals(renderer.getTileCount(), renderer.getRenderedTileCount());
+        Assert.assertEquals(13 * 9, renderer.getTileCount());
+        renderer.dispose();
+
+        if( useSink ) {
+            Assert.assertEquals(renderer.getTileCount(), sinkTiles[0]);
+            Assert.assertEquals((long)imageWidth * imageHeight, sinkPixels[0]);
+            Assert.assertEquals(1, sinkTiles[1]);
+        } else {
+            final GLPixelBuffer imageBuffer = renderer.getImageBuffer();
+            imageBuffer.clear(); // full size available
+            final TextureData textureData = new TextureData(
+                    glp,
+                    0 /* internalFormat */,
+                    imageWidth, imageHeight,
+                    0,
+                    imageBuffer.pixelAttributes,
+                    false, false,
+                    false /* flipVertically */,
+                    imageBuffer.buffer,
+                    null /* Flusher */);
+            final String filename = this.getSnapshotFilename(0, "-tile", caps, imageWidth, imageHeight, true, TextureIO.PNG, null);
+            TextureIO.write(textureData, new File(filename));
+            imageBuffer.dispose();
+        }
+    }
+
+    public static void main(final String args[]) {
+        for(int i=0; i<args.length; i++) {
+            if(args[i].equals("-workers")) {
+                i++;
+                try {
+                    workerCount = Integer.parseInt(args[i]);
+                } catch (final Exception ex) { ex.printStackTrace(); }
+            }
+        }
+        org.junit.runner.JUnitCore.main(TestParallelTiledRenderingGL2NEWT.class.getName());
+    }
+}
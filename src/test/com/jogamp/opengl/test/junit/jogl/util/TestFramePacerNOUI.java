@@ -0,0 +1,189 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.FrameTimeSnapshot;
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.opengl.util.FramePacer;
+
+/**
+ * Validates {@link FramePacer} nanosecond frame grid and {@link FramePacer.CatchUpPolicy} w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFramePacerNOUI {
+    static final int FPS = 60;
+    static final long PERIOD = Math.round(1000000000.0 / FPS);
+
+    @Test
+    public void test01NoDrift() throws InterruptedException {
+        final FramePacer pacer = new FramePacer(FPS);
+        Assert.assertEquals(PERIOD, pacer.getPeriod());
+        final int frames = 30;
+        pacer.await(); // starts grid
+        final long t0 = System.nanoTime();
+        for(int i=0; i<frames; i++) {
+            pacer.await();
+        }
+        final long dt = System.nanoTime() - t0;
+        final FrameTimeSnapshot.Distribution jitter = pacer.getJitter();
+        System.err.println(pacer);
+        Assert.assertEquals(frames+1, pacer.getFrameCount());
+        Assert.assertEquals(frames, jitter.getCount());
+        // a ms based timer at 16 ms would drift by ~0.67 ms per frame
+        Assert.assertTrue("dt "+dt, dt >= ( frames - 1 ) * PERIOD);
+        Assert.assertTrue("dt "+dt, dt <= ( frames + 1 ) * PERIOD);
+        Assert.assertTrue("p50 jitter "+jitter.getP50(), jitter.getP50() < TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static void stall(final long periods) throws InterruptedException {
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(periods * PERIOD + PERIOD / 2));
+    }
+
+    @Test
+    public void test02Skip() throws InterruptedException {
+        final FramePacer pacer = new FramePacer(FPS);
+        pacer.setCatchUpPolicy(FramePacer.CatchUpPolicy.SKIP);
+        pacer.await();
+        stall(5);
+        final long skipped = pacer.await(); // late, returns immediately
+        Assert.assertTrue("skipped "+skipped, skipped >= 4);
+        final long t0 = System.nanoTime();
+        Assert.assertEquals(0, pacer.await());
+        final long dt = System.nanoTime() - t0;
+        Assert.assertTrue("dt "+dt, dt > 0 && dt <= PERIOD + TimeUnit.MILLISECONDS.toNanos(2));
+        Assert.assertEquals(skipped, pacer.getSkippedFrames());
+    }
+
+    @Test
+    public void test03BurstLimited() throws InterruptedException {
+        final FramePacer pacer = new FramePacer(FPS);
+        pacer.setCatchUpPolicy(FramePacer.CatchUpPolicy.BURST_LIMITED);
+        pacer.setMaxBurst(2);
+        pacer.await();
+        stall(5);
+        final long skipped = pacer.await();
+        Assert.assertTrue("skipped "+skipped, skipped >= 2);
+        // 2 back-to-back frames
+        final long t0 = System.nanoTime();
+        Assert.assertEquals(0, pacer.await());
+        Assert.assertEquals(0, pacer.await());
+        final long dt = System.nanoTime() - t0;
+        Assert.assertTrue("burst dt "+dt, dt < PERIOD / 2);
+        // then paced again
+        final long t1 = System.nanoTime();
+        Assert.assertEquals(0, pacer.await());
+        Assert.assertTrue(System.nanoTime() - t1 > PERIOD / 4);
+    }
+
+    @Test
+    public void test04Reset() throws InterruptedException {
+        final FramePacer pacer = new FramePacer(FPS);
+        pacer.setCatchUpPolicy(FramePacer.CatchUpPolicy.RESET);
+        pacer.await();
+        stall(3);
+        Assert.assertTrue(pacer.await() >= 2);
+        // new grid starts now, next frame one full period later
+        final long t0 = System.nanoTime();
+        Assert.assertEquals(0, pacer.await());
+        final long dt = System.nanoTime() - t0;
+        Assert.assertTrue("dt "+dt, dt >= PERIOD - TimeUnit.MILLISECONDS.toNanos(1));
+
+        // explicit reset, e.g. after pause: no skipped frames
+        pacer.reset();
+        stall(3);
+        Assert.assertEquals(0, pacer.await());
+    }
+
+    @Test
+    public void test05InvalidArgs() {
+        try {
+            new FramePacer(0f);
+            Assert.fail("fps 0 accepted");
+        } catch (final IllegalArgumentException e) { }
+        try {
+            new FramePacer(FPS).setPeriod(-1);
+            Assert.fail("negative period accepted");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    @Test
+    public void test06WakeUp() throws InterruptedException {
+        final FramePacer pacer = new FramePacer(0.5f); // 2 s period
+        pacer.await(); // starts grid
+        final Thread waker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (final InterruptedException e) { }
+                pacer.wakeUp();
+            } });
+        waker.start();
+        final long t0 = System.nanoTime();
+        Assert.assertEquals(0, pacer.await());
+        final long dt = System.nanoTime() - t0;
+        waker.join();
+        Assert.assertTrue("dt "+dt, dt < TimeUnit.MILLISECONDS.toNanos(1000));
+        Assert.assertEquals(1, pacer.getFrameCount()); // early return is no frame
+        Assert.assertEquals(0, pacer.getJitter().getCount());
+
+        // pending wake up returns immediately
+        pacer.wakeUp();
+        final long t1 = System.nanoTime();
+        Assert.assertEquals(0, pacer.await());
+        Assert.assertTrue(System.nanoTime() - t1 < TimeUnit.MILLISECONDS.toNanos(1000));
+        Assert.assertEquals(1, pacer.getFrameCount());
+    }
+
+    @Test
+    public void test07AnimatorStopWakesPacer() throws InterruptedException {
+        final TestFrameRateGovernorNOUI.MockDrawable d = new TestFrameRateGovernorNOUI.MockDrawable();
+        final Animator animator = new Animator();
+        animator.setFramePacer(new FramePacer(0.2f)); // 5 s period
+        animator.add(d.drawable);
+        animator.start();
+        Assert.assertTrue(TestFrameRateGovernorNOUI.waitForDisplays(d, 1));
+        final long t0 = System.nanoTime();
+        animator.stop();
+        final long dt = System.nanoTime() - t0;
+        Assert.assertFalse(animator.isStarted());
+        Assert.assertTrue("stop took "+dt, dt < TimeUnit.MILLISECONDS.toNanos(1000));
+        Assert.assertEquals(1, d.displayCount.get()); // no display after wake up
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFramePacerNOUI.class.getName());
+    }
+}
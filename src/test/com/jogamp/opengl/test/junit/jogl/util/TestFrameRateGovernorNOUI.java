@@ -0,0 +1,249 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.GLAnimatorControl;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLRunnable;
+import com.jogamp.opengl.util.Animator;
+import com.jogamp.opengl.util.FPSAnimator;
+import com.jogamp.opengl.util.FrameRateGovernor;
+
+import jogamp.opengl.GLDrawableHelper;
+
+/**
+ * Validates {@link FrameRateGovernor} skipping, throttling, counters and activity restore
+ * using an {@link Animator} w/ mock {@link GLAutoDrawable}s w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestFrameRateGovernorNOUI {
+    /** Idle period of 2s, way longer than any expected wake up latency. */
+    static final float IDLE_FPS = 0.5f;
+    static final long TIMEOUT = 1000;
+
+    static class MockDrawable implements InvocationHandler {
+        final GLDrawableHelper helper = new GLDrawableHelper();
+        final AtomicInteger displayCount = new AtomicInteger();
+        final GLAutoDrawable drawable = (GLAutoDrawable) Proxy.newProxyInstance(GLAutoDrawable.class.getClassLoader(), new Class<?>[] { GLAutoDrawable.class }, this);
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            final String n = m.getName();
+            if( n.equals("display") ) {
+                displayCount.incrementAndGet();
+                helper.display(drawable);
+                return null;
+            } else if( n.equals("setAnimator") ) {
+                helper.setAnimator((GLAnimatorControl)args[0]);
+                return null;
+            } else if( n.equals("getAnimator") ) {
+                return helper.getAnimator();
+            } else if( n.equals("markDirty") ) {
+                helper.markDirty();
+                return null;
+            } else if( n.equals("isDirty") ) {
+                return Boolean.valueOf(helper.isDirty());
+            } else if( n.equals("invoke") && args[1] instanceof GLRunnable ) {
+                return Boolean.valueOf(helper.invoke(drawable, ((Boolean)args[0]).booleanValue(), (GLRunnable)args[1]));
+            } else if( n.equals("isRealized") || n.equals("isThreadGLCapable") ) {
+                return Boolean.TRUE;
+            } else if( n.equals("hashCode") ) {
+                return Integer.valueOf(System.identityHashCode(proxy));
+            } else if( n.equals("equals") ) {
+                return Boolean.valueOf(proxy == args[0]);
+            } else if( n.equals("toString") ) {
+                return "MockDrawable@"+Integer.toHexString(System.identityHashCode(proxy));
+            }
+            return boolean.class == m.getReturnType() ? Boolean.FALSE : null;
+        }
+    }
+
+    static interface Condition {
+        boolean eval();
+    }
+
+    static boolean waitFor(final Condition c) throws InterruptedException {
+        final long t0 = System.currentTimeMillis();
+        while( !c.eval() ) {
+            if( System.currentTimeMillis() - t0 > TIMEOUT ) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    static boolean waitForThrottled(final FrameRateGovernor governor) throws InterruptedException {
+        return waitFor(new Condition() {
+            @Override
+            public boolean eval() { return governor.isThrottled(); } });
+    }
+
+    static boolean waitForDisplays(final MockDrawable d, final int count) throws InterruptedException {
+        return waitFor(new Condition() {
+            @Override
+            public boolean eval() { return d.displayCount.get() >= count; } });
+    }
+
+    @Test
+    public void test01SkipAndThrottle() throws InterruptedException {
+        final FrameRateGovernor governor = new FrameRateGovernor();
+        governor.setIdleThreshold(2);
+        governor.setIdleFPS(IDLE_FPS);
+        final MockDrawable a = new MockDrawable();
+        final MockDrawable b = new MockDrawable();
+        final Animator animator = new Animator();
+        animator.setFrameRateGovernor(governor);
+        animator.add(a.drawable);
+        animator.add(b.drawable);
+        animator.start();
+        try {
+            // initial frame displays all, then idle -> throttled
+            Assert.assertTrue(waitForThrottled(governor));
+            Assert.assertEquals(1, a.displayCount.get());
+            Assert.assertEquals(1, b.displayCount.get());
+            Assert.assertFalse(a.drawable.isDirty());
+            Assert.assertEquals(2, governor.getDisplayedFrames());
+            Assert.assertTrue(governor.getPowerSavedFrames() >= 2);
+
+            // dirty drawable wakes up the throttled animator, only the dirty one is displayed
+            a.drawable.markDirty();
+            Assert.assertTrue(waitForDisplays(a, 2));
+            Assert.assertEquals(1, b.displayCount.get());
+            Assert.assertEquals(3, governor.getDisplayedFrames());
+
+            // throttled again
+            Assert.assertTrue(waitForThrottled(governor));
+            Assert.assertEquals(2, a.displayCount.get());
+        } finally {
+            animator.stop();
+        }
+    }
+
+    @Test
+    public void test02ActivityRestore() throws InterruptedException {
+        final FrameRateGovernor governor = new FrameRateGovernor();
+        governor.setIdleThreshold(2);
+        governor.setIdleFPS(IDLE_FPS);
+        final MockDrawable a = new MockDrawable();
+        final Animator animator = new Animator();
+        animator.setFrameRateGovernor(governor);
+        animator.add(a.drawable);
+        animator.start();
+        try {
+            Assert.assertTrue(waitForThrottled(governor));
+            governor.resetCounter();
+            Assert.assertEquals(0, governor.getDisplayedFrames());
+            Assert.assertEquals(0, governor.getPowerSavedFrames());
+
+            // enqueued GLRunnable wakes up the animator and is executed
+            final AtomicInteger runs = new AtomicInteger();
+            Assert.assertTrue(a.drawable.invoke(false, new GLRunnable() {
+                @Override
+                public boolean run(final GLAutoDrawable drawable) {
+                    runs.incrementAndGet();
+                    return true;
+                } }));
+            Assert.assertTrue(waitFor(new Condition() {
+                @Override
+                public boolean eval() { return 1 == runs.get(); } }));
+            Assert.assertEquals(1, governor.getDisplayedFrames());
+            Assert.assertTrue(waitForThrottled(governor));
+
+            // notified activity restores the full rate w/o displaying clean drawables,
+            // i.e. skipped iterations until the idle threshold is reached again
+            final int displayCount = a.displayCount.get();
+            final long powerSavedFrames = governor.getPowerSavedFrames();
+            governor.notifyActivity();
+            Assert.assertTrue(waitFor(new Condition() {
+                @Override
+                public boolean eval() { return governor.getPowerSavedFrames() >= powerSavedFrames + 2; } }));
+            Assert.assertTrue(waitForThrottled(governor));
+            Assert.assertEquals(displayCount, a.displayCount.get());
+        } finally {
+            animator.stop();
+        }
+    }
+
+    @Test
+    public void test03FPSAnimatorThrottledFrames() throws InterruptedException {
+        // FPSAnimator keeps it's timer rate, skipping iterations while throttled
+        final FrameRateGovernor governor = new FrameRateGovernor();
+        governor.setIdleThreshold(2);
+        governor.setIdleFPS(IDLE_FPS);
+        final MockDrawable a = new MockDrawable();
+        final FPSAnimator animator = new FPSAnimator(100);
+        animator.setFrameRateGovernor(governor);
+        animator.add(a.drawable);
+        animator.start();
+        try {
+            Assert.assertTrue(waitForThrottled(governor));
+            Assert.assertTrue(waitFor(new Condition() {
+                @Override
+                public boolean eval() { return governor.getThrottledFrames() >= 5; } }));
+            Assert.assertEquals(1, a.displayCount.get());
+
+            a.drawable.markDirty();
+            Assert.assertTrue(waitForDisplays(a, 2));
+            Assert.assertEquals(2, governor.getDisplayedFrames());
+        } finally {
+            animator.stop();
+        }
+    }
+
+    @Test
+    public void test04InvalidArgs() {
+        final FrameRateGovernor governor = new FrameRateGovernor();
+        try {
+            governor.setIdleThreshold(0);
+            Assert.fail("idleThreshold 0 accepted");
+        } catch (final IllegalArgumentException e) { }
+        try {
+            governor.setIdleFPS(0f);
+            Assert.fail("idleFPS 0 accepted");
+        } catch (final IllegalArgumentException e) { }
+        try {
+            governor.setFrameBudget(0);
+            Assert.fail("frameBudget 0 accepted");
+        } catch (final IllegalArgumentException e) { }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestFrameRateGovernorNOUI.class.getName());
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.util.DirectBufferPool;
+import com.jogamp.opengl.util.GLArrayDataClient;
+
+/**
+ * Validates {@link GLArrayDataClient}'s geometric growth, reset w/o free and
+ * opt-in recycling of it's storage via a {@link DirectBufferPool} w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLArrayDataClientGrowthNOUI {
+    static final int vertexCount = 10000;
+
+    private static GLArrayDataClient fill(final DirectBufferPool pool) {
+        final GLArrayDataClient ad = GLArrayDataClient.createGLSL("vertices", 3, GL.GL_FLOAT, false, 4);
+        ad.setBufferPool(pool);
+        for(int i=0; i<vertexCount; i++) {
+            ad.putf(i); ad.putf(-i); ad.putf(0.5f);
+        }
+        return ad;
+    }
+
+    @Test
+    public void test01GeometricGrowth() {
+        final GLArrayDataClient ad = fill(null);
+        ad.seal(true);
+        Assert.assertEquals(vertexCount, ad.getElementCount());
+        final FloatBuffer fb = (FloatBuffer) ad.getBuffer();
+        for(int i=0; i<vertexCount; i++) {
+            Assert.assertEquals(i, fb.get(i*3), 0f);
+            Assert.assertEquals(-i, fb.get(i*3+1), 0f);
+        }
+        System.err.println(ad);
+        // linear growth by 4 elements would require 2500 grows
+        Assert.assertTrue("grows "+ad.getGrowCount(), ad.getGrowCount() <= 14);
+        // copying is amortized to less than twice the final content
+        Assert.assertTrue("copied "+ad.getGrowCopiedBytes(), ad.getGrowCopiedBytes() < 2 * vertexCount * 3 * 4);
+
+        // reset keeps the storage
+        ad.seal(false);
+        ad.reset();
+        final int grows = ad.getGrowCount();
+        for(int i=0; i<vertexCount; i++) {
+            ad.putf(i); ad.putf(-i); ad.putf(0.5f);
+        }
+        Assert.assertSame(fb, ad.getBuffer());
+        Assert.assertEquals(grows, ad.getGrowCount());
+    }
+
+    @Test
+    public void test02PooledStorage() {
+        final DirectBufferPool pool = new DirectBufferPool(256, 1 << 24, 1 << 22);
+        final GLArrayDataClient ad0 = fill(pool);
+        // initial storage is allocated at creation w/o pool
+        final int grows = ad0.getGrowCount();
+        DirectBufferPool.Stats stats = pool.getStats();
+        Assert.assertEquals(grows, stats.allocations);
+        Assert.assertEquals(0, stats.hits);
+        Assert.assertEquals(ad0.getBuffer().capacity() * 4, stats.usedBytes, ad0.getBuffer().capacity());
+
+        ad0.destroy(null);
+        Assert.assertNull(ad0.getBuffer());
+        stats = pool.getStats();
+        Assert.assertEquals(0, stats.usedBytes);
+        Assert.assertTrue(0 < stats.pooledBytes);
+
+        // rebuilding the same geometry reuses all storage
+        final GLArrayDataClient ad1 = fill(pool);
+        Assert.assertEquals(grows, ad1.getGrowCount());
+        stats = pool.getStats();
+        System.err.println(stats);
+        Assert.assertEquals(2 * grows, stats.allocations);
+        Assert.assertEquals(grows, stats.hits);
+        ad1.destroy(null);
+    }
+
+    @Test
+    public void test03CopyDoesNotOwnStorage() {
+        final DirectBufferPool pool = new DirectBufferPool(256, 1 << 24, 1 << 22);
+        final GLArrayDataClient ad0 = GLArrayDataClient.createGLSL("indices", 1, GL.GL_UNSIGNED_SHORT, false, 8);
+        ad0.setBufferPool(pool);
+        for(short i=0; i<100; i++) {
+            ad0.puts(i);
+        }
+        final ShortBuffer sb0 = (ShortBuffer) ad0.getBuffer();
+        final GLArrayDataClient ad1 = new GLArrayDataClient(ad0);
+        Assert.assertSame(sb0, ad0.getBuffer());
+        Assert.assertSame(pool, ad1.getBufferPool());
+        final long usedBytes = pool.getStats().usedBytes;
+
+        // destroying the copy keeps the shared storage
+        ad1.destroy(null);
+        Assert.assertEquals(usedBytes, pool.getStats().usedBytes);
+        Assert.assertEquals(99, sb0.get(99));
+
+        // the source still owns and releases it
+        ad0.destroy(null);
+        Assert.assertEquals(0, pool.getStats().usedBytes);
+    }
+
+    @Test
+    public void test04UnpooledByDefault() {
+        final GLArrayDataClient ad = GLArrayDataClient.createGLSL("vertices", 3, GL.GL_FLOAT, false, 4);
+        Assert.assertNull(ad.getBufferPool());
+        ad.putf(1f); ad.putf(2f); ad.putf(3f);
+        final FloatBuffer fb0 = (FloatBuffer) ad.getBuffer();
+        for(int i=0; i<vertexCount; i++) {
+            ad.putf(i); ad.putf(-i); ad.putf(0.5f);
+        }
+        Assert.assertNotSame(fb0, ad.getBuffer());
+        // outgrown storage is not recycled, hence remains valid for aliasing users
+        Assert.assertEquals(0, GLArrayDataClient.DEFAULT_BUFFER_POOL.getStats().allocations);
+        Assert.assertEquals(1f, fb0.get(0), 0f);
+        Assert.assertEquals(3f, fb0.get(2), 0f);
+        ad.destroy(null);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLArrayDataClientGrowthNOUI.class.getName());
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.math.Binary16;
+import com.jogamp.opengl.util.GLArrayDataCompression;
+import com.jogamp.opengl.util.GLArrayDataCompression.Encoding;
+import com.jogamp.opengl.util.GLArrayDataServer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLArrayDataCompression} encodings, their precision
+ * and the resulting {@link GLArrayDataServer} component descriptors.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLArrayDataCompressionNOUI {
+    static final int elements = 1000;
+
+    static FloatBuffer newPositions() {
+        final FloatBuffer fb = Buffers.newDirectFloatBuffer(elements*3);
+        for(int i=0; i<elements; i++) {
+            fb.put( 100f + 10f * (float)Math.sin(i) );
+            fb.put( -5f + 2f * (float)Math.cos(i*0.7) );
+            fb.put( i * 0.01f );
+        }
+        fb.flip();
+        return fb;
+    }
+
+    static FloatBuffer newNormals(final int comps) {
+        final FloatBuffer fb = Buffers.newDirectFloatBuffer(elements*comps);
+        for(int i=0; i<elements; i++) {
+            final double a = i * 0.37, b = i * 0.11;
+            fb.put( (float)( Math.cos(a) * Math.sin(b) ) );
+            fb.put( (float)( Math.sin(a) * Math.sin(b) ) );
+            fb.put( (float)Math.cos(b) );
+            if( 4 == comps ) {
+                fb.put( 0 == i % 2 ? 1f : -1f );
+            }
+        }
+        fb.flip();
+        return fb;
+    }
+
+    @Test
+    public void test01_SNORM16Positions() {
+        final FloatBuffer pos = newPositions();
+        final GLArrayDataServer ads = GLArrayDataServer.createGLSLCompressed("mgl_Vertex", 3, Encoding.SNORM16, pos, GL.GL_STATIC_DRAW);
+        ads.seal(true);
+        Assert.assertEquals(0, pos.position());
+        Assert.assertEquals(Encoding.SNORM16, ads.getEncoding());
+        Assert.assertEquals(GL.GL_SHORT, ads.getComponentType());
+        Assert.assertTrue(ads.getNormalized());
+        Assert.assertEquals(3, ads.getComponentCount());
+        Assert.assertEquals(6, ads.getStride());
+        Assert.assertEquals(elements, ads.getElementCount());
+        Assert.assertEquals(elements*6, ads.getSizeInBytes());
+
+        final float[] scale = ads.getDecodeScale();
+        final float[] bias = ads.getDecodeBias();
+        final ShortBuffer sb = (ShortBuffer) ads.getBuffer();
+        float maxErr = 0f;
+        for(int i=0; i<elements*3; i++) {
+            final int c = i % 3;
+            final float decoded = Math.max( sb.get(i) / 32767f, -1f ) * scale[c] + bias[c];
+            maxErr = Math.max(maxErr, Math.abs( decoded - pos.get(i) ));
+            Assert.assertEquals("component "+i, pos.get(i), decoded, scale[c] / 32767f);
+        }
+        System.err.println("SNORM16 max error "+maxErr+", scale "+scale[0]+", "+scale[1]+", "+scale[2]);
+    }
+
+    @Test
+    public void test02_PackedNormals() {
+        for(int comps=3; comps<=4; comps++) {
+            final FloatBuffer nrm = newNormals(comps);
+            final GLArrayDataServer ads = GLArrayDataServer.createGLSLCompressed("mgl_Normal", comps, Encoding.INT_2_10_10_10_REV, nrm, GL.GL_STATIC_DRAW);
+            ads.seal(true);
+            Assert.assertEquals(GL3ES3.GL_INT_2_10_10_10_REV, ads.getComponentType());
+            Assert.assertTrue(ads.getNormalized());
+            Assert.assertEquals(4, ads.getComponentCount());
+            Assert.assertEquals(4, ads.getStride());
+            Assert.assertEquals(elements, ads.getElementCount());
+            Assert.assertEquals(elements*4, ads.getSizeInBytes());
+            Assert.assertNull(ads.getDecodeScale());
+
+            final ByteBuffer bb = (ByteBuffer) ads.getBuffer();
+            final float[] xyzw = new float[4];
+            for(int i=0; i<elements; i++) {
+                GLArrayDataCompression.unpackInt2_10_10_10_REV(bb.getInt(i*4), xyzw);
+                for(int c=0; c<3; c++) {
+                    Assert.assertEquals(nrm.get(i*comps+c), xyzw[c], 0.5f/511f + 1e-6f);
+                }
+                Assert.assertEquals(4 == comps ? nrm.get(i*comps+3) : 0f, xyzw[3], 0f);
+            }
+        }
+        // extremes and clamping
+        final float[] xyzw = GLArrayDataCompression.unpackInt2_10_10_10_REV(GLArrayDataCompression.packInt2_10_10_10_REV(-1f, 1f, 2f, -3f), new float[4]);
+        Assert.assertArrayEquals(new float[] { -1f, 1f, 1f, -1f }, xyzw, 0f);
+        try {
+            GLArrayDataCompression.encodeInt2_10_10_10_REV(newPositions(), 2, Buffers.newDirectByteBuffer(4*elements));
+            Assert.fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException iae) { }
+    }
+
+    @Test
+    public void test03_HalfFloatTexCoords() {
+        final FloatBuffer tc = Buffers.newDirectFloatBuffer(new float[] { 0f, 1f, 0.5f, 0.25f, 0.333f, 1e-6f, -2f, 100000f });
+        final GLArrayDataServer ads = GLArrayDataServer.createGLSLCompressed("mgl_MultiTexCoord", 2, Encoding.HALF_FLOAT, tc, GL.GL_STATIC_DRAW);
+        ads.seal(true);
+        Assert.assertEquals(GL.GL_HALF_FLOAT, ads.getComponentType());
+        Assert.assertFalse(ads.getNormalized());
+        Assert.assertEquals(2, ads.getComponentCount());
+        Assert.assertEquals(4, ads.getStride());
+        Assert.assertEquals(4, ads.getElementCount());
+
+        final ShortBuffer sb = (ShortBuffer) ads.getBuffer();
+        final float[] expected = new float[] { 0f, 1f, 0.5f, 0.25f, 0.333f, 0f, -2f, 65504f };
+        for(int i=0; i<expected.length; i++) {
+            Assert.assertEquals("component "+i, expected[i], Binary16.unpackFloat((char)sb.get(i)), 0.001f);
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLArrayDataCompressionNOUI.class.getName());
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL3ES3;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.util.GLStreamBuffer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link GLStreamBuffer} sub-allocation, fenced reuse of ranges
+ * and the orphaning fallback w/o fences, using a mock GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLStreamBufferNOUI {
+    /** Mock GL w/ one buffer object, recording buffer and sync calls. */
+    static class MockGL implements InvocationHandler {
+        final boolean unsynchronized;
+        final ByteBuffer storage;
+        final List<String> calls = new ArrayList<String>();
+        final List<Long> signaled = new ArrayList<Long>();
+        GL3ES3 gl;
+        long syncCount = 0;
+        int liveSyncs = 0;
+
+        MockGL(final boolean unsynchronized, final int capacity) {
+            this.unsynchronized = unsynchronized;
+            this.storage = Buffers.newDirectByteBuffer(capacity);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            final String n = m.getName();
+            if( n.equals("isGL3ES3") ) {
+                return Boolean.TRUE;
+            } else if( n.equals("isFunctionAvailable") ) {
+                return Boolean.valueOf(unsynchronized);
+            } else if( n.equals("getGL3ES3") ) {
+                return gl;
+            } else if( n.equals("glGenBuffers") ) {
+                ((int[])args[1])[0] = 1;
+            } else if( n.equals("glBufferData") ) {
+                calls.add("data "+args[1]);
+            } else if( n.equals("glBufferSubData") ) {
+                final int offset = ((Long)args[1]).intValue();
+                final int size = ((Long)args[2]).intValue();
+                calls.add("sub "+offset+" "+size);
+                final ByteBuffer dst = storage.duplicate().order(storage.order());
+                dst.position(offset);
+                dst.asFloatBuffer().put(((FloatBuffer)args[3]).duplicate());
+            } else if( n.equals("mapBufferRange") ) {
+                final int offset = ((Long)args[1]).intValue();
+                final int size = ((Long)args[2]).intValue();
+                calls.add("map "+offset+" "+size);
+                Assert.assertEquals(GL.GL_MAP_WRITE_BIT | GL.GL_MAP_INVALIDATE_RANGE_BIT | GL.GL_MAP_UNSYNCHRONIZED_BIT, ((Integer)args[3]).intValue());
+                final ByteBuffer dst = storage.duplicate();
+                dst.position(offset);
+                dst.limit(offset+size);
+                final ByteBuffer mapped = dst.slice().order(storage.order());
+                return new GLBufferStorage(1, storage.capacity(), GL3ES3.GL_STREAM_DRAW, 0) { { setMappedBuffer(mapped); } };
+            } else if( n.equals("glUnmapBuffer") ) {
+                return Boolean.TRUE;
+            } else if( n.equals("glFenceSync") ) {
+                liveSyncs++;
+                return Long.valueOf(++syncCount);
+            } else if( n.equals("glClientWaitSync") ) {
+                final Long sync = (Long)args[0];
+                if( signaled.contains(sync) ) {
+                    return Integer.valueOf(GL3ES3.GL_ALREADY_SIGNALED);
+                }
+                if( 0 == ((Long)args[2]).longValue() ) {
+                    return Integer.valueOf(GL3ES3.GL_TIMEOUT_EXPIRED);
+                }
+                calls.add("wait "+sync);
+                return Integer.valueOf(GL3ES3.GL_CONDITION_SATISFIED);
+            } else if( n.equals("glDeleteSync") ) {
+                liveSyncs--;
+            } else if( n.equals("glGetError") ) {
+                return Integer.valueOf(GL.GL_NO_ERROR);
+            }
+            return null;
+        }
+
+        GL3ES3 newGL() {
+            gl = (GL3ES3) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL3ES3.class }, this);
+            return gl;
+        }
+    }
+
+    static FloatBuffer newData(final int floats, final float value) {
+        final FloatBuffer fb = Buffers.newDirectFloatBuffer(floats);
+        for(int i=0; i<floats; i++) {
+            fb.put(i, value);
+        }
+        return fb;
+    }
+
+    @Test
+    public void test01_FencedRingReuse() {
+        final MockGL mock = new MockGL(true, 1024);
+        final GL3ES3 gl = mock.newGL();
+        final GLStreamBuffer stream = new GLStreamBuffer(GL.GL_ARRAY_BUFFER, 1024);
+
+        // frame 1: 2 ranges, aligned
+        Assert.assertEquals(0, stream.write(gl, newData(50, 1f), 200));
+        Assert.assertEquals(256, stream.write(gl, newData(50, 2f), 200));
+        stream.endFrame(gl);
+        // frame 2
+        Assert.assertEquals(512, stream.write(gl, newData(50, 3f), 200));
+        stream.endFrame(gl);
+        Assert.assertEquals(2, mock.liveSyncs);
+        Assert.assertEquals(0, stream.getWrapCount());
+        Assert.assertEquals(3f, mock.storage.getFloat(512), 0f);
+
+        // frame 3: doesn't fit at 768, wraps and must wait for frame 1 only
+        mock.signaled.add(Long.valueOf(2));
+        Assert.assertEquals(0, stream.write(gl, newData(75, 4f), 300));
+        Assert.assertEquals(1, stream.getWrapCount());
+        Assert.assertEquals(1, stream.getStallCount());
+        Assert.assertEquals(1, mock.liveSyncs);
+        Assert.assertEquals(4f, mock.storage.getFloat(296), 0f);
+        Assert.assertEquals(2f, mock.storage.getFloat(300), 0f);
+
+        // frame 3 cont.: reuses frame 2's range, already signaled
+        Assert.assertEquals(320, stream.write(gl, newData(50, 5f), 200));
+        Assert.assertEquals(1, stream.getStallCount());
+        stream.endFrame(gl);
+        Assert.assertEquals(1, mock.liveSyncs); // frame 3 pending only
+        System.err.println(stream);
+        System.err.println(mock.calls);
+
+        Assert.assertEquals(0, mock.calls.lastIndexOf("data 1024")); // never re-specified
+        Assert.assertTrue(mock.calls.contains("wait 1"));
+        Assert.assertFalse(mock.calls.contains("wait 2"));
+        Assert.assertTrue(mock.calls.contains("map 320 200"));
+
+        stream.destroy(gl);
+        Assert.assertEquals(0, mock.liveSyncs);
+        Assert.assertEquals(0, stream.getName());
+    }
+
+    @Test
+    public void test02_FrameExceedsCapacity() {
+        final MockGL mock = new MockGL(true, 512);
+        final GL3ES3 gl = mock.newGL();
+        final GLStreamBuffer stream = new GLStreamBuffer(GL.GL_ARRAY_BUFFER, 512);
+
+        Assert.assertEquals(0, stream.write(gl, newData(64, 1f), 256));
+        Assert.assertEquals(256, stream.write(gl, newData(64, 2f), 256));
+        // same frame wraps onto it's own data: fenced and awaited
+        Assert.assertEquals(0, stream.write(gl, newData(64, 3f), 256));
+        Assert.assertEquals(1, stream.getStallCount());
+        Assert.assertTrue(mock.calls.contains("wait 1"));
+        stream.endFrame(gl);
+        stream.destroy(gl);
+        Assert.assertEquals(0, mock.liveSyncs);
+
+        try {
+            stream.write(gl, newData(129, 0f), 516);
+            Assert.fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException iae) { }
+    }
+
+    @Test
+    public void test03_OrphaningFallback() {
+        final MockGL mock = new MockGL(false, 1024);
+        final GL3ES3 gl = mock.newGL();
+        final GLStreamBuffer stream = new GLStreamBuffer(GL.GL_ARRAY_BUFFER, 1024);
+
+        for(int i=0; i<3; i++) {
+            stream.write(gl, newData(100, i), 400);
+            stream.endFrame(gl);
+        }
+        System.err.println(stream);
+        System.err.println(mock.calls);
+        final List<String> expected = new ArrayList<String>();
+        expected.add("data 1024");
+        expected.add("sub 0 400");
+        expected.add("sub 448 400");
+        expected.add("data 1024"); // orphaned at wrap
+        expected.add("sub 0 400");
+        Assert.assertEquals(expected, mock.calls);
+        Assert.assertEquals(1, stream.getWrapCount());
+        Assert.assertEquals(0, stream.getStallCount());
+        Assert.assertEquals(0, mock.syncCount);
+        Assert.assertEquals(2f, mock.storage.getFloat(396), 0f);
+        stream.destroy(gl);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestGLStreamBufferNOUI.class.getName());
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.util.GLArrayDataServer;
+import com.jogamp.opengl.util.MeshOptimizer;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link MeshOptimizer} vertex cache and vertex fetch reordering
+ * on a shuffled grid mesh, i.e. the ACMR improves while the triangles are preserved.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMeshOptimizerNOUI {
+    static final int gridSize = 64; // quads per row
+
+    /** Returns the triangles of a grid in random order, each as an int[3] w/ random start vertex keeping the winding. */
+    static List<int[]> newShuffledGrid(final long seed) {
+        final Random rnd = new Random(seed);
+        final List<int[]> tris = new ArrayList<int[]>();
+        final int w = gridSize + 1;
+        for(int y=0; y<gridSize; y++) {
+            for(int x=0; x<gridSize; x++) {
+                final int i = y*w+x;
+                tris.add(new int[] { i, i+1, i+w });
+                tris.add(new int[] { i+1, i+w+1, i+w });
+            }
+        }
+        Collections.shuffle(tris, rnd);
+        return tris;
+    }
+
+    /** Returns the triangle's canonical key, rotated to start w/ the smallest index. */
+    static String key(final int a, final int b, final int c) {
+        if( a <= b && a <= c ) {
+            return a+","+b+","+c;
+        } else if( b <= a && b <= c ) {
+            return b+","+c+","+a;
+        } else {
+            return c+","+a+","+b;
+        }
+    }
+
+    static List<String> keys(final IntBuffer ib, final int[] vertexIds) {
+        final List<String> res = new ArrayList<String>();
+        for(int i=0; i<ib.limit(); i+=3) {
+            res.add(key(vertexIds[ib.get(i)], vertexIds[ib.get(i+1)], vertexIds[ib.get(i+2)]));
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    @Test
+    public void test01_VertexCache() {
+        final List<int[]> tris = newShuffledGrid(1);
+        final int vertexCount = (gridSize+1)*(gridSize+1);
+        final IntBuffer ib = Buffers.newDirectIntBuffer(tris.size()*3);
+        for(final int[] t : tris) {
+            ib.put(t);
+        }
+        ib.flip();
+        final int[] identity = new int[vertexCount];
+        for(int i=0; i<vertexCount; i++) { identity[i] = i; }
+        final List<String> keys0 = keys(ib, identity);
+
+        final float acmr0 = MeshOptimizer.computeACMR(ib, ib.limit(), MeshOptimizer.DEFAULT_FIFO_CACHE_SIZE);
+        MeshOptimizer.optimizeVertexCache(ib, ib.limit(), vertexCount);
+        final float acmr1 = MeshOptimizer.computeACMR(ib, ib.limit(), MeshOptimizer.DEFAULT_FIFO_CACHE_SIZE);
+        System.err.println("ACMR "+acmr0+" -> "+acmr1);
+        Assert.assertEquals(0, ib.position());
+        Assert.assertEquals(keys0, keys(ib, identity));
+        Assert.assertTrue("ACMR before "+acmr0, acmr0 > 1.5f);
+        Assert.assertTrue("ACMR after "+acmr1, acmr1 < 0.85f);
+    }
+
+    @Test
+    public void test02_VertexFetch() {
+        final List<int[]> tris = newShuffledGrid(2);
+        final int vertexCount = (gridSize+1)*(gridSize+1) + 1; // one unused vertex
+        final IntBuffer ib = Buffers.newDirectIntBuffer(tris.size()*3);
+        for(final int[] t : tris) {
+            ib.put(t);
+        }
+        ib.flip();
+        final FloatBuffer ids = Buffers.newDirectFloatBuffer(vertexCount*2);
+        for(int i=0; i<vertexCount; i++) {
+            ids.put(i); ids.put(-i);
+        }
+        ids.flip();
+        final int[] oldIndices = new int[ib.limit()];
+        ib.get(oldIndices);
+        ib.rewind();
+
+        final int[] remap = MeshOptimizer.optimizeVertexFetch(ib, ib.limit(), vertexCount);
+        MeshOptimizer.remapVertices(ids, 2, vertexCount, remap);
+        Assert.assertEquals(vertexCount-1, remap[vertexCount-1]);
+        int maxSeen = -1;
+        for(int i=0; i<ib.limit(); i++) {
+            final int v = ib.get(i);
+            Assert.assertTrue(v <= maxSeen + 1); // first use order
+            maxSeen = Math.max(maxSeen, v);
+            // same vertex data referenced
+            Assert.assertEquals(oldIndices[i], ids.get(v*2), 0f);
+            Assert.assertEquals(-oldIndices[i], ids.get(v*2+1), 0f);
+        }
+    }
+
+    @Test
+    public void test03_GLArrayData() {
+        final List<int[]> tris = newShuffledGrid(3);
+        final int vertexCount = (gridSize+1)*(gridSize+1);
+        final GLArrayDataServer indices = GLArrayDataServer.createData(3, GL.GL_SHORT, tris.size(), GL.GL_STATIC_DRAW, GL.GL_ELEMENT_ARRAY_BUFFER);
+        final GLArrayDataServer vertices = GLArrayDataServer.createGLSL("mgl_Vertex", 3, GL.GL_FLOAT, false, vertexCount, GL.GL_STATIC_DRAW);
+        for(final int[] t : tris) {
+            indices.puts((short)t[0]); indices.puts((short)t[1]); indices.puts((short)t[2]);
+        }
+        for(int i=0; i<vertexCount; i++) {
+            vertices.putf(i % (gridSize+1)); vertices.putf(i / (gridSize+1)); vertices.putf(0f);
+        }
+        // unsealed: written indices up to position
+        final float acmr0 = MeshOptimizer.computeACMR(indices, MeshOptimizer.DEFAULT_FIFO_CACHE_SIZE);
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+        MeshOptimizer.optimizeVertexFetch(indices, vertexCount, vertices);
+        indices.seal(true);
+        vertices.seal(true);
+        final float acmr1 = MeshOptimizer.computeACMR(indices, MeshOptimizer.DEFAULT_FIFO_CACHE_SIZE);
+        System.err.println("GLArrayData ACMR "+acmr0+" -> "+acmr1);
+        Assert.assertTrue(acmr1 < acmr0);
+        Assert.assertEquals(tris.size(), indices.getElementCount());
+        Assert.assertEquals(vertexCount, vertices.getElementCount());
+        // first triangle references its first vertices after fetch reordering
+        final ShortBuffer sb = (ShortBuffer) indices.getBuffer();
+        Assert.assertEquals(0, sb.get(0));
+        Assert.assertEquals(1, sb.get(1));
+        Assert.assertEquals(2, sb.get(2));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestMeshOptimizerNOUI.class.getName());
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+import com.jogamp.opengl.util.PooledGLPixelBufferProvider;
+
+/**
+ * Validates {@link PooledGLPixelBufferProvider} size classes, recycling, memory cap and thread safety w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestPooledGLPixelBufferProviderNOUI {
+    static final GLPixelAttributes RGBA = new GLPixelAttributes(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+
+    private static GLPixelBuffer allocate(final PooledGLPixelBufferProvider provider, final int width, final int height) {
+        return provider.allocate(null, null, RGBA, true, width, height, 1, width*height*4);
+    }
+
+    @Test
+    public void test01SizeClasses() {
+        Assert.assertEquals(PooledGLPixelBufferProvider.MIN_SIZE_CLASS, PooledGLPixelBufferProvider.getSizeClass(1));
+        Assert.assertEquals(PooledGLPixelBufferProvider.MIN_SIZE_CLASS, PooledGLPixelBufferProvider.getSizeClass(4096));
+        Assert.assertEquals(5120, PooledGLPixelBufferProvider.getSizeClass(4097));
+        Assert.assertEquals(8192, PooledGLPixelBufferProvider.getSizeClass(8192));
+        Assert.assertEquals(10240, PooledGLPixelBufferProvider.getSizeClass(8193));
+        for(int sz = 1; sz < 1 << 24; sz = sz * 3 / 2 + 1) {
+            final int c = PooledGLPixelBufferProvider.getSizeClass(sz);
+            Assert.assertTrue(sz+" -> "+c, c >= sz);
+            Assert.assertTrue(sz+" -> "+c, sz <= 4096 || c <= sz + sz / 4 + 1);
+            Assert.assertEquals(c, PooledGLPixelBufferProvider.getSizeClass(c));
+        }
+    }
+
+    @Test
+    public void test02Recycle() {
+        final PooledGLPixelBufferProvider provider = new PooledGLPixelBufferProvider(false, 1 << 24, 1 << 24);
+        final GLPixelBuffer b0 = allocate(provider, 100, 100);
+        Assert.assertEquals(100*100*4, b0.byteSize);
+        Assert.assertEquals(100*100*4, b0.buffer.remaining());
+        b0.dispose();
+        b0.dispose(); // no double release
+        Assert.assertFalse(b0.isValid());
+
+        // same size class, different attributes and dimension
+        final GLPixelBuffer b1 = provider.allocate(null, null, new GLPixelAttributes(GL.GL_RGB, GL.GL_UNSIGNED_BYTE),
+                                                   true, 99, 101, 1, 99*101*4);
+        Assert.assertTrue(b1.isValid());
+        PooledGLPixelBufferProvider.Stats stats = provider.getStats();
+        System.err.println(stats);
+        Assert.assertEquals(2, stats.allocations);
+        Assert.assertEquals(1, stats.hits);
+        Assert.assertEquals(1, stats.misses);
+        Assert.assertEquals(0, stats.pooledBytes);
+        Assert.assertEquals(PooledGLPixelBufferProvider.getSizeClass(100*100*4), stats.usedBytes);
+
+        b1.dispose();
+        stats = provider.getStats();
+        Assert.assertEquals(0, stats.usedBytes);
+        Assert.assertEquals(PooledGLPixelBufferProvider.getSizeClass(100*100*4), stats.pooledBytes);
+        Assert.assertEquals(1, provider.evict(0));
+        Assert.assertEquals(0, provider.getStats().pooledBytes);
+    }
+
+    @Test
+    public void test03MemoryCap() {
+        final int sz = 64*64*4; // 16384, a size class
+        final PooledGLPixelBufferProvider provider = new PooledGLPixelBufferProvider(false, 3*sz, 2*sz);
+        final List<GLPixelBuffer> buffers = new ArrayList<GLPixelBuffer>();
+        for(int i=0; i<5; i++) {
+            buffers.add(allocate(provider, 64, 64));
+        }
+        final GLPixelBuffer large = allocate(provider, 128, 128); // not pooled
+        for(int i=0; i<buffers.size(); i++) {
+            buffers.get(i).dispose();
+        }
+        large.dispose();
+        final PooledGLPixelBufferProvider.Stats stats = provider.getStats();
+        System.err.println(stats);
+        Assert.assertEquals(3*sz, stats.pooledBytes);
+        Assert.assertEquals(2, stats.evictions);
+        Assert.assertEquals(0, stats.usedBytes);
+        Assert.assertEquals(5*sz+4*sz, stats.peakUsedBytes);
+    }
+
+    @Test
+    public void test04Concurrent() throws InterruptedException {
+        final PooledGLPixelBufferProvider provider = new PooledGLPixelBufferProvider(true, 1 << 22, 1 << 22);
+        final Thread[] threads = new Thread[4];
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        for(int t=0; t<threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for(int i=0; i<2000; i++) {
+                            final GLPixelBuffer b = allocate(provider, 16 + i % 48, 16 + i % 32);
+                            Assert.assertTrue(b.byteSize <= b.capacity());
+                            b.dispose();
+                        }
+                    } catch (final Throwable t) {
+                        synchronized( errors ) {
+                            errors.add(t);
+                        }
+                    }
+                } }, "Pool-"+t);
+            threads[t].start();
+        }
+        for(int t=0; t<threads.length; t++) {
+            threads[t].join();
+        }
+        final PooledGLPixelBufferProvider.Stats stats = provider.getStats();
+        System.err.println(stats);
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        Assert.assertEquals(threads.length*2000, stats.allocations);
+        Assert.assertEquals(0, stats.usedBytes);
+        Assert.assertTrue(stats.getHitRatio() > 0.9f);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestPooledGLPixelBufferProviderNOUI.class.getName());
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.MappedFileTileSink;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.PNGTileSink;
+import com.jogamp.opengl.util.TileSink;
+import com.jogamp.opengl.util.GLPixelBuffer.GLPixelAttributes;
+
+/**
+ * Validates {@link PNGTileSink} and {@link MappedFileTileSink} w/ concurrently delivered, unordered tiles w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTileSinkNOUI {
+    static final GLPixelAttributes RGBA = new GLPixelAttributes(GL.GL_RGBA, GL.GL_UNSIGNED_BYTE);
+    static final int imageWidth = 100, imageHeight = 70, tileSize = 32;
+
+    /** Unique RGBA value of the pixel at GL position x/y. */
+    static int pixel(final int x, final int y) {
+        return 0xff000000 | ( ( y & 0xff ) << 8 ) | ( x & 0xff );
+    }
+
+    static GLPixelBuffer createTile(final int tX, final int tY, final int tW, final int tH) {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(tW * tH * 4);
+        for(int y=0; y<tH; y++) {
+            for(int x=0; x<tW; x++) {
+                final int p = pixel(tX + x, tY + y);
+                bb.put((byte)p).put((byte)(p >>> 8)).put((byte)(p >>> 16)).put((byte)(p >>> 24));
+            }
+        }
+        bb.flip();
+        return new GLPixelBuffer(RGBA, true, tW, tH, 1, bb, true);
+    }
+
+    /** Delivers all tiles top to bottom on one thread, or unordered w/ 3 threads. */
+    static void deliver(final TileSink sink, final boolean topDown) throws InterruptedException {
+        final List<int[]> tiles = new ArrayList<int[]>();
+        for(int tY=0; tY<imageHeight; tY+=tileSize) {
+            for(int tX=0; tX<imageWidth; tX+=tileSize) {
+                tiles.add(new int[] { tX, tY, Math.min(tileSize, imageWidth - tX), Math.min(tileSize, imageHeight - tY) });
+            }
+        }
+        if( topDown ) {
+            Collections.reverse(tiles);
+        } else {
+            Collections.shuffle(tiles, new java.util.Random(1));
+        }
+        sink.beginImage(imageWidth, imageHeight, RGBA);
+        final Thread[] threads = new Thread[topDown ? 1 : 3];
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        for(int t=0; t<threads.length; t++) {
+            final int tIdx = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for(int i=tIdx; i<tiles.size(); i+=threads.length) {
+                            final int[] tile = tiles.get(i);
+                            sink.tileRendered(createTile(tile[0], tile[1], tile[2], tile[3]), tile[0], tile[1], tile[2], tile[3]);
+                        }
+                    } catch (final Throwable e) {
+                        errors.add(e);
+                    }
+                } }, "Sink-"+t);
+            threads[t].start();
+        }
+        for(int t=0; t<threads.length; t++) {
+            threads[t].join();
+        }
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        sink.endImage(true);
+    }
+
+    void testPNGImpl(final boolean topDown) throws IOException, InterruptedException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final PNGTileSink sink = new PNGTileSink(out, true);
+        deliver(sink, topDown);
+        System.err.println(sink);
+        if( topDown ) {
+            Assert.assertEquals(1, sink.getPeakBandCount());
+        }
+        final PNGPixelRect image = PNGPixelRect.read(new ByteArrayInputStream(out.toByteArray()), PixelFormat.RGBA8888, false, 0, true /* GL oriented */);
+        Assert.assertEquals(imageWidth, image.getSize().getWidth());
+        Assert.assertEquals(imageHeight, image.getSize().getHeight());
+        final ByteBuffer pixels = image.getPixels();
+        for(int y=0; y<imageHeight; y++) {
+            for(int x=0; x<imageWidth; x++) {
+                final int off = ( y * imageWidth + x ) * 4;
+                final int p = ( pixels.get(off) & 0xff ) | ( pixels.get(off+1) & 0xff ) << 8 | ( pixels.get(off+2) & 0xff ) << 16 | ( pixels.get(off+3) & 0xff ) << 24;
+                if( pixel(x, y) != p ) {
+                    Assert.fail("Pixel "+x+"/"+y+": 0x"+Integer.toHexString(p)+" != 0x"+Integer.toHexString(pixel(x, y)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test01PNGTopDown() throws IOException, InterruptedException {
+        testPNGImpl(true);
+    }
+
+    @Test
+    public void test02PNGUnordered() throws IOException, InterruptedException {
+        testPNGImpl(false);
+    }
+
+    @Test
+    public void test10MappedFile() throws IOException, InterruptedException {
+        final File file = File.createTempFile("TestTileSinkNOUI", ".raw");
+        file.deleteOnExit();
+        final MappedFileTileSink sink = new MappedFileTileSink(file, true);
+        deliver(sink, false);
+        Assert.assertEquals((long)imageWidth * imageHeight * 4, file.length());
+        final byte[] data = new byte[(int)file.length()];
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            raf.readFully(data);
+        } finally {
+            raf.close();
+        }
+        for(int y=0; y<imageHeight; y++) {
+            final int fileRow = imageHeight - 1 - y;
+            for(int x=0; x<imageWidth; x++) {
+                final int off = ( fileRow * imageWidth + x ) * 4;
+                final int p = ( data[off] & 0xff ) | ( data[off+1] & 0xff ) << 8 | ( data[off+2] & 0xff ) << 16 | ( data[off+3] & 0xff ) << 24;
+                if( pixel(x, y) != p ) {
+                    Assert.fail("Pixel "+x+"/"+y+": 0x"+Integer.toHexString(p)+" != 0x"+Integer.toHexString(pixel(x, y)));
+                }
+            }
+        }
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTileSinkNOUI.class.getName());
+    }
+}
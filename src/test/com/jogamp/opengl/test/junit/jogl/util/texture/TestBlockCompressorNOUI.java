@@ -0,0 +1,278 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.BlockCompressor;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * Validates {@link BlockCompressor} BC1, BC3 and ETC1 encoding w/o GL
+ * by decoding the blocks and comparing against the source.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestBlockCompressorNOUI {
+    static final int W = 37, H = 21; // not a multiple of 4
+
+    /** Smooth RGBA gradient w/ an alpha ramp. */
+    private static ByteBuffer newImage() {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(W*H*4);
+        for(int y=0; y<H; y++) {
+            for(int x=0; x<W; x++) {
+                bb.put((byte)(x*255/(W-1))).put((byte)(y*255/(H-1))).put((byte)((x+y)*255/(W+H-2))).put((byte)(255-x*255/(W-1)));
+            }
+        }
+        bb.rewind();
+        return bb;
+    }
+
+    private static int[] rgb565(final int c) {
+        final int r = ( c >>> 11 ) & 0x1f, g = ( c >>> 5 ) & 0x3f, b = c & 0x1f;
+        return new int[] { ( r << 3 ) | ( r >>> 2 ), ( g << 2 ) | ( g >>> 4 ), ( b << 3 ) | ( b >>> 2 ) };
+    }
+
+    /** Decodes the 4-color BC1 block at off into the 16 rgb pixel values. */
+    private static int[][] decodeBC1(final ByteBuffer bb, final int off) {
+        final int c0 = ( bb.get(off) & 0xff ) | ( bb.get(off+1) & 0xff ) << 8;
+        final int c1 = ( bb.get(off+2) & 0xff ) | ( bb.get(off+3) & 0xff ) << 8;
+        Assert.assertTrue("3-color mode used", c0 > c1 || ( c0 == c1 && 0 == bb.getInt(off+4) ));
+        final int[] p0 = rgb565(c0), p1 = rgb565(c1);
+        final int[][] pal = new int[4][3];
+        for(int c=0; c<3; c++) {
+            pal[0][c] = p0[c]; pal[1][c] = p1[c];
+            pal[2][c] = ( 2*p0[c] + p1[c] ) / 3; pal[3][c] = ( p0[c] + 2*p1[c] ) / 3;
+        }
+        final int bits = ( bb.get(off+4) & 0xff ) | ( bb.get(off+5) & 0xff ) << 8 | ( bb.get(off+6) & 0xff ) << 16 | ( bb.get(off+7) & 0xff ) << 24;
+        final int[][] px = new int[16][];
+        for(int i=0; i<16; i++) {
+            px[i] = pal[ ( bits >>> ( 2*i ) ) & 3 ];
+        }
+        return px;
+    }
+
+    private static int[] decodeBC3Alpha(final ByteBuffer bb, final int off) {
+        final int a0 = bb.get(off) & 0xff, a1 = bb.get(off+1) & 0xff;
+        final int[] pal = new int[8];
+        pal[0] = a0; pal[1] = a1;
+        for(int i=2; i<8; i++) {
+            pal[i] = a0 > a1 ? ( ( 8 - i ) * a0 + ( i - 1 ) * a1 ) / 7 : ( i < 6 ? ( ( 6 - i ) * a0 + ( i - 1 ) * a1 ) / 5 : ( 6 == i ? 0 : 255 ) );
+        }
+        long bits = 0;
+        for(int i=0; i<6; i++) {
+            bits |= (long) ( bb.get(off+2+i) & 0xff ) << ( 8 * i );
+        }
+        final int[] a = new int[16];
+        for(int i=0; i<16; i++) {
+            a[i] = pal[ (int) ( bits >>> ( 3*i ) ) & 7 ];
+        }
+        return a;
+    }
+
+    private static final int[][] ETC1_MODIFIERS = {
+        { 2, 8 }, { 5, 17 }, { 9, 29 }, { 13, 42 }, { 18, 60 }, { 24, 80 }, { 33, 106 }, { 47, 183 } };
+
+    private static int clamp(final int v) { return Math.max(0, Math.min(255, v)); }
+
+    /** Decodes the ETC1 block at off into the 16 rgb pixel values, row major. */
+    private static int[][] decodeETC1(final ByteBuffer bb, final int off) {
+        long w = 0;
+        for(int i=0; i<8; i++) {
+            w = ( w << 8 ) | ( bb.get(off+i) & 0xff );
+        }
+        final boolean diff = 0 != ( ( w >>> 33 ) & 1 ), flip = 0 != ( ( w >>> 32 ) & 1 );
+        final int[][] base = new int[2][3];
+        for(int c=0; c<3; c++) {
+            final int shift = 56 - 8 * c;
+            if( diff ) {
+                final int b0 = (int) ( w >>> ( shift + 3 ) ) & 0x1f;
+                int d = (int) ( w >>> shift ) & 7;
+                if( d >= 4 ) { d -= 8; }
+                final int b1 = b0 + d;
+                base[0][c] = ( b0 << 3 ) | ( b0 >>> 2 );
+                base[1][c] = ( b1 << 3 ) | ( b1 >>> 2 );
+            } else {
+                final int b0 = (int) ( w >>> ( shift + 4 ) ) & 0xf, b1 = (int) ( w >>> shift ) & 0xf;
+                base[0][c] = ( b0 << 4 ) | b0;
+                base[1][c] = ( b1 << 4 ) | b1;
+            }
+        }
+        final int[] tbl = { (int) ( w >>> 37 ) & 7, (int) ( w >>> 34 ) & 7 };
+        final int[][] px = new int[16][3];
+        for(int x=0; x<4; x++) {
+            for(int y=0; y<4; y++) {
+                final int p = x*4 + y;
+                final int s = flip ? ( y < 2 ? 0 : 1 ) : ( x < 2 ? 0 : 1 );
+                final int idx = (int) ( ( ( w >>> ( 16 + p ) ) & 1 ) << 1 | ( ( w >>> p ) & 1 ) );
+                final int mod = ETC1_MODIFIERS[tbl[s]][idx & 1] * ( 0 == ( idx & 2 ) ? 1 : -1 );
+                for(int c=0; c<3; c++) {
+                    px[y*4+x][c] = clamp(base[s][c] + mod);
+                }
+            }
+        }
+        return px;
+    }
+
+    /** Returns the mean squared error per color channel of the decoded image. */
+    private static double colorMSE(final BlockCompressor.Format fmt, final ByteBuffer src, final ByteBuffer blocks) {
+        final int bx = ( W + 3 ) / 4;
+        double sum = 0;
+        for(int y=0; y<H; y++) {
+            for(int x=0; x<W; x++) {
+                final int off = ( ( y / 4 ) * bx + x / 4 ) * fmt.blockSize;
+                final int[][] px;
+                switch(fmt) {
+                    case BC3:  px = decodeBC1(blocks, off + 8); break;
+                    case ETC1: px = decodeETC1(blocks, off); break;
+                    default:   px = decodeBC1(blocks, off); break;
+                }
+                final int[] p = px[ ( y % 4 ) * 4 + x % 4 ];
+                for(int c=0; c<3; c++) {
+                    final int d = p[c] - ( src.get( ( y * W + x ) * 4 + c ) & 0xff );
+                    sum += d*d;
+                }
+            }
+        }
+        return sum / ( W * H * 3 );
+    }
+
+    private void testColorImpl(final BlockCompressor.Format fmt, final double maxMSE) {
+        final ByteBuffer src = newImage();
+        final BlockCompressor bc = new BlockCompressor(fmt);
+        double prevMSE = Double.MAX_VALUE;
+        for(final BlockCompressor.Quality q : new BlockCompressor.Quality[] { BlockCompressor.Quality.FAST, BlockCompressor.Quality.HIGH }) {
+            bc.setQuality(q);
+            final ByteBuffer blocks = bc.compress(W, H, GL.GL_RGBA, src, 0);
+            Assert.assertEquals(BlockCompressor.getCompressedSize(fmt, W, H), blocks.remaining());
+            Assert.assertEquals(10*6*fmt.blockSize, blocks.remaining());
+            final double mse = colorMSE(fmt, src, blocks);
+            System.err.println(fmt+" "+q+": MSE "+mse);
+            Assert.assertTrue(fmt+" "+q+" MSE "+mse, mse < maxMSE);
+            if( BlockCompressor.Quality.HIGH == q ) {
+                Assert.assertTrue(fmt+" HIGH worse than FAST", mse <= prevMSE * 1.05);
+            }
+            prevMSE = mse;
+        }
+    }
+
+    @Test
+    public void test01BC1() {
+        testColorImpl(BlockCompressor.Format.BC1, 45.0);
+    }
+
+    @Test
+    public void test02BC3() {
+        testColorImpl(BlockCompressor.Format.BC3, 45.0);
+        final ByteBuffer src = newImage();
+        final ByteBuffer blocks = new BlockCompressor(BlockCompressor.Format.BC3).compress(W, H, GL.GL_RGBA, src, 0);
+        final int bx = ( W + 3 ) / 4;
+        for(int y=0; y<H; y++) {
+            for(int x=0; x<W; x++) {
+                final int[] a = decodeBC3Alpha(blocks, ( ( y / 4 ) * bx + x / 4 ) * 16);
+                final int exp = src.get( ( y * W + x ) * 4 + 3 ) & 0xff;
+                Assert.assertTrue("alpha "+x+"/"+y, Math.abs(a[ ( y % 4 ) * 4 + x % 4 ] - exp) <= 2);
+            }
+        }
+    }
+
+    @Test
+    public void test03ETC1() {
+        testColorImpl(BlockCompressor.Format.ETC1, 30.0);
+    }
+
+    @Test
+    public void test04ConcurrentEqualsSequential() {
+        final ByteBuffer src = newImage();
+        final ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            for(final BlockCompressor.Format fmt : BlockCompressor.Format.values()) {
+                final BlockCompressor bc = new BlockCompressor(fmt);
+                final ByteBuffer seq = bc.compress(W, H, GL.GL_RGBA, src, 0);
+                bc.setExecutor(exec);
+                final ByteBuffer par = bc.compress(W, H, GL.GL_RGBA, src, 0);
+                Assert.assertEquals(fmt.toString(), seq, par);
+            }
+        } finally {
+            exec.shutdown();
+        }
+    }
+
+    @Test
+    public void test05MipmapsToDDS() {
+        final TextureData data = new TextureData(null, GL.GL_RGBA, W, H, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                 false, false, false, newImage(), null);
+        final BlockCompressor bc = new BlockCompressor(BlockCompressor.Format.BC3);
+        final TextureData res = bc.compress(data, true);
+        Assert.assertTrue(res.isDataCompressed());
+        Assert.assertEquals(GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT, res.getInternalFormat());
+        Assert.assertEquals(6, res.getMipmapData().length); // 37x21 .. 1x1
+        final DDSImage image = BlockCompressor.createDDSImage(res);
+        Assert.assertEquals(W, image.getWidth());
+        Assert.assertEquals(H, image.getHeight());
+        Assert.assertEquals(DDSImage.D3DFMT_DXT5, image.getCompressionFormat());
+        Assert.assertEquals(6, image.getNumMipMaps());
+        for(int i=0; i<6; i++) {
+            Assert.assertEquals(res.getMipmapData()[i], image.getMipMap(i).getData());
+        }
+    }
+
+    @Test
+    public void test06TwoColorsBC1() {
+        // checker board of two colors lies on a line in color space, reproducible by HIGH quality up to RGB565 quantization
+        final ByteBuffer src = Buffers.newDirectByteBuffer(W*H*4);
+        for(int y=0; y<H; y++) {
+            for(int x=0; x<W; x++) {
+                if( 0 == ( ( x + y ) & 1 ) ) {
+                    src.put((byte)200).put((byte)40).put((byte)90).put((byte)255);
+                } else {
+                    src.put((byte)30).put((byte)180).put((byte)250).put((byte)255);
+                }
+            }
+        }
+        src.rewind();
+        final BlockCompressor bc = new BlockCompressor(BlockCompressor.Format.BC1);
+        bc.setQuality(BlockCompressor.Quality.HIGH);
+        final double mse = colorMSE(BlockCompressor.Format.BC1, src, bc.compress(W, H, GL.GL_RGBA, src, 0));
+        Assert.assertTrue("MSE "+mse, mse < 8.0);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestBlockCompressorNOUI.class.getName());
+    }
+}
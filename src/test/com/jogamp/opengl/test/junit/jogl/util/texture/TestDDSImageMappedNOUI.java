@@ -0,0 +1,109 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+
+/**
+ * Validates that DDS files loaded via {@link TextureIO#newTextureData(com.jogamp.opengl.GLProfile, File, boolean, String)}
+ * reference the memory mapped file, i.e. all mipmap levels are direct slices w/o heap copies.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestDDSImageMappedNOUI {
+
+    private File initFile(final String filename) throws URISyntaxException {
+        final URLConnection connection = IOUtil.getResource(filename, getClass().getClassLoader(), getClass());
+        Assert.assertNotNull(connection);
+        final URL url = connection.getURL();
+        final File file = new File(url.toURI());
+        Assert.assertTrue(file.exists());
+        return file;
+    }
+
+    private void testImpl(final String filename, final int expInternalFormat) throws IOException, URISyntaxException {
+        final File file = initFile(filename);
+        final DDSImage image = DDSImage.read(file);
+        final int levels = image.getNumMipMaps();
+        Assert.assertTrue(levels > 1);
+
+        final TextureData data = TextureIO.newTextureData(null, file, true, null);
+        Assert.assertNotNull(data);
+        Assert.assertEquals(64, data.getWidth());
+        Assert.assertEquals(32, data.getHeight());
+        if( 0 != expInternalFormat ) {
+            Assert.assertEquals(expInternalFormat, data.getInternalFormat());
+        }
+        final Buffer[] mipmapData = data.getMipmapData();
+        Assert.assertNotNull(mipmapData);
+        Assert.assertEquals(levels, mipmapData.length);
+        for(int i=0; i<levels; i++) {
+            Assert.assertTrue("level "+i+" not direct", mipmapData[i].isDirect());
+            final ByteBuffer exp = image.getMipMap(i).getData();
+            Assert.assertEquals(exp, mipmapData[i]);
+        }
+        data.flush();
+        image.close();
+    }
+
+    @Test
+    public void test01DXT1() throws IOException, URISyntaxException {
+        testImpl("test-64x32_DXT1.dds", GL.GL_COMPRESSED_RGB_S3TC_DXT1_EXT);
+    }
+
+    @Test
+    public void test02DXT5() throws IOException, URISyntaxException {
+        testImpl("test-64x32_DXT5.dds", GL.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT);
+    }
+
+    @Test
+    public void test03Uncompressed() throws IOException, URISyntaxException {
+        testImpl("test-64x32_uncompressed.dds", 0);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestDDSImageMappedNOUI.class.getName());
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.GLCapabilities;
+import com.jogamp.opengl.GLDrawableFactory;
+import com.jogamp.opengl.GLEventListener;
+import com.jogamp.opengl.GLOffscreenAutoDrawable;
+import com.jogamp.opengl.GLProfile;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.FixMethodOrder;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.opengl.test.junit.util.MiscUtils;
+import com.jogamp.opengl.test.junit.util.UITestCase;
+import com.jogamp.opengl.util.GLPixelBuffer;
+import com.jogamp.opengl.util.GLReadBufferUtil;
+
+/**
+ * Validates {@link GLReadBufferUtil}'s async read mode:
+ * all frames are delivered in order and hold the frame's clear color.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestGLReadBufferUtilAsyncNEWT extends UITestCase {
+  static int frameCount = 30;
+
+  public static void main(final String[] args) {
+     for(int i=0; i<args.length; i++) {
+        if(args[i].equals("-frames")) {
+            frameCount = MiscUtils.atoi(args[++i], frameCount);
+        }
+     }
+     System.out.println("frameCount: "+frameCount);
+     final String tstname = TestGLReadBufferUtilAsyncNEWT.class.getName();
+     org.junit.runner.JUnitCore.main(tstname);
+  }
+
+  @Test
+  public void test01_GLThreadDelivery() throws InterruptedException {
+    testImpl(null);
+  }
+
+  @Test
+  public void test02_ExecutorDelivery() throws InterruptedException {
+    testImpl(Executors.newSingleThreadExecutor());
+  }
+
+  /** Red channel of frame <code>i</code>, cycling through 8 distinct values. */
+  private static int redOf(final long i) { return (int) ( i % 8 ) * 32; }
+
+  private void testImpl(final ExecutorService executor) throws InterruptedException {
+    final GLProfile glp = GLProfile.getGL2ES2();
+    final GLCapabilities caps = new GLCapabilities(glp);
+    caps.setOnscreen(false);
+    caps.setFBO(true);
+    final List<Long> frames = new ArrayList<Long>();
+    final List<String> errors = new ArrayList<String>();
+
+    final GLReadBufferUtil screenshot = new GLReadBufferUtil(false, false);
+    screenshot.setAsyncReadMode(GLReadBufferUtil.DEFAULT_ASYNC_SLOT_COUNT, new GLReadBufferUtil.AsyncReadListener() {
+        @Override
+        public void pixelsRead(final GLPixelBuffer pixels, final int width, final int height, final boolean mustFlipVertically, final long frameNumber) {
+            final ByteBuffer bb = (ByteBuffer) pixels.buffer;
+            final int red = bb.get(0) & 0xff;
+            synchronized( frames ) {
+                frames.add(Long.valueOf(frameNumber));
+                if( redOf(frameNumber) != red ) {
+                    errors.add("frame "+frameNumber+": red "+red+" != "+redOf(frameNumber));
+                }
+                if( 64 != width || 64 != height ) {
+                    errors.add("frame "+frameNumber+": size "+width+"x"+height);
+                }
+            }
+        } }, executor);
+
+    final GLOffscreenAutoDrawable glad = GLDrawableFactory.getFactory(glp).createOffscreenAutoDrawable(null, caps, null, 64, 64);
+    glad.addGLEventListener(new GLEventListener() {
+        long displayCount = 0;
+        public void init(final GLAutoDrawable drawable) {
+            System.err.println("Async supported: "+GLReadBufferUtil.isAsyncReadSupported(drawable.getGL()));
+        }
+        public void dispose(final GLAutoDrawable drawable) {
+            screenshot.flushAsync(drawable.getGL());
+            screenshot.dispose(drawable.getGL());
+        }
+        public void display(final GLAutoDrawable drawable) {
+            final GL gl = drawable.getGL();
+            gl.glClearColor(redOf(displayCount++)/255f, 0f, 0f, 1f);
+            gl.glClear(GL.GL_COLOR_BUFFER_BIT);
+            Assert.assertTrue(screenshot.readPixelsAsync(gl, false));
+        }
+        public void reshape(final GLAutoDrawable drawable, final int x, final int y, final int width, final int height) { }
+    });
+    glad.display(); // init
+    for(int i=1; i<frameCount; i++) {
+        glad.display();
+    }
+    glad.destroy();
+    if( null != executor ) {
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+    synchronized( frames ) {
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        System.err.println("Delivered "+frames.size()+"/"+frameCount+", dropped "+screenshot.getAsyncDroppedFrames());
+        Assert.assertEquals(frameCount, frames.size() + screenshot.getAsyncDroppedFrames());
+        for(int i=1; i<frames.size(); i++) {
+            Assert.assertTrue("Out of order: "+frames, frames.get(i-1).longValue() < frames.get(i).longValue());
+        }
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.util.IOUtil;
+import com.jogamp.nativewindow.util.PixelFormat;
+import com.jogamp.opengl.util.PNGPixelRect;
+import com.jogamp.opengl.util.texture.spi.DDSImage;
+import com.jogamp.opengl.util.texture.spi.JPEGImage;
+
+/**
+ * Validates the header-only image probing of the built-in image readers
+ * against the fully decoded images.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestImageHeaderNOUI {
+
+    private InputStream open(final String filename) throws IOException {
+        final URLConnection urlConn = IOUtil.getResource(filename, getClass().getClassLoader(), getClass());
+        Assert.assertNotNull(urlConn);
+        return urlConn.getInputStream();
+    }
+
+    private void testDDSImpl(final String filename) throws IOException {
+        final DDSImage header, image;
+        InputStream in = open(filename);
+        try {
+            header = DDSImage.readHeader(in);
+        } finally {
+            in.close();
+        }
+        in = open(filename);
+        try {
+            image = DDSImage.read(java.nio.ByteBuffer.wrap(IOUtil.copyStream2ByteArray(in)));
+        } finally {
+            in.close();
+        }
+        Assert.assertEquals(image.getWidth(), header.getWidth());
+        Assert.assertEquals(image.getHeight(), header.getHeight());
+        Assert.assertEquals(image.getPixelFormat(), header.getPixelFormat());
+        Assert.assertEquals(image.isCompressed(), header.isCompressed());
+        Assert.assertEquals(image.getCompressionFormat(), header.getCompressionFormat());
+        Assert.assertEquals(image.getNumMipMaps(), header.getNumMipMaps());
+    }
+
+    private void testJPEGImpl(final String filename) throws IOException {
+        final JPEGImage header, image;
+        InputStream in = open(filename);
+        try {
+            header = JPEGImage.readHeader(in);
+        } finally {
+            in.close();
+        }
+        Assert.assertNull(header.getData());
+        in = open(filename);
+        try {
+            image = JPEGImage.read(in);
+        } finally {
+            in.close();
+        }
+        Assert.assertEquals(image.getWidth(), header.getWidth());
+        Assert.assertEquals(image.getHeight(), header.getHeight());
+        Assert.assertEquals(image.getGLFormat(), header.getGLFormat());
+        Assert.assertEquals(image.getBytesPerPixel(), header.getBytesPerPixel());
+    }
+
+    private void testPNGImpl(final String filename) throws IOException {
+        final int[] size = new int[2];
+        final PixelFormat pixelformat;
+        final PNGPixelRect image;
+        InputStream in = open(filename);
+        try {
+            pixelformat = PNGPixelRect.readHeader(in, size);
+        } finally {
+            in.close();
+        }
+        in = open(filename);
+        try {
+            image = PNGPixelRect.read(in, null, false /* directBuffer */, 0 /* destMinStrideInBytes */, true /* destIsGLOriented */);
+        } finally {
+            in.close();
+        }
+        Assert.assertEquals(image.getSize().getWidth(), size[0]);
+        Assert.assertEquals(image.getSize().getHeight(), size[1]);
+        Assert.assertEquals(image.getPixelformat(), pixelformat);
+    }
+
+    @Test
+    public void test01DDS() throws IOException {
+        testDDSImpl("test-64x32_DXT1.dds");
+        testDDSImpl("test-64x32_DXT5.dds");
+        testDDSImpl("test-64x32_uncompressed.dds");
+    }
+
+    @Test
+    public void test02JPEG() throws IOException {
+        testJPEGImpl("j1-baseline.jpg");
+        testJPEGImpl("j2-progressive.jpg");
+        testJPEGImpl("j3-baseline_gray.jpg");
+        testJPEGImpl("bug745_qttdef_post_frame.jpg");
+    }
+
+    @Test
+    public void test03PNG() throws IOException {
+        testPNGImpl("test-ntscN_3-01-160x90.png");
+        testPNGImpl("test-ntscN_4-01-160x90.png");
+        testPNGImpl("test-ntscP_3-01-160x90.png");
+        testPNGImpl("test-ntscP_4-01-160x90.png");
+        testPNGImpl("grayscale_texture.png");
+        testPNGImpl("cross-grey-alpha-16x16.png");
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestImageHeaderNOUI.class.getName());
+    }
+}
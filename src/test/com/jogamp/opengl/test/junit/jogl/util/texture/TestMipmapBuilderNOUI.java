@@ -0,0 +1,170 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.jogamp.opengl.GL;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.MipmapBuilder;
+
+/**
+ * Validates {@link MipmapBuilder} level layout, filtering and concurrency w/o GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestMipmapBuilderNOUI {
+
+    private static ByteBuffer newBytes(final int... values) {
+        final ByteBuffer bb = Buffers.newDirectByteBuffer(values.length);
+        for(int i=0; i<values.length; i++) {
+            bb.put(i, (byte)values[i]);
+        }
+        return bb;
+    }
+
+    @Test
+    public void test00LevelCount() {
+        Assert.assertEquals(1, MipmapBuilder.getLevelCount(1, 1));
+        Assert.assertEquals(3, MipmapBuilder.getLevelCount(4, 4));
+        Assert.assertEquals(4, MipmapBuilder.getLevelCount(8, 2));
+        Assert.assertEquals(9, MipmapBuilder.getLevelCount(300, 17));
+    }
+
+    @Test
+    public void test01BoxRGBA() {
+        final ByteBuffer src = Buffers.newDirectByteBuffer(4*4*4);
+        for(int i=0; i<4*4; i++) {
+            final int v = ( i % 2 ) * 100; // alternating columns 0, 100
+            src.put((byte)v).put((byte)(v+10)).put((byte)(v+20)).put((byte)255);
+        }
+        src.rewind();
+        final MipmapBuilder mb = new MipmapBuilder();
+        final ByteBuffer[] levels = mb.build(4, 4, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, src, 0, 4, 4);
+        Assert.assertEquals(3, levels.length);
+        Assert.assertEquals(4*4*4, levels[0].remaining());
+        Assert.assertEquals(2*2*4, levels[1].remaining());
+        Assert.assertEquals(1*1*4, levels[2].remaining());
+        for(int i=0; i<src.capacity(); i++) {
+            Assert.assertEquals(src.get(i), levels[0].get(i));
+        }
+        for(int p=0; p<4; p++) {
+            Assert.assertEquals(50, levels[1].get(p*4+0) & 0xff);
+            Assert.assertEquals(60, levels[1].get(p*4+1) & 0xff);
+            Assert.assertEquals(70, levels[1].get(p*4+2) & 0xff);
+            Assert.assertEquals(255, levels[1].get(p*4+3) & 0xff);
+        }
+        Assert.assertEquals(50, levels[2].get(0) & 0xff);
+    }
+
+    @Test
+    public void test02SRGB() {
+        final ByteBuffer src = newBytes(0, 255);
+        final MipmapBuilder mb = new MipmapBuilder();
+        final ByteBuffer[] linear = mb.build(2, 1, GL.GL_LUMINANCE, GL.GL_UNSIGNED_BYTE, src, 0, 2, 1);
+        Assert.assertEquals(2, linear.length);
+        Assert.assertEquals(128, linear[1].get(0) & 0xff);
+
+        mb.setSRGB(true);
+        final ByteBuffer[] srgb = mb.build(2, 1, GL.GL_LUMINANCE, GL.GL_UNSIGNED_BYTE, src, 0, 2, 1);
+        Assert.assertEquals(188, srgb[1].get(0) & 0xff); // sRGB encoded linear 0.5
+
+        // alpha stays linear
+        final ByteBuffer[] srgba = mb.build(2, 1, GL.GL_LUMINANCE_ALPHA, GL.GL_UNSIGNED_BYTE, newBytes(0, 0, 255, 255), 0, 2, 1);
+        Assert.assertEquals(188, srgba[1].get(0) & 0xff);
+        Assert.assertEquals(128, srgba[1].get(1) & 0xff);
+    }
+
+    @Test
+    public void test03RowStrideAndResize() {
+        // 3x3 RGB w/ 4 byte row alignment -> 12 byte rows
+        final int stride = 12;
+        final ByteBuffer src = Buffers.newDirectByteBuffer(stride*3);
+        for(int y=0; y<3; y++) {
+            for(int x=0; x<9; x++) {
+                src.put(y*stride+x, (byte)200);
+            }
+        }
+        final MipmapBuilder mb = new MipmapBuilder();
+        final ByteBuffer[] levels = mb.build(3, 3, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, src, stride, 4, 4);
+        Assert.assertEquals(3, levels.length);
+        Assert.assertEquals(4*4*3, levels[0].remaining());
+        for(int l=0; l<levels.length; l++) {
+            for(int i=0; i<levels[l].remaining(); i++) {
+                Assert.assertEquals("level "+l+", byte "+i, 200, levels[l].get(i) & 0xff);
+            }
+        }
+    }
+
+    @Test
+    public void test04FloatKaiserConcurrent() {
+        final int w = 256, h = 128, comps = 4;
+        final FloatBuffer src = Buffers.newDirectFloatBuffer(w*h*comps);
+        final Random rnd = new Random(42);
+        for(int i=0; i<src.capacity(); i++) {
+            src.put(i, rnd.nextFloat());
+        }
+        final MipmapBuilder mb = new MipmapBuilder();
+        mb.setFilter(MipmapBuilder.Filter.KAISER);
+        final ByteBuffer[] seq = mb.build(w, h, GL.GL_RGBA, GL.GL_FLOAT, src, 0, w, h);
+
+        final ExecutorService exec = Executors.newFixedThreadPool(4);
+        try {
+            mb.setExecutor(exec);
+            final ByteBuffer[] par = mb.build(w, h, GL.GL_RGBA, GL.GL_FLOAT, src, 0, w, h);
+            Assert.assertEquals(MipmapBuilder.getLevelCount(w, h), par.length);
+            Assert.assertEquals(seq.length, par.length);
+            for(int l=0; l<seq.length; l++) {
+                Assert.assertEquals(seq[l], par[l]);
+            }
+        } finally {
+            exec.shutdown();
+        }
+        // level 0 is an exact copy
+        final FloatBuffer l0 = seq[0].asFloatBuffer();
+        for(int i=0; i<src.capacity(); i++) {
+            Assert.assertEquals(src.get(i), l0.get(i), 0f);
+        }
+        // 1x1 level of uniform noise approximates the mean
+        final FloatBuffer last = seq[seq.length-1].asFloatBuffer();
+        Assert.assertEquals(0.5f, last.get(0), 0.05f);
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestMipmapBuilderNOUI.class.getName());
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2015 JogAmp Community. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ *    1. Redistributions of source code must retain the above copyright notice, this list of
+ *       conditions and the following disclaimer.
+ *
+ *    2. Redistributions in binary form must reproduce the above copyright notice, this list
+ *       of conditions and the following disclaimer in the documentation and/or other materials
+ *       provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY JogAmp Community ``AS IS'' AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL JogAmp Community OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * The views and conclusions contained in the software and documentation are those of the
+ * authors and should not be interpreted as representing official policies, either expressed
+ * or implied, of JogAmp Community.
+ */
+package com.jogamp.opengl.test.junit.jogl.util.texture;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2ES3;
+import com.jogamp.opengl.GLBufferStorage;
+import com.jogamp.opengl.GLException;
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureUploadRing;
+
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+/**
+ * Validates {@link TextureUploadRing} slot rotation, mapped slot detection and unmap failure,
+ * as well as {@link Texture}'s upload from the ring's PBO, using a mock GL.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TestTextureUploadRingNOUI {
+    /** Mock GL w/ PBO support, recording buffer binding and texture upload calls. */
+    static class MockGL implements InvocationHandler {
+        final List<String> calls = new ArrayList<String>();
+        final GL2ES3 gl = (GL2ES3) Proxy.newProxyInstance(GL.class.getClassLoader(), new Class<?>[] { GL2ES3.class }, this);
+        ByteBuffer lastMapped;
+        boolean unmapResult = true;
+        int nextName = 1;
+
+        @Override
+        public Object invoke(final Object proxy, final Method m, final Object[] args) {
+            final String n = m.getName();
+            if( n.equals("isGL2ES3") || n.equals("isFunctionAvailable") ) {
+                return Boolean.TRUE;
+            } else if( n.equals("glGenBuffers") ) {
+                ((int[])args[1])[((Integer)args[2]).intValue()] = 10 + nextName++;
+            } else if( n.equals("glBindBuffer") ) {
+                calls.add("bind "+args[1]);
+            } else if( n.equals("mapBufferRange") ) {
+                final int size = ((Long)args[2]).intValue();
+                lastMapped = Buffers.newDirectByteBuffer(size);
+                final ByteBuffer mapped = lastMapped;
+                return new GLBufferStorage(1, size, GL2ES3.GL_STREAM_DRAW, 0) { { setMappedBuffer(mapped); } };
+            } else if( n.equals("glUnmapBuffer") ) {
+                calls.add("unmap");
+                return Boolean.valueOf(unmapResult);
+            } else if( n.equals("glTexSubImage2D") ) {
+                final Object pixels = args[8];
+                calls.add("texSubImage "+( pixels instanceof Long ? "pbo "+pixels : "client" ));
+            }
+            final Class<?> rt = m.getReturnType();
+            if( boolean.class == rt ) {
+                return Boolean.FALSE;
+            } else if( int.class == rt ) {
+                return Integer.valueOf(0);
+            } else if( long.class == rt ) {
+                return Long.valueOf(0);
+            }
+            return null;
+        }
+    }
+
+    @Test
+    public void test01_SlotRotation() {
+        final MockGL mock = new MockGL();
+        final TextureUploadRing ring = new TextureUploadRing(2);
+        final IntBuffer src = Buffers.newDirectIntBuffer(new int[] { 1, 2, 3, 4 });
+        src.position(1);
+        final TextureUploadRing.Slot s0 = ring.stage(mock.gl, src);
+        final TextureUploadRing.Slot s1 = ring.stage(mock.gl, src);
+        final TextureUploadRing.Slot s2 = ring.stage(mock.gl, src);
+        Assert.assertEquals(0, s0.getIndex());
+        Assert.assertEquals(1, s1.getIndex());
+        Assert.assertSame(s0, s2);
+        Assert.assertTrue(0 != s0.getName() && 0 != s1.getName() && s0.getName() != s1.getName());
+        Assert.assertEquals(12, s2.getSize());
+        Assert.assertEquals(1, src.position());
+        Assert.assertEquals(3, ring.getStagedCount());
+        Assert.assertEquals(36, ring.getStagedBytes());
+        Assert.assertEquals(2, mock.lastMapped.getInt(0));
+        Assert.assertEquals(4, mock.lastMapped.getInt(8));
+        Assert.assertFalse(s0.isMapped());
+        Assert.assertEquals("bind 0", mock.calls.get(mock.calls.size()-1));
+    }
+
+    @Test
+    public void test02_MappedSlotDetection() {
+        final MockGL mock = new MockGL();
+        final TextureUploadRing ring = new TextureUploadRing(2);
+        final TextureUploadRing.Slot s = ring.map(mock.gl, 16);
+        Assert.assertTrue(s.isMapped());
+        Assert.assertSame(s, ring.getMappedSlot(s.getBuffer()));
+        // staging or foreign buffers are not recognized
+        Assert.assertNull(ring.getMappedSlot(s.getBuffer().duplicate()));
+        Assert.assertNull(ring.getMappedSlot(Buffers.newDirectByteBuffer(16)));
+        Assert.assertNull(ring.getMappedSlot(null));
+
+        // next slot is free, the one after is still mapped
+        final TextureUploadRing.Slot s1 = ring.map(mock.gl, 16);
+        try {
+            ring.map(mock.gl, 16);
+            Assert.fail("Mapped slot remapped");
+        } catch (final GLException e) { }
+        ring.unmap(mock.gl, s);
+        ring.unmap(mock.gl, s1);
+        Assert.assertNull(ring.getMappedSlot(mock.lastMapped));
+        try {
+            ring.unmap(mock.gl, s);
+            Assert.fail("Unmapped slot unmapped");
+        } catch (final GLException e) { }
+    }
+
+    @Test
+    public void test03_UnmapFailure() {
+        final MockGL mock = new MockGL();
+        final TextureUploadRing ring = new TextureUploadRing(1);
+        final TextureUploadRing.Slot s = ring.map(mock.gl, 16);
+        mock.unmapResult = false;
+        try {
+            ring.unmap(mock.gl, s);
+            Assert.fail("Corrupted PBO not reported");
+        } catch (final GLException e) { }
+        Assert.assertFalse(s.isMapped());
+        Assert.assertEquals("bind 0", mock.calls.get(mock.calls.size()-1));
+        // the slot is usable again
+        mock.unmapResult = true;
+        Assert.assertSame(s, ring.map(mock.gl, 16));
+    }
+
+    @Test
+    public void test04_TextureUploadFromPBO() {
+        final MockGL mock = new MockGL();
+        final TextureUploadRing ring = new TextureUploadRing(2);
+        final Texture tex = new Texture(1, GL.GL_TEXTURE_2D, 4, 4, 4, 4, false);
+
+        // without ring: client memory
+        final ByteBuffer pixels = Buffers.newDirectByteBuffer(4*4*4);
+        final TextureData data = new TextureData(null, GL.GL_RGBA, 4, 4, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE,
+                                                 false, false, false, pixels, null);
+        tex.updateSubImage(mock.gl, data, 0, 0, 0);
+        Assert.assertTrue(mock.calls.contains("texSubImage client"));
+
+        // staged client buffer
+        tex.setUploadRing(ring);
+        mock.calls.clear();
+        tex.updateSubImage(mock.gl, data, 0, 0, 0);
+        Assert.assertEquals(1, ring.getStagedCount());
+        Assert.assertTrue(mock.calls.toString(), mock.calls.contains("texSubImage pbo 0"));
+        Assert.assertFalse(mock.calls.contains("texSubImage client"));
+        Assert.assertEquals("bind 0", mock.calls.get(mock.calls.size()-1));
+
+        // user mapped slot, unmapped by texture w/o staging copy, offset by position
+        final TextureUploadRing.Slot s = ring.map(mock.gl, 4*4*4 + 8);
+        final ByteBuffer mapped = s.getBuffer();
+        mapped.position(8);
+        data.setBuffer(mapped);
+        mock.calls.clear();
+        tex.updateSubImage(mock.gl, data, 0, 0, 0);
+        Assert.assertEquals(2, ring.getStagedCount());
+        Assert.assertFalse(s.isMapped());
+        Assert.assertTrue(mock.calls.toString(), mock.calls.contains("texSubImage pbo 8"));
+        Assert.assertTrue(mock.calls.contains("bind "+s.getName()));
+        Assert.assertTrue(mock.calls.contains("unmap"));
+    }
+
+    public static void main(final String args[]) {
+        org.junit.runner.JUnitCore.main(TestTextureUploadRingNOUI.class.getName());
+    }
+}